@@ -28,6 +28,13 @@ public interface RuntimePluginService {
 
     Collection<String> listPluginsContent();
 
+    /**
+     * @param bundle <tt>frameworks</tt> or <tt>plugins</tt>.
+     * @return the version of all the scripts of the bundle, served as a single script at
+     * <tt>runtime-plugins/{bundle}.js?v={version}</tt>. Null if the bundle can't be served.
+     */
+    String getBundleVersion(final String bundle);
+
     String getTemplateContent(final String url);
 
     String getRuntimePluginTemplateContent(String url);
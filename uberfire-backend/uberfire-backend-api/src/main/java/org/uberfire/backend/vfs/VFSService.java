@@ -16,6 +16,7 @@
 
 package org.uberfire.backend.vfs;
 
+import java.util.List;
 import java.util.Map;
 
 import org.jboss.errai.bus.server.annotations.Remote;
@@ -64,6 +65,14 @@ public interface VFSService {
     Map<String, Object> readAttributes(final Path path)
             throws UnsupportedOperationException, IllegalArgumentException, IOException;
 
+    /**
+     * Reads the attributes of several paths in a single call. The paths of a versioned file system are all read
+     * from the heads its branches had when the call started, whatever is committed meanwhile.
+     * @return the attributes in the order of the paths, null for the paths that don't exist.
+     */
+    List<Map<String, Object>> readAttributes(final List<Path> paths)
+            throws UnsupportedOperationException, IllegalArgumentException, IOException;
+
     void setAttributes(final Path path,
                        final Map<String, Object> attrs)
             throws IllegalArgumentException, FileSystemAlreadyExistsException, ProviderNotFoundException;
@@ -102,4 +111,10 @@ public interface VFSService {
     boolean isDirectory(final String uri);
 
     boolean isDirectory(final Path path);
+
+    /**
+     * Checks the existence of several paths in a single call, one path at a time.
+     * @return the results in the order of the paths.
+     */
+    List<Boolean> exists(final List<Path> paths);
 }
@@ -17,6 +17,7 @@
 package org.uberfire.backend.server;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -108,27 +109,17 @@ public class VFSServicesServerImpl implements VFSService {
 
     @Override
     public Map<String, Object> readAttributes(final Path path) throws UnsupportedOperationException, IllegalArgumentException, IOException {
+        return convert(ioService.readAttributes(Paths.convert(path)));
+    }
 
-        final Map<String, Object> attributes = new HashMap<String, Object>(ioService.readAttributes(Paths.convert(path)));
-        final Object _lastModifiedTime = attributes.get("lastModifiedTime");
-        if (_lastModifiedTime != null) {
-            attributes.put("lastModifiedTime",
-                           new Date(((FileTime) _lastModifiedTime).toMillis()));
-        }
-
-        final Object _lastAccessTime = attributes.get("lastAccessTime");
-        if (_lastAccessTime != null) {
-            attributes.put("lastAccessTime",
-                           new Date(((FileTime) _lastAccessTime).toMillis()));
-        }
-
-        final Object _creationTime = attributes.get("creationTime");
-        if (_creationTime != null) {
-            attributes.put("creationTime",
-                           new Date(((FileTime) _creationTime).toMillis()));
+    @Override
+    public List<Map<String, Object>> readAttributes(final List<Path> paths) throws UnsupportedOperationException, IllegalArgumentException, IOException {
+        final List<Map<String, Object>> attributes = ioService.readAttributes(convert(paths));
+        final List<Map<String, Object>> result = new ArrayList<Map<String, Object>>(attributes.size());
+        for (final Map<String, Object> _attributes : attributes) {
+            result.add(_attributes == null ? null : convert(_attributes));
         }
-
-        return attributes;
+        return result;
     }
 
     @Override
@@ -203,6 +194,42 @@ public class VFSServicesServerImpl implements VFSService {
         return Files.isDirectory(Paths.convert(path));
     }
 
+    @Override
+    public List<Boolean> exists(final List<Path> paths) {
+        return new ArrayList<Boolean>(ioService.exists(convert(paths)));
+    }
+
+    private List<org.uberfire.java.nio.file.Path> convert(final List<Path> paths) {
+        final List<org.uberfire.java.nio.file.Path> result = new ArrayList<org.uberfire.java.nio.file.Path>(paths.size());
+        for (final Path path : paths) {
+            result.add(Paths.convert(path));
+        }
+        return result;
+    }
+
+    private Map<String, Object> convert(final Map<String, Object> _attributes) {
+        final Map<String, Object> attributes = new HashMap<String, Object>(_attributes);
+        final Object _lastModifiedTime = attributes.get("lastModifiedTime");
+        if (_lastModifiedTime != null) {
+            attributes.put("lastModifiedTime",
+                           new Date(((FileTime) _lastModifiedTime).toMillis()));
+        }
+
+        final Object _lastAccessTime = attributes.get("lastAccessTime");
+        if (_lastAccessTime != null) {
+            attributes.put("lastAccessTime",
+                           new Date(((FileTime) _lastAccessTime).toMillis()));
+        }
+
+        final Object _creationTime = attributes.get("creationTime");
+        if (_creationTime != null) {
+            attributes.put("creationTime",
+                           new Date(((FileTime) _creationTime).toMillis()));
+        }
+
+        return attributes;
+    }
+
     private DirectoryStream<Path> newDirectoryStream(final Iterator<org.uberfire.java.nio.file.Path> iterator) {
         final List<Path> content = new LinkedList<Path>();
         while (iterator.hasNext()) {
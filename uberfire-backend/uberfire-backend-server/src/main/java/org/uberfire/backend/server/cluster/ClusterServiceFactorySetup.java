@@ -29,6 +29,8 @@ public final class ClusterServiceFactorySetup {
                                                   null);
         final String resourceName = System.getProperty("org.uberfire.cluster.vfs.lock",
                                                        null);
+        final int partitions = Integer.parseInt(System.getProperty("org.uberfire.cluster.vfs.lock.partitions",
+                                                                   "1"));
         final boolean autostart = Boolean.parseBoolean(System.getProperty("org.uberfire.cluster.autostart",
                                                                           "true"));
 
@@ -40,6 +42,7 @@ public final class ClusterServiceFactorySetup {
                                                    zkAddress,
                                                    localId,
                                                    resourceName,
+                                                   partitions,
                                                    autostart);
     }
 }
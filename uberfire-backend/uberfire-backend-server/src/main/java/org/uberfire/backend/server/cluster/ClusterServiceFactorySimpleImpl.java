@@ -30,6 +30,7 @@ public class ClusterServiceFactorySimpleImpl implements ClusterServiceFactory {
     private final String zkAddress;
     private final String localId;
     private final String resourceName;
+    private final int partitions;
     private final boolean autostart;
     private ClusterService clusterService;
 
@@ -38,10 +39,25 @@ public class ClusterServiceFactorySimpleImpl implements ClusterServiceFactory {
                                            final String localId,
                                            final String resourceName,
                                            final boolean autostart) {
+        this(clusterName,
+             zkAddress,
+             localId,
+             resourceName,
+             1,
+             autostart);
+    }
+
+    public ClusterServiceFactorySimpleImpl(final String clusterName,
+                                           final String zkAddress,
+                                           final String localId,
+                                           final String resourceName,
+                                           final int partitions,
+                                           final boolean autostart) {
         this.clusterName = clusterName;
         this.zkAddress = zkAddress;
         this.localId = localId;
         this.resourceName = resourceName;
+        this.partitions = partitions;
         this.autostart = autostart;
     }
 
@@ -52,6 +68,7 @@ public class ClusterServiceFactorySimpleImpl implements ClusterServiceFactory {
                                                      zkAddress,
                                                      localId,
                                                      resourceName,
+                                                     partitions,
                                                      resolver);
         } else {
             clusterService.addMessageHandlerResolver(resolver);
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.backend.server.plugins;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The contents of the runtime plugin (or framework) scripts of a directory, together with their concatenation
+ * into a single script, a version derived from its content and the same script precompressed with gzip.
+ */
+public class RuntimePluginBundle {
+
+    static final String SEPARATOR = "\n;\n";
+
+    private final List<String> contents;
+    private final byte[] content;
+    private final byte[] gzippedContent;
+    private final String version;
+
+    public RuntimePluginBundle(final List<String> contents) {
+        this.contents = Collections.unmodifiableList(new ArrayList<>(contents));
+        this.content = String.join(SEPARATOR,
+                                   contents).getBytes(StandardCharsets.UTF_8);
+        this.gzippedContent = gzip(content);
+        this.version = sha1(content);
+    }
+
+    /**
+     * @return the content of each script, in directory order.
+     */
+    public List<String> getContents() {
+        return contents;
+    }
+
+    /**
+     * @return all the scripts as a single UTF-8 encoded script.
+     */
+    public byte[] getContent() {
+        return content;
+    }
+
+    /**
+     * @return {@link #getContent()} compressed with gzip.
+     */
+    public byte[] getGzippedContent() {
+        return gzippedContent;
+    }
+
+    /**
+     * @return the SHA-1 (hex) of {@link #getContent()}.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    private static byte[] gzip(final byte[] bytes) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String sha1(final byte[] bytes) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-1").digest(bytes);
+            final StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (final byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF,
+                                             16));
+                sb.append(Character.forDigit(b & 0xF,
+                                             16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.backend.server.plugins;
+
+import java.io.IOException;
+import java.net.URI;
+import javax.inject.Inject;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.uberfire.java.nio.file.Path;
+import org.uberfire.java.nio.file.Paths;
+import org.uberfire.server.BaseFilteredServlet;
+
+/**
+ * Serves all the runtime plugins (<tt>runtime-plugins/plugins.js</tt>) or frameworks
+ * (<tt>runtime-plugins/frameworks.js</tt>) as a single script taken from the {@link RuntimePluginCache}.
+ * <p>
+ * The ETag is the bundle's version, and a request whose <tt>v</tt> parameter matches the current version may
+ * be cached by the browser forever. The precompressed content is sent to clients accepting gzip.
+ * <p>
+ * Like the other file servlets it has to be mapped in the application's <tt>web.xml</tt> (to
+ * <tt>/runtime-plugins/*</tt>), behind the same security filter, and honours the <tt>includes-path</tt> and
+ * <tt>excludes-path</tt> init parameters.
+ */
+public class RuntimePluginBundleServlet extends BaseFilteredServlet {
+
+    @Inject
+    RuntimePluginCache runtimePluginCache;
+
+    @Override
+    protected void doGet(final HttpServletRequest request,
+                         final HttpServletResponse response) throws ServletException, IOException {
+        final String pathInfo = request.getPathInfo();
+        final String directory;
+        if ("/plugins.js".equals(pathInfo)) {
+            directory = "plugins";
+        } else if ("/frameworks.js".equals(pathInfo)) {
+            directory = "frameworks";
+        } else {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        final String realPath = PluginUtils.getRealPath(getServletContext(),
+                                                        directory);
+        if (realPath == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        final Path directoryPath = Paths.get(URI.create("file://" + realPath));
+        if (!validateAccess(directoryPath,
+                            response)) {
+            return;
+        }
+
+        final RuntimePluginBundle bundle = runtimePluginCache.getBundle(directoryPath,
+                                                                        "*.js");
+        final String eTag = "\"" + bundle.getVersion() + "\"";
+        response.setHeader("ETag",
+                           eTag);
+        response.setHeader("Vary",
+                           "Accept-Encoding");
+        if (bundle.getVersion().equals(request.getParameter("v"))) {
+            response.setHeader("Cache-Control",
+                               "public, max-age=31536000, immutable");
+        } else {
+            response.setHeader("Cache-Control",
+                               "no-cache");
+        }
+
+        final String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null && (ifNoneMatch.contains(eTag) || ifNoneMatch.trim().equals("*"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        final byte[] content;
+        final String acceptEncoding = request.getHeader("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            content = bundle.getGzippedContent();
+            response.setHeader("Content-Encoding",
+                               "gzip");
+        } else {
+            content = bundle.getContent();
+        }
+        response.setContentType("application/javascript;charset=UTF-8");
+        response.setContentLength(content.length);
+        response.getOutputStream().write(content);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.backend.server.plugins;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.uberfire.java.nio.file.DirectoryStream;
+import org.uberfire.java.nio.file.Files;
+import org.uberfire.java.nio.file.Path;
+
+/**
+ * Keeps the runtime plugin scripts and templates read from the web application's directories in memory, so
+ * they are not read from disk on every request.
+ * <p>
+ * Everything is dropped when the {@link org.uberfire.backend.server.plugins.engine.PluginWatcher} reports a
+ * change to the plugins directory. Entries also expire after <tt>org.uberfire.plugins.cache.ttl</tt>
+ * milliseconds (0 for never), which picks up changes to directories that are not watched.
+ */
+@ApplicationScoped
+public class RuntimePluginCache {
+
+    static final long TIME_TO_LIVE = Long.getLong("org.uberfire.plugins.cache.ttl",
+                                                  60000);
+    static final int MAX_TEMPLATES = 1000;
+
+    private final ConcurrentMap<String, Entry<RuntimePluginBundle>> bundles = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Entry<String>> templates = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final long timeToLive;
+
+    public RuntimePluginCache() {
+        this(TIME_TO_LIVE);
+    }
+
+    RuntimePluginCache(final long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * @param directory the directory holding the scripts.
+     * @param glob the pattern the script file names must match.
+     * @return the scripts of the directory, empty if it does not exist.
+     */
+    public RuntimePluginBundle getBundle(final Path directory,
+                                         final String glob) {
+        return get(bundles,
+                   directory.toString() + "/" + glob,
+                   () -> readBundle(directory,
+                                    glob));
+    }
+
+    /**
+     * @param template the template file.
+     * @return the content of the template, empty if it does not exist.
+     */
+    public String getTemplate(final Path template) {
+        if (templates.size() >= MAX_TEMPLATES) {
+            templates.clear();
+        }
+        return get(templates,
+                   template.toString(),
+                   () -> Files.isRegularFile(template) ? new String(Files.readAllBytes(template)) : "");
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        bundles.clear();
+        templates.clear();
+    }
+
+    private <T> T get(final ConcurrentMap<String, Entry<T>> entries,
+                      final String key,
+                      final Supplier<T> loader) {
+        final long now = System.currentTimeMillis();
+        final Entry<T> entry = entries.get(key);
+        if (entry != null && (timeToLive <= 0 || now - entry.loadedAt < timeToLive)) {
+            return entry.value;
+        }
+        final long loadedGeneration = generation.get();
+        final T value = loader.get();
+        // Don't keep what was read before a concurrent invalidation
+        if (generation.get() == loadedGeneration) {
+            entries.put(key,
+                        new Entry<>(value,
+                                    now));
+        }
+        return value;
+    }
+
+    private RuntimePluginBundle readBundle(final Path directory,
+                                           final String glob) {
+        final List<String> contents = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                                                                         glob)) {
+                for (final Path activeJS : stream) {
+                    contents.add(new String(Files.readAllBytes(activeJS)));
+                }
+            }
+        }
+        return new RuntimePluginBundle(contents);
+    }
+
+    private static class Entry<T> {
+
+        private final T value;
+        private final long loadedAt;
+
+        private Entry(final T value,
+                      final long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -36,8 +36,6 @@ import org.uberfire.backend.plugin.RuntimePluginService;
 import org.uberfire.backend.server.plugins.processors.HTMLPluginProcessor;
 import org.uberfire.commons.services.cdi.Startup;
 import org.uberfire.commons.services.cdi.StartupType;
-import org.uberfire.java.nio.file.DirectoryStream;
-import org.uberfire.java.nio.file.Files;
 import org.uberfire.java.nio.file.Path;
 import org.uberfire.java.nio.file.Paths;
 
@@ -55,6 +53,9 @@ public class RuntimePluginServiceImpl implements RuntimePluginService {
     @Inject
     HTMLPluginProcessor htmlPluginProcessor;
 
+    @Inject
+    RuntimePluginCache runtimePluginCache;
+
     @Override
     public Collection<String> listFrameworksContent() {
         return directoryContent("frameworks",
@@ -67,6 +68,16 @@ public class RuntimePluginServiceImpl implements RuntimePluginService {
                                 "*.js");
     }
 
+    @Override
+    public String getBundleVersion(final String bundle) {
+        if (!"frameworks".equals(bundle) && !"plugins".equals(bundle)) {
+            return null;
+        }
+        final RuntimePluginBundle runtimePluginBundle = directoryBundle(bundle,
+                                                                        "*.js");
+        return runtimePluginBundle == null ? null : runtimePluginBundle.getVersion();
+    }
+
     @Override
     public String getTemplateContent(String url) {
 
@@ -88,10 +99,7 @@ public class RuntimePluginServiceImpl implements RuntimePluginService {
             template = Paths.get(URI.create("file://" + realPath + "/" + url));
         }
 
-        if (Files.isRegularFile(template)) {
-            return new String(Files.readAllBytes(template));
-        }
-        return "";
+        return runtimePluginCache.getTemplate(template);
     }
 
     private boolean isAJarPluginTemplate(String pluginContent) {
@@ -100,26 +108,26 @@ public class RuntimePluginServiceImpl implements RuntimePluginService {
 
     private Collection<String> directoryContent(final String directory,
                                                 final String glob) {
+        final RuntimePluginBundle bundle = directoryBundle(directory,
+                                                           glob);
+        if (bundle == null) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(bundle.getContents());
+    }
+
+    private RuntimePluginBundle directoryBundle(final String directory,
+                                                final String glob) {
         String realPath = PluginUtils.getRealPath(directory);
         if (realPath == null) {
             LOGGER.info("Not listing directory content for " + directory + "/" + glob +
                                 " because getRealPath() is returning null. (This app is probably deployed in an unexploded .war)");
-            return Collections.emptyList();
+            return null;
         }
-        final Collection<String> result = new ArrayList<String>();
-
         final Path pluginsRootPath = Paths.get(URI.create("file://" + realPath));
 
-        if (Files.isDirectory(pluginsRootPath)) {
-            final DirectoryStream<Path> stream = Files.newDirectoryStream(pluginsRootPath,
-                                                                          glob);
-
-            for (final Path activeJS : stream) {
-                result.add(new String(Files.readAllBytes(activeJS)));
-            }
-        }
-
-        return result;
+        return runtimePluginCache.getBundle(pluginsRootPath,
+                                            glob);
     }
 
     @Override
@@ -29,9 +29,11 @@ import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.uberfire.backend.server.plugins.RuntimePluginCache;
 
 import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
@@ -40,7 +42,7 @@ import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 
 /**
  * Monitors the plugins directory for changes and loads/removes plugins using the
- * {@link PluginJarProcessor}.
+ * {@link PluginJarProcessor}. Any change also invalidates the {@link RuntimePluginCache}.
  */
 @Dependent
 public class PluginWatcher {
@@ -51,6 +53,9 @@ public class PluginWatcher {
     private ExecutorService executor;
     private PluginJarProcessor pluginJarProcessor;
 
+    @Inject
+    private RuntimePluginCache runtimePluginCache;
+
     /**
      * Starts the plugins watcher iff the provided plugin directory exists and
      * the watcher hasn't already been started.
@@ -89,6 +94,7 @@ public class PluginWatcher {
 
                     if (watchKey != null && active) {
                         final List<WatchEvent<?>> events = watchKey.pollEvents();
+                        runtimePluginCache.invalidate();
                         for (WatchEvent<?> event : events) {
                             final Kind<?> kind = event.kind();
                             if (kind == OVERFLOW) {
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.backend.server.plugins;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.uberfire.java.nio.file.Path;
+import org.uberfire.java.nio.file.Paths;
+
+import static org.junit.Assert.*;
+
+public class RuntimePluginCacheTest {
+
+    private File dir;
+    private Path path;
+
+    @Before
+    public void setup() throws Exception {
+        dir = File.createTempFile("runtime-plugins",
+                                  "");
+        dir.delete();
+        dir.mkdir();
+        path = Paths.get(dir.toURI());
+        FileUtils.writeStringToFile(new File(dir,
+                                             "a.js"),
+                                    "var a = 1;");
+        FileUtils.writeStringToFile(new File(dir,
+                                             "template.html"),
+                                    "<div/>");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testBundleIsCachedUntilInvalidated() throws Exception {
+        final RuntimePluginCache cache = new RuntimePluginCache(0);
+        final RuntimePluginBundle bundle = cache.getBundle(path,
+                                                           "*.js");
+        assertEquals(Arrays.asList("var a = 1;"),
+                     bundle.getContents());
+
+        FileUtils.writeStringToFile(new File(dir,
+                                             "b.js"),
+                                    "var b = 2;");
+        assertSame(bundle,
+                   cache.getBundle(path,
+                                   "*.js"));
+
+        cache.invalidate();
+        final RuntimePluginBundle reloaded = cache.getBundle(path,
+                                                             "*.js");
+        assertEquals(2,
+                     reloaded.getContents().size());
+        assertNotEquals(bundle.getVersion(),
+                        reloaded.getVersion());
+    }
+
+    @Test
+    public void testBundleExpires() throws Exception {
+        final RuntimePluginCache cache = new RuntimePluginCache(1);
+        final RuntimePluginBundle bundle = cache.getBundle(path,
+                                                           "*.js");
+        Thread.sleep(10);
+
+        final RuntimePluginBundle reloaded = cache.getBundle(path,
+                                                             "*.js");
+        assertNotSame(bundle,
+                      reloaded);
+        assertEquals(bundle.getVersion(),
+                     reloaded.getVersion());
+    }
+
+    @Test
+    public void testTemplateIsCachedUntilInvalidated() throws Exception {
+        final RuntimePluginCache cache = new RuntimePluginCache(0);
+        final Path template = path.resolve("template.html");
+        assertEquals("<div/>",
+                     cache.getTemplate(template));
+        assertEquals("",
+                     cache.getTemplate(path.resolve("missing.html")));
+
+        FileUtils.writeStringToFile(new File(dir,
+                                             "template.html"),
+                                    "<span/>");
+        assertEquals("<div/>",
+                     cache.getTemplate(template));
+
+        cache.invalidate();
+        assertEquals("<span/>",
+                     cache.getTemplate(template));
+    }
+
+    @Test
+    public void testBundleContent() throws Exception {
+        final RuntimePluginBundle bundle = new RuntimePluginBundle(Arrays.asList("var a = 1;",
+                                                                                 "var b = 2;"));
+        final String content = "var a = 1;" + RuntimePluginBundle.SEPARATOR + "var b = 2;";
+        assertEquals(content,
+                     new String(bundle.getContent(),
+                                StandardCharsets.UTF_8));
+        assertEquals(content,
+                     IOUtils.toString(new GZIPInputStream(new ByteArrayInputStream(bundle.getGzippedContent())),
+                                      StandardCharsets.UTF_8));
+        assertEquals(40,
+                     bundle.getVersion().length());
+        assertEquals(bundle.getVersion(),
+                     new RuntimePluginBundle(Arrays.asList("var a = 1;",
+                                                           "var b = 2;")).getVersion());
+    }
+}
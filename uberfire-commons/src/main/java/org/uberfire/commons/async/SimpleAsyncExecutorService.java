@@ -15,11 +15,19 @@
  */
 package org.uberfire.commons.async;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.ejb.Asynchronous;
@@ -48,23 +56,122 @@ public class SimpleAsyncExecutorService implements DisposableExecutor {
     private static final boolean USE_EXECUTOR_SAFE_MODE = Boolean.parseBoolean(System.getProperty("org.uberfire.async.executor.safemode",
                                                                                                   "false"));
 
+    /**
+     * Number of worker threads; zero (the default) keeps the unbounded cached thread pool. Tasks that run until
+     * their service stops must go to {@link #getLongRunningInstance()}, or they'd hold workers forever.
+     */
+    private static final int POOL_SIZE = Integer.parseInt(System.getProperty("org.uberfire.async.executor.pool.size",
+                                                                             "0"));
+
+    private static final int QUEUE_SIZE = Integer.parseInt(System.getProperty("org.uberfire.async.executor.queue.size",
+                                                                              "1000"));
+
+    /**
+     * What to do when a bounded pool and its queue are full: CALLER_RUNS (default), ABORT or DISCARD.
+     */
+    private static final String SATURATION_POLICY = System.getProperty("org.uberfire.async.executor.saturation",
+                                                                       "CALLER_RUNS");
+
+    /**
+     * Run each task on its own virtual thread, when the JDK supports them; takes precedence over the pool size.
+     */
+    private static final boolean USE_VIRTUAL_THREADS = Boolean.parseBoolean(System.getProperty("org.uberfire.async.executor.virtual",
+                                                                                               "false"));
+
+    private static final int MAX_METRICS = 1000;
+    private static final String OTHER_TASKS = "<other>";
+
     private static final Object lock = new Object();
 
     private static final AtomicBoolean isEJB = new AtomicBoolean(false);
     private static DisposableExecutor defaultInstance;
     private static DisposableExecutor managedInstance;
     private static DisposableExecutor unmanagedInstance;
+    private static DisposableExecutor longRunningInstance;
     private final ExecutorService executorService;
     private final AtomicBoolean hasAlreadyShutdown = new AtomicBoolean(false);
 
-    private final Set<Future<?>> jobs = new CopyOnWriteArraySet<Future<?>>();
+    private final Set<Future<?>> jobs = Collections.newSetFromMap(new ConcurrentHashMap<Future<?>, Boolean>());
+
+    private final ConcurrentMap<String, TaskMetrics> metrics = new ConcurrentHashMap<String, TaskMetrics>();
 
     public SimpleAsyncExecutorService() {
         executorService = null;
     }
 
     public SimpleAsyncExecutorService(boolean notEJB) {
-        executorService = Executors.newCachedThreadPool(new DescriptiveThreadFactory());
+        this(newExecutorService());
+    }
+
+    SimpleAsyncExecutorService(final ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    private static ExecutorService newExecutorService() {
+        final ExecutorService virtual = newVirtualThreadExecutorService();
+        if (virtual != null) {
+            return virtual;
+        }
+        if (POOL_SIZE > 0) {
+            return newBoundedExecutorService(POOL_SIZE,
+                                             QUEUE_SIZE,
+                                             SATURATION_POLICY);
+        }
+        return Executors.newCachedThreadPool(new DescriptiveThreadFactory());
+    }
+
+    private static ExecutorService newUnboundedExecutorService() {
+        final ExecutorService virtual = newVirtualThreadExecutorService();
+        if (virtual != null) {
+            return virtual;
+        }
+        return Executors.newCachedThreadPool(new DescriptiveThreadFactory());
+    }
+
+    private static ExecutorService newVirtualThreadExecutorService() {
+        if (USE_VIRTUAL_THREADS) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (final Exception e) {
+                LOG.warn("Virtual threads are not supported by this JVM. Falling back to platform threads.");
+            }
+        }
+        return null;
+    }
+
+    static ExecutorService newBoundedExecutorService(final int poolSize,
+                                                     final int queueSize,
+                                                     final String saturationPolicy) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize,
+                                                                   poolSize,
+                                                                   60L,
+                                                                   TimeUnit.SECONDS,
+                                                                   new ArrayBlockingQueue<Runnable>(Math.max(1,
+                                                                                                             queueSize)),
+                                                                   new DescriptiveThreadFactory(),
+                                                                   saturationHandler(saturationPolicy));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static RejectedExecutionHandler saturationHandler(final String policy) {
+        if ("ABORT".equalsIgnoreCase(policy)) {
+            return new ThreadPoolExecutor.AbortPolicy();
+        }
+        if ("DISCARD".equalsIgnoreCase(policy)) {
+            return new RejectedExecutionHandler() {
+                @Override
+                public void rejectedExecution(final Runnable r,
+                                              final ThreadPoolExecutor executor) {
+                    // cancelling runs the task's completion hook, so it's still removed from the job set
+                    if (r instanceof Future) {
+                        ((Future<?>) r).cancel(false);
+                    }
+                    LOG.warn("Async executor saturated; discarding task.");
+                }
+            };
+        }
+        return new ThreadPoolExecutor.CallerRunsPolicy();
     }
 
     public static DisposableExecutor getDefaultInstance() {
@@ -115,6 +222,20 @@ public class SimpleAsyncExecutorService implements DisposableExecutor {
         }
     }
 
+    /**
+     * Executor for tasks that run until their service stops, such as accept loops, watch loops and client
+     * connections. It's never bounded by <code>org.uberfire.async.executor.pool.size</code>: those tasks would keep
+     * every worker of a bounded pool busy, and with CALLER_RUNS block whoever submits next.
+     */
+    public static DisposableExecutor getLongRunningInstance() {
+        synchronized (lock) {
+            if (longRunningInstance == null) {
+                longRunningInstance = new SimpleAsyncExecutorService(newUnboundedExecutorService());
+            }
+            return longRunningInstance;
+        }
+    }
+
     public static void shutdownInstances() {
         synchronized (lock) {
             if (!isEJB.get() && managedInstance != null) {
@@ -123,6 +244,9 @@ public class SimpleAsyncExecutorService implements DisposableExecutor {
             if (unmanagedInstance != null) {
                 unmanagedInstance.dispose();
             }
+            if (longRunningInstance != null) {
+                longRunningInstance.dispose();
+            }
         }
     }
 
@@ -131,6 +255,7 @@ public class SimpleAsyncExecutorService implements DisposableExecutor {
         defaultInstance = null;
         managedInstance = null;
         unmanagedInstance = null;
+        longRunningInstance = null;
     }
 
     @Asynchronous
@@ -138,12 +263,45 @@ public class SimpleAsyncExecutorService implements DisposableExecutor {
     @Override
     public void execute(final Runnable r) {
         if (executorService != null) {
-            jobs.add(executorService.submit(r));
+            final TrackedTask task = new TrackedTask(r);
+            jobs.add(task);
+            try {
+                executorService.execute(task);
+            } catch (final RejectedExecutionException e) {
+                jobs.remove(task);
+                metricsFor(task.description).dropped();
+                throw e;
+            }
         } else {
             r.run();
         }
     }
 
+    /**
+     * @return queue and run time statistics, keyed by task description (or class name for plain runnables).
+     */
+    public Map<String, TaskMetrics> getMetrics() {
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    int getPendingJobCount() {
+        return jobs.size();
+    }
+
+    private TaskMetrics metricsFor(final String description) {
+        TaskMetrics result = metrics.get(description);
+        if (result == null) {
+            final String key = metrics.size() < MAX_METRICS ? description : OTHER_TASKS;
+            final TaskMetrics newMetrics = new TaskMetrics();
+            result = metrics.putIfAbsent(key,
+                                         newMetrics);
+            if (result == null) {
+                result = newMetrics;
+            }
+        }
+        return result;
+    }
+
     @Override
     public void dispose() {
         if (!hasAlreadyShutdown.getAndSet(true) && executorService != null) {
@@ -176,4 +334,37 @@ public class SimpleAsyncExecutorService implements DisposableExecutor {
             executorService.shutdown();
         }
     }
+
+    /**
+     * Removes itself from the job set once done and records its queue and run time.
+     */
+    private class TrackedTask extends FutureTask<Object> {
+
+        private final String description;
+        private final long submitted = System.nanoTime();
+        private volatile long started = 0;
+
+        private TrackedTask(final Runnable runnable) {
+            super(runnable,
+                  null);
+            this.description = runnable instanceof DescriptiveRunnable ? ((DescriptiveRunnable) runnable).getDescription() : runnable.getClass().getName();
+        }
+
+        @Override
+        public void run() {
+            started = System.nanoTime();
+            super.run();
+        }
+
+        @Override
+        protected void done() {
+            jobs.remove(this);
+            if (started != 0) {
+                metricsFor(description).record(started - submitted,
+                                               System.nanoTime() - started);
+            } else {
+                metricsFor(description).dropped();
+            }
+        }
+    }
 }
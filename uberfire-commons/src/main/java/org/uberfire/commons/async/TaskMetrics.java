@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.uberfire.commons.async;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queue and run time statistics of the tasks sharing a description.
+ */
+public class TaskMetrics {
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong totalQueueNanos = new AtomicLong();
+    private final AtomicLong totalRunNanos = new AtomicLong();
+    private final AtomicLong maxQueueNanos = new AtomicLong();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+
+    void record(final long queueNanos,
+                final long runNanos) {
+        count.incrementAndGet();
+        totalQueueNanos.addAndGet(queueNanos);
+        totalRunNanos.addAndGet(runNanos);
+        updateMax(maxQueueNanos,
+                  queueNanos);
+        updateMax(maxRunNanos,
+                  runNanos);
+    }
+
+    /**
+     * Counts a task that never ran: rejected by a saturated pool, discarded or cancelled before starting.
+     */
+    void dropped() {
+        dropped.incrementAndGet();
+    }
+
+    private static void updateMax(final AtomicLong max,
+                                  final long value) {
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current,
+                                                     value)) {
+            current = max.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getTotalQueueTime(final TimeUnit unit) {
+        return unit.convert(totalQueueNanos.get(),
+                            TimeUnit.NANOSECONDS);
+    }
+
+    public long getTotalRunTime(final TimeUnit unit) {
+        return unit.convert(totalRunNanos.get(),
+                            TimeUnit.NANOSECONDS);
+    }
+
+    public long getMaxQueueTime(final TimeUnit unit) {
+        return unit.convert(maxQueueNanos.get(),
+                            TimeUnit.NANOSECONDS);
+    }
+
+    public long getMaxRunTime(final TimeUnit unit) {
+        return unit.convert(maxRunNanos.get(),
+                            TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "TaskMetrics{" +
+                "count=" + count.get() +
+                ", dropped=" + dropped.get() +
+                ", totalQueueMs=" + getTotalQueueTime(TimeUnit.MILLISECONDS) +
+                ", totalRunMs=" + getTotalRunTime(TimeUnit.MILLISECONDS) +
+                ", maxQueueMs=" + getMaxQueueTime(TimeUnit.MILLISECONDS) +
+                ", maxRunMs=" + getMaxRunTime(TimeUnit.MILLISECONDS) +
+                '}';
+    }
+}
@@ -28,26 +28,46 @@ abstract class BaseLockExecuteNotifyReleaseTemplate<V> {
     public static final int TIMEOUT = Integer.parseInt(System.getProperty("org.uberfire.cluster.timeout",
                                                                           "30000"));
 
+    /**
+     * Runs the task holding the cluster lock and notifies the cluster once the lock is released, so other members
+     * don't wait on the notification round-trip. The message content is still built while locked.
+     */
     public V execute(final ClusterService clusterService,
                      final RunnableFuture<V> task) {
+        final V result;
+        final Map<String, String> content;
         try {
-            clusterService.lock();
+            final String lockId = getLockId();
+            if (lockId == null) {
+                clusterService.lock();
+            } else {
+                clusterService.lock(lockId);
+            }
 
             task.run();
 
-            final V result = task.get();
+            result = task.get();
 
-            sendMessage(clusterService);
-
-            return result;
+            content = buildContent();
         } catch (final ExecutionException e) {
             throwException(e.getCause());
+            return null;
         } catch (final Exception e) {
             throwException(e);
+            return null;
         } finally {
-            clusterService.unlock();
+            final String lockId = getLockId();
+            if (lockId == null) {
+                clusterService.unlock();
+            } else {
+                clusterService.unlock(lockId);
+            }
         }
-        return null;
+
+        sendMessage(clusterService,
+                    content);
+
+        return result;
     }
 
     private void throwException(final Throwable e) {
@@ -57,7 +77,20 @@ abstract class BaseLockExecuteNotifyReleaseTemplate<V> {
         throw new RuntimeException(e);
     }
 
-    abstract void sendMessage(final ClusterService clusterService);
+    public void sendMessage(final ClusterService clusterService) {
+        sendMessage(clusterService,
+                    buildContent());
+    }
+
+    abstract void sendMessage(final ClusterService clusterService,
+                              final Map<String, String> content);
+
+    /**
+     * @return the id to lock, or null to lock the whole cluster.
+     */
+    public String getLockId() {
+        return null;
+    }
 
     public abstract MessageType getMessageType();
 
@@ -29,5 +29,17 @@ public interface ClusterService extends MessageService,
 
     void onStart(Runnable runnable);
 
+    /**
+     * Acquires the cluster lock guarding the given id (e.g. a file system id). Ids are spread over the lock
+     * partitions, so holders of ids in different partitions don't block each other, while {@link #lock()} acquires
+     * all of them. Implementations must not deadlock when a thread holding one id locks another id (or the whole
+     * cluster), nor release what the thread already holds to avoid it: they may instead fail with
+     * {@link IllegalStateException} when the lock can't be taken in order. Callers needing several ids should lock
+     * the whole cluster up front.
+     */
+    void lock(final String lockId);
+
+    void unlock(final String lockId);
+
     int getHoldCount();
 }
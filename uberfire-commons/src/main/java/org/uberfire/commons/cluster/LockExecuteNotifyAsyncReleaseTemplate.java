@@ -16,12 +16,15 @@
 
 package org.uberfire.commons.cluster;
 
+import java.util.Map;
+
 public abstract class LockExecuteNotifyAsyncReleaseTemplate<V> extends BaseLockExecuteNotifyReleaseTemplate<V> {
 
     @Override
-    public void sendMessage(final ClusterService clusterService) {
+    public void sendMessage(final ClusterService clusterService,
+                            final Map<String, String> content) {
         clusterService.broadcast(getServiceId(),
                                  getMessageType(),
-                                 buildContent());
+                                 content);
     }
 }
@@ -16,13 +16,16 @@
 
 package org.uberfire.commons.cluster;
 
+import java.util.Map;
+
 public abstract class LockExecuteNotifySyncReleaseTemplate<V> extends BaseLockExecuteNotifyReleaseTemplate<V> {
 
     @Override
-    public void sendMessage(final ClusterService clusterService) {
+    public void sendMessage(final ClusterService clusterService,
+                            final Map<String, String> content) {
         clusterService.broadcastAndWait(getServiceId(),
                                         getMessageType(),
-                                        buildContent(),
+                                        content,
                                         timeOut());
     }
 
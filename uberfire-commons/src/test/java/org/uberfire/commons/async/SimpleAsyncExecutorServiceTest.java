@@ -16,6 +16,9 @@
 package org.uberfire.commons.async;
 
 import java.util.Hashtable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.naming.Context;
 import javax.naming.NamingException;
 import javax.naming.spi.InitialContextFactory;
@@ -102,6 +105,115 @@ public class SimpleAsyncExecutorServiceTest {
                    executor2);
     }
 
+    @Test
+    public void testLongRunningInstanceIsSeparate() {
+        System.setProperty("org.uberfire.async.executor.safemode",
+                           "true");
+
+        final DisposableExecutor longRunning = SimpleAsyncExecutorService.getLongRunningInstance();
+
+        assertNotNull(longRunning);
+        assertSame(longRunning,
+                   SimpleAsyncExecutorService.getLongRunningInstance());
+        assertNotSame(longRunning,
+                      SimpleAsyncExecutorService.getDefaultInstance());
+        assertNotSame(longRunning,
+                      SimpleAsyncExecutorService.getUnmanagedInstance());
+    }
+
+    @Test
+    public void testCompletedJobsAreReleased() throws Exception {
+        final SimpleAsyncExecutorService executor = new SimpleAsyncExecutorService(false);
+        try {
+            final CountDownLatch done = new CountDownLatch(50);
+            for (int i = 0; i < 50; i++) {
+                executor.execute(new DescriptiveRunnable() {
+                    @Override
+                    public String getDescription() {
+                        return "test-task";
+                    }
+
+                    @Override
+                    public void run() {
+                        done.countDown();
+                    }
+                });
+            }
+            assertTrue(done.await(10,
+                                  TimeUnit.SECONDS));
+            waitForJobs(executor);
+
+            assertEquals(0,
+                         executor.getPendingJobCount());
+            assertEquals(50,
+                         executor.getMetrics().get("test-task").getCount());
+        } finally {
+            executor.dispose();
+        }
+    }
+
+    @Test
+    public void testBoundedPoolCallerRuns() throws Exception {
+        final SimpleAsyncExecutorService executor = new SimpleAsyncExecutorService(SimpleAsyncExecutorService.newBoundedExecutorService(1,
+                                                                                                                                         1,
+                                                                                                                                         "CALLER_RUNS"));
+        final CountDownLatch release = new CountDownLatch(1);
+        final Runnable blocker = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        try {
+            executor.execute(blocker);
+            executor.execute(blocker);
+
+            final Thread caller = Thread.currentThread();
+            final AtomicReference<Thread> runner = new AtomicReference<Thread>();
+            executor.execute(() -> runner.set(Thread.currentThread()));
+            assertSame(caller,
+                       runner.get());
+        } finally {
+            release.countDown();
+            executor.dispose();
+        }
+    }
+
+    @Test
+    public void testBoundedPoolDiscard() throws Exception {
+        final SimpleAsyncExecutorService executor = new SimpleAsyncExecutorService(SimpleAsyncExecutorService.newBoundedExecutorService(1,
+                                                                                                                                         1,
+                                                                                                                                         "DISCARD"));
+        final CountDownLatch release = new CountDownLatch(1);
+        final Runnable blocker = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        try {
+            executor.execute(blocker);
+            executor.execute(blocker);
+            executor.execute(blocker);
+
+            assertEquals(2,
+                         executor.getPendingJobCount());
+            assertEquals(1,
+                         executor.getMetrics().get(blocker.getClass().getName()).getDroppedCount());
+        } finally {
+            release.countDown();
+            executor.dispose();
+        }
+    }
+
+    private void waitForJobs(final SimpleAsyncExecutorService executor) throws InterruptedException {
+        for (int i = 0; i < 100 && executor.getPendingJobCount() > 0; i++) {
+            Thread.sleep(50);
+        }
+    }
+
     public static class MockInitialContextFactory implements InitialContextFactory {
 
         private static final ThreadLocal<Context> currentContext = new ThreadLocal<Context>();
@@ -27,5 +27,16 @@ public interface Index extends Disposable {
 
     void commit();
 
+    /**
+     * Returns a value stored along with the last commit of this index.
+     */
+    String getCommitData(final String key);
+
+    /**
+     * Stores a value that will be persisted by the next commit of this index.
+     */
+    void setCommitData(final String key,
+                       final String value);
+
     void delete();
 }
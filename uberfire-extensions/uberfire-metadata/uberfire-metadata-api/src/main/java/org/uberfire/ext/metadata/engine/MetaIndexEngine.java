@@ -44,5 +44,20 @@ public interface MetaIndexEngine extends PriorityDisposable {
 
     void commit(final KCluster cluster);
 
+    /**
+     * Returns the id of the last commit of the given cluster segment (e.g. a branch) that is fully indexed,
+     * or null if unknown.
+     */
+    String getIndexedCommit(final KCluster cluster,
+                            final String segmentId);
+
+    /**
+     * Records the id of the last commit of the given cluster segment that is fully indexed; it's persisted by
+     * the next index commit.
+     */
+    void setIndexedCommit(final KCluster cluster,
+                          final String segmentId,
+                          final String commitId);
+
     void beforeDispose(final Runnable callback);
 }
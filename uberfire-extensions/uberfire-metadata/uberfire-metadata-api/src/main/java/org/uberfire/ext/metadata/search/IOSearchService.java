@@ -32,6 +32,18 @@ public interface IOSearchService {
                               final Filter filter,
                               final Path... roots);
 
+    List<Path> searchByAttrs(final Map<String, ?> attrs,
+                             final Filter filter,
+                             final int offset,
+                             final int limit,
+                             final Path... roots);
+
+    List<Path> fullTextSearch(final String term,
+                              final Filter filter,
+                              final int offset,
+                              final int limit,
+                              final Path... roots);
+
     int searchByAttrsHits(final Map<String, ?> attrs,
                           final Path... roots);
 
@@ -34,6 +34,26 @@ public interface SearchIndex {
                                  final IOSearchService.Filter filter,
                                  final ClusterSegment... clusterSegments);
 
+    /**
+     * Returns at most <code>limit</code> objects accepted by the filter, skipping the first <code>offset</code>
+     * accepted ones.
+     */
+    List<KObject> searchByAttrs(final Map<String, ?> attrs,
+                                final IOSearchService.Filter filter,
+                                final int offset,
+                                final int limit,
+                                final ClusterSegment... clusterSegments);
+
+    /**
+     * Returns at most <code>limit</code> objects accepted by the filter, skipping the first <code>offset</code>
+     * accepted ones.
+     */
+    List<KObject> fullTextSearch(final String term,
+                                 final IOSearchService.Filter filter,
+                                 final int offset,
+                                 final int limit,
+                                 final ClusterSegment... clusterSegments);
+
     int searchByAttrsHits(final Map<String, ?> attrs,
                           final ClusterSegment... clusterSegments);
 
@@ -17,117 +17,70 @@
 package org.uberfire.ext.metadata.backend.lucene.index;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.Map;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.IndexWriter;
-import org.apache.lucene.index.LeafReader;
-import org.apache.lucene.index.LeafReaderContext;
-import org.apache.lucene.index.PostingsEnum;
-import org.apache.lucene.index.TermsEnum;
-import org.apache.lucene.search.DocIdSetIterator;
-import org.apache.lucene.search.IndexSearcher;
-import org.apache.lucene.util.Bits;
-import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.index.Term;
 
+/**
+ * Documents are replaced and deleted by their <code>id</code> term, so writes never need a reader.
+ */
 public abstract class BaseLuceneIndex implements LuceneIndex {
 
     @Override
     public void indexDocument(final String id,
                               final Document doc) {
         try {
-            deleteIfExists(id);
-            writer().addDocument(doc);
+            writer().updateDocument(new Term("id",
+                                             id),
+                                    doc);
+            changed();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
     @Override
-    public boolean deleteIfExists(final String... docIds) {
-        boolean deletedSomething = false;
-        final IndexSearcher searcher = nrtSearcher();
+    public void indexDocuments(final Map<String, Document> docs) {
         try {
-            final int[] answers = lookupDocIdByPK(searcher,
-                                                  docIds);
-            for (final int docId : answers) {
-                if (docId != -1) {
-                    boolean result = writer().tryDeleteDocument(searcher.getIndexReader(),
-                                                                docId);
-                    if (result) {
-                        deletedSomething = true;
-                    }
-                }
+            for (final Map.Entry<String, Document> entry : docs.entrySet()) {
+                writer().updateDocument(new Term("id",
+                                                 entry.getKey()),
+                                        entry.getValue());
             }
-        } catch (Exception ex) {
-        } finally {
-            nrtRelease(searcher);
+            changed();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
-        return deletedSomething;
     }
 
     @Override
-    public void rename(final String sourceId,
-                       final Document doc) {
-        final IndexSearcher searcher = nrtSearcher();
+    public void deleteIfExists(final String... docIds) {
+        final Term[] terms = new Term[docIds.length];
+        for (int i = 0; i < docIds.length; i++) {
+            terms[i] = new Term("id",
+                                docIds[i]);
+        }
         try {
-            int docId = lookupDocIdByPK(searcher,
-                                        sourceId)[0];
-            if (docId != -1) {
-                writer().tryDeleteDocument(searcher.getIndexReader(),
-                                           docId);
-            }
-            indexDocument(sourceId,
-                          doc);
-        } catch (IOException ex) {
-        } finally {
-            nrtRelease(searcher);
+            writer().deleteDocuments(terms);
+            changed();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
     }
 
-    protected int[] lookupDocIdByPK(final IndexSearcher searcher,
-                                    final String... ids) throws IOException {
-        final List<LeafReaderContext> subReaders = searcher.getIndexReader().leaves();
-        final TermsEnum[] termsEnums = new TermsEnum[subReaders.size()];
-        final PostingsEnum[] docsEnums = new PostingsEnum[subReaders.size()];
-        for (int subIDX = 0; subIDX < subReaders.size(); subIDX++) {
-            termsEnums[subIDX] = subReaders.get(subIDX).reader().fields().terms("id").iterator();
-        }
-
-        int[] results = new int[ids.length];
-
-        for (int i = 0; i < results.length; i++) {
-            results[i] = -1;
-        }
-
-        // for each id given
-        for (int idx = 0; idx < ids.length; idx++) {
-            int base = 0;
-            final BytesRef id = new BytesRef(ids[idx]);
-            // for each leaf reader..
-            for (int subIDX = 0; subIDX < subReaders.size(); subIDX++) {
-                final LeafReader subReader = subReaders.get(subIDX).reader();
-                final TermsEnum termsEnum = termsEnums[subIDX];
-                // does the enumeration of ("id") terms from our reader contain the "id" field we're looking for?
-                if (termsEnum.seekExact(id)) {
-                    final PostingsEnum docs = docsEnums[subIDX] = termsEnum.postings(docsEnums[subIDX],
-                                                                                     0);
-                    // okay, the reader contains it, get the postings ("docs+") for and check that they're there (NP check)
-                    if (docs != null) {
-                        final int docID = docs.nextDoc();
-                        Bits liveDocs = subReader.getLiveDocs();
-                        // But wait, maybe some of the docs have been deleted! Check that too..
-                        if ((liveDocs == null || liveDocs.get(docID)) && docID != DocIdSetIterator.NO_MORE_DOCS) {
-                            results[idx] = base + docID;
-                            break;
-                        }
-                    }
-                }
-                base += subReader.maxDoc();
-            }
-        }
+    @Override
+    public void rename(final String sourceId,
+                       final Document doc) {
+        indexDocument(sourceId,
+                      doc);
+    }
 
-        return results;
+    /**
+     * Called once a change is written, before it's committed.
+     */
+    protected void changed() {
     }
 
     public abstract IndexWriter writer();
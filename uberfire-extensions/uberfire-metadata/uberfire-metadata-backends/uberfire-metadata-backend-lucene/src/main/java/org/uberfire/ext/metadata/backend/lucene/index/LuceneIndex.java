@@ -16,6 +16,9 @@
 
 package org.uberfire.ext.metadata.backend.lucene.index;
 
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.search.IndexSearcher;
@@ -31,16 +34,38 @@ public interface LuceneIndex extends Index {
     void indexDocument(final String id,
                        final Document doc);
 
-    boolean deleteIfExists(final String... ids);
+    /**
+     * Adds or replaces documents by id, without looking them up first.
+     */
+    void indexDocuments(final Map<String, Document> docs);
+
+    void deleteIfExists(final String... ids);
 
     void rename(final String sourceId,
                 final Document doc);
 
+    /**
+     * Acquires a reader for searches; it must be released with {@link #nrtRelease(IndexReader)}.
+     */
     IndexReader nrtReader();
 
     void nrtRelease(final IndexReader searcher);
 
+    /**
+     * Acquires a searcher that sees every change committed so far; it must be released with
+     * {@link #nrtRelease(IndexSearcher)}.
+     */
     IndexSearcher nrtSearcher();
 
     void nrtRelease(final IndexSearcher searcher);
+
+    /**
+     * Number of acquired readers and searchers not released yet.
+     */
+    int getOpenReaders();
+
+    /**
+     * Age of the oldest change the shared reader doesn't see yet, or 0 if it sees them all.
+     */
+    long getRefreshLag(final TimeUnit unit);
 }
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -50,11 +51,15 @@ import static org.uberfire.commons.validation.Preconditions.checkNotNull;
 
 public class LuceneIndexEngine implements MetaIndexEngine {
 
+    private static final String INDEXED_COMMIT_PREFIX = "indexed.commit.";
+
     private final FieldFactory fieldFactory;
     private final MetaModelStore metaModelStore;
     private final LuceneIndexManager indexManager;
     private final Map<KCluster, AtomicInteger> batchMode = new ConcurrentHashMap<KCluster, AtomicInteger>();
     private final Collection<Runnable> beforeDispose = new ArrayList<Runnable>();
+    // batch index workers update the meta model concurrently
+    private final Object metaModelLock = new Object();
 
     public LuceneIndexEngine(final FieldFactory fieldFactory,
                              final MetaModelStore metaModelStore,
@@ -141,10 +146,51 @@ public class LuceneIndexEngine implements MetaIndexEngine {
         return doc;
     }
 
+    /**
+     * Bulk version of {@link #index(KObject)}: the meta model is updated once per type, documents are written
+     * with {@link LuceneIndex#indexDocuments(Map)} and each index is committed once (if not in batch mode).
+     */
     @Override
     public void index(final KObject... objects) {
+        final Map<String, List<KObject>> byType = new LinkedHashMap<String, List<KObject>>();
+        final Map<String, List<KObject>> byCluster = new LinkedHashMap<String, List<KObject>>();
         for (final KObject object : objects) {
-            index(object);
+            group(byType,
+                  object.getType().getName(),
+                  object);
+            group(byCluster,
+                  object.getClusterId(),
+                  object);
+        }
+
+        for (final List<KObject> sameType : byType.values()) {
+            updateMetaModel(sameType);
+        }
+
+        for (final List<KObject> sameCluster : byCluster.values()) {
+            final Map<String, Document> docs = new LinkedHashMap<String, Document>(sameCluster.size());
+            for (final KObject object : sameCluster) {
+                docs.put(object.getId(),
+                         newDocument(object));
+            }
+            final LuceneIndex index = indexManager.indexOf(sameCluster.get(0));
+            index.indexDocuments(docs);
+
+            commitIfNotBatchMode(index.getCluster());
+        }
+    }
+
+    private static void group(final Map<String, List<KObject>> groups,
+                              final String key,
+                              final KObject object) {
+        final List<KObject> group = groups.get(key);
+        if (group == null) {
+            groups.put(key,
+                       new ArrayList<KObject>() {{
+                           add(object);
+                       }});
+        } else {
+            group.add(object);
         }
     }
 
@@ -195,6 +241,7 @@ public class LuceneIndexEngine implements MetaIndexEngine {
 
         for (final Map.Entry<LuceneIndex, List<String>> entry : execution.entrySet()) {
             entry.getKey().deleteIfExists(entry.getValue().toArray(new String[entry.getValue().size()]));
+            commitIfNotBatchMode(entry.getKey().getCluster());
         }
     }
 
@@ -216,6 +263,28 @@ public class LuceneIndexEngine implements MetaIndexEngine {
         }
     }
 
+    @Override
+    public String getIndexedCommit(final KCluster cluster,
+                                   final String segmentId) {
+        final Index index = indexManager.get(cluster);
+        if (index == null) {
+            return null;
+        }
+        return index.getCommitData(INDEXED_COMMIT_PREFIX + segmentId);
+    }
+
+    @Override
+    public void setIndexedCommit(final KCluster cluster,
+                                 final String segmentId,
+                                 final String commitId) {
+        final Index index = indexManager.get(cluster);
+        if (index == null) {
+            return;
+        }
+        index.setCommitData(INDEXED_COMMIT_PREFIX + segmentId,
+                            commitId);
+    }
+
     private synchronized void commitIfNotBatchMode(final KCluster cluster) {
         final AtomicInteger batchStack = batchMode.get(cluster);
         if (batchStack == null || batchStack.get() <= 0) {
@@ -244,22 +313,50 @@ public class LuceneIndexEngine implements MetaIndexEngine {
     }
 
     private void updateMetaModel(final KObject object) {
-        final MetaObject metaObject = metaModelStore.getMetaObject(object.getType().getName());
-        if (metaObject == null) {
-            metaModelStore.add(newMetaObect(object));
-        } else {
-            for (final KProperty property : object.getProperties()) {
-                final MetaProperty metaProperty = metaObject.getProperty(property.getName());
-                if (metaProperty == null) {
-                    metaObject.addProperty(newMetaProperty(property));
-                } else {
-                    metaProperty.addType(property.getValue().getClass());
-                    if (property.isSearchable()) {
-                        metaProperty.setAsSearchable();
-                    }
+        synchronized (metaModelLock) {
+            final MetaObject metaObject = metaModelStore.getMetaObject(object.getType().getName());
+            if (metaObject == null) {
+                metaModelStore.add(newMetaObect(object));
+            } else {
+                mergeMetaModel(metaObject,
+                               object);
+                metaModelStore.update(metaObject);
+            }
+        }
+    }
+
+    private void updateMetaModel(final List<KObject> sameType) {
+        synchronized (metaModelLock) {
+            final MetaObject metaObject = metaModelStore.getMetaObject(sameType.get(0).getType().getName());
+            if (metaObject == null) {
+                final MetaObject newMetaObject = newMetaObect(sameType.get(0));
+                for (int i = 1; i < sameType.size(); i++) {
+                    mergeMetaModel(newMetaObject,
+                                   sameType.get(i));
+                }
+                metaModelStore.add(newMetaObject);
+            } else {
+                for (final KObject object : sameType) {
+                    mergeMetaModel(metaObject,
+                                   object);
+                }
+                metaModelStore.update(metaObject);
+            }
+        }
+    }
+
+    private void mergeMetaModel(final MetaObject metaObject,
+                                final KObject object) {
+        for (final KProperty property : object.getProperties()) {
+            final MetaProperty metaProperty = metaObject.getProperty(property.getName());
+            if (metaProperty == null) {
+                metaObject.addProperty(newMetaProperty(property));
+            } else {
+                metaProperty.addType(property.getValue().getClass());
+                if (property.isSearchable()) {
+                    metaProperty.setAsSearchable();
                 }
             }
-            metaModelStore.update(metaObject);
         }
     }
 
@@ -18,8 +18,12 @@ package org.uberfire.ext.metadata.backend.lucene.index;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -39,8 +43,19 @@ import static org.uberfire.commons.validation.Preconditions.checkNotNull;
 
 public class LuceneIndexManager implements IndexManager {
 
+    private static final int MAX_SEARCHERS = 64;
+
     private final LuceneIndexFactory factory;
     private final Map<KCluster, LuceneIndex> indexes = new ConcurrentHashMap<KCluster, LuceneIndex>();
+    // most recently used multi cluster searchers
+    private final Map<Set<KCluster>, IndexSearcher> searchers = Collections.synchronizedMap(new LinkedHashMap<Set<KCluster>, IndexSearcher>(16,
+                                                                                                                                        0.75f,
+                                                                                                                                        true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Set<KCluster>, IndexSearcher> eldest) {
+            return size() > MAX_SEARCHERS;
+        }
+    });
 
     public LuceneIndexManager(final LuceneIndexFactory factory) {
         this.factory = checkNotNull("factory",
@@ -76,6 +91,14 @@ public class LuceneIndexManager implements IndexManager {
     public void delete(KCluster cluster) {
         final LuceneIndex setup = indexes.remove(cluster);
         factory.remove(cluster);
+        synchronized (searchers) {
+            final Iterator<Set<KCluster>> it = searchers.keySet().iterator();
+            while (it.hasNext()) {
+                if (it.next().contains(cluster)) {
+                    it.remove();
+                }
+            }
+        }
         if (setup != null) {
             setup.delete();
         }
@@ -94,6 +117,10 @@ public class LuceneIndexManager implements IndexManager {
         return indexes.get(cluster);
     }
 
+    /**
+     * Returns a searcher over the indexes of the given clusters (or all of them); it must be released with
+     * {@link #release(IndexSearcher)}. While none of those indexes is refreshed the same searcher is reused.
+     */
     public IndexSearcher getIndexSearcher(final ClusterSegment... clusterSegments) {
         final Set<KCluster> clusters;
         if (clusterSegments == null || clusterSegments.length == 0) {
@@ -105,25 +132,81 @@ public class LuceneIndexManager implements IndexManager {
             }
         }
 
-        final Collection<IndexReader> readers = new ArrayList<IndexReader>(clusters.size());
-        for (final KCluster cluster : clusters) {
+        // stable order, so a cached searcher can be matched reader by reader
+        final List<KCluster> ordered = new ArrayList<KCluster>(clusters);
+        Collections.sort(ordered,
+                         new Comparator<KCluster>() {
+                             @Override
+                             public int compare(final KCluster o1,
+                                                final KCluster o2) {
+                                 return o1.getClusterId().compareTo(o2.getClusterId());
+                             }
+                         });
+        final List<LuceneIndex> clusterIndexes = new ArrayList<LuceneIndex>(clusters.size());
+        for (final KCluster cluster : ordered) {
             final LuceneIndex index = indexes.get(cluster);
-            readers.add(index.nrtReader());
+            if (index != null) {
+                clusterIndexes.add(index);
+            }
+        }
+        final IndexReader[] readers = new IndexReader[clusterIndexes.size()];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = clusterIndexes.get(i).nrtReader();
         }
 
+        final IndexSearcher cached = searchers.get(clusters);
+        if (cached != null && ((ClustersReader) cached.getIndexReader()).sameReaders(readers)) {
+            return cached;
+        }
         try {
-            return new SearcherFactory().newSearcher(new MultiReader(readers.toArray(new IndexReader[readers.size()])),
-                                                     null);
+            final IndexSearcher searcher = new SearcherFactory().newSearcher(new ClustersReader(clusterIndexes.toArray(new LuceneIndex[clusterIndexes.size()]),
+                                                                                                readers),
+                                                                             null);
+            searchers.put(clusters,
+                          searcher);
+            return searcher;
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
     public void release(final IndexSearcher index) {
-        try {
-            index.getIndexReader().close();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        ((ClustersReader) index.getIndexReader()).release();
+    }
+
+    /**
+     * Multi cluster view over readers acquired from each index; it's never closed, its readers are released
+     * back to their index instead.
+     */
+    private static class ClustersReader extends MultiReader {
+
+        private final LuceneIndex[] indexes;
+        private final IndexReader[] readers;
+
+        private ClustersReader(final LuceneIndex[] indexes,
+                               final IndexReader[] readers) throws IOException {
+            super(readers,
+                  true);
+            this.indexes = indexes;
+            this.readers = readers;
+        }
+
+        private boolean sameReaders(final IndexReader[] others) {
+            if (readers.length != others.length) {
+                return false;
+            }
+            for (int i = 0; i < readers.length; i++) {
+                if (readers[i] != others[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void release() {
+            for (int i = 0; i < readers.length; i++) {
+                indexes[i].nrtRelease(readers[i]);
+            }
         }
     }
 }
@@ -17,29 +17,45 @@
 package org.uberfire.ext.metadata.backend.lucene.index.directory;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
-import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.search.IndexSearcher;
-import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.ReferenceManager;
+import org.apache.lucene.search.SearcherManager;
 import org.uberfire.ext.metadata.backend.lucene.index.BaseLuceneIndex;
 import org.uberfire.ext.metadata.model.KCluster;
 
 import static org.uberfire.commons.validation.Preconditions.checkNotNull;
 
 /**
- *
+ * Lucene index stored in a {@link Directory}.
+ * <p>
+ * Readers and searchers are shared: they're acquired from a {@link SearcherManager} and must be released.
+ * Acquiring never reopens them: the shared searcher is refreshed once per commit, so it sees every committed
+ * change while changes of a batch stay invisible until the batch commits.
  */
 public class DirectoryLuceneIndex extends BaseLuceneIndex {
 
+    private static final long NONE = Long.MIN_VALUE;
+
     private final KCluster cluster;
     private final IndexWriter writer;
     private final Directory directory;
     private AtomicBoolean freshIndex;
     private AtomicBoolean isDisposed = new AtomicBoolean(false);
+    private final Map<String, String> commitData = new HashMap<String, String>();
+    private final SearcherManager searcherManager;
+    // nanoTime of the oldest change the shared searcher doesn't see yet, NONE if there's none
+    private final AtomicLong oldestUnrefreshedChange = new AtomicLong(NONE);
+    private final AtomicInteger openReaders = new AtomicInteger();
 
     public DirectoryLuceneIndex(final KCluster cluster,
                                 final Directory directory,
@@ -52,6 +68,21 @@ public class DirectoryLuceneIndex extends BaseLuceneIndex {
             this.writer = new IndexWriter(directory.getDirectory(),
                                           config);
             this.freshIndex = new AtomicBoolean(directory.freshIndex());
+            this.commitData.putAll(writer.getCommitData());
+            this.searcherManager = new SearcherManager(writer,
+                                                       true,
+                                                       null);
+            this.searcherManager.addListener(new ReferenceManager.RefreshListener() {
+                @Override
+                public void beforeRefresh() {
+                    // changes made from now on may miss the refresh, they'll set their own time
+                    oldestUnrefreshedChange.set(NONE);
+                }
+
+                @Override
+                public void afterRefresh(final boolean didRefresh) {
+                }
+            });
         } catch (final Exception ex) {
             throw new RuntimeException(ex);
         }
@@ -67,11 +98,13 @@ public class DirectoryLuceneIndex extends BaseLuceneIndex {
         return cluster;
     }
 
+    /**
+     * Acquires the shared reader, as of the last commit.
+     */
     @Override
     public IndexReader nrtReader() {
         try {
-            return DirectoryReader.open(writer,
-                                        true);
+            return acquire().getIndexReader();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -80,17 +113,20 @@ public class DirectoryLuceneIndex extends BaseLuceneIndex {
     @Override
     public void nrtRelease(final IndexReader reader) {
         try {
-            reader.close();
+            reader.decRef();
+            openReaders.decrementAndGet();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Acquires the shared searcher, as of the last commit.
+     */
     @Override
     public IndexSearcher nrtSearcher() {
         try {
-            return new SearcherFactory().newSearcher(nrtReader(),
-                                                     null);
+            return acquire();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -99,12 +135,40 @@ public class DirectoryLuceneIndex extends BaseLuceneIndex {
     @Override
     public void nrtRelease(final IndexSearcher searcher) {
         try {
-            searcher.getIndexReader().close();
+            searcherManager.release(searcher);
+            openReaders.decrementAndGet();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    private IndexSearcher acquire() throws IOException {
+        final IndexSearcher searcher = searcherManager.acquire();
+        openReaders.incrementAndGet();
+        return searcher;
+    }
+
+    @Override
+    public int getOpenReaders() {
+        return openReaders.get();
+    }
+
+    @Override
+    protected void changed() {
+        oldestUnrefreshedChange.compareAndSet(NONE,
+                                              System.nanoTime());
+    }
+
+    @Override
+    public long getRefreshLag(final TimeUnit unit) {
+        final long oldest = oldestUnrefreshedChange.get();
+        if (oldest == NONE) {
+            return 0;
+        }
+        return unit.convert(System.nanoTime() - oldest,
+                            TimeUnit.NANOSECONDS);
+    }
+
     @Override
     public void dispose() {
         if (isDisposed.get()) {
@@ -117,6 +181,7 @@ public class DirectoryLuceneIndex extends BaseLuceneIndex {
 
     private void closeWriter() {
         try {
+            searcherManager.close();
             writer.commit();
             writer.close();
         } catch (IOException e) {
@@ -134,11 +199,25 @@ public class DirectoryLuceneIndex extends BaseLuceneIndex {
         try {
             writer.commit();
             freshIndex.set(false);
+            searcherManager.maybeRefreshBlocking();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    @Override
+    public synchronized String getCommitData(final String key) {
+        return commitData.get(key);
+    }
+
+    @Override
+    public synchronized void setCommitData(final String key,
+                                           final String value) {
+        commitData.put(key,
+                       value);
+        writer.setCommitData(new HashMap<String, String>(commitData));
+    }
+
     @Override
     public void delete() {
         closeWriter();
@@ -16,11 +16,15 @@
 
 package org.uberfire.ext.metadata.backend.lucene.search;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
@@ -29,8 +33,9 @@ import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.SimpleCollector;
 import org.apache.lucene.search.TermQuery;
-import org.apache.lucene.search.TopScoreDocCollector;
 import org.apache.lucene.search.TotalHitCountCollector;
 import org.apache.lucene.search.WildcardQuery;
 import org.uberfire.ext.metadata.backend.lucene.index.LuceneIndexManager;
@@ -44,6 +49,7 @@ import static java.util.Collections.emptyList;
 import static org.apache.lucene.search.BooleanClause.Occur.MUST;
 import static org.apache.lucene.search.BooleanClause.Occur.SHOULD;
 import static org.apache.lucene.search.NumericRangeQuery.newLongRange;
+import static org.uberfire.commons.validation.PortablePreconditions.checkCondition;
 import static org.uberfire.commons.validation.PortablePreconditions.checkNotNull;
 import static org.uberfire.ext.metadata.backend.lucene.util.KObjectUtil.toKObject;
 import static org.uberfire.ext.metadata.engine.MetaIndexEngine.FULL_TEXT_FIELD;
@@ -75,12 +81,11 @@ public class LuceneSearchIndex implements SearchIndex {
         if (attrs == null || attrs.size() == 0) {
             return emptyList();
         }
-        final int totalNumHitsEstimate = searchByAttrsHits(attrs,
-                                                           clusterSegments);
         return search(buildQuery(attrs,
                                  clusterSegments),
-                      totalNumHitsEstimate,
                       filter,
+                      0,
+                      Integer.MAX_VALUE,
                       clusterSegments);
     }
 
@@ -91,12 +96,56 @@ public class LuceneSearchIndex implements SearchIndex {
         if (clusterSegments == null || clusterSegments.length == 0) {
             return emptyList();
         }
-        final int totalNumHitsEstimate = fullTextSearchHits(term,
-                                                            clusterSegments);
         return search(buildQuery(term,
                                  clusterSegments),
-                      totalNumHitsEstimate,
                       filter,
+                      0,
+                      Integer.MAX_VALUE,
+                      clusterSegments);
+    }
+
+    @Override
+    public List<KObject> searchByAttrs(final Map<String, ?> attrs,
+                                       final IOSearchService.Filter filter,
+                                       final int offset,
+                                       final int limit,
+                                       final ClusterSegment... clusterSegments) {
+        checkCondition("offset >= 0",
+                       offset >= 0);
+        checkCondition("limit >= 0",
+                       limit >= 0);
+        if (clusterSegments == null || clusterSegments.length == 0) {
+            return emptyList();
+        }
+        if (attrs == null || attrs.size() == 0 || limit == 0) {
+            return emptyList();
+        }
+        return search(buildQuery(attrs,
+                                 clusterSegments),
+                      filter,
+                      offset,
+                      limit,
+                      clusterSegments);
+    }
+
+    @Override
+    public List<KObject> fullTextSearch(final String term,
+                                        final IOSearchService.Filter filter,
+                                        final int offset,
+                                        final int limit,
+                                        final ClusterSegment... clusterSegments) {
+        checkCondition("offset >= 0",
+                       offset >= 0);
+        checkCondition("limit >= 0",
+                       limit >= 0);
+        if (clusterSegments == null || clusterSegments.length == 0 || limit == 0) {
+            return emptyList();
+        }
+        return search(buildQuery(term,
+                                 clusterSegments),
+                      filter,
+                      offset,
+                      limit,
                       clusterSegments);
     }
 
@@ -141,21 +190,41 @@ public class LuceneSearchIndex implements SearchIndex {
         }
     }
 
+    /**
+     * Runs the query once and loads stored documents lazily, in score order, until the page is full.
+     * Without a filter, skipped hits are never loaded. When the page may hold every hit, all hits are
+     * collected in a single pass; otherwise the top <code>offset + limit</code> hits are collected and, only if
+     * the filter rejected some of them, the search continues after the last one.
+     */
     private List<KObject> search(final Query query,
-                                 final int totalNumHitsEstimate,
                                  final IOSearchService.Filter filter,
+                                 final int offset,
+                                 final int limit,
                                  final ClusterSegment... clusterSegments) {
-        final TopScoreDocCollector collector = TopScoreDocCollector.create(totalNumHitsEstimate);
         final IndexSearcher index = indexManager.getIndexSearcher(clusterSegments);
-        final List<KObject> result = new ArrayList<KObject>();
+        final Page page = new Page(filter,
+                                   offset,
+                                   limit);
         try {
-            index.search(query,
-                         collector);
-            final ScoreDoc[] hits = collector.topDocs(0).scoreDocs;
-            for (int i = 0; i < hits.length; i++) {
-                final KObject kObject = toKObject(index.doc(hits[i].doc));
-                if (filter.accept(kObject)) {
-                    result.add(kObject);
+            final int maxDoc = index.getIndexReader().maxDoc();
+            if ((long) offset + limit >= maxDoc) {
+                page.fetch(index,
+                           collectAll(index,
+                                      query));
+            } else {
+                int window = offset + limit;
+                ScoreDoc after = null;
+                while (true) {
+                    final ScoreDoc[] hits = index.searchAfter(after,
+                                                              query,
+                                                              window).scoreDocs;
+                    if (!page.fetch(index,
+                                    hits) || hits.length < window) {
+                        break;
+                    }
+                    after = hits[hits.length - 1];
+                    window = (int) Math.min((long) window * 2,
+                                            maxDoc);
                 }
             }
         } catch (final Exception ex) {
@@ -165,7 +234,98 @@ public class LuceneSearchIndex implements SearchIndex {
             indexManager.release(index);
         }
 
-        return result;
+        return page.result;
+    }
+
+    private ScoreDoc[] collectAll(final IndexSearcher index,
+                                  final Query query) throws IOException {
+        final List<ScoreDoc> hits = new ArrayList<ScoreDoc>();
+        index.search(query,
+                     new SimpleCollector() {
+                         private Scorer scorer;
+                         private int docBase;
+
+                         @Override
+                         public void setScorer(final Scorer scorer) {
+                             this.scorer = scorer;
+                         }
+
+                         @Override
+                         protected void doSetNextReader(final LeafReaderContext context) {
+                             this.docBase = context.docBase;
+                         }
+
+                         @Override
+                         public void collect(final int doc) throws IOException {
+                             hits.add(new ScoreDoc(docBase + doc,
+                                                   scorer.score()));
+                         }
+
+                         @Override
+                         public boolean needsScores() {
+                             return true;
+                         }
+                     });
+        // same order as TopScoreDocCollector
+        Collections.sort(hits,
+                         new Comparator<ScoreDoc>() {
+                             @Override
+                             public int compare(final ScoreDoc o1,
+                                                final ScoreDoc o2) {
+                                 final int result = Float.compare(o2.score,
+                                                                  o1.score);
+                                 return result != 0 ? result : Integer.compare(o1.doc,
+                                                                               o2.doc);
+                             }
+                         });
+        return hits.toArray(new ScoreDoc[hits.size()]);
+    }
+
+    /**
+     * Accumulates the filtered objects of a page.
+     */
+    private static class Page {
+
+        private final IOSearchService.Filter filter;
+        private final boolean filtered;
+        private final int limit;
+        private final List<KObject> result = new ArrayList<KObject>();
+        private int skip;
+
+        private Page(final IOSearchService.Filter filter,
+                     final int offset,
+                     final int limit) {
+            this.filter = filter;
+            this.filtered = filter != null && !(filter instanceof IOSearchService.NoOpFilter);
+            this.skip = offset;
+            this.limit = limit;
+        }
+
+        /**
+         * Returns false once the page is full.
+         */
+        private boolean fetch(final IndexSearcher index,
+                              final ScoreDoc[] hits) throws IOException {
+            for (final ScoreDoc hit : hits) {
+                if (result.size() >= limit) {
+                    return false;
+                }
+                if (!filtered && skip > 0) {
+                    skip--;
+                    continue;
+                }
+                final KObject kObject = toKObject(index.doc(hit.doc));
+                if (filtered && !filter.accept(kObject)) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                result.add(kObject);
+            }
+            return result.size() < limit;
+        }
     }
 
     private Query buildQuery(final Map<String, ?> attrs,
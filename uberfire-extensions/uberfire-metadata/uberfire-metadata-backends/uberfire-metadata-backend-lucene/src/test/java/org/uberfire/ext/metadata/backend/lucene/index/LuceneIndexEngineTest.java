@@ -16,13 +16,34 @@
 
 package org.uberfire.ext.metadata.backend.lucene.index;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopScoreDocCollector;
 import org.junit.Test;
 import org.uberfire.commons.lifecycle.PriorityDisposableRegistry;
 import org.uberfire.ext.metadata.backend.lucene.LuceneConfig;
+import org.uberfire.ext.metadata.backend.lucene.LuceneConfigBuilder;
 import org.uberfire.ext.metadata.backend.lucene.fields.FieldFactory;
+import org.uberfire.ext.metadata.backend.lucene.model.KClusterImpl;
+import org.uberfire.ext.metadata.engine.MetaIndexEngine;
 import org.uberfire.ext.metadata.engine.MetaModelStore;
+import org.uberfire.ext.metadata.model.KCluster;
+import org.uberfire.ext.metadata.model.KObject;
+import org.uberfire.ext.metadata.model.KProperty;
+import org.uberfire.ext.metadata.model.schema.MetaObject;
+import org.uberfire.ext.metadata.model.schema.MetaType;
 
+import static java.util.Arrays.asList;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
@@ -37,4 +58,204 @@ public class LuceneIndexEngineTest {
 
         assertTrue(PriorityDisposableRegistry.getDisposables().contains(config));
     }
+
+    @Test
+    public void testBulkIndex() throws Exception {
+        final LuceneConfig config = new LuceneConfigBuilder()
+                .withInMemoryMetaModelStore()
+                .useDirectoryBasedIndex()
+                .useInMemoryDirectory()
+                .build();
+        final MetaIndexEngine indexEngine = config.getIndexEngine();
+        final KCluster cluster = new KClusterImpl("bulk-cluster");
+
+        indexEngine.index(newKObject("1",
+                                     "first"),
+                          newKObject("2",
+                                     "second"),
+                          newKObject("1",
+                                     "first, again"));
+        indexEngine.index(newKObject("2",
+                                     "second, again"),
+                          newKObject("3",
+                                     "third"));
+
+        final LuceneIndex index = (LuceneIndex) config.getIndexManager().get(cluster);
+        final IndexSearcher searcher = index.nrtSearcher();
+        try {
+            final TopScoreDocCollector collector = TopScoreDocCollector.create(10);
+            searcher.search(new MatchAllDocsQuery(),
+                            collector);
+            final ScoreDoc[] hits = collector.topDocs().scoreDocs;
+            final Set<String> values = new HashSet<String>();
+            for (final ScoreDoc hit : hits) {
+                values.add(searcher.doc(hit.doc).get("value"));
+            }
+            assertEquals(3,
+                         hits.length);
+            assertEquals(new HashSet<String>(asList("first, again",
+                                                    "second, again",
+                                                    "third")),
+                         values);
+        } finally {
+            index.nrtRelease(searcher);
+        }
+
+        final MetaObject metaObject = config.getMetaModelStore().getMetaObject("bulk");
+        assertNotNull(metaObject);
+        assertNotNull(metaObject.getProperty("value"));
+        assertFalse(indexEngine.freshIndex(cluster));
+    }
+
+    @Test
+    public void testSharedSearcher() throws Exception {
+        final LuceneConfig config = new LuceneConfigBuilder()
+                .withInMemoryMetaModelStore()
+                .useDirectoryBasedIndex()
+                .useInMemoryDirectory()
+                .build();
+        final LuceneIndexManager indexManager = (LuceneIndexManager) config.getIndexManager();
+        config.getIndexEngine().index(newKObject("1",
+                                                 "first"));
+        final LuceneIndex index = (LuceneIndex) indexManager.get(new KClusterImpl("bulk-cluster"));
+
+        final IndexSearcher first = indexManager.getIndexSearcher();
+        final IndexSearcher second = indexManager.getIndexSearcher();
+        assertSame(first,
+                   second);
+        assertEquals(2,
+                     index.getOpenReaders());
+        indexManager.release(first);
+        indexManager.release(second);
+        assertEquals(0,
+                     index.getOpenReaders());
+
+        config.getIndexEngine().index(newKObject("2",
+                                                 "second"));
+        assertEquals(0,
+                     index.getRefreshLag(TimeUnit.MILLISECONDS));
+        final IndexSearcher third = indexManager.getIndexSearcher();
+        try {
+            assertNotSame(first,
+                          third);
+            assertEquals(2,
+                         third.getIndexReader().numDocs());
+        } finally {
+            indexManager.release(third);
+        }
+
+        config.getIndexEngine().index(newKObject("3",
+                                                 "third"));
+        final IndexSearcher fourth = indexManager.getIndexSearcher();
+        try {
+            assertEquals(3,
+                         fourth.getIndexReader().numDocs());
+        } finally {
+            indexManager.release(fourth);
+        }
+        assertEquals(0,
+                     index.getOpenReaders());
+    }
+
+    @Test
+    public void testSearcherRefreshesOnCommit() throws Exception {
+        final LuceneConfig config = new LuceneConfigBuilder()
+                .withInMemoryMetaModelStore()
+                .useDirectoryBasedIndex()
+                .useInMemoryDirectory()
+                .build();
+        final KCluster cluster = new KClusterImpl("bulk-cluster");
+        config.getIndexEngine().index(newKObject("1",
+                                                 "first"));
+        final LuceneIndex index = (LuceneIndex) config.getIndexManager().get(cluster);
+        assertEquals(0,
+                     index.getRefreshLag(TimeUnit.NANOSECONDS));
+
+        final Document doc = new Document();
+        doc.add(new StringField("id",
+                                "2",
+                                Field.Store.YES));
+        index.indexDocument("2",
+                            doc);
+        Thread.sleep(5);
+        assertTrue(index.getRefreshLag(TimeUnit.MILLISECONDS) >= 5);
+        final IndexSearcher before = index.nrtSearcher();
+        try {
+            assertEquals(1,
+                         before.getIndexReader().numDocs());
+        } finally {
+            index.nrtRelease(before);
+        }
+
+        index.commit();
+        assertEquals(0,
+                     index.getRefreshLag(TimeUnit.NANOSECONDS));
+        final IndexSearcher after = index.nrtSearcher();
+        try {
+            assertEquals(2,
+                         after.getIndexReader().numDocs());
+        } finally {
+            index.nrtRelease(after);
+        }
+    }
+
+    private KObject newKObject(final String id,
+                               final String value) {
+        return new KObject() {
+            @Override
+            public boolean fullText() {
+                return true;
+            }
+
+            @Override
+            public String getId() {
+                return id;
+            }
+
+            @Override
+            public MetaType getType() {
+                return new MetaType() {
+                    @Override
+                    public String getName() {
+                        return "bulk";
+                    }
+                };
+            }
+
+            @Override
+            public String getClusterId() {
+                return "bulk-cluster";
+            }
+
+            @Override
+            public String getSegmentId() {
+                return "master";
+            }
+
+            @Override
+            public String getKey() {
+                return "bulk://" + id;
+            }
+
+            @Override
+            public Iterable<KProperty<?>> getProperties() {
+                return Collections.<KProperty<?>>singletonList(new KProperty<String>() {
+                    @Override
+                    public String getName() {
+                        return "value";
+                    }
+
+                    @Override
+                    public String getValue() {
+                        return value;
+                    }
+
+                    @Override
+                    public boolean isSearchable() {
+                        return true;
+                    }
+                });
+            }
+        };
+    }
 }
@@ -16,20 +16,39 @@
 
 package org.uberfire.ext.metadata.io;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.uberfire.commons.async.DescriptiveRunnable;
+import org.uberfire.commons.async.DescriptiveThreadFactory;
 import org.uberfire.commons.async.SimpleAsyncExecutorService;
 import org.uberfire.ext.metadata.engine.Indexer;
 import org.uberfire.ext.metadata.engine.MetaIndexEngine;
 import org.uberfire.ext.metadata.engine.Observer;
 import org.uberfire.ext.metadata.model.KCluster;
 import org.uberfire.ext.metadata.model.KObject;
+import org.uberfire.ext.metadata.model.KObjectKey;
 import org.uberfire.io.IOService;
 import org.uberfire.java.nio.IOException;
+import org.uberfire.java.nio.base.FileDiff;
 import org.uberfire.java.nio.base.FileSystemId;
+import org.uberfire.java.nio.base.SegmentedPath;
+import org.uberfire.java.nio.base.dotfiles.DotFileUtils;
 import org.uberfire.java.nio.file.FileSystem;
 import org.uberfire.java.nio.file.FileVisitResult;
 import org.uberfire.java.nio.file.Path;
@@ -42,17 +61,44 @@ import static org.uberfire.commons.validation.PortablePreconditions.checkNotNull
 import static org.uberfire.java.nio.file.Files.walkFileTree;
 
 /**
- *
+ * Indexes every file of a file system or directory.
+ * <p>
+ * The calling thread walks the tree and queues files in a bounded queue; a pool of workers shared by all runs
+ * (<code>org.uberfire.metadata.index.workers</code>, defaults to the number of processors) converts them to
+ * KObjects and hands them to the index engine in batches of <code>org.uberfire.metadata.index.batch.size</code>.
+ * <p>
+ * When the file system exposes commits, the head commit of each root is recorded in the index once it's indexed,
+ * so a later {@link #runIncremental(Path)} only has to reindex the files changed since.
  */
 public final class BatchIndex {
 
     private static final Logger LOG = LoggerFactory.getLogger(BatchIndex.class);
+    private static final int PROGRESS_INTERVAL = 1000;
+    private static final int WORKERS = Math.max(1,
+                                                Integer.getInteger("org.uberfire.metadata.index.workers",
+                                                                   Runtime.getRuntime().availableProcessors()));
+    // shared by every run, so indexing many file systems at once doesn't multiply the threads
+    private static final ExecutorService WORKER_POOL = newWorkerPool();
 
     private final MetaIndexEngine indexEngine;
     private final IOService ioService;
     private final Class<? extends FileAttributeView>[] views;
     private final AtomicBoolean indexDisposed = new AtomicBoolean(false);
     private final Observer observer;
+    private final int batchSize = Math.max(1,
+                                           Integer.getInteger("org.uberfire.metadata.index.batch.size",
+                                                              100));
+
+    private static ExecutorService newWorkerPool() {
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(WORKERS,
+                                                               WORKERS,
+                                                               60L,
+                                                               TimeUnit.SECONDS,
+                                                               new LinkedBlockingQueue<Runnable>(),
+                                                               new DescriptiveThreadFactory());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
 
     public BatchIndex(final MetaIndexEngine indexEngine,
                       final IOService ioService,
@@ -119,6 +165,150 @@ public final class BatchIndex {
         });
     }
 
+    public void runIncrementalAsync(final FileSystem fs) {
+        if (fs != null && fs.getRootDirectories().iterator().hasNext()) {
+            SimpleAsyncExecutorService.getDefaultInstance().execute(new DescriptiveRunnable() {
+                @Override
+                public String getDescription() {
+                    return "FS IncrementalIndex [" + ((FileSystemId) fs).id() + "]";
+                }
+
+                @Override
+                public void run() {
+                    for (final Path root : fs.getRootDirectories()) {
+                        if (indexDisposed.get()) {
+                            return;
+                        }
+                        try {
+                            runIncremental(root);
+                        } catch (final Exception ex) {
+                            if (!indexDisposed.get()) {
+                                logError("Incremental index fails. [@" + root.toUri().toString() + "]",
+                                         ex);
+                            }
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Reindexes the files of root changed between its last indexed commit and its current head.
+     * Falls back to reindexing the whole file system when those commits can't be compared (e.g. history was
+     * rewritten).
+     */
+    public void runIncremental(final Path root) {
+        final KCluster cluster = KObjectUtil.toKCluster(root.getFileSystem());
+        final String indexedCommit = indexEngine.getIndexedCommit(cluster,
+                                                                  segmentId(root));
+
+        final Map<String, Object> attrs;
+        try {
+            attrs = ioService.readAttributes(root,
+                                             "changes:" + (indexedCommit == null ? "" : indexedCommit));
+        } catch (final UnsupportedOperationException ex) {
+            // no commits to compare with
+            return;
+        } catch (final Exception ex) {
+            final String message = "Couldn't list changes of " + root.toUri() + " since " + indexedCommit +
+                    ", reindexing " + cluster.getClusterId() + " ...";
+            observer.warning(message);
+            LOG.warn(message,
+                     ex);
+            reindex(root.getFileSystem());
+            return;
+        }
+
+        final String head = (String) attrs.get("head");
+        if (head == null || head.equals(indexedCommit)) {
+            return;
+        }
+        if (indexedCommit == null) {
+            // index built before commits were recorded: track changes from now on
+            indexEngine.setIndexedCommit(cluster,
+                                         segmentId(root),
+                                         head);
+            indexEngine.commit(cluster);
+            return;
+        }
+
+        final Set<Path> deleted = new LinkedHashSet<Path>();
+        final Set<Path> updated = new LinkedHashSet<Path>();
+        for (final Object o : (List<?>) attrs.get("changes")) {
+            final FileDiff change = (FileDiff) o;
+            if (change.getChangeType().equals("DELETE") || change.getChangeType().equals("RENAME")) {
+                deleted.add(root.resolve(change.getNameA()));
+            }
+            if (!change.getChangeType().equals("DELETE")) {
+                updated.add(root.resolve(change.getNameB()));
+            }
+        }
+
+        logInformation("Starting incremental indexing of " + root.toUri() + " since " + indexedCommit + " ...");
+        indexEngine.startBatch(cluster);
+
+        final List<KObjectKey> keys = new ArrayList<KObjectKey>();
+        for (final Path path : deleted) {
+            if (isDotFile(path)) {
+                // attributes removed: the real file (if still there) is reindexed
+                updated.add(path);
+            } else {
+                toKObjectKeys(path,
+                              keys);
+            }
+        }
+        if (!keys.isEmpty()) {
+            indexEngine.delete(keys.toArray(new KObjectKey[keys.size()]));
+        }
+
+        final Set<Path> files = new LinkedHashSet<Path>();
+        for (final Path path : updated) {
+            if (!isDotFile(path)) {
+                files.add(path);
+            } else if (!IOServiceIndexedUtil.isBlackListed(path)) {
+                files.add(DotFileUtils.undot(path));
+            }
+        }
+        final List<KObject> batch = new ArrayList<KObject>(batchSize);
+        for (final Path file : files) {
+            if (indexDisposed.get()) {
+                logWarning("Incremental index couldn't finish. [@" + root.toUri().toString() + "]");
+                return;
+            }
+            if (ioService.exists(file)) {
+                toKObjects(file,
+                           batch);
+                if (batch.size() >= batchSize) {
+                    flush(batch);
+                }
+            }
+        }
+        flush(batch);
+
+        indexEngine.setIndexedCommit(cluster,
+                                     segmentId(root),
+                                     head);
+        indexEngine.commit(cluster);
+        logInformation("Completed incremental indexing of " + root.toUri() + " (" + files.size() + " files)");
+    }
+
+    /**
+     * Drops the index of the file system and indexes all its roots again, so files deleted since the last index
+     * don't linger in it.
+     */
+    private void reindex(final FileSystem fs) {
+        final KCluster cluster = KObjectUtil.toKCluster(fs);
+        indexEngine.delete(cluster);
+        indexEngine.startBatch(cluster);
+        for (final Path root : fs.getRootDirectories()) {
+            if (indexDisposed.get()) {
+                return;
+            }
+            run(root);
+        }
+    }
+
     public void run(final Path root) {
         run(root,
             null);
@@ -134,73 +324,83 @@ public final class BatchIndex {
             logInformation("Starting indexing of " + root.toUri() + " ...");
 
             final KCluster cluster = KObjectUtil.toKCluster(root.getFileSystem());
+            final String head = headCommit(root);
 
-            walkFileTree(checkNotNull("root",
-                                      root),
-                         new SimpleFileVisitor<Path>() {
-                             @Override
-                             public FileVisitResult visitFile(final Path file,
-                                                              final BasicFileAttributes attrs) throws IOException {
-                                 if (indexDisposed.get()) {
-                                     return FileVisitResult.TERMINATE;
-                                 }
-                                 try {
+            final BlockingQueue<Path> pending = new ArrayBlockingQueue<Path>(WORKERS * batchSize);
+            final AtomicBoolean walkFinished = new AtomicBoolean(false);
+            final AtomicLong indexed = new AtomicLong(0);
+            final List<Future<?>> consumers = new ArrayList<Future<?>>(WORKERS);
+            for (int i = 0; i < WORKERS; i++) {
+                consumers.add(WORKER_POOL.submit(new DescriptiveRunnable() {
+                    @Override
+                    public String getDescription() {
+                        return "BatchIndex worker [" + root.toString() + "]";
+                    }
+
+                    @Override
+                    public void run() {
+                        indexFiles(root,
+                                   pending,
+                                   walkFinished,
+                                   indexed);
+                    }
+                }));
+            }
+
+            try {
+                walkFileTree(checkNotNull("root",
+                                          root),
+                             new SimpleFileVisitor<Path>() {
+                                 @Override
+                                 public FileVisitResult visitFile(final Path file,
+                                                                  final BasicFileAttributes attrs) throws IOException {
                                      checkNotNull("file",
                                                   file);
                                      checkNotNull("attrs",
                                                   attrs);
 
                                      if (!file.getFileName().toString().startsWith(".")) {
-
-                                         LOG.debug("Indexing " + file.toUri());
-
-                                         //Default indexing
-                                         for (final Class<? extends FileAttributeView> view : views) {
-                                             ioService.getFileAttributeView(file,
-                                                                            view);
-                                         }
-                                         final FileAttribute<?>[] allAttrs = ioService.convert(ioService.readAttributes(file));
-                                         if (!indexDisposed.get()) {
-                                             indexEngine.index(KObjectUtil.toKObject(file,
-                                                                                     allAttrs));
-                                         } else {
-                                             return FileVisitResult.TERMINATE;
-                                         }
-
-                                         //Additional indexing
-                                         for (Indexer indexer : IndexersFactory.getIndexers()) {
-                                             if (file.getFileSystem().isOpen()) {
-                                                 if (indexer.supportsPath(file)) {
-                                                     final KObject kObject = indexer.toKObject(file);
-                                                     if (kObject != null) {
-                                                         if (!indexDisposed.get()) {
-                                                             indexEngine.index(kObject);
-                                                         } else {
-                                                             return FileVisitResult.TERMINATE;
-                                                         }
-                                                     }
+                                         try {
+                                             while (!pending.offer(file,
+                                                                   100,
+                                                                   TimeUnit.MILLISECONDS)) {
+                                                 if (indexDisposed.get() || allDone(consumers)) {
+                                                     return FileVisitResult.TERMINATE;
                                                  }
                                              }
+                                         } catch (final InterruptedException e) {
+                                             Thread.currentThread().interrupt();
+                                             return FileVisitResult.TERMINATE;
                                          }
                                      }
-                                 } catch (final Exception ex) {
                                      if (indexDisposed.get()) {
-                                         logWarning("Batch index couldn't finish. [@" + root.toUri().toString() + "]");
                                          return FileVisitResult.TERMINATE;
-                                     } else {
-                                         logError("Index fails. [@" + file.toString() + "]",
-                                                  ex);
                                      }
+                                     return FileVisitResult.CONTINUE;
                                  }
-                                 if (indexDisposed.get()) {
-                                     return FileVisitResult.TERMINATE;
-                                 }
-                                 return FileVisitResult.CONTINUE;
-                             }
-                         });
+                             });
+            } finally {
+                walkFinished.set(true);
+                for (final Future<?> consumer : consumers) {
+                    try {
+                        consumer.get();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        indexDisposed.set(true);
+                    } catch (final ExecutionException e) {
+                        logError("Index fails. [@" + root.toUri().toString() + "]",
+                                 e.getCause());
+                    }
+                }
+            }
 
             if (!indexDisposed.get()) {
-                logInformation("Completed indexing of " + root.toUri());
+                logInformation("Completed indexing of " + root.toUri() + " (" + indexed.get() + " files)");
+                if (head != null) {
+                    indexEngine.setIndexedCommit(cluster,
+                                                 segmentId(root),
+                                                 head);
+                }
                 indexEngine.commit(cluster);
                 if (callback != null) {
                     callback.run();
@@ -225,6 +425,141 @@ public final class BatchIndex {
         }
     }
 
+    /**
+     * Worker loop: converts queued files to KObjects and hands them to the index engine in batches,
+     * until the walk is over and the queue is drained, or the index is disposed.
+     */
+    private void indexFiles(final Path root,
+                            final BlockingQueue<Path> pending,
+                            final AtomicBoolean walkFinished,
+                            final AtomicLong indexed) {
+        final List<KObject> batch = new ArrayList<KObject>(batchSize);
+        try {
+            while (!indexDisposed.get()) {
+                final Path file = pending.poll(100,
+                                               TimeUnit.MILLISECONDS);
+                if (file == null) {
+                    if (walkFinished.get() && pending.isEmpty()) {
+                        break;
+                    }
+                    continue;
+                }
+                toKObjects(file,
+                           batch);
+                if (batch.size() >= batchSize) {
+                    flush(batch);
+                }
+                final long count = indexed.incrementAndGet();
+                if (count % PROGRESS_INTERVAL == 0) {
+                    logInformation("Indexed " + count + " files of " + root.toUri() + " ...");
+                }
+            }
+            if (!indexDisposed.get()) {
+                flush(batch);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final Exception ex) {
+            if (indexDisposed.get()) {
+                logWarning("Batch index couldn't finish. [@" + root.toUri().toString() + "]");
+            } else {
+                logError("Index fails. [@" + root.toUri().toString() + "]",
+                         ex);
+            }
+        }
+    }
+
+    private void toKObjects(final Path file,
+                            final List<KObject> batch) {
+        try {
+            LOG.debug("Indexing " + file.toUri());
+
+            //Default indexing
+            for (final Class<? extends FileAttributeView> view : views) {
+                ioService.getFileAttributeView(file,
+                                               view);
+            }
+            final FileAttribute<?>[] allAttrs = ioService.convert(ioService.readAttributes(file));
+            batch.add(KObjectUtil.toKObject(file,
+                                            allAttrs));
+
+            //Additional indexing
+            for (Indexer indexer : IndexersFactory.getIndexers()) {
+                if (file.getFileSystem().isOpen()) {
+                    if (indexer.supportsPath(file)) {
+                        final KObject kObject = indexer.toKObject(file);
+                        if (kObject != null) {
+                            batch.add(kObject);
+                        }
+                    }
+                }
+            }
+        } catch (final Exception ex) {
+            if (!indexDisposed.get()) {
+                logError("Index fails. [@" + file.toString() + "]",
+                         ex);
+            }
+        }
+    }
+
+    private void toKObjectKeys(final Path file,
+                               final List<KObjectKey> keys) {
+        keys.add(KObjectUtil.toKObjectKey(file));
+        for (Indexer indexer : IndexersFactory.getIndexers()) {
+            if (indexer.supportsPath(file)) {
+                final KObjectKey kObjectKey = indexer.toKObjectKey(file);
+                if (kObjectKey != null) {
+                    keys.add(kObjectKey);
+                }
+            }
+        }
+    }
+
+    private String headCommit(final Path root) {
+        try {
+            return (String) ioService.readAttributes(root,
+                                                     "changes:").get("head");
+        } catch (final Exception ex) {
+            // file system without commits
+            return null;
+        }
+    }
+
+    private static String segmentId(final Path root) {
+        return ((SegmentedPath) root).getSegmentId();
+    }
+
+    private static boolean isDotFile(final Path path) {
+        return path.getFileName() != null && path.getFileName().toString().startsWith(".");
+    }
+
+    private void flush(final List<KObject> batch) {
+        if (batch.isEmpty() || indexDisposed.get()) {
+            return;
+        }
+        try {
+            indexEngine.index(batch.toArray(new KObject[batch.size()]));
+        } catch (final Exception ex) {
+            if (indexDisposed.get()) {
+                logWarning("Batch index couldn't finish.");
+            } else {
+                logError("Index fails for a batch of " + batch.size() + " objects.",
+                         ex);
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private boolean allDone(final List<Future<?>> consumers) {
+        for (final Future<?> consumer : consumers) {
+            if (!consumer.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void logInformation(final String message) {
         observer.information(message);
         LOG.info(message);
@@ -53,14 +53,9 @@ public class IOSearchServiceImpl implements IOSearchService {
     public List<Path> searchByAttrs(final Map<String, ?> attrs,
                                     final Filter filter,
                                     final Path... roots) {
-        final List<KObject> kObjects = searchIndex.searchByAttrs(attrs,
-                                                                 filter,
-                                                                 buildClusterSegments(roots));
-        return new ArrayList<Path>() {{
-            for (KObject kObject : kObjects) {
-                add(ioService.get(URI.create(kObject.getKey())));
-            }
-        }};
+        return toPaths(searchIndex.searchByAttrs(attrs,
+                                                 filter,
+                                                 buildClusterSegments(roots)));
     }
 
     @Override
@@ -72,14 +67,40 @@ public class IOSearchServiceImpl implements IOSearchService {
         if (term.isEmpty()) {
             return Collections.emptyList();
         }
-        final List<KObject> kObjects = searchIndex.fullTextSearch(term,
-                                                                  filter,
-                                                                  buildClusterSegments(roots));
-        return new ArrayList<Path>() {{
-            for (KObject kObject : kObjects) {
-                add(ioService.get(URI.create(kObject.getKey())));
-            }
-        }};
+        return toPaths(searchIndex.fullTextSearch(term,
+                                                  filter,
+                                                  buildClusterSegments(roots)));
+    }
+
+    @Override
+    public List<Path> searchByAttrs(final Map<String, ?> attrs,
+                                    final Filter filter,
+                                    final int offset,
+                                    final int limit,
+                                    final Path... roots) {
+        return toPaths(searchIndex.searchByAttrs(attrs,
+                                                 filter,
+                                                 offset,
+                                                 limit,
+                                                 buildClusterSegments(roots)));
+    }
+
+    @Override
+    public List<Path> fullTextSearch(final String _term,
+                                     final Filter filter,
+                                     final int offset,
+                                     final int limit,
+                                     final Path... roots) {
+        final String term = checkNotNull("term",
+                                         _term).trim();
+        if (term.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return toPaths(searchIndex.fullTextSearch(term,
+                                                  filter,
+                                                  offset,
+                                                  limit,
+                                                  buildClusterSegments(roots)));
     }
 
     @Override
@@ -96,6 +117,14 @@ public class IOSearchServiceImpl implements IOSearchService {
                                               buildClusterSegments(roots));
     }
 
+    private List<Path> toPaths(final List<KObject> kObjects) {
+        return new ArrayList<Path>() {{
+            for (KObject kObject : kObjects) {
+                add(ioService.get(URI.create(kObject.getKey())));
+            }
+        }};
+    }
+
     private ClusterSegment[] buildClusterSegments(final Path[] roots) {
         if (roots == null || roots.length == 0) {
             return new ClusterSegment[0];
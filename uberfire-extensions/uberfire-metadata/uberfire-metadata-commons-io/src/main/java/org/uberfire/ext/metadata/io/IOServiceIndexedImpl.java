@@ -241,7 +241,7 @@ public class IOServiceIndexedImpl extends IOServiceDotFileImpl {
         final DisposableExecutor defaultInstance = SimpleAsyncExecutorService.getDefaultInstance();
         final DisposableExecutor unmanagedInstance = SimpleAsyncExecutorService.getUnmanagedInstance();
 
-        SimpleAsyncExecutorService.getUnmanagedInstance().execute(new DescriptiveRunnable() {
+        SimpleAsyncExecutorService.getLongRunningInstance().execute(new DescriptiveRunnable() {
             @Override
             public String getDescription() {
                 return "IOServiceIndexedImpl(" + ws.toString() + ")";
@@ -400,6 +400,9 @@ public class IOServiceIndexedImpl extends IOServiceDotFileImpl {
             // prevent multiple batch indexes for the same FileSystem being scheduled.
             indexEngine.startBatch(cluster);
             index(fs);
+        } else if (!watchedList.contains(fs)) {
+            // first load of an existing index: catch up with the commits made since it was last indexed
+            batchIndex.runIncrementalAsync(fs);
         }
     }
 
@@ -17,8 +17,12 @@
 package org.uberfire.ext.metadata.io;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.IndexSearcher;
@@ -31,13 +35,16 @@ import org.uberfire.ext.metadata.backend.lucene.LuceneConfigBuilder;
 import org.uberfire.ext.metadata.backend.lucene.index.LuceneIndex;
 import org.uberfire.ext.metadata.engine.Index;
 import org.uberfire.ext.metadata.engine.Observer;
+import org.uberfire.ext.metadata.model.KCluster;
 import org.uberfire.io.IOService;
 import org.uberfire.io.attribute.DublinCoreView;
 import org.uberfire.io.impl.IOServiceDotFileImpl;
+import org.uberfire.java.nio.base.FileDiff;
 import org.uberfire.java.nio.file.OpenOption;
 import org.uberfire.java.nio.file.Path;
 import org.uberfire.java.nio.file.attribute.FileAttribute;
 
+import static java.util.Arrays.asList;
 import static org.junit.Assert.*;
 import static org.uberfire.ext.metadata.io.KObjectUtil.toKCluster;
 
@@ -58,7 +65,7 @@ public class BatchIndexTest extends BaseIndexTest {
 
     @Override
     protected String[] getRepositoryNames() {
-        return new String[]{"temp-repo-test"};
+        return new String[]{"temp-repo-test", "temp-repo-parallel", "temp-repo-incremental", "temp-repo-incremental-fallback", "temp-repo-incremental-rename"};
     }
 
     @Test
@@ -259,4 +266,240 @@ public class BatchIndexTest extends BaseIndexTest {
                                                      }
                                                  });
     }
+
+    @Test
+    public void testParallelIndex() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            ioService().write(ioService().get("git://temp-repo-parallel/dir" + (i % 3) + "/file" + i + ".txt"),
+                              "content " + i);
+        }
+
+        final List<String> messages = new CopyOnWriteArrayList<String>();
+        final BatchIndex batchIndex;
+        System.setProperty("org.uberfire.metadata.index.workers",
+                           "3");
+        System.setProperty("org.uberfire.metadata.index.batch.size",
+                           "4");
+        try {
+            batchIndex = new BatchIndex(config.getIndexEngine(),
+                                        ioService(),
+                                        new Observer() {
+                                            @Override
+                                            public void information(final String message) {
+                                                messages.add(message);
+                                            }
+
+                                            @Override
+                                            public void warning(final String message) {
+                                                messages.add(message);
+                                            }
+
+                                            @Override
+                                            public void error(final String message) {
+                                                messages.add(message);
+                                            }
+                                        },
+                                        DublinCoreView.class);
+        } finally {
+            System.clearProperty("org.uberfire.metadata.index.workers");
+            System.clearProperty("org.uberfire.metadata.index.batch.size");
+        }
+
+        final AtomicBoolean completed = new AtomicBoolean(false);
+        batchIndex.run(ioService().get("git://temp-repo-parallel/"),
+                       () -> completed.set(true));
+
+        assertTrue(completed.get());
+        assertTrue(messages.toString(),
+                   messages.get(messages.size() - 1).startsWith("Completed indexing"));
+
+        final Index index = config.getIndexManager().get(toKCluster(ioService().get("git://temp-repo-parallel/").getFileSystem()));
+        final IndexSearcher searcher = ((LuceneIndex) index).nrtSearcher();
+        try {
+            final TopScoreDocCollector collector = TopScoreDocCollector.create(100);
+            searcher.search(new MatchAllDocsQuery(),
+                            collector);
+            assertEquals(25,
+                         collector.topDocs().scoreDocs.length);
+        } finally {
+            ((LuceneIndex) index).nrtRelease(searcher);
+        }
+    }
+
+    @Test
+    public void testIncrementalIndex() throws Exception {
+        final Path root = ioService().get("git://temp-repo-incremental/");
+        final KCluster cluster = toKCluster(root.getFileSystem());
+        ioService().write(ioService().get("git://temp-repo-incremental/a.txt"),
+                          "a");
+        ioService().write(ioService().get("git://temp-repo-incremental/b.txt"),
+                          "b");
+        ioService().write(ioService().get("git://temp-repo-incremental/c.txt"),
+                          "c");
+
+        final BatchIndex batchIndex = new BatchIndex(config.getIndexEngine(),
+                                                     ioService(),
+                                                     new Observer() {
+                                                         @Override
+                                                         public void information(final String message) {
+                                                         }
+
+                                                         @Override
+                                                         public void warning(final String message) {
+                                                         }
+
+                                                         @Override
+                                                         public void error(final String message) {
+                                                         }
+                                                     },
+                                                     DublinCoreView.class);
+        batchIndex.run(root);
+
+        final String firstCommit = config.getIndexEngine().getIndexedCommit(cluster,
+                                                                            "master");
+        assertNotNull(firstCommit);
+        assertEquals(asList("a.txt", "b.txt", "c.txt"),
+                     indexedFileNames(cluster));
+
+        ioService().write(ioService().get("git://temp-repo-incremental/a.txt"),
+                          "a updated");
+        ioService().delete(ioService().get("git://temp-repo-incremental/b.txt"));
+        ioService().move(ioService().get("git://temp-repo-incremental/c.txt"),
+                         ioService().get("git://temp-repo-incremental/d.txt"));
+        ioService().write(ioService().get("git://temp-repo-incremental/e.txt"),
+                          "e");
+
+        batchIndex.runIncremental(root);
+
+        final String secondCommit = config.getIndexEngine().getIndexedCommit(cluster,
+                                                                             "master");
+        assertNotNull(secondCommit);
+        assertNotEquals(firstCommit,
+                        secondCommit);
+        assertEquals(asList("a.txt", "d.txt", "e.txt"),
+                     indexedFileNames(cluster));
+    }
+
+    @Test
+    public void testIncrementalIndexFallbackDropsDeletedFiles() throws Exception {
+        final Path root = ioService().get("git://temp-repo-incremental-fallback/");
+        final KCluster cluster = toKCluster(root.getFileSystem());
+        ioService().write(ioService().get("git://temp-repo-incremental-fallback/a.txt"),
+                          "a");
+        ioService().write(ioService().get("git://temp-repo-incremental-fallback/b.txt"),
+                          "b");
+
+        final List<String> warnings = new ArrayList<String>();
+        final BatchIndex batchIndex = new BatchIndex(config.getIndexEngine(),
+                                                     ioService(),
+                                                     new Observer() {
+                                                         @Override
+                                                         public void information(final String message) {
+                                                         }
+
+                                                         @Override
+                                                         public void warning(final String message) {
+                                                             warnings.add(message);
+                                                         }
+
+                                                         @Override
+                                                         public void error(final String message) {
+                                                         }
+                                                     },
+                                                     DublinCoreView.class);
+        batchIndex.run(root);
+        assertEquals(asList("a.txt", "b.txt"),
+                     indexedFileNames(cluster));
+
+        // an indexed commit that isn't in the history anymore
+        config.getIndexEngine().setIndexedCommit(cluster,
+                                                 "master",
+                                                 "0123456789012345678901234567890123456789");
+        config.getIndexEngine().commit(cluster);
+        ioService().delete(ioService().get("git://temp-repo-incremental-fallback/b.txt"));
+
+        batchIndex.runIncremental(root);
+
+        assertEquals(1,
+                     warnings.size());
+        assertEquals(asList("a.txt"),
+                     indexedFileNames(cluster));
+        assertNotEquals("0123456789012345678901234567890123456789",
+                        config.getIndexEngine().getIndexedCommit(cluster,
+                                                                 "master"));
+    }
+
+    @Test
+    public void testIncrementalIndexOfRenamedFile() throws Exception {
+        final Path root = ioService().get("git://temp-repo-incremental-rename/");
+        final KCluster cluster = toKCluster(root.getFileSystem());
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            content.append("line ").append(i).append('\n');
+        }
+        ioService().write(ioService().get("git://temp-repo-incremental-rename/a.txt"),
+                          "a");
+        ioService().write(ioService().get("git://temp-repo-incremental-rename/c.txt"),
+                          content.toString());
+
+        final BatchIndex batchIndex = new BatchIndex(config.getIndexEngine(),
+                                                     ioService(),
+                                                     new Observer() {
+                                                         @Override
+                                                         public void information(final String message) {
+                                                         }
+
+                                                         @Override
+                                                         public void warning(final String message) {
+                                                         }
+
+                                                         @Override
+                                                         public void error(final String message) {
+                                                         }
+                                                     },
+                                                     DublinCoreView.class);
+        batchIndex.run(root);
+        final String firstCommit = config.getIndexEngine().getIndexedCommit(cluster,
+                                                                            "master");
+        assertEquals(asList("a.txt", "c.txt"),
+                     indexedFileNames(cluster));
+
+        // moved, then edited: still a rename
+        ioService().move(ioService().get("git://temp-repo-incremental-rename/c.txt"),
+                         ioService().get("git://temp-repo-incremental-rename/d.txt"));
+        ioService().write(ioService().get("git://temp-repo-incremental-rename/d.txt"),
+                          content.append("line 20\n").toString());
+
+        final List<String> changes = new ArrayList<String>();
+        for (final Object o : (List<?>) ioService().readAttributes(root,
+                                                                   "changes:" + firstCommit).get("changes")) {
+            final FileDiff change = (FileDiff) o;
+            changes.add(change.getChangeType() + ":" + change.getNameA() + ":" + change.getNameB());
+        }
+        assertEquals(asList("RENAME:c.txt:d.txt"),
+                     changes);
+
+        batchIndex.runIncremental(root);
+
+        assertEquals(asList("a.txt", "d.txt"),
+                     indexedFileNames(cluster));
+    }
+
+    private List<String> indexedFileNames(final KCluster cluster) throws IOException {
+        final LuceneIndex index = (LuceneIndex) config.getIndexManager().get(cluster);
+        final IndexSearcher searcher = index.nrtSearcher();
+        try {
+            final TopScoreDocCollector collector = TopScoreDocCollector.create(100);
+            searcher.search(new MatchAllDocsQuery(),
+                            collector);
+            final List<String> result = new ArrayList<String>();
+            for (final ScoreDoc hit : collector.topDocs().scoreDocs) {
+                result.add(searcher.doc(hit.doc).get("filename"));
+            }
+            Collections.sort(result);
+            return result;
+        } finally {
+            index.nrtRelease(searcher);
+        }
+    }
 }
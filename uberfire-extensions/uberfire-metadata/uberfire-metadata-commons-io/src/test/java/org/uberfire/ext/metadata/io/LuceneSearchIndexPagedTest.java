@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.ext.metadata.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.byteman.contrib.bmunit.BMScript;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.uberfire.ext.metadata.model.KObject;
+import org.uberfire.ext.metadata.search.ClusterSegment;
+import org.uberfire.ext.metadata.search.IOSearchService;
+import org.uberfire.java.nio.base.FileSystemId;
+import org.uberfire.java.nio.base.SegmentedPath;
+import org.uberfire.java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+@RunWith(org.jboss.byteman.contrib.bmunit.BMUnitRunner.class)
+@BMScript(value = "byteman/index.btm")
+public class LuceneSearchIndexPagedTest extends BaseIndexTest {
+
+    @Override
+    protected String[] getRepositoryNames() {
+        return new String[]{this.getClass().getSimpleName()};
+    }
+
+    @Test
+    public void testPagedSearch() throws IOException, InterruptedException {
+        setupCountDown(5);
+        final Path basePath = getBasePath(this.getClass().getSimpleName());
+        for (int i = 0; i < 5; i++) {
+            ioService().write(basePath.resolve("pagedFile" + i + ".txt"),
+                              "content" + i);
+        }
+
+        final ClusterSegment cs = new ClusterSegment() {
+            @Override
+            public String getClusterId() {
+                return ((FileSystemId) basePath.getFileSystem()).id();
+            }
+
+            @Override
+            public String[] segmentIds() {
+                return new String[]{((SegmentedPath) basePath).getSegmentId()};
+            }
+        };
+
+        waitForCountDown(5000);
+
+        final Map<String, Object> attributes = new HashMap<String, Object>() {{
+            put("filename",
+                "*.txt");
+        }};
+        final IOSearchService.Filter filter = new IOSearchService.Filter() {
+            @Override
+            public boolean accept(final KObject kObject) {
+                return !kObject.getKey().endsWith("pagedFile2.txt");
+            }
+        };
+
+        final List<String> all = keys(config.getSearchIndex().searchByAttrs(attributes,
+                                                                            new IOSearchService.NoOpFilter(),
+                                                                            cs));
+        assertEquals(5,
+                     all.size());
+        assertEquals(all.subList(1,
+                                 3),
+                     keys(config.getSearchIndex().searchByAttrs(attributes,
+                                                                new IOSearchService.NoOpFilter(),
+                                                                1,
+                                                                2,
+                                                                cs)));
+        assertEquals(all.subList(4,
+                                 5),
+                     keys(config.getSearchIndex().searchByAttrs(attributes,
+                                                                new IOSearchService.NoOpFilter(),
+                                                                4,
+                                                                10,
+                                                                cs)));
+
+        final List<String> filtered = keys(config.getSearchIndex().searchByAttrs(attributes,
+                                                                                 filter,
+                                                                                 cs));
+        assertEquals(4,
+                     filtered.size());
+        assertEquals(filtered.subList(0,
+                                      2),
+                     keys(config.getSearchIndex().searchByAttrs(attributes,
+                                                                filter,
+                                                                0,
+                                                                2,
+                                                                cs)));
+        assertEquals(filtered.subList(2,
+                                      4),
+                     keys(config.getSearchIndex().searchByAttrs(attributes,
+                                                                filter,
+                                                                2,
+                                                                2,
+                                                                cs)));
+
+        assertEquals(3,
+                     config.getSearchIndex().fullTextSearch("*pagedFile*",
+                                                            filter,
+                                                            1,
+                                                            10,
+                                                            cs).size());
+    }
+
+    private List<String> keys(final List<KObject> kObjects) {
+        final List<String> result = new ArrayList<String>();
+        for (final KObject kObject : kObjects) {
+            result.add(kObject.getKey());
+        }
+        return result;
+    }
+}
@@ -152,6 +152,11 @@ public class PluginMediaServlet
     protected void doPost(HttpServletRequest req,
                           HttpServletResponse response) throws ServletException, IOException {
 
+        if (!acquireUpload()) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+
         try {
             final String filename = req.getRequestURI().substring(req.getContextPath().length());
             final String pluginName = filename.replace(pattern,
@@ -189,6 +194,8 @@ public class PluginMediaServlet
             logError(e);
             writeResponse(response,
                           "FAIL");
+        } finally {
+            releaseUpload();
         }
     }
 
@@ -22,7 +22,9 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.nio.charset.Charset;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -472,6 +474,12 @@ public class IOSecurityService implements IOService {
         return service.readAttributes(path);
     }
 
+    @Override
+    public List<Map<String, Object>> readAttributes(List<Path> paths) throws UnsupportedOperationException, IllegalArgumentException, IOException, SecurityException {
+        authorize(paths);
+        return service.readAttributes(paths);
+    }
+
     @Override
     public Map<String, Object> readAttributes(Path path,
                                               String attributes) throws UnsupportedOperationException, NoSuchFileException, IllegalArgumentException, IOException, SecurityException {
@@ -556,6 +564,12 @@ public class IOSecurityService implements IOService {
         return service.exists(path);
     }
 
+    @Override
+    public List<Boolean> exists(List<Path> paths) throws IllegalArgumentException, SecurityException {
+        authorize(paths);
+        return service.exists(paths);
+    }
+
     @Override
     public boolean notExists(Path path) throws IllegalArgumentException, SecurityException {
         if (!authManager.authorize(toResource(path),
@@ -826,6 +840,23 @@ public class IOSecurityService implements IOService {
                              options);
     }
 
+    /**
+     * Paths are authorized by their file system, so paths are grouped by file system and each group is checked once.
+     */
+    private void authorize(final List<Path> paths) {
+        final Set<FileSystem> fileSystems = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (final Path path : paths) {
+            fileSystems.add(path.getFileSystem());
+        }
+        final User user = getUser();
+        for (final FileSystem fs : fileSystems) {
+            if (!authManager.authorize(toResource(fs),
+                                       user)) {
+                throw new SecurityException();
+            }
+        }
+    }
+
     private Resource toResource(final FileSystem fs) {
         return new FileSystemResourceAdaptor(fs);
     }
@@ -41,6 +41,7 @@ public class BaseGridColumn<T> implements GridColumn<T> {
     private int index = -1;
     private List<HeaderMetaData> headerMetaData = new ArrayList<HeaderMetaData>();
     private GridColumnRenderer<T> columnRenderer;
+    private BaseGridDataOffsets<GridColumn<?>> offsets;
 
     public BaseGridColumn(final HeaderMetaData headerMetaData,
                           final GridColumnRenderer<T> columnRenderer,
@@ -86,6 +87,7 @@ public class BaseGridColumn<T> implements GridColumn<T> {
     @Override
     public void setWidth(final double width) {
         this.width = width;
+        onWidthChanged();
     }
 
     @Override
@@ -154,6 +156,28 @@ public class BaseGridColumn<T> implements GridColumn<T> {
     @Override
     public void setVisible(final boolean isVisible) {
         this.isVisible = isVisible;
+        onWidthChanged();
+    }
+
+    private void onWidthChanged() {
+        if (offsets != null) {
+            offsets.onSizeChanged(this);
+        }
+    }
+
+    /**
+     * Whether the width of this column only changes through {@link #setWidth(double)} and
+     * {@link #setVisible(boolean)}, so {@link BaseGridData} can keep its column offsets up to date from their
+     * notifications. Subclasses may override {@link #getWidth()} or {@link #isVisible()}, so this only holds for
+     * this exact class; a subclass whose width changes the same way can say so by overriding this method.
+     */
+    protected boolean isWidthObservable() {
+        return getClass() == BaseGridColumn.class;
+    }
+
+    //This is not part of the GridColumn interface as we don't want to expose this for general use
+    void setOffsets(final BaseGridDataOffsets<GridColumn<?>> offsets) {
+        this.offsets = offsets;
     }
 
     @Override
@@ -45,6 +45,48 @@ public class BaseGridData implements GridData {
     protected BaseGridDataIndexManager indexManager = new BaseGridDataIndexManager(this);
     protected BaseGridDataSelectionsManager selectionsManager = new BaseGridDataSelectionsManager(this);
 
+    private final BaseGridDataOffsets<GridRow> rowOffsets = new BaseGridDataOffsets<GridRow>() {
+        @Override
+        List<GridRow> getItems() {
+            return rows;
+        }
+
+        @Override
+        double getSize(final GridRow row) {
+            return row.getHeight();
+        }
+
+        @Override
+        boolean observe(final GridRow row) {
+            if (row instanceof BaseGridRow && ((BaseGridRow) row).isHeightObservable()) {
+                ((BaseGridRow) row).setOffsets(this);
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private final BaseGridDataOffsets<GridColumn<?>> columnOffsets = new BaseGridDataOffsets<GridColumn<?>>() {
+        @Override
+        List<GridColumn<?>> getItems() {
+            return columns;
+        }
+
+        @Override
+        double getSize(final GridColumn<?> column) {
+            return column.isVisible() ? column.getWidth() : 0;
+        }
+
+        @Override
+        boolean observe(final GridColumn<?> column) {
+            if (column instanceof BaseGridColumn && ((BaseGridColumn<?>) column).isWidthObservable()) {
+                ((BaseGridColumn<?>) column).setOffsets(this);
+                return true;
+            }
+            return false;
+        }
+    };
+
     public BaseGridData() {
         this(true);
     }
@@ -67,6 +109,7 @@ public class BaseGridData implements GridData {
     public void appendColumn(final GridColumn<?> column) {
         column.setIndex(columns.size());
         columns.add(column);
+        columnOffsets.invalidate();
     }
 
     @Override
@@ -75,6 +118,7 @@ public class BaseGridData implements GridData {
         column.setIndex(columns.size());
         columns.add(index,
                     column);
+        columnOffsets.invalidate();
     }
 
     @Override
@@ -91,6 +135,7 @@ public class BaseGridData implements GridData {
             ((HasDOMElementResources) column.getColumnRenderer()).destroyResources();
         }
         columns.remove(column);
+        columnOffsets.invalidate();
 
         //Destroy column data
         for (GridRow row : rows) {
@@ -138,6 +183,7 @@ public class BaseGridData implements GridData {
             this.columns.addAll(index - columns.size() + 1,
                                 columns);
         }
+        columnOffsets.invalidate();
     }
 
     @Override
@@ -153,6 +199,7 @@ public class BaseGridData implements GridData {
     @Override
     public void appendRow(final GridRow row) {
         this.rows.add(row);
+        rowOffsets.invalidate();
     }
 
     @Override
@@ -160,6 +207,7 @@ public class BaseGridData implements GridData {
                           final GridRow row) {
         this.rows.add(rowIndex,
                       row);
+        rowOffsets.invalidate();
 
         indexManager.onInsertRow(rowIndex);
         selectionsManager.onInsertRow(rowIndex);
@@ -188,6 +236,7 @@ public class BaseGridData implements GridData {
         for (int _rowIndex = minRowIndex; _rowIndex <= maxRowIndex; _rowIndex++) {
             rows.remove(minRowIndex);
         }
+        rowOffsets.invalidate();
 
         indexManager.onDeleteRow(range);
         selectionsManager.onDeleteRow(range);
@@ -229,6 +278,7 @@ public class BaseGridData implements GridData {
             this.rows.addAll(index - rows.size() + 1,
                              rows);
         }
+        rowOffsets.invalidate();
 
         final Range oldBlockExtent = new Range(oldBlockStart,
                                                oldBlockEnd);
@@ -243,6 +293,53 @@ public class BaseGridData implements GridData {
         return rows.size();
     }
 
+    /**
+     * Get the y-offset of the given Row index relative to zero; i.e. the sum of the heights of the preceding rows.
+     * @param rowIndex The index of the GridRow.
+     * @return
+     */
+    public double getRowOffset(final int rowIndex) {
+        return rowOffsets.getOffset(rowIndex);
+    }
+
+    /**
+     * Get the index of the given Row. This is equivalent to rows.indexOf(row).
+     * @param row The GridRow.
+     * @return The index of the row or -1 if the row is not present.
+     */
+    public int getUiRowIndex(final GridRow row) {
+        return rowOffsets.getIndex(row);
+    }
+
+    /**
+     * Get the index of the Row containing the given y-offset relative to zero; i.e. the first row whose bottom edge
+     * is at, or below, the offset.
+     * @param offsetY The y-offset.
+     * @return The index of the row or the number of rows if the offset is below the last row.
+     */
+    public int getUiRowIndexAt(final double offsetY) {
+        return rowOffsets.getIndexAt(offsetY);
+    }
+
+    /**
+     * Get the x-offset of the given Column index relative to zero; i.e. the sum of the widths of the preceding
+     * visible columns.
+     * @param columnIndex The index of the GridColumn.
+     * @return
+     */
+    public double getColumnOffset(final int columnIndex) {
+        return columnOffsets.getOffset(columnIndex);
+    }
+
+    /**
+     * Get the index of the given Column. This is equivalent to columns.indexOf(column).
+     * @param column The GridColumn.
+     * @return The index of the column or -1 if the column is not present.
+     */
+    public int getUiColumnIndex(final GridColumn<?> column) {
+        return columnOffsets.getIndex(column);
+    }
+
     @Override
     public int getHeaderRowCount() {
         return headerRowCount;
@@ -293,6 +390,7 @@ public class BaseGridData implements GridData {
         column.setIndex(columns.get(index).getIndex());
         columns.set(index,
                     column);
+        columnOffsets.invalidate();
 
         //Clear column data
         for (GridRow row : rows) {
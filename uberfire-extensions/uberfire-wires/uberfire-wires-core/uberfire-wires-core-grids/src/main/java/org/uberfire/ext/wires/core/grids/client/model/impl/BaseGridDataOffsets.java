@@ -0,0 +1,144 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.uberfire.ext.wires.core.grids.client.model.impl;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prefix sums of the sizes (row heights or column widths) of the items in a {@link BaseGridData}, held in a
+ * Fenwick tree so that the offset of an item and the item at an offset are both found in O(log n).
+ * <p>
+ * The tree is rebuilt lazily following structural changes (insertions, deletions and moves). Items that report
+ * changes to their size, see {@link #observe(Object)}, are updated in place; if any item cannot report changes
+ * the tree is rebuilt on every lookup.
+ */
+abstract class BaseGridDataOffsets<T> {
+
+    private final Map<T, Integer> indexes = new IdentityHashMap<T, Integer>();
+    private double[] sizes = new double[0];
+    private double[] tree = new double[1];
+    private boolean isValid = false;
+
+    /**
+     * The live list of items.
+     */
+    abstract List<T> getItems();
+
+    abstract double getSize(final T item);
+
+    /**
+     * Registers this instance to receive {@link #onSizeChanged(Object)} notifications from the given item.
+     * @return false if the item cannot report changes to its size.
+     */
+    abstract boolean observe(final T item);
+
+    void invalidate() {
+        isValid = false;
+    }
+
+    void onSizeChanged(final T item) {
+        if (!isValid) {
+            return;
+        }
+        final Integer index = indexes.get(item);
+        if (index == null) {
+            return;
+        }
+        final double size = getSize(item);
+        final double delta = size - sizes[index];
+        sizes[index] = size;
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] = tree[i] + delta;
+        }
+    }
+
+    /**
+     * Get the sum of the sizes of the items preceding the given index.
+     * @param index The index of the item. Indexes greater than the number of items return the total size.
+     * @return
+     */
+    double getOffset(final int index) {
+        validate();
+        double offset = 0;
+        for (int i = Math.min(index,
+                              sizes.length); i > 0; i -= i & -i) {
+            offset = offset + tree[i];
+        }
+        return offset;
+    }
+
+    /**
+     * Get the index of the given item.
+     * @param item The item.
+     * @return The index of the item or -1 if it is not present.
+     */
+    int getIndex(final T item) {
+        validate();
+        final Integer index = indexes.get(item);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Get the index of the first item whose far edge is at, or beyond, the given offset.
+     * @param offset The offset relative to zero.
+     * @return The index of the item or the number of items if the offset is beyond the last item.
+     */
+    int getIndexAt(final double offset) {
+        validate();
+        int index = 0;
+        double remaining = offset;
+        for (int step = Integer.highestOneBit(Math.max(sizes.length,
+                                                       1)); step > 0; step = step >> 1) {
+            final int next = index + step;
+            if (next <= sizes.length && tree[next] < remaining) {
+                index = next;
+                remaining = remaining - tree[next];
+            }
+        }
+        return index;
+    }
+
+    private void validate() {
+        final List<T> items = getItems();
+        if (isValid && sizes.length == items.size()) {
+            return;
+        }
+        final int n = items.size();
+        indexes.clear();
+        sizes = new double[n];
+        tree = new double[n + 1];
+        boolean isObservable = true;
+        for (int i = 0; i < n; i++) {
+            final T item = items.get(i);
+            if (indexes.containsKey(item)) {
+                isObservable = false;
+            } else {
+                indexes.put(item,
+                            i);
+            }
+            isObservable = observe(item) && isObservable;
+            sizes[i] = getSize(item);
+            tree[i + 1] = tree[i + 1] + sizes[i];
+            final int parent = (i + 1) + ((i + 1) & -(i + 1));
+            if (parent <= n) {
+                tree[parent] = tree[parent] + tree[i + 1];
+            }
+        }
+        isValid = isObservable;
+    }
+}
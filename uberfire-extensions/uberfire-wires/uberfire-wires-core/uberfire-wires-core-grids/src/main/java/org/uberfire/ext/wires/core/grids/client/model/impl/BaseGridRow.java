@@ -35,6 +35,7 @@ public class BaseGridRow implements GridRow {
     private boolean hasMergedCells = false;
     private Stack<Double> heights = new Stack<Double>();
     private int collapseLevel = 0;
+    private BaseGridDataOffsets<GridRow> offsets;
 
     public BaseGridRow() {
         this(20);
@@ -58,6 +59,7 @@ public class BaseGridRow implements GridRow {
     @Override
     public void setHeight(final double height) {
         this.height = height;
+        onHeightChanged();
     }
 
     @Override
@@ -91,6 +93,7 @@ public class BaseGridRow implements GridRow {
         }
         collapseLevel--;
         height = heights.pop();
+        onHeightChanged();
         for (GridCell<?> cell : cells.values()) {
             cell.expand();
         }
@@ -103,11 +106,18 @@ public class BaseGridRow implements GridRow {
         height = heights.firstElement();
         heights.clear();
         heights.push(height);
+        onHeightChanged();
         for (GridCell<?> cell : cells.values()) {
             cell.reset();
         }
     }
 
+    private void onHeightChanged() {
+        if (offsets != null) {
+            offsets.onSizeChanged(this);
+        }
+    }
+
     //This is not part of the GridCell interface as we don't want to expose this for general use
     @SuppressWarnings("unchecked")
     void setCell(final int columnIndex,
@@ -125,6 +135,21 @@ public class BaseGridRow implements GridRow {
         cells.remove(columnIndex);
     }
 
+    /**
+     * Whether the height of this row only changes through {@link #setHeight(double)}, {@link #collapse()},
+     * {@link #expand()} and {@link #reset()}, so {@link BaseGridData} can keep its row offsets up to date from
+     * their notifications. Subclasses may override {@link #getHeight()}, so this only holds for this exact class;
+     * a subclass whose height changes the same way can say so by overriding this method.
+     */
+    protected boolean isHeightObservable() {
+        return getClass() == BaseGridRow.class;
+    }
+
+    //This is not part of the GridRow interface as we don't want to expose this for general use
+    void setOffsets(final BaseGridDataOffsets<GridRow> offsets) {
+        this.offsets = offsets;
+    }
+
     //This is not part of the GridCell interface as we don't want to expose this for general use
     void setHasMergedCells(final boolean hasMergedCells) {
         this.hasMergedCells = hasMergedCells;
@@ -22,6 +22,7 @@ import com.ait.lienzo.client.core.types.Transform;
 import org.uberfire.ext.wires.core.grids.client.model.GridColumn;
 import org.uberfire.ext.wires.core.grids.client.model.GridData;
 import org.uberfire.ext.wires.core.grids.client.model.GridRow;
+import org.uberfire.ext.wires.core.grids.client.model.impl.BaseGridData;
 import org.uberfire.ext.wires.core.grids.client.widget.grid.GridWidget;
 import org.uberfire.ext.wires.core.grids.client.widget.grid.renderers.grids.GridRenderer;
 import org.uberfire.ext.wires.core.grids.client.widget.grid.renderers.grids.impl.BaseGridRendererHelper;
@@ -75,13 +76,8 @@ public class CoordinateUtilities {
         }
 
         //Get row index
-        GridRow row;
-        int uiRowIndex = 0;
-        double offsetY = cy - renderer.getHeaderHeight();
-        while ((row = gridModel.getRow(uiRowIndex)).getHeight() < offsetY) {
-            offsetY = offsetY - row.getHeight();
-            uiRowIndex++;
-        }
+        final int uiRowIndex = getUiRowIndex(gridModel,
+                                             cy - renderer.getHeaderHeight());
         if (uiRowIndex < 0 || uiRowIndex > gridModel.getRowCount() - 1) {
             return null;
         }
@@ -89,6 +85,50 @@ public class CoordinateUtilities {
         return uiRowIndex;
     }
 
+    /**
+     * Gets the row index corresponding to the provided y-offset relative to the top of the first row. This is the
+     * index of the first row whose bottom edge is at, or below, the offset; or the last row if the offset lies
+     * below the grid.
+     * @param gridModel The GridData containing the rows. It should contain at least one row.
+     * @param offsetY y-offset relative to the top of the first row.
+     * @return The row index.
+     */
+    public static int getUiRowIndex(final GridData gridModel,
+                                    final double offsetY) {
+        final int lastRowIndex = gridModel.getRowCount() - 1;
+        if (gridModel instanceof BaseGridData) {
+            return Math.max(0,
+                            Math.min(((BaseGridData) gridModel).getUiRowIndexAt(offsetY),
+                                     lastRowIndex));
+        }
+        GridRow row;
+        int uiRowIndex = 0;
+        double _offsetY = offsetY;
+        while (uiRowIndex < lastRowIndex && (row = gridModel.getRow(uiRowIndex)).getHeight() < _offsetY) {
+            _offsetY = _offsetY - row.getHeight();
+            uiRowIndex++;
+        }
+        return uiRowIndex;
+    }
+
+    /**
+     * Gets the y-offset of the given row index relative to the top of the first row.
+     * @param gridModel The GridData containing the rows.
+     * @param uiRowIndex The row index.
+     * @return The sum of the heights of the preceding rows.
+     */
+    public static double getRowOffset(final GridData gridModel,
+                                      final int uiRowIndex) {
+        if (gridModel instanceof BaseGridData) {
+            return ((BaseGridData) gridModel).getRowOffset(uiRowIndex);
+        }
+        double rowOffset = 0;
+        for (int i = 0; i < uiRowIndex; i++) {
+            rowOffset = rowOffset + gridModel.getRow(i).getHeight();
+        }
+        return rowOffset;
+    }
+
     /**
      * Gets the column index corresponding to the provided Canvas x-coordinate relative to the grid. Grid-relative coordinates can be
      * obtained from {@link INodeXYEvent} using {@link CoordinateUtilities#convertDOMToGridCoordinate(GridWidget, Point2D)}
@@ -392,13 +392,8 @@ public class GridWidgetDnDMouseMoveHandler implements NodeMouseMoveHandler {
         if (gridModel.getRowCount() == 0) {
             return;
         }
-        GridRow row;
-        int uiRowIndex = 0;
-        double offsetY = cy - renderer.getHeaderHeight();
-        while ((row = gridModel.getRow(uiRowIndex)).getHeight() < offsetY) {
-            offsetY = offsetY - row.getHeight();
-            uiRowIndex++;
-        }
+        int uiRowIndex = CoordinateUtilities.getUiRowIndex(gridModel,
+                                                           cy - renderer.getHeaderHeight());
         if (uiRowIndex < 0 || uiRowIndex > gridModel.getRowCount() - 1) {
             return;
         }
@@ -614,16 +609,13 @@ public class GridWidgetDnDMouseMoveHandler implements NodeMouseMoveHandler {
         }
 
         //Find new row index
-        GridRow row;
-        int uiRowIndex = 0;
-        double offsetY = cy - headerHeight;
-        while ((row = activeGridModel.getRow(uiRowIndex)).getHeight() < offsetY) {
-            offsetY = offsetY - row.getHeight();
-            uiRowIndex++;
-        }
+        final int uiRowIndex = CoordinateUtilities.getUiRowIndex(activeGridModel,
+                                                                 cy - headerHeight);
         if (uiRowIndex < 0 || uiRowIndex > activeGridModel.getRowCount() - 1) {
             return;
         }
+        final double offsetY = cy - headerHeight - CoordinateUtilities.getRowOffset(activeGridModel,
+                                                                                    uiRowIndex);
 
         if (uiRowIndex == leadRowIndex) {
             //Don't move if the new rowIndex equals the index of the row(s) being moved
@@ -73,4 +73,9 @@ public class BooleanDOMElementColumn extends BaseGridColumn<Boolean> implements
                      final Callback<GridCellValue<Boolean>> callback) {
         callback.callback(new BaseGridCellValue<>(!cell.getValue().getValue()));
     }
-}
\ No newline at end of file
+
+    @Override
+    protected boolean isWidthObservable() {
+        return getClass() == BooleanDOMElementColumn.class;
+    }
+}
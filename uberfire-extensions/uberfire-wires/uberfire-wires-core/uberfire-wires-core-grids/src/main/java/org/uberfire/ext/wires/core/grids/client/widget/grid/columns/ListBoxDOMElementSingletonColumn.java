@@ -92,4 +92,9 @@ public class ListBoxDOMElementSingletonColumn extends BaseGridColumn<String> imp
     public void destroyResources() {
         factory.destroyResources();
     }
-}
\ No newline at end of file
+
+    @Override
+    protected boolean isWidthObservable() {
+        return getClass() == ListBoxDOMElementSingletonColumn.class;
+    }
+}
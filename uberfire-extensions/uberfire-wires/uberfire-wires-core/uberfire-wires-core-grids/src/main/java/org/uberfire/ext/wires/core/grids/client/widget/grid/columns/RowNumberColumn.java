@@ -47,4 +47,9 @@ public class RowNumberColumn extends BaseGridColumn<Integer> implements IsRowDra
         setResizable(false);
         setFloatable(true);
     }
-}
\ No newline at end of file
+
+    @Override
+    protected boolean isWidthObservable() {
+        return getClass() == RowNumberColumn.class;
+    }
+}
@@ -61,4 +61,9 @@ public class StringDOMElementColumn extends BaseGridColumn<String> implements Ha
     public void freeUnusedResources() {
         factory.freeUnusedResources();
     }
-}
\ No newline at end of file
+
+    @Override
+    protected boolean isWidthObservable() {
+        return getClass() == StringDOMElementColumn.class;
+    }
+}
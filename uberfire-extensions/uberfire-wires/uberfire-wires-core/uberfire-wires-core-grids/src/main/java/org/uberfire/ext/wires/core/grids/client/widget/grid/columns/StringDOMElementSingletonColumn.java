@@ -91,4 +91,9 @@ public class StringDOMElementSingletonColumn extends BaseGridColumn<String> impl
     public void destroyResources() {
         factory.destroyResources();
     }
-}
\ No newline at end of file
+
+    @Override
+    protected boolean isWidthObservable() {
+        return getClass() == StringDOMElementSingletonColumn.class;
+    }
+}
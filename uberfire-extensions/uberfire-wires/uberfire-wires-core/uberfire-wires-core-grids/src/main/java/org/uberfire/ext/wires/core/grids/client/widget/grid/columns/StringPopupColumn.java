@@ -62,4 +62,9 @@ public class StringPopupColumn extends BaseGridColumn<String> {
         }
         return new BaseGridCell<String>(new BaseGridCellValue<String>(""));
     }
-}
\ No newline at end of file
+
+    @Override
+    protected boolean isWidthObservable() {
+        return getClass() == StringPopupColumn.class;
+    }
+}
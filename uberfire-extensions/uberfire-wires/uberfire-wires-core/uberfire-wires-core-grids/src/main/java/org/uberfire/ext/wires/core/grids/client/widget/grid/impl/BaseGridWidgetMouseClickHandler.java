@@ -142,13 +142,8 @@ public class BaseGridWidgetMouseClickHandler implements NodeMouseClickHandler {
         }
 
         //Get row index
-        GridRow row;
-        int uiRowIndex = 0;
-        double offsetY = cy - renderer.getHeaderHeight();
-        while ((row = gridModel.getRow(uiRowIndex)).getHeight() < offsetY) {
-            offsetY = offsetY - row.getHeight();
-            uiRowIndex++;
-        }
+        final int uiRowIndex = CoordinateUtilities.getUiRowIndex(gridModel,
+                                                                 cy - renderer.getHeaderHeight());
         if (uiRowIndex < 0 || uiRowIndex > gridModel.getRowCount() - 1) {
             return false;
         }
@@ -24,6 +24,8 @@ import org.uberfire.ext.wires.core.grids.client.model.Bounds;
 import org.uberfire.ext.wires.core.grids.client.model.GridColumn;
 import org.uberfire.ext.wires.core.grids.client.model.GridData;
 import org.uberfire.ext.wires.core.grids.client.model.GridRow;
+import org.uberfire.ext.wires.core.grids.client.model.impl.BaseGridData;
+import org.uberfire.ext.wires.core.grids.client.util.CoordinateUtilities;
 import org.uberfire.ext.wires.core.grids.client.widget.grid.GridWidget;
 import org.uberfire.ext.wires.core.grids.client.widget.grid.renderers.grids.GridRenderer;
 import org.uberfire.ext.wires.core.grids.client.widget.layer.GridLayer;
@@ -48,7 +50,7 @@ public class BaseGridRendererHelper {
      */
     public double getColumnOffset(final GridColumn<?> column) {
         final GridData model = view.getModel();
-        final int columnIndex = model.getColumns().indexOf(column);
+        final int columnIndex = model instanceof BaseGridData ? ((BaseGridData) model).getUiColumnIndex(column) : model.getColumns().indexOf(column);
         if (columnIndex == -1) {
             return 0;
         }
@@ -61,8 +63,11 @@ public class BaseGridRendererHelper {
      * @return
      */
     public double getColumnOffset(final int columnIndex) {
-        double columnOffset = 0;
         final GridData model = view.getModel();
+        if (model instanceof BaseGridData) {
+            return ((BaseGridData) model).getColumnOffset(columnIndex);
+        }
+        double columnOffset = 0;
         final List<GridColumn<?>> columns = model.getColumns();
         for (int i = 0; i < columnIndex; i++) {
             final GridColumn column = columns.get(i);
@@ -98,7 +103,7 @@ public class BaseGridRendererHelper {
      */
     public double getRowOffset(final GridRow row) {
         final GridData model = view.getModel();
-        final int rowIndex = model.getRows().indexOf(row);
+        final int rowIndex = model instanceof BaseGridData ? ((BaseGridData) model).getUiRowIndex(row) : model.getRows().indexOf(row);
         return getRowOffset(rowIndex);
     }
 
@@ -108,13 +113,8 @@ public class BaseGridRendererHelper {
      * @return
      */
     public double getRowOffset(final int rowIndex) {
-        double rowOffset = 0;
-        final GridData model = view.getModel();
-        for (int i = 0; i < rowIndex; i++) {
-            final GridRow row = model.getRow(i);
-            rowOffset = rowOffset + row.getHeight();
-        }
-        return rowOffset;
+        return CoordinateUtilities.getRowOffset(view.getModel(),
+                                                rowIndex);
     }
 
     /**
@@ -185,23 +185,19 @@ public class BaseGridRendererHelper {
         }
 
         //Identify rows to render
-        GridRow row;
         int minVisibleRowIndex = 0;
         if (model.getRowCount() > 0) {
-            double clipTop = vpY - view.getY() - (isFloatingHeader ? 0.0 : renderer.getHeaderHeight());
-            while ((row = model.getRow(minVisibleRowIndex)).getHeight() < clipTop && minVisibleRowIndex < model.getRowCount() - 1) {
-                clipTop = clipTop - row.getHeight();
-                minVisibleRowIndex++;
-            }
+            final double clipTop = vpY - view.getY() - (isFloatingHeader ? 0.0 : renderer.getHeaderHeight());
+            minVisibleRowIndex = CoordinateUtilities.getUiRowIndex(model,
+                                                                   clipTop);
         }
 
         int maxVisibleRowIndex = minVisibleRowIndex;
         if (model.getRowCount() > 0) {
-            double clipBottom = vpY - view.getY() - renderer.getHeaderHeight() + vpHeight - getRowOffset(minVisibleRowIndex);
-            while ((row = model.getRow(maxVisibleRowIndex)).getHeight() < clipBottom && maxVisibleRowIndex < model.getRowCount() - 1) {
-                clipBottom = clipBottom - row.getHeight();
-                maxVisibleRowIndex++;
-            }
+            final double clipBottom = vpY - view.getY() - renderer.getHeaderHeight() + vpHeight;
+            maxVisibleRowIndex = Math.max(minVisibleRowIndex,
+                                          CoordinateUtilities.getUiRowIndex(model,
+                                                                            clipBottom));
         }
 
         //Identify columns to render
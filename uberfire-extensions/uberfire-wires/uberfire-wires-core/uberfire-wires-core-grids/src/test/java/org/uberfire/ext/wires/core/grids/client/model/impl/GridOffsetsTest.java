@@ -0,0 +1,223 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.ext.wires.core.grids.client.model.impl;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.uberfire.ext.wires.core.grids.client.model.GridColumn;
+import org.uberfire.ext.wires.core.grids.client.model.GridRow;
+import org.uberfire.ext.wires.core.grids.client.widget.grid.renderers.columns.GridColumnRenderer;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class GridOffsetsTest extends BaseGridTest {
+
+    @Test
+    public void testRowOffsets() {
+        final BaseGridData data = new BaseGridData();
+        for (int i = 0; i < 100; i++) {
+            data.appendRow(new BaseGridRow(10 + i % 3));
+        }
+        assertRowOffsets(data);
+
+        data.getRow(50).setHeight(100);
+        assertRowOffsets(data);
+
+        data.insertRow(10,
+                       new BaseGridRow(55));
+        final GridRow deleted = data.getRow(20);
+        data.deleteRow(20);
+        data.moveRowTo(80,
+                       data.getRow(0));
+        assertRowOffsets(data);
+        assertEquals(-1,
+                     data.getUiRowIndex(deleted));
+
+        data.getRow(99).setHeight(0);
+        data.getRow(3).setHeight(0);
+        assertRowOffsets(data);
+    }
+
+    @Test
+    public void testRowOffsetsWithOtherRows() {
+        final BaseGridData data = new BaseGridData();
+        final GridRow row = mock(GridRow.class);
+        when(row.getHeight()).thenReturn(30.0);
+        data.appendRow(new BaseGridRow());
+        data.appendRow(row);
+        data.appendRow(new BaseGridRow());
+        assertRowOffsets(data);
+
+        when(row.getHeight()).thenReturn(50.0);
+        assertRowOffsets(data);
+    }
+
+    @Test
+    public void testRowOffsetsWithOverriddenHeight() {
+        final double[] rowHeight = {30.0};
+        final BaseGridData data = new BaseGridData();
+        final GridRow row = new BaseGridRow() {
+            @Override
+            public double getHeight() {
+                return rowHeight[0];
+            }
+        };
+        data.appendRow(new BaseGridRow());
+        data.appendRow(row);
+        data.appendRow(new BaseGridRow());
+        assertRowOffsets(data);
+
+        rowHeight[0] = 50.0;
+        assertRowOffsets(data);
+    }
+
+    @Test
+    public void testUiRowIndexAt() {
+        final BaseGridData data = new BaseGridData();
+        data.appendRow(new BaseGridRow(20));
+        data.appendRow(new BaseGridRow(0));
+        data.appendRow(new BaseGridRow(0));
+        data.appendRow(new BaseGridRow(20));
+
+        assertEquals(0,
+                     data.getUiRowIndexAt(-5));
+        assertEquals(0,
+                     data.getUiRowIndexAt(0));
+        assertEquals(0,
+                     data.getUiRowIndexAt(20));
+        assertEquals(3,
+                     data.getUiRowIndexAt(25));
+        assertEquals(3,
+                     data.getUiRowIndexAt(40));
+        assertEquals(4,
+                     data.getUiRowIndexAt(41));
+    }
+
+    @Test
+    public void testColumnOffsets() {
+        final BaseGridData data = new BaseGridData();
+        final GridColumn<String> gc1 = new MockMergableGridColumn<String>("col1",
+                                                                          100);
+        final GridColumn<String> gc2 = new MockMergableGridColumn<String>("col2",
+                                                                          150);
+        final GridColumn<String> gc3 = new MockMergableGridColumn<String>("col3",
+                                                                          200);
+        data.appendColumn(gc1);
+        data.appendColumn(gc2);
+        data.appendColumn(gc3);
+        assertColumnOffsets(data,
+                            0,
+                            100,
+                            250,
+                            450);
+
+        gc2.setWidth(50);
+        assertColumnOffsets(data,
+                            0,
+                            100,
+                            150,
+                            350);
+
+        gc1.setVisible(false);
+        assertColumnOffsets(data,
+                            0,
+                            0,
+                            50,
+                            250);
+
+        data.moveColumnTo(0,
+                          gc3);
+        assertEquals(0,
+                     data.getUiColumnIndex(gc3));
+        assertColumnOffsets(data,
+                            0,
+                            200,
+                            200,
+                            250);
+
+        data.deleteColumn(gc1);
+        assertEquals(-1,
+                     data.getUiColumnIndex(gc1));
+        assertColumnOffsets(data,
+                            0,
+                            200,
+                            250);
+    }
+
+    @Test
+    public void testColumnOffsetsWithOverriddenVisibility() {
+        final boolean[] columnVisible = {true};
+        final BaseGridData data = new BaseGridData();
+        final GridColumn<String> gc1 = new BaseGridColumn<String>(new BaseHeaderMetaData("col1"),
+                                                                  mock(GridColumnRenderer.class),
+                                                                  100);
+        final GridColumn<String> gc2 = new BaseGridColumn<String>(new BaseHeaderMetaData("col2"),
+                                                                  mock(GridColumnRenderer.class),
+                                                                  150) {
+            @Override
+            public boolean isVisible() {
+                return columnVisible[0];
+            }
+        };
+        data.appendColumn(gc1);
+        data.appendColumn(gc2);
+        assertColumnOffsets(data,
+                            0,
+                            100,
+                            250);
+
+        columnVisible[0] = false;
+        assertColumnOffsets(data,
+                            0,
+                            100,
+                            100);
+    }
+
+    private void assertRowOffsets(final BaseGridData data) {
+        double offset = 0;
+        for (int rowIndex = 0; rowIndex < data.getRowCount(); rowIndex++) {
+            final GridRow row = data.getRow(rowIndex);
+            assertEquals(offset,
+                         data.getRowOffset(rowIndex),
+                         0.0);
+            assertEquals(rowIndex,
+                         data.getUiRowIndex(row));
+            if (row.getHeight() > 0) {
+                assertEquals(rowIndex,
+                             data.getUiRowIndexAt(offset + row.getHeight() / 2));
+            }
+            offset = offset + row.getHeight();
+        }
+        assertEquals(offset,
+                     data.getRowOffset(data.getRowCount()),
+                     0.0);
+        assertEquals(data.getRowCount(),
+                     data.getUiRowIndexAt(offset + 1));
+    }
+
+    private void assertColumnOffsets(final BaseGridData data,
+                                     final double... expectedOffsets) {
+        final double[] offsets = new double[data.getColumnCount() + 1];
+        for (int columnIndex = 0; columnIndex <= data.getColumnCount(); columnIndex++) {
+            offsets[columnIndex] = data.getColumnOffset(columnIndex);
+        }
+        assertEquals(Arrays.toString(expectedOffsets),
+                     Arrays.toString(offsets));
+    }
+}
@@ -22,6 +22,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -203,6 +204,25 @@ public interface IOService extends PriorityDisposable {
             throws UnsupportedOperationException, NoSuchFileException,
             IllegalArgumentException, IOException, SecurityException;
 
+    /**
+     * Same as {@link #readAttributes(Path)} for each path. By default paths are read one after the other, not from a
+     * single snapshot of their file system; implementations may read the paths of each file system from a single
+     * snapshot, as {@link org.uberfire.io.impl.AbstractIOService} does for versioned file systems.
+     * @return the attributes in the order of the paths, null for the paths that don't exist.
+     */
+    default List<Map<String, Object>> readAttributes(final List<Path> paths)
+            throws UnsupportedOperationException, IllegalArgumentException, IOException, SecurityException {
+        final List<Map<String, Object>> result = new ArrayList<Map<String, Object>>(paths.size());
+        for (final Path path : paths) {
+            try {
+                result.add(readAttributes(path));
+            } catch (final NoSuchFileException e) {
+                result.add(null);
+            }
+        }
+        return result;
+    }
+
     Path setAttributes(final Path path,
                        final FileAttribute<?>... attrs)
             throws UnsupportedOperationException, IllegalArgumentException,
@@ -233,6 +253,20 @@ public interface IOService extends PriorityDisposable {
     boolean exists(final Path path)
             throws IllegalArgumentException, SecurityException;
 
+    /**
+     * Same as {@link #exists(Path)} for each path. Like {@link #readAttributes(List)}, the paths are checked against
+     * a single snapshot of their file system only if the implementation supports it.
+     * @return the results in the order of the paths.
+     */
+    default List<Boolean> exists(final List<Path> paths)
+            throws IllegalArgumentException, SecurityException {
+        final List<Boolean> result = new ArrayList<Boolean>(paths.size());
+        for (final Path path : paths) {
+            result.add(exists(path));
+        }
+        return result;
+    }
+
     boolean notExists(final Path path)
             throws IllegalArgumentException, SecurityException;
 
@@ -25,9 +25,11 @@ import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -41,6 +43,7 @@ import org.uberfire.io.IOWatchService;
 import org.uberfire.io.lock.BatchLockControl;
 import org.uberfire.java.nio.IOException;
 import org.uberfire.java.nio.base.AbstractPath;
+import org.uberfire.java.nio.base.FileSystemRefsAware;
 import org.uberfire.java.nio.base.FileSystemState;
 import org.uberfire.java.nio.channels.SeekableByteChannel;
 import org.uberfire.java.nio.file.CopyOption;
@@ -172,7 +175,11 @@ public abstract class AbstractIOService implements IOServiceIdentifiable,
         }
 
         try {
-            cleanUpAndUnsetBatchModeOnFileSystems();
+            if (batchLockControl.isStriped()) {
+                unsetBatchModeOnFileSystems(batchLockControl.getLockedFileSystems());
+            } else {
+                cleanUpAndUnsetBatchModeOnFileSystems();
+            }
         } catch (Exception e) {
             throw new RuntimeException("Exception cleaning and unsetting batch mode on FS.",
                                        e);
@@ -186,8 +193,14 @@ public abstract class AbstractIOService implements IOServiceIdentifiable,
             cleanupClosedFileSystems();
         }
 
+        unsetBatchModeOnFileSystems(fileSystems);
+    }
+
+    private void unsetBatchModeOnFileSystems(final Collection<FileSystem> fileSystems) {
         for (final FileSystem fs : fileSystems) {
-            unsetBatchModeOn(fs);
+            if (fs.isOpen()) {
+                unsetBatchModeOn(fs);
+            }
         }
     }
 
@@ -400,6 +413,24 @@ public abstract class AbstractIOService implements IOServiceIdentifiable,
                               "*");
     }
 
+    /**
+     * Paths of versioned file systems are first pinned to the heads of their branches, read once per file system,
+     * so the paths of a file system are all read from the same snapshot.
+     */
+    @Override
+    public List<Map<String, Object>> readAttributes(final List<Path> paths)
+            throws UnsupportedOperationException, IllegalArgumentException, IOException, SecurityException {
+        final List<Map<String, Object>> result = new ArrayList<Map<String, Object>>(paths.size());
+        for (final Path path : pin(paths)) {
+            try {
+                result.add(readAttributes(path));
+            } catch (final NoSuchFileException e) {
+                result.add(null);
+            }
+        }
+        return result;
+    }
+
     @Override
     public Path setAttribute(final Path path,
                              final String attribute,
@@ -432,6 +463,49 @@ public abstract class AbstractIOService implements IOServiceIdentifiable,
         return Files.exists(path);
     }
 
+    /**
+     * Like {@link #readAttributes(List)}, the paths of a file system are all checked against the same snapshot.
+     */
+    @Override
+    public List<Boolean> exists(final List<Path> paths)
+            throws IllegalArgumentException, SecurityException {
+        final List<Boolean> result = new ArrayList<Boolean>(paths.size());
+        for (final Path path : pin(paths)) {
+            result.add(exists(path));
+        }
+        return result;
+    }
+
+    private List<Path> pin(final List<Path> paths) {
+        final Map<FileSystem, List<Integer>> byFileSystem = new IdentityHashMap<FileSystem, List<Integer>>();
+        for (int i = 0; i < paths.size(); i++) {
+            final FileSystem fs = paths.get(i).getFileSystem();
+            if (fs instanceof FileSystemRefsAware) {
+                List<Integer> indexes = byFileSystem.get(fs);
+                if (indexes == null) {
+                    indexes = new ArrayList<Integer>();
+                    byFileSystem.put(fs,
+                                     indexes);
+                }
+                indexes.add(i);
+            }
+        }
+
+        final List<Path> result = new ArrayList<Path>(paths);
+        for (final Map.Entry<FileSystem, List<Integer>> group : byFileSystem.entrySet()) {
+            final List<Path> groupPaths = new ArrayList<Path>(group.getValue().size());
+            for (final Integer i : group.getValue()) {
+                groupPaths.add(paths.get(i));
+            }
+            final List<Path> pinned = ((FileSystemRefsAware) group.getKey()).pin(groupPaths);
+            for (int j = 0; j < pinned.size(); j++) {
+                result.set(group.getValue().get(j),
+                           pinned.get(j));
+            }
+        }
+        return result;
+    }
+
     @Override
     public boolean notExists(final Path path)
             throws IllegalArgumentException, SecurityException {
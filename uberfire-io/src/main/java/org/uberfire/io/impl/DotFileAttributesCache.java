@@ -0,0 +1,146 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.io.impl;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.uberfire.java.nio.base.Properties;
+
+/**
+ * Process wide cache of parsed dot files keyed by the identity of their content (the blob id on git file
+ * systems). Identical dot files are parsed once, and entries stay valid across commits that don't touch them.
+ * <p>
+ * The cache is bounded by the total size of the cached dot files, <tt>org.uberfire.io.dotfiles.cache.size</tt>
+ * bytes, evicting the least recently used entries first.
+ * <p>
+ * Callers always get their own copy: only content made of strings, boxed primitives and dates is cached, dates
+ * being copied, while content holding other (possibly mutable) values is parsed on every read.
+ */
+class DotFileAttributesCache {
+
+    static final long MAX_SIZE = Long.getLong("org.uberfire.io.dotfiles.cache.size",
+                                              16 * 1024 * 1024);
+
+    static final DotFileAttributesCache INSTANCE = new DotFileAttributesCache(MAX_SIZE);
+
+    // Rough per entry cost of the map entry, the key and the parsed content
+    private static final long ENTRY_OVERHEAD = 256;
+
+    private final Map<Object, Entry> entries = new LinkedHashMap<Object, Entry>(16,
+                                                                                0.75f,
+                                                                                true);
+    private final long maxSize;
+    private long size;
+
+    DotFileAttributesCache(final long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return a copy of the cached content, or null if not cached.
+     */
+    Properties get(final Object key) {
+        final Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        return entry == null ? null : copy(entry.content);
+    }
+
+    /**
+     * Caches a copy of the given content, unless it holds values that can't be copied.
+     * @param key the identity of the dot file content.
+     * @param content the parsed content.
+     * @param length the length of the dot file.
+     */
+    void put(final Object key,
+             final Properties content,
+             final long length) {
+        if (!isCacheable(content)) {
+            return;
+        }
+        final Entry entry = new Entry(copy(content),
+                                      Math.max(length,
+                                               0) + ENTRY_OVERHEAD);
+        if (entry.weight > maxSize) {
+            return;
+        }
+        synchronized (this) {
+            final Entry previous = entries.put(key,
+                                               entry);
+            if (previous != null) {
+                size -= previous.weight;
+            }
+            size += entry.weight;
+            final Iterator<Entry> it = entries.values().iterator();
+            while (size > maxSize && it.hasNext()) {
+                size -= it.next().weight;
+                it.remove();
+            }
+        }
+    }
+
+    private static boolean isCacheable(final Properties content) {
+        for (final Object value : content.values()) {
+            if (!(value instanceof String || value instanceof Integer || value instanceof Long ||
+                    value instanceof Boolean || value instanceof Double || value instanceof Float ||
+                    value instanceof Short || value instanceof Byte || value instanceof Character ||
+                    value instanceof Date)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Properties copy(final Properties content) {
+        final Properties result = new Properties();
+        for (final Map.Entry<String, Object> e : content.entrySet()) {
+            final Object value = e.getValue();
+            result.put(e.getKey(),
+                       value instanceof Date ? ((Date) value).clone() : value);
+        }
+        return result;
+    }
+
+    synchronized int count() {
+        return entries.size();
+    }
+
+    synchronized long size() {
+        return size;
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    private static class Entry {
+
+        private final Properties content;
+        private final long weight;
+
+        private Entry(final Properties content,
+                      final long weight) {
+            this.content = content;
+            this.weight = weight;
+        }
+    }
+}
@@ -40,6 +40,7 @@ import org.uberfire.java.nio.file.Files;
 import org.uberfire.java.nio.file.NoSuchFileException;
 import org.uberfire.java.nio.file.OpenOption;
 import org.uberfire.java.nio.file.Path;
+import org.uberfire.java.nio.file.attribute.BasicFileAttributes;
 import org.uberfire.java.nio.file.attribute.FileAttribute;
 import org.uberfire.java.nio.file.attribute.FileAttributeView;
 
@@ -114,9 +115,11 @@ public class IOServiceDotFileImpl
             FileAlreadyExistsException, IOException, SecurityException {
         checkNotNull("path",
                      path);
-        final Properties properties = new Properties();
+        final Properties properties;
         if (exists(dot(path))) {
-            properties.load(newInputStream(dot(path)));
+            properties = readDotFile(path);
+        } else {
+            properties = new Properties();
         }
         final FileAttribute<?>[] allAttrs = consolidate(properties,
                                                         attrs);
@@ -239,8 +242,7 @@ public class IOServiceDotFileImpl
             if (isAttrHolder && ((AttrHolder) path).getAttrStorage().getContent().size() > 0) {
                 return ((AttrHolder) path).getAttrStorage().getAllContent();
             }
-            final Properties content = new Properties();
-            content.load(newInputStream(dot(path)));
+            final Properties content = readDotFile(path);
             content.putAll(original);
 
             if (isAttrHolder) {
@@ -339,9 +341,50 @@ public class IOServiceDotFileImpl
         return path.getFileSystem().provider().getScheme().equals("file");
     }
 
-    protected void loadDotFile(final Path path) {
+    protected boolean isGitScheme(final Path path) {
+        if (path == null || path.getFileSystem() == null || path.getFileSystem().provider() == null) {
+            return false;
+        }
+
+        return path.getFileSystem().provider().getScheme().equals("git");
+    }
+
+    /**
+     * Reads the dot file of the given path. On git file systems the parsed content is shared through
+     * {@link DotFileAttributesCache}, keyed by the dot file's blob id, unless the dot file changed while being
+     * read.
+     */
+    protected Properties readDotFile(final Path path) {
+        final Path dot = dot(path);
+        if (isGitScheme(path)) {
+            final BasicFileAttributes attrs = Files.readAttributes(dot,
+                                                                   BasicFileAttributes.class);
+            final Object key = attrs.fileKey();
+            if (key != null) {
+                final Properties cached = DotFileAttributesCache.INSTANCE.get(key);
+                if (cached != null) {
+                    return cached;
+                }
+                final Properties content = new Properties();
+                content.load(newInputStream(dot));
+                // a commit between both reads would cache the new content under the old blob id; a fresh path
+                // is resolved as paths keep the attributes they read
+                if (key.equals(Files.readAttributes(dot(path),
+                                                    BasicFileAttributes.class).fileKey())) {
+                    DotFileAttributesCache.INSTANCE.put(key,
+                                                        content,
+                                                        attrs.size());
+                }
+                return content;
+            }
+        }
         final Properties content = new Properties();
-        content.load(newInputStream(dot(path)));
+        content.load(newInputStream(dot));
+        return content;
+    }
+
+    protected void loadDotFile(final Path path) {
+        final Properties content = readDotFile(path);
 
         if (path instanceof AttrHolder) {
             ((AttrHolder) path).getAttrStorage().loadContent(content);
@@ -376,9 +419,11 @@ public class IOServiceDotFileImpl
             Files.createDirectory(dir,
                                   attrs);
         } catch (final FileAlreadyExistsException ex) {
-            final Properties properties = new Properties();
+            final Properties properties;
             if (exists(dot(dir))) {
-                properties.load(newInputStream(dot(dir)));
+                properties = readDotFile(dir);
+            } else {
+                properties = new Properties();
             }
             allAttrs = consolidate(properties,
                                    attrs);
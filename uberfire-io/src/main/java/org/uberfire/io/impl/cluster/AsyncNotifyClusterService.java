@@ -0,0 +1,368 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.io.impl.cluster;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.uberfire.commons.async.DescriptiveRunnable;
+import org.uberfire.commons.async.DescriptiveThreadFactory;
+import org.uberfire.commons.cluster.ClusterService;
+import org.uberfire.commons.cluster.LockExecuteNotifySyncReleaseTemplate;
+import org.uberfire.commons.message.AsyncCallback;
+import org.uberfire.commons.message.MessageHandlerResolver;
+import org.uberfire.commons.message.MessageType;
+
+/**
+ * Sends the file system notifications of a {@link ClusterService} (broadcasts carrying a <tt>fs_id</tt>) from a
+ * background thread, so writers don't pay for them. Notifications still pending for the same file system are
+ * coalesced into one message, and everything pending is sent as one batch. Each message of a batch waits for the
+ * replies of the peers (up to the cluster timeout), so {@link #flush()} returns once the peers have handled whole
+ * batches rather than when they were merely sent. Lock hold and notify times are kept in {@link #getMetrics()}.
+ * <p>
+ * Set <tt>org.uberfire.cluster.notify.sync</tt> to send notifications on the calling thread, which then waits
+ * for the peers' replies the same way.
+ */
+class AsyncNotifyClusterService implements ClusterService {
+
+    static final boolean SYNC = Boolean.getBoolean("org.uberfire.cluster.notify.sync");
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncNotifyClusterService.class);
+
+    private final ClusterService clusterService;
+    private final ClusterNotifyMetrics metrics = new ClusterNotifyMetrics();
+    private final ThreadLocal<Deque<Long>> lockTimes = new ThreadLocal<Deque<Long>>() {
+        @Override
+        protected Deque<Long> initialValue() {
+            return new ArrayDeque<Long>();
+        }
+    };
+
+    // guarded by this; pending notifications by service, type and file system, in arrival order
+    private final Map<String, Notification> pending = new LinkedHashMap<String, Notification>();
+    private long queued;
+    private long acknowledged;
+    private boolean disposed;
+    private Thread sender;
+
+    AsyncNotifyClusterService(final ClusterService clusterService) {
+        this.clusterService = clusterService;
+    }
+
+    ClusterNotifyMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void broadcast(final String serviceId,
+                          final MessageType type,
+                          final Map<String, String> content) {
+        final String fsId = content.get("fs_id");
+        if (fsId == null) {
+            clusterService.broadcast(serviceId,
+                                     type,
+                                     content);
+        } else if (SYNC || !queue(serviceId + '/' + type + '/' + fsId,
+                                  serviceId,
+                                  type,
+                                  content)) {
+            clusterService.broadcastAndWait(serviceId,
+                                            type,
+                                            content,
+                                            LockExecuteNotifySyncReleaseTemplate.TIMEOUT);
+        }
+    }
+
+    private synchronized boolean queue(final String key,
+                                       final String serviceId,
+                                       final MessageType type,
+                                       final Map<String, String> content) {
+        if (disposed) {
+            return false;
+        }
+        final Notification notification = pending.get(key);
+        if (notification == null) {
+            pending.put(key,
+                        new Notification(serviceId,
+                                         type,
+                                         content,
+                                         ++queued));
+        } else {
+            notification.merge(content,
+                               ++queued);
+            metrics.coalesced();
+        }
+        if (sender == null) {
+            sender = new DescriptiveThreadFactory().newThread(new Sender());
+            sender.setDaemon(true);
+            sender.start();
+        }
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * Waits until the peers have replied to (or timed out on) the notifications queued so far.
+     */
+    synchronized void flush() throws InterruptedException {
+        final long target = queued;
+        while (acknowledged < target && sender != null && sender.isAlive()) {
+            wait();
+        }
+    }
+
+    /**
+     * Sends the pending notifications and stops the sender; later notifications are sent on the calling thread.
+     */
+    void close() {
+        final Thread thread;
+        synchronized (this) {
+            disposed = true;
+            thread = sender;
+            notifyAll();
+        }
+        if (thread != null) {
+            try {
+                thread.join(LockExecuteNotifySyncReleaseTemplate.TIMEOUT);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private List<Notification> nextBatch() throws InterruptedException {
+        synchronized (this) {
+            while (pending.isEmpty() && !disposed) {
+                wait();
+            }
+            final List<Notification> batch = new ArrayList<Notification>(pending.values());
+            pending.clear();
+            return batch;
+        }
+    }
+
+    private void send(final List<Notification> batch) {
+        long last = 0;
+        for (final Notification notification : batch) {
+            try {
+                clusterService.broadcastAndWait(notification.serviceId,
+                                                notification.type,
+                                                notification.content,
+                                                LockExecuteNotifySyncReleaseTemplate.TIMEOUT);
+            } catch (final RuntimeException e) {
+                logger.error("Can't notify cluster of " + notification.content.get("fs_id") + " changes",
+                             e);
+            }
+            metrics.recordNotify(System.nanoTime() - notification.queuedAt);
+            last = Math.max(last,
+                            notification.seq);
+        }
+        metrics.batch();
+        synchronized (this) {
+            acknowledged = Math.max(acknowledged,
+                                    last);
+            notifyAll();
+        }
+        logger.debug("Sent {} cluster notifications, {}",
+                     batch.size(),
+                     metrics);
+    }
+
+    @Override
+    public void lock() {
+        clusterService.lock();
+        lockTimes.get().push(System.nanoTime());
+    }
+
+    @Override
+    public void lock(final String lockId) {
+        clusterService.lock(lockId);
+        lockTimes.get().push(System.nanoTime());
+    }
+
+    @Override
+    public void unlock() {
+        try {
+            clusterService.unlock();
+        } finally {
+            released();
+        }
+    }
+
+    @Override
+    public void unlock(final String lockId) {
+        try {
+            clusterService.unlock(lockId);
+        } finally {
+            released();
+        }
+    }
+
+    private void released() {
+        final Deque<Long> times = lockTimes.get();
+        final Long lockedAt = times.poll();
+        // nested holds are part of the outermost one
+        if (lockedAt != null && times.isEmpty()) {
+            metrics.recordLockHold(System.nanoTime() - lockedAt);
+        }
+    }
+
+    @Override
+    public int getHoldCount() {
+        return clusterService.getHoldCount();
+    }
+
+    @Override
+    public void addMessageHandlerResolver(final MessageHandlerResolver resolver) {
+        clusterService.addMessageHandlerResolver(resolver);
+    }
+
+    @Override
+    public void onStart(final Runnable runnable) {
+        clusterService.onStart(runnable);
+    }
+
+    @Override
+    public void broadcastAndWait(final String serviceId,
+                                 final MessageType type,
+                                 final Map<String, String> content,
+                                 final int timeOut) {
+        clusterService.broadcastAndWait(serviceId,
+                                        type,
+                                        content,
+                                        timeOut);
+    }
+
+    @Override
+    public void broadcastAndWait(final String serviceId,
+                                 final MessageType type,
+                                 final Map<String, String> content,
+                                 final int timeOut,
+                                 final AsyncCallback callback) {
+        clusterService.broadcastAndWait(serviceId,
+                                        type,
+                                        content,
+                                        timeOut,
+                                        callback);
+    }
+
+    @Override
+    public void broadcast(final String serviceId,
+                          final MessageType type,
+                          final Map<String, String> content,
+                          final int timeOut,
+                          final AsyncCallback callback) {
+        clusterService.broadcast(serviceId,
+                                 type,
+                                 content,
+                                 timeOut,
+                                 callback);
+    }
+
+    @Override
+    public void sendTo(final String resourceId,
+                       final String serviceId,
+                       final MessageType type,
+                       final Map<String, String> content) {
+        clusterService.sendTo(resourceId,
+                              serviceId,
+                              type,
+                              content);
+    }
+
+    @Override
+    public void dispose() {
+        close();
+        clusterService.dispose();
+    }
+
+    @Override
+    public int priority() {
+        return clusterService.priority();
+    }
+
+    private class Sender implements DescriptiveRunnable {
+
+        @Override
+        public String getDescription() {
+            return "Cluster Notifications [" + clusterService + "]";
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    final List<Notification> batch = nextBatch();
+                    if (batch.isEmpty()) {
+                        return;
+                    }
+                    send(batch);
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                synchronized (AsyncNotifyClusterService.this) {
+                    sender = null;
+                    AsyncNotifyClusterService.this.notifyAll();
+                }
+            }
+        }
+    }
+
+    private static class Notification {
+
+        private final String serviceId;
+        private final MessageType type;
+        private final long queuedAt = System.nanoTime();
+        private Map<String, String> content;
+        private long seq;
+
+        private Notification(final String serviceId,
+                             final MessageType type,
+                             final Map<String, String> content,
+                             final long seq) {
+            this.serviceId = serviceId;
+            this.type = type;
+            this.content = content;
+            this.seq = seq;
+        }
+
+        /**
+         * Takes the content of a later notification, keeping the branch changes of both.
+         */
+        private void merge(final Map<String, String> content,
+                           final long seq) {
+            final String refs = FileSystemRefs.merge(this.content.get(FileSystemRefs.FS_REFS),
+                                                     content.get(FileSystemRefs.FS_REFS));
+            this.content = new HashMap<String, String>(content);
+            if (refs == null) {
+                this.content.remove(FileSystemRefs.FS_REFS);
+            } else {
+                this.content.put(FileSystemRefs.FS_REFS,
+                                 refs);
+            }
+            this.seq = seq;
+        }
+    }
+}
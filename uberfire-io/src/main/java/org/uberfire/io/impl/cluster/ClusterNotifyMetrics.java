@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.uberfire.io.impl.cluster;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * How long clustered writes hold the cluster lock, compared with how long their notifications take to reach the peers.
+ */
+public class ClusterNotifyMetrics {
+
+    private final AtomicLong lockCount = new AtomicLong();
+    private final AtomicLong totalLockNanos = new AtomicLong();
+    private final AtomicLong maxLockNanos = new AtomicLong();
+    private final AtomicLong notifyCount = new AtomicLong();
+    private final AtomicLong totalNotifyNanos = new AtomicLong();
+    private final AtomicLong maxNotifyNanos = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    void recordLockHold(final long nanos) {
+        lockCount.incrementAndGet();
+        totalLockNanos.addAndGet(nanos);
+        updateMax(maxLockNanos,
+                  nanos);
+    }
+
+    /**
+     * @param nanos from the first notification queued for the message until the peers replied to it.
+     */
+    void recordNotify(final long nanos) {
+        notifyCount.incrementAndGet();
+        totalNotifyNanos.addAndGet(nanos);
+        updateMax(maxNotifyNanos,
+                  nanos);
+    }
+
+    void coalesced() {
+        coalesced.incrementAndGet();
+    }
+
+    void batch() {
+        batches.incrementAndGet();
+    }
+
+    private static void updateMax(final AtomicLong max,
+                                  final long value) {
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current,
+                                                     value)) {
+            current = max.get();
+        }
+    }
+
+    public long getLockHoldCount() {
+        return lockCount.get();
+    }
+
+    public long getTotalLockHoldTime(final TimeUnit unit) {
+        return unit.convert(totalLockNanos.get(),
+                            TimeUnit.NANOSECONDS);
+    }
+
+    public long getMaxLockHoldTime(final TimeUnit unit) {
+        return unit.convert(maxLockNanos.get(),
+                            TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the number of messages sent, coalesced notifications counting once.
+     */
+    public long getNotifyCount() {
+        return notifyCount.get();
+    }
+
+    public long getTotalNotifyTime(final TimeUnit unit) {
+        return unit.convert(totalNotifyNanos.get(),
+                            TimeUnit.NANOSECONDS);
+    }
+
+    public long getMaxNotifyTime(final TimeUnit unit) {
+        return unit.convert(maxNotifyNanos.get(),
+                            TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the number of notifications merged into one still pending for the same file system.
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ClusterNotifyMetrics{" +
+                "lockHolds=" + lockCount.get() +
+                ", totalLockHoldMs=" + getTotalLockHoldTime(TimeUnit.MILLISECONDS) +
+                ", maxLockHoldMs=" + getMaxLockHoldTime(TimeUnit.MILLISECONDS) +
+                ", notifications=" + notifyCount.get() +
+                ", totalNotifyMs=" + getTotalNotifyTime(TimeUnit.MILLISECONDS) +
+                ", maxNotifyMs=" + getMaxNotifyTime(TimeUnit.MILLISECONDS) +
+                ", coalesced=" + coalesced.get() +
+                ", batches=" + batches.get() +
+                '}';
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.io.impl.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.uberfire.java.nio.base.FileSystemRefsAware;
+import org.uberfire.java.nio.file.FileSystem;
+
+/**
+ * Describes the branches changed by a clustered write, so peers can replicate just those instead of syncing the
+ * whole file system. Changes are sent in the <tt>fs_refs</tt> entry of {@link ClusterMessageType#SYNC_FS} messages
+ * as <tt>old-id new-id ref-name</tt> lines; a missing entry asks for a full sync.
+ */
+final class FileSystemRefs {
+
+    static final String FS_REFS = "fs_refs";
+
+    private static final String ZERO_ID = "0000000000000000000000000000000000000000";
+
+    private FileSystemRefs() {
+    }
+
+    /**
+     * @return the current branches of the file system, or null if it isn't {@link FileSystemRefsAware}.
+     */
+    static Map<String, String> snapshot(final FileSystem fileSystem) {
+        if (fileSystem instanceof FileSystemRefsAware) {
+            return ((FileSystemRefsAware) fileSystem).getRefs();
+        }
+        return null;
+    }
+
+    /**
+     * @return the branches that changed between both snapshots, or null if either is missing.
+     */
+    static String diff(final Map<String, String> before,
+                       final Map<String, String> after) {
+        if (before == null || after == null) {
+            return null;
+        }
+        final Set<String> names = new TreeSet<String>(before.keySet());
+        names.addAll(after.keySet());
+        final StringBuilder sb = new StringBuilder();
+        for (final String name : names) {
+            final String oldId = before.containsKey(name) ? before.get(name) : ZERO_ID;
+            final String newId = after.containsKey(name) ? after.get(name) : ZERO_ID;
+            if (!oldId.equals(newId)) {
+                if (sb.length() > 0) {
+                    sb.append('\n');
+                }
+                sb.append(oldId).append(' ').append(newId).append(' ').append(name);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Combines the changes of two consecutive writes, from the old id of the first to the new id of the last.
+     * Notifications are queued after the cluster lock is released, so they may arrive out of commit order.
+     * @return the combined changes, or null (a full sync) if either is missing or they don't chain.
+     */
+    static String merge(final String first,
+                        final String second) {
+        if (first == null || second == null) {
+            return null;
+        }
+        final SortedMap<String, String[]> changes = new TreeMap<String, String[]>();
+        for (final String refs : new String[]{first, second}) {
+            for (final String line : refs.split("\n")) {
+                final String[] change = line.split(" ",
+                                                   3);
+                if (change.length < 3) {
+                    continue;
+                }
+                final String[] previous = changes.get(change[2]);
+                if (previous == null) {
+                    changes.put(change[2],
+                                change);
+                } else if (previous[1].equals(change[0])) {
+                    previous[1] = change[1];
+                } else {
+                    return null;
+                }
+            }
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (final String[] change : changes.values()) {
+            if (!change[0].equals(change[1])) {
+                if (sb.length() > 0) {
+                    sb.append('\n');
+                }
+                sb.append(change[0]).append(' ').append(change[1]).append(' ').append(change[2]);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Hex encodes the changes for the <tt>refs</tt> parameter of a sync uri.
+     */
+    static String toSyncParameter(final String refs) {
+        final StringBuilder sb = new StringBuilder();
+        for (final byte b : refs.getBytes(StandardCharsets.UTF_8)) {
+            sb.append(Character.forDigit((b >> 4) & 0xF,
+                                         16));
+            sb.append(Character.forDigit(b & 0xF,
+                                         16));
+        }
+        return sb.toString();
+    }
+}
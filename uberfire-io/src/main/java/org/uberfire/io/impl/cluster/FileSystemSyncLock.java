@@ -18,7 +18,12 @@ package org.uberfire.io.impl.cluster;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableFuture;
 
+import org.uberfire.commons.cluster.ClusterService;
 import org.uberfire.commons.cluster.LockExecuteNotifyAsyncReleaseTemplate;
 import org.uberfire.commons.message.MessageType;
 import org.uberfire.java.nio.base.FileSystemId;
@@ -32,10 +37,13 @@ public class FileSystemSyncLock<V> extends LockExecuteNotifyAsyncReleaseTemplate
     private final String scheme;
     private final String id;
     private final String uri;
+    private final FileSystem fileSystem;
+    private Map<String, String> refsBefore;
 
     public FileSystemSyncLock(final String serviceId,
                               final FileSystem _fileSystem) {
         final FileSystem fileSystem = _fileSystem.getRootDirectories().iterator().next().getFileSystem();
+        this.fileSystem = fileSystem;
         this.serviceId = serviceId;
         this.scheme = fileSystem.getRootDirectories().iterator().next().toUri().getScheme();
         this.id = ((FileSystemId) fileSystem).id();
@@ -52,6 +60,36 @@ public class FileSystemSyncLock<V> extends LockExecuteNotifyAsyncReleaseTemplate
         return serviceId;
     }
 
+    /**
+     * Snapshots the branches of the file system once locked, so the sync message only carries the ones the task
+     * changed.
+     */
+    @Override
+    public V execute(final ClusterService clusterService,
+                     final RunnableFuture<V> task) {
+        return super.execute(clusterService,
+                             new FutureTask<V>(new Callable<V>() {
+                                 @Override
+                                 public V call() throws Exception {
+                                     refsBefore = FileSystemRefs.snapshot(fileSystem);
+                                     task.run();
+                                     try {
+                                         return task.get();
+                                     } catch (final ExecutionException e) {
+                                         if (e.getCause() instanceof Exception) {
+                                             throw (Exception) e.getCause();
+                                         }
+                                         throw e;
+                                     }
+                                 }
+                             }));
+    }
+
+    @Override
+    public String getLockId() {
+        return id;
+    }
+
     @Override
     public Map<String, String> buildContent() {
         return new HashMap<String, String>() {{
@@ -61,6 +99,12 @@ public class FileSystemSyncLock<V> extends LockExecuteNotifyAsyncReleaseTemplate
                 id);
             put("fs_uri",
                 uri);
+            final String refs = FileSystemRefs.diff(refsBefore,
+                                                    FileSystemRefs.snapshot(fileSystem));
+            if (refs != null) {
+                put(FileSystemRefs.FS_REFS,
+                    refs);
+            }
         }};
     }
 }
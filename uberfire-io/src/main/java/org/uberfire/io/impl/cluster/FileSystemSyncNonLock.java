@@ -34,10 +34,25 @@ public class FileSystemSyncNonLock<V> {
     private final String scheme;
     private final String id;
     private final String uri;
+    private final FileSystem fileSystem;
+    private final Map<String, String> refsBefore;
 
     public FileSystemSyncNonLock(final String serviceId,
                                  final FileSystem _fileSystem) {
+        this(serviceId,
+             _fileSystem,
+             null);
+    }
+
+    /**
+     * @param refsBefore the branches of the file system before the changes to sync, see {@link FileSystemRefs}.
+     */
+    public FileSystemSyncNonLock(final String serviceId,
+                                 final FileSystem _fileSystem,
+                                 final Map<String, String> refsBefore) {
         final FileSystem fileSystem = _fileSystem.getRootDirectories().iterator().next().getFileSystem();
+        this.fileSystem = fileSystem;
+        this.refsBefore = refsBefore;
         this.serviceId = serviceId;
         this.scheme = fileSystem.getRootDirectories().iterator().next().toUri().getScheme();
         this.id = ((FileSystemId) fileSystem).id();
@@ -60,6 +75,12 @@ public class FileSystemSyncNonLock<V> {
                 id);
             put("fs_uri",
                 uri);
+            final String refs = FileSystemRefs.diff(refsBefore,
+                                                    FileSystemRefs.snapshot(fileSystem));
+            if (refs != null) {
+                put(FileSystemRefs.FS_REFS,
+                    refs);
+            }
         }};
     }
 
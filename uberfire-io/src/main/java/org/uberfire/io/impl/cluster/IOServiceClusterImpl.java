@@ -24,10 +24,14 @@ import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.Charset;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -89,8 +93,15 @@ public class IOServiceClusterImpl implements IOService {
 
     private static final Logger logger = LoggerFactory.getLogger(IOServiceClusterImpl.class);
     protected final Set<String> batchFileSystems = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final ThreadLocal<Deque<ClusterBatch>> batches = new ThreadLocal<Deque<ClusterBatch>>() {
+        @Override
+        protected Deque<ClusterBatch> initialValue() {
+            return new ArrayDeque<ClusterBatch>();
+        }
+    };
     protected IOServiceLockable service;
     protected ClusterService clusterService;
+    private AsyncNotifyClusterService notifier;
     private NewFileSystemListener newFileSystemListener = null;
 
     IOServiceClusterImpl() {
@@ -114,7 +125,7 @@ public class IOServiceClusterImpl implements IOService {
 
         logger.debug("Creating instance of cluster service with auto start {}",
                      autoStart);
-        this.clusterService = clusterServiceFactory.build(new MessageHandlerResolver() {
+        this.notifier = new AsyncNotifyClusterService(clusterServiceFactory.build(new MessageHandlerResolver() {
 
             final MessageHandler newFs = new NewFileSystemMessageHandler();
             final MessageHandler syncFs = new SyncFileSystemMessageHandler();
@@ -141,7 +152,8 @@ public class IOServiceClusterImpl implements IOService {
 
                 return null;
             }
-        });
+        }));
+        this.clusterService = notifier;
 
         PriorityDisposableRegistry.register(this);
 
@@ -247,13 +259,7 @@ public class IOServiceClusterImpl implements IOService {
     @Override
     public void startBatch(FileSystem[] fs,
                            final Option... options) {
-        clusterService.lock();
-        for (final FileSystem _f : fs) {
-            final FileSystem f = _f.getRootDirectories().iterator().next().getFileSystem();
-            if (f instanceof FileSystemId) {
-                batchFileSystems.add(((FileSystemId) f).id());
-            }
-        }
+        lockBatch(fs);
         service.startBatch(fs,
                            options);
     }
@@ -261,11 +267,8 @@ public class IOServiceClusterImpl implements IOService {
     @Override
     public void startBatch(final FileSystem _fs,
                            final Option... options) {
-        clusterService.lock();
         final FileSystem fs = _fs.getRootDirectories().iterator().next().getFileSystem();
-        if (fs instanceof FileSystemId) {
-            batchFileSystems.add(((FileSystemId) fs).id());
-        }
+        lockBatch(fs);
 
         service.startBatch(fs,
                            options);
@@ -273,34 +276,34 @@ public class IOServiceClusterImpl implements IOService {
 
     @Override
     public void startBatch(final FileSystem... fs) {
-        clusterService.lock();
-        for (final FileSystem _f : fs) {
-            final FileSystem f = _f.getRootDirectories().iterator().next().getFileSystem();
-            if (f instanceof FileSystemId) {
-                batchFileSystems.add(((FileSystemId) f).id());
-            }
-        }
+        lockBatch(fs);
         service.startBatch(fs);
     }
 
     @Override
     public void endBatch() {
         service.endBatch();
+        final ClusterBatch batch = popBatch();
         if (service.getLockControl().getHoldCount() == 0) {
-            final AtomicInteger process = new AtomicInteger(batchFileSystems.size());
+            final AtomicInteger process = new AtomicInteger(batch.fileSystemIds.size());
+            if (process.get() == 0) {
+                unlock(batch.lockId);
+                return;
+            }
 
             for (final FileSystem _fs : service.getFileSystems()) {
                 final FileSystem fs = _fs.getRootDirectories().iterator().next().getFileSystem();
                 if (fs instanceof FileSystemId &&
-                        batchFileSystems.contains(((FileSystemId) fs).id())) {
+                        batch.fileSystemIds.contains(((FileSystemId) fs).id())) {
                     try {
                         new FileSystemSyncNonLock<Void>(service.getId(),
-                                                        fs).execute(clusterService,
+                                                        fs,
+                                                        batch.refsBefore.get(((FileSystemId) fs).id())).execute(clusterService,
                                                                     new FutureTask<Void>(new Callable<Void>() {
                                                                         @Override
                                                                         public Void call() throws Exception {
                                                                             if (process.decrementAndGet() == 0) {
-                                                                                clusterService.unlock();
+                                                                                unlock(batch.lockId);
                                                                             }
                                                                             return null;
                                                                         }
@@ -309,14 +312,78 @@ public class IOServiceClusterImpl implements IOService {
                         logger.error("End batch error",
                                      ex);
                         if (process.decrementAndGet() == 0) {
-                            clusterService.unlock();
+                            unlock(batch.lockId);
                         }
                     }
                 }
             }
-            batchFileSystems.clear();
+            batchFileSystems.removeAll(batch.fileSystemIds);
         } else {
+            final ClusterBatch parent = batches.get().peek();
+            if (parent != null) {
+                parent.fileSystemIds.addAll(batch.fileSystemIds);
+                for (final Map.Entry<String, Map<String, String>> entry : batch.refsBefore.entrySet()) {
+                    if (!parent.refsBefore.containsKey(entry.getKey())) {
+                        parent.refsBefore.put(entry.getKey(),
+                                              entry.getValue());
+                    }
+                }
+            }
+            unlock(batch.lockId);
+        }
+    }
+
+    /**
+     * Takes the cluster lock of the batch's file system, or the whole cluster lock for a batch over several file
+     * systems (so batches never acquire partitions out of order).
+     */
+    private void lockBatch(final FileSystem... fs) {
+        final Map<String, FileSystem> fileSystems = new LinkedHashMap<String, FileSystem>();
+        for (final FileSystem _f : fs) {
+            final FileSystem f = _f.getRootDirectories().iterator().next().getFileSystem();
+            if (f instanceof FileSystemId) {
+                fileSystems.put(((FileSystemId) f).id(),
+                                f);
+            }
+        }
+        final Set<String> ids = new LinkedHashSet<String>(fileSystems.keySet());
+        final String lockId = ids.size() == 1 ? ids.iterator().next() : null;
+        lock(lockId);
+        final ClusterBatch batch = new ClusterBatch(lockId,
+                                                    ids);
+        for (final Map.Entry<String, FileSystem> entry : fileSystems.entrySet()) {
+            final Map<String, String> refs = FileSystemRefs.snapshot(entry.getValue());
+            if (refs != null) {
+                batch.refsBefore.put(entry.getKey(),
+                                     refs);
+            }
+        }
+        batches.get().push(batch);
+        batchFileSystems.addAll(ids);
+    }
+
+    private ClusterBatch popBatch() {
+        final Deque<ClusterBatch> current = batches.get();
+        final ClusterBatch batch = current.pop();
+        if (current.isEmpty()) {
+            batches.remove();
+        }
+        return batch;
+    }
+
+    private void lock(final String lockId) {
+        if (lockId == null) {
+            clusterService.lock();
+        } else {
+            clusterService.lock(lockId);
+        }
+    }
+
+    private void unlock(final String lockId) {
+        if (lockId == null) {
             clusterService.unlock();
+        } else {
+            clusterService.unlock(lockId);
         }
     }
 
@@ -681,6 +748,11 @@ public class IOServiceClusterImpl implements IOService {
         return service.readAttributes(path);
     }
 
+    @Override
+    public List<Map<String, Object>> readAttributes(final List<Path> paths) throws UnsupportedOperationException, IllegalArgumentException, IOException, SecurityException {
+        return service.readAttributes(paths);
+    }
+
     @Override
     public Map<String, Object> readAttributes(final Path path,
                                               final String attributes) throws UnsupportedOperationException, NoSuchFileException, IllegalArgumentException, IOException, SecurityException {
@@ -770,6 +842,11 @@ public class IOServiceClusterImpl implements IOService {
         return service.exists(path);
     }
 
+    @Override
+    public List<Boolean> exists(final List<Path> paths) throws IllegalArgumentException, SecurityException {
+        return service.exists(paths);
+    }
+
     @Override
     public boolean notExists(final Path path) throws IllegalArgumentException, SecurityException {
         return service.notExists(path);
@@ -1190,8 +1267,18 @@ public class IOServiceClusterImpl implements IOService {
         return fs instanceof FileSystemStateAware && ((FileSystemStateAware) (fs)).getState().equals(FileSystemState.BATCH);
     }
 
+    /**
+     * @return lock hold and notify times of the clustered writes, or null if not started.
+     */
+    public ClusterNotifyMetrics getNotifyMetrics() {
+        return notifier == null ? null : notifier.getMetrics();
+    }
+
     @Override
     public void dispose() {
+        if (notifier != null) {
+            notifier.close();
+        }
         service.dispose();
     }
 
@@ -1200,6 +1287,21 @@ public class IOServiceClusterImpl implements IOService {
         return service.priority() - 1;
     }
 
+    static class ClusterBatch {
+
+        // null for the whole cluster lock
+        private final String lockId;
+        private final Set<String> fileSystemIds;
+        // branches of each file system when the batch started
+        private final Map<String, Map<String, String>> refsBefore = new HashMap<String, Map<String, String>>();
+
+        ClusterBatch(final String lockId,
+                     final Set<String> fileSystemIds) {
+            this.lockId = lockId;
+            this.fileSystemIds = fileSystemIds;
+        }
+    }
+
     static class FileSystemInfo {
 
         private String id;
@@ -1282,6 +1384,11 @@ public class IOServiceClusterImpl implements IOService {
                 final String scheme = content.get("fs_scheme");
                 final String id = content.get("fs_id");
                 final String[] supportedUris = cleanup(content.get("fs_uri").split("\n"));
+                final String refs = content.get(FileSystemRefs.FS_REFS);
+                if (refs != null && refs.isEmpty()) {
+                    // the write didn't change any branch
+                    return null;
+                }
 
                 for (final String supportedUri : supportedUris) {
                     try {
@@ -1293,7 +1400,11 @@ public class IOServiceClusterImpl implements IOService {
                             origin = supportedUri;
                         }
 
-                        final URI fs = URI.create(scheme + "://" + id + "?sync=" + origin + "&force");
+                        String query = "?sync=" + origin + "&force";
+                        if (refs != null) {
+                            query += "&refs=" + FileSystemRefs.toSyncParameter(refs);
+                        }
+                        final URI fs = URI.create(scheme + "://" + id + query);
 
                         service.getFileSystem(fs);
                         break;
@@ -60,16 +60,41 @@ public class ClusterServiceHelix implements ClusterService {
     private final String resourceName;
     private final Map<String, MessageHandlerResolver> messageHandlerResolver = new ConcurrentHashMap<String, MessageHandlerResolver>();
 
-    private final ReentrantLock lock = new ReentrantLock(true);
+    private final ReentrantLock[] locks;
 
     public ClusterServiceHelix(final String clusterName,
                                final String zkAddress,
                                final String instanceName,
                                final String resourceName,
                                final MessageHandlerResolver messageHandlerResolver) {
+        this(clusterName,
+             zkAddress,
+             instanceName,
+             resourceName,
+             1,
+             messageHandlerResolver);
+    }
+
+    /**
+     * @param partitions the number of partitions of the lock resource, which must match the number of partitions
+     * the resource was created with. Lock ids are hashed over the partitions, see {@link #lock(String)}.
+     */
+    public ClusterServiceHelix(final String clusterName,
+                               final String zkAddress,
+                               final String instanceName,
+                               final String resourceName,
+                               final int partitions,
+                               final MessageHandlerResolver messageHandlerResolver) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be at least 1");
+        }
         this.clusterName = clusterName;
         this.instanceName = instanceName;
         this.resourceName = resourceName;
+        this.locks = new ReentrantLock[partitions];
+        for (int i = 0; i < partitions; i++) {
+            locks[i] = new ReentrantLock(true);
+        }
         addMessageHandlerResolver(messageHandlerResolver);
         this.participantManager = getZkHelixManager(clusterName,
                                                     zkAddress,
@@ -103,14 +128,23 @@ public class ClusterServiceHelix implements ClusterService {
             participantManager.getStateMachineEngine().registerStateModelFactory("LeaderStandby",
                                                                                  new LockTransitionalFactory());
             participantManager.connect();
-            offlinePartition();
+            for (int i = 0; i < locks.length; i++) {
+                offlinePartition(partitionName(i));
+            }
         } catch (final Exception ex) {
             throw new RuntimeException(ex);
         }
     }
 
-    String getNodeStatus() {
-        final String partition = resourceName + "_0";
+    String partitionName(final int partition) {
+        return resourceName + "_" + partition;
+    }
+
+    int partitionOf(final String lockId) {
+        return (lockId.hashCode() & Integer.MAX_VALUE) % locks.length;
+    }
+
+    String getNodeStatus(final String partition) {
         final ExternalView view = getResourceExternalView();
         if (clusterIsNotSetYet(view,
                                partition)) {
@@ -150,19 +184,23 @@ public class ClusterServiceHelix implements ClusterService {
 
     @Override
     public int getHoldCount() {
-        return lock.getHoldCount();
+        int holdCount = 0;
+        for (final ReentrantLock lock : locks) {
+            holdCount += lock.getHoldCount();
+        }
+        return holdCount;
     }
 
-    private void offlinePartition() {
-        if (OFFLINE.equals(getNodeStatus())) {
+    private void offlinePartition(final String partition) {
+        if (OFFLINE.equals(getNodeStatus(partition))) {
             return;
         }
         participantManager.getClusterManagmentTool().enablePartition(false,
                                                                      clusterName,
                                                                      instanceName,
                                                                      resourceName,
-                                                                     asList(resourceName + "_0"));
-        while (!OFFLINE.equals(getNodeStatus())) {
+                                                                     asList(partition));
+        while (!OFFLINE.equals(getNodeStatus(partition))) {
             try {
                 Thread.sleep(10);
             } catch (InterruptedException e) {
@@ -170,16 +208,16 @@ public class ClusterServiceHelix implements ClusterService {
         }
     }
 
-    private void enablePartition() {
-        if ("LEADER".equals(getNodeStatus())) {
+    private void enablePartition(final String partition) {
+        if ("LEADER".equals(getNodeStatus(partition))) {
             return;
         }
         participantManager.getClusterManagmentTool().enablePartition(true,
                                                                      clusterName,
                                                                      instanceName,
                                                                      resourceName,
-                                                                     asList(resourceName + "_0"));
-        while (!"LEADER".equals(getNodeStatus())) {
+                                                                     asList(partition));
+        while (!"LEADER".equals(getNodeStatus(partition))) {
             try {
                 Thread.sleep(10);
             } catch (InterruptedException e) {
@@ -187,8 +225,8 @@ public class ClusterServiceHelix implements ClusterService {
         }
     }
 
-    private void disablePartition() {
-        String nodeStatus = getNodeStatus();
+    private void disablePartition(final String partition) {
+        String nodeStatus = getNodeStatus(partition);
         if ("STANDBY".equals(nodeStatus) || OFFLINE.equals(nodeStatus)) {
             return;
         }
@@ -196,29 +234,121 @@ public class ClusterServiceHelix implements ClusterService {
                                                                      clusterName,
                                                                      instanceName,
                                                                      resourceName,
-                                                                     asList(resourceName + "_0"));
+                                                                     asList(partition));
 
         while (!("STANDBY".equals(nodeStatus) || OFFLINE.equals(nodeStatus))) {
             try {
                 Thread.sleep(10);
-                nodeStatus = getNodeStatus();
+                nodeStatus = getNodeStatus(partition);
             } catch (InterruptedException e) {
             }
         }
     }
 
+    /**
+     * Locks every partition, see {@link #acquire(int[])}.
+     */
     @Override
     public void lock() {
-        lock.lock();
-
-        enablePartition();
+        final int[] all = new int[locks.length];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        acquire(all);
     }
 
     @Override
     public void unlock() {
-        disablePartition();
+        for (int i = locks.length - 1; i >= 0; i--) {
+            unlockPartition(i);
+        }
+    }
+
+    @Override
+    public void lock(final String lockId) {
+        acquire(partitionOf(lockId));
+    }
+
+    @Override
+    public void unlock(final String lockId) {
+        unlockPartition(partitionOf(lockId));
+    }
 
-        lock.unlock();
+    /**
+     * Partitions are only ever waited for in ascending order, so threads holding several of them can't deadlock.
+     * Partitions a thread already holds are never given up: one below a partition the thread holds is only taken
+     * if it's free right away, otherwise nothing is taken and {@link IllegalStateException} is thrown. Work over
+     * several file systems should lock all of them up front, as batches over several file systems do by locking
+     * the whole cluster.
+     * @param partitions the partitions to lock, in ascending order.
+     */
+    private void acquire(final int... partitions) {
+        int highest = -1;
+        for (int i = 0; i < locks.length; i++) {
+            if (locks[i].isHeldByCurrentThread()) {
+                highest = i;
+            }
+        }
+
+        int locked = 0;
+        try {
+            for (final int partition : partitions) {
+                if (partition < highest && !locks[partition].isHeldByCurrentThread()) {
+                    if (!tryLockPartition(partition)) {
+                        throw new IllegalStateException("Cluster lock partition " + partition + " is busy and below " +
+                                                                "partition " + highest + " already held; lock every " +
+                                                                "file system up front instead.");
+                    }
+                } else {
+                    lockPartition(partition);
+                }
+                locked++;
+            }
+        } catch (final RuntimeException ex) {
+            for (int i = locked - 1; i >= 0; i--) {
+                unlockPartition(partitions[i]);
+            }
+            throw ex;
+        }
+    }
+
+    private boolean tryLockPartition(final int partition) {
+        final ReentrantLock lock = locks[partition];
+        if (!lock.tryLock()) {
+            return false;
+        }
+        try {
+            enablePartition(partitionName(partition));
+        } catch (final RuntimeException ex) {
+            lock.unlock();
+            throw ex;
+        }
+        return true;
+    }
+
+    private void lockPartition(final int partition) {
+        final ReentrantLock lock = locks[partition];
+        lock.lock();
+
+        if (lock.getHoldCount() == 1) {
+            try {
+                enablePartition(partitionName(partition));
+            } catch (final RuntimeException ex) {
+                lock.unlock();
+                throw ex;
+            }
+        }
+    }
+
+    private void unlockPartition(final int partition) {
+        final ReentrantLock lock = locks[partition];
+        try {
+            if (lock.getHoldCount() == 1) {
+                disablePartition(partitionName(partition));
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
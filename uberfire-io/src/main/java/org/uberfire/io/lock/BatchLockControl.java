@@ -16,27 +16,276 @@
 
 package org.uberfire.io.lock;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.locks.ReentrantLock;
 
+import org.uberfire.java.nio.base.FileSystemId;
 import org.uberfire.java.nio.file.FileSystem;
+import org.uberfire.java.nio.file.Path;
 
+/**
+ * Controls the locks taken by batch operations.
+ * <p>
+ * By default a single fair lock is shared by every file system. When striping is enabled
+ * (either through the constructor or the <code>org.uberfire.io.batch.lock.striped</code> system property)
+ * each file system gets its own fair lock, so batches on disjoint sets of file systems run concurrently.
+ * Locks for a multi file system batch are always acquired in file system id order, avoiding deadlocks.
+ * A nested batch only waits for file systems above those its thread already holds; one below them is taken if
+ * it's free right away, otherwise the nested batch fails with {@link IllegalStateException}. The file systems of a
+ * nested batch stay locked until the outermost batch ends, as their batch mode is only unset then.
+ * A file system's lock is dropped once no batch holds or waits for it.
+ */
 public class BatchLockControl {
 
-    private ReentrantLock lock = new ReentrantLock(true);
+    public static final String STRIPED_LOCK_PROPERTY = "org.uberfire.io.batch.lock.striped";
+
+    private final boolean striped;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+
+    // guarded by itself; stripes in use, by file system id
+    private final Map<String, Stripe> stripes = new HashMap<String, Stripe>();
+
+    private final ThreadLocal<Deque<Batch>> batches = new ThreadLocal<Deque<Batch>>() {
+        @Override
+        protected Deque<Batch> initialValue() {
+            return new ArrayDeque<Batch>();
+        }
+    };
+
+    public BatchLockControl() {
+        this(Boolean.parseBoolean(System.getProperty(STRIPED_LOCK_PROPERTY,
+                                                     "false")));
+    }
+
+    public BatchLockControl(final boolean striped) {
+        this.striped = striped;
+    }
 
     public void lock(final FileSystem... fileSystems) {
-        lock.lock();
+        final Map<String, FileSystem> sorted = sortById(fileSystems);
+        if (!striped) {
+            lock.lock();
+            batches.get().push(new Batch(sorted.values(),
+                                         new Stripe[0]));
+            return;
+        }
+
+        final String highest = highestHeldId();
+        final Stripe[] acquired = new Stripe[sorted.size()];
+        int i = 0;
+        try {
+            for (final String id : sorted.keySet()) {
+                final Stripe stripe = retain(id);
+                try {
+                    if (highest != null && id.compareTo(highest) < 0 && !stripe.lock.isHeldByCurrentThread()) {
+                        if (!stripe.lock.tryLock()) {
+                            throw new IllegalStateException("Batch lock of file system '" + id + "' is busy and " +
+                                                                    "below '" + highest + "' already held; start " +
+                                                                    "the outer batch on every file system instead.");
+                        }
+                    } else {
+                        stripe.lock.lock();
+                    }
+                } catch (final RuntimeException ex) {
+                    dispose(stripe);
+                    throw ex;
+                }
+                acquired[i++] = stripe;
+            }
+        } catch (final RuntimeException ex) {
+            release(acquired,
+                    i);
+            throw ex;
+        }
+        batches.get().push(new Batch(sorted.values(),
+                                     acquired));
     }
 
+    /**
+     * Ends the current thread's innermost batch. The file systems and locks of a nested batch are handed to its
+     * parent, and only released when the outermost batch ends.
+     */
     public void unlock() {
-        lock.unlock();
+        final Deque<Batch> current = batches.get();
+        final Batch batch = current.poll();
+        if (current.isEmpty()) {
+            batches.remove();
+        } else if (batch != null) {
+            current.peek().merge(batch);
+        }
+        if (!striped) {
+            lock.unlock();
+            return;
+        }
+        if (batch == null) {
+            throw new IllegalMonitorStateException();
+        }
+        if (current.isEmpty()) {
+            release(batch.locks.toArray(new Stripe[batch.locks.size()]),
+                    batch.locks.size());
+        }
     }
 
+    /**
+     * @return true if any batch is in progress; in striped mode, on any file system.
+     */
     public boolean isLocked() {
-        return lock.isLocked();
+        if (!striped) {
+            return lock.isLocked();
+        }
+        synchronized (stripes) {
+            for (final Stripe stripe : stripes.values()) {
+                if (stripe.lock.isLocked()) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
+    /**
+     * @return number of nested batches held by the current thread.
+     */
     public int getHoldCount() {
-        return lock.getHoldCount();
+        if (!striped) {
+            return lock.getHoldCount();
+        }
+        return batches.get().size();
+    }
+
+    public boolean isStriped() {
+        return striped;
+    }
+
+    /**
+     * @return all file systems locked by the batches of the current thread, including ended nested ones.
+     */
+    public Collection<FileSystem> getLockedFileSystems() {
+        final Set<FileSystem> result = new LinkedHashSet<FileSystem>();
+        final Iterator<Batch> iterator = batches.get().descendingIterator();
+        while (iterator.hasNext()) {
+            result.addAll(iterator.next().fileSystems);
+        }
+        return result;
+    }
+
+    /**
+     * @return number of file system locks currently held or waited for.
+     */
+    int getStripeCount() {
+        synchronized (stripes) {
+            return stripes.size();
+        }
+    }
+
+    private String highestHeldId() {
+        String result = null;
+        for (final Batch batch : batches.get()) {
+            for (final Stripe stripe : batch.locks) {
+                if (result == null || stripe.id.compareTo(result) > 0) {
+                    result = stripe.id;
+                }
+            }
+        }
+        return result;
+    }
+
+    private Stripe retain(final String id) {
+        synchronized (stripes) {
+            Stripe stripe = stripes.get(id);
+            if (stripe == null) {
+                stripe = new Stripe(id);
+                stripes.put(id,
+                            stripe);
+            }
+            stripe.users++;
+            return stripe;
+        }
+    }
+
+    private void dispose(final Stripe stripe) {
+        synchronized (stripes) {
+            if (--stripe.users == 0) {
+                stripes.remove(stripe.id);
+            }
+        }
+    }
+
+    private void release(final Stripe[] locks,
+                         final int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            locks[i].lock.unlock();
+            dispose(locks[i]);
+        }
+    }
+
+    private Map<String, FileSystem> sortById(final FileSystem... fileSystems) {
+        final Map<String, FileSystem> result = new TreeMap<String, FileSystem>();
+        if (fileSystems == null) {
+            return result;
+        }
+        for (final FileSystem fs : fileSystems) {
+            if (fs != null) {
+                result.put(idOf(fs),
+                           fs);
+            }
+        }
+        return result;
+    }
+
+    static String idOf(final FileSystem fs) {
+        FileSystem target = fs;
+        try {
+            final Iterator<Path> roots = fs.getRootDirectories().iterator();
+            if (roots.hasNext()) {
+                target = roots.next().getFileSystem();
+            }
+        } catch (final Exception ignore) {
+        }
+        if (target instanceof FileSystemId) {
+            return ((FileSystemId) target).id();
+        }
+        return target.getClass().getName() + "@" + System.identityHashCode(target);
+    }
+
+    private static class Batch {
+
+        private final Collection<FileSystem> fileSystems;
+        private final List<Stripe> locks;
+
+        private Batch(final Collection<FileSystem> fileSystems,
+                      final Stripe[] locks) {
+            this.fileSystems = new LinkedHashSet<FileSystem>(fileSystems);
+            this.locks = new ArrayList<Stripe>(Arrays.asList(locks));
+        }
+
+        private void merge(final Batch nested) {
+            fileSystems.addAll(nested.fileSystems);
+            locks.addAll(nested.locks);
+        }
+    }
+
+    private static class Stripe {
+
+        private final String id;
+        private final ReentrantLock lock = new ReentrantLock(true);
+        // guarded by stripes; batches holding or waiting for the lock
+        private int users;
+
+        private Stripe(final String id) {
+            this.id = id;
+        }
     }
 }
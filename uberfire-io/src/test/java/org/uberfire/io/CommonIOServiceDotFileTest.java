@@ -20,6 +20,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -686,6 +687,29 @@ public abstract class CommonIOServiceDotFileTest {
                      content);
     }
 
+    @Test
+    public void testBulkReadAttributesAndExists() {
+        final Path file = getFilePath();
+        ioService().write(file,
+                          "text");
+        final Path missing = getTargetPath();
+        final List<Path> paths = Arrays.asList(file,
+                                               missing);
+
+        assertEquals(Arrays.asList(true,
+                                   false),
+                     ioService().exists(paths));
+
+        final List<Map<String, Object>> attrs = ioService().readAttributes(paths);
+        assertEquals(2,
+                     attrs.size());
+        assertEquals(4L,
+                     attrs.get(0).get("size"));
+        assertEquals(ioService().readAttributes(file).get("fileKey"),
+                     attrs.get(0).get("fileKey"));
+        assertNull(attrs.get(1));
+    }
+
     public abstract Path getFilePath();
 
     public abstract Path getTargetPath();
@@ -17,20 +17,28 @@
 package org.uberfire.io;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.uberfire.io.impl.IOServiceDotFileImpl;
 import org.uberfire.java.nio.file.FileSystem;
+import org.uberfire.java.nio.file.OpenOption;
 import org.uberfire.java.nio.file.Path;
 import org.uberfire.java.nio.file.attribute.FileAttribute;
 
 import static org.junit.Assert.*;
+import static org.uberfire.java.nio.base.dotfiles.DotFileUtils.dot;
 
 /**
  *
@@ -166,6 +174,155 @@ public class GitIOServiceDotFileTest extends CommonIOExceptionsServiceDotFileTes
         assertFalse(attrsValue2.containsKey("my_new_key"));
     }
 
+    @Test
+    public void testDotFileChangedWhileReadIsNotCachedUnderOldBlob() {
+        final URI uri = URI.create("git://repo-test/racy/file.txt");
+        final Path file = ioService().get(uri);
+        ioService().write(file,
+                          "content",
+                          Collections.<OpenOption>emptySet(),
+                          attribute("racy_key",
+                                    "v1"));
+
+        final AtomicBoolean committed = new AtomicBoolean(false);
+        final IOService racing = new IOServiceDotFileImpl() {
+            @Override
+            public InputStream newInputStream(final Path path,
+                                              final OpenOption... options) {
+                if (path.getFileName().toString().startsWith(".") && committed.compareAndSet(false,
+                                                                                            true)) {
+                    ioService().write(file,
+                                      "content",
+                                      Collections.<OpenOption>emptySet(),
+                                      attribute("racy_key",
+                                                "v2"));
+                }
+                return super.newInputStream(path,
+                                            options);
+            }
+        };
+        try {
+            assertEquals("v2",
+                         racing.readAttributes(racing.get(uri)).get("racy_key"));
+            assertTrue(committed.get());
+
+            ioService().write(file,
+                              "content",
+                              Collections.<OpenOption>emptySet(),
+                              attribute("racy_key",
+                                        "v1"));
+            assertEquals("v1",
+                         racing.readAttributes(racing.get(uri)).get("racy_key"));
+        } finally {
+            racing.dispose();
+        }
+    }
+
+    @Test
+    public void testBulkReadsUseSingleSnapshot() {
+        final Path file1 = ioService().get(URI.create("git://repo-test/bulk/file1.txt"));
+        final Path file2 = ioService().get(URI.create("git://repo-test/bulk/file2.txt"));
+        ioService().write(file1,
+                          "a");
+        ioService().write(file2,
+                          "bb");
+
+        final AtomicBoolean committed = new AtomicBoolean(false);
+        final IOService racing = new IOServiceDotFileImpl() {
+            @Override
+            public Map<String, Object> readAttributes(final Path path) {
+                final Map<String, Object> result = super.readAttributes(path);
+                if (committed.compareAndSet(false,
+                                            true)) {
+                    ioService().write(file2,
+                                      "cccc");
+                }
+                return result;
+            }
+        };
+        try {
+            final List<Map<String, Object>> attrs = racing.readAttributes(Arrays.asList(file1,
+                                                                                        file2));
+            assertTrue(committed.get());
+            assertEquals(1L,
+                         attrs.get(0).get("size"));
+            assertEquals(2L,
+                         attrs.get(1).get("size"));
+            assertEquals(4L,
+                         racing.readAttributes(Collections.singletonList(file2)).get(0).get("size"));
+        } finally {
+            racing.dispose();
+        }
+    }
+
+    private FileAttribute<Object> attribute(final String name,
+                                            final Object value) {
+        return new FileAttribute<Object>() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public Object value() {
+                return value;
+            }
+        };
+    }
+
+    @Test
+    public void testDotFilesWithSameContentAreShared() {
+        final Path file1 = ioService().get(URI.create("git://repo-test/shared/file1.txt"));
+        final Path file2 = ioService().get(URI.create("git://repo-test/shared/file2.txt"));
+        final FileAttribute<Object> attr = new FileAttribute<Object>() {
+            @Override
+            public String name() {
+                return "shared_key";
+            }
+
+            @Override
+            public Object value() {
+                return "value";
+            }
+        };
+        ioService().write(file1,
+                          "content",
+                          Collections.<OpenOption>emptySet(),
+                          attr);
+        ioService().write(file2,
+                          "content",
+                          Collections.<OpenOption>emptySet(),
+                          attr);
+
+        final Object key1 = ioService().readAttributes(dot(file1)).get("fileKey");
+        final Object key2 = ioService().readAttributes(dot(file2)).get("fileKey");
+        assertEquals(key1,
+                     key2);
+
+        assertEquals("value",
+                     ioService().readAttributes(file1).get("shared_key"));
+        assertEquals("value",
+                     ioService().readAttributes(file2).get("shared_key"));
+
+        ioService().setAttributes(file1,
+                                  new FileAttribute<Object>() {
+                                      @Override
+                                      public String name() {
+                                          return "shared_key";
+                                      }
+
+                                      @Override
+                                      public Object value() {
+                                          return "other";
+                                      }
+                                  });
+
+        assertEquals("other",
+                     ioService().readAttributes(ioService().get(URI.create("git://repo-test/shared/file1.txt"))).get("shared_key"));
+        assertEquals("value",
+                     ioService().readAttributes(ioService().get(URI.create("git://repo-test/shared/file2.txt"))).get("shared_key"));
+    }
+
     @Override
     public Path getFilePath() {
 
@@ -346,6 +346,20 @@ public class BatchTest {
         assertFalse(fs1Batch.isOnBatch());
     }
 
+    @Test
+    public void testInnerBatchOnOtherFileSystem() throws IOException, InterruptedException {
+        ioService.startBatch(new FileSystem[]{fs1});
+        ioService.startBatch(new FileSystem[]{fs2});
+        assertTrue(fs1Batch.isOnBatch());
+        assertTrue(fs2Batch.isOnBatch());
+        ioService.endBatch();
+        assertTrue(fs1Batch.isOnBatch());
+        assertTrue(fs2Batch.isOnBatch());
+        ioService.endBatch();
+        assertFalse(fs1Batch.isOnBatch());
+        assertFalse(fs2Batch.isOnBatch());
+    }
+
     @Test
     public void assertNumberOfCommitsOnInnerBatch() throws IOException, InterruptedException {
         final Path f11 = ioService.get(URI.create("git://check-amend-repo-test/f11.txt"));
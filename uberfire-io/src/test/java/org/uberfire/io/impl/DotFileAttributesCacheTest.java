@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.io.impl;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+import org.uberfire.java.nio.base.Properties;
+
+import static org.junit.Assert.*;
+
+public class DotFileAttributesCacheTest {
+
+    @Test
+    public void testGetReturnsCopy() {
+        final DotFileAttributesCache cache = new DotFileAttributesCache(1024 * 1024);
+        final Properties content = new Properties();
+        content.put("key",
+                    "value");
+        cache.put("blob",
+                  content,
+                  10);
+
+        final Properties cached = cache.get("blob");
+        assertEquals("value",
+                     cached.get("key"));
+        cached.put("key",
+                   "changed");
+        assertEquals("value",
+                     cache.get("blob").get("key"));
+        assertNull(cache.get("missing"));
+    }
+
+    @Test
+    public void testMutableValuesAreNotShared() {
+        final DotFileAttributesCache cache = new DotFileAttributesCache(1024 * 1024);
+        final Date date = new Date(1000);
+        final Properties content = new Properties();
+        content.put("date",
+                    date);
+        cache.put("blob",
+                  content,
+                  10);
+        date.setTime(2000);
+
+        final Date cached = (Date) cache.get("blob").get("date");
+        assertEquals(1000,
+                     cached.getTime());
+        cached.setTime(3000);
+        assertEquals(1000,
+                     ((Date) cache.get("blob").get("date")).getTime());
+
+        final List<String> list = new ArrayList<String>();
+        final Properties withList = new Properties();
+        withList.put("list",
+                     list);
+        cache.put("other",
+                  withList,
+                  10);
+        assertNull(cache.get("other"));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        final DotFileAttributesCache cache = new DotFileAttributesCache(3000);
+        cache.put("a",
+                  new Properties(),
+                  700);
+        cache.put("b",
+                  new Properties(),
+                  700);
+        cache.put("c",
+                  new Properties(),
+                  700);
+        assertEquals(3,
+                     cache.count());
+
+        cache.get("a");
+        cache.put("d",
+                  new Properties(),
+                  700);
+
+        assertEquals(3,
+                     cache.count());
+        assertTrue(cache.size() <= 3000);
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("d"));
+
+        cache.put("huge",
+                  new Properties(),
+                  5000);
+        assertNull(cache.get("huge"));
+
+        cache.clear();
+        assertEquals(0,
+                     cache.count());
+        assertEquals(0,
+                     cache.size());
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.io.impl.cluster;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.uberfire.commons.cluster.ClusterService;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.uberfire.commons.cluster.LockExecuteNotifySyncReleaseTemplate.TIMEOUT;
+import static org.uberfire.io.impl.cluster.ClusterMessageType.NEW_FS;
+import static org.uberfire.io.impl.cluster.ClusterMessageType.SYNC_FS;
+
+public class AsyncNotifyClusterServiceTest {
+
+    private ClusterService clusterService;
+    private AsyncNotifyClusterService notifier;
+
+    @Before
+    public void setup() {
+        clusterService = mock(ClusterService.class);
+        notifier = new AsyncNotifyClusterService(clusterService);
+    }
+
+    @After
+    public void tearDown() {
+        notifier.close();
+    }
+
+    @Test(timeout = 10000)
+    public void testPendingNotificationsAreCoalesced() throws Exception {
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(final InvocationOnMock invocation) throws Throwable {
+                sending.countDown();
+                release.await();
+                return null;
+            }
+        }).when(clusterService).broadcastAndWait(eq("serviceId"),
+                                                 eq(SYNC_FS),
+                                                 eq(content("repo",
+                                                            "a b refs/heads/master")),
+                                                 eq(TIMEOUT));
+
+        notifier.broadcast("serviceId",
+                           SYNC_FS,
+                           content("repo",
+                                   "a b refs/heads/master"));
+        assertTrue(sending.await(5,
+                                 TimeUnit.SECONDS));
+
+        notifier.broadcast("serviceId",
+                           SYNC_FS,
+                           content("repo",
+                                   "b c refs/heads/master"));
+        notifier.broadcast("serviceId",
+                           SYNC_FS,
+                           content("repo",
+                                   "c d refs/heads/master\n0 e refs/heads/dev"));
+        notifier.broadcast("serviceId",
+                           SYNC_FS,
+                           content("other",
+                                   "0 f refs/heads/master"));
+        release.countDown();
+        notifier.flush();
+
+        verify(clusterService).broadcastAndWait("serviceId",
+                                                SYNC_FS,
+                                                content("repo",
+                                                        "0 e refs/heads/dev\nb d refs/heads/master"),
+                                                TIMEOUT);
+        verify(clusterService).broadcastAndWait("serviceId",
+                                                SYNC_FS,
+                                                content("other",
+                                                        "0 f refs/heads/master"),
+                                                TIMEOUT);
+        verify(clusterService,
+               times(3)).broadcastAndWait(anyString(),
+                                          eq(SYNC_FS),
+                                          anyMapOf(String.class,
+                                                   String.class),
+                                          eq(TIMEOUT));
+        verify(clusterService,
+               never()).broadcast(anyString(),
+                                  eq(SYNC_FS),
+                                  anyMapOf(String.class,
+                                           String.class));
+
+        final ClusterNotifyMetrics metrics = notifier.getMetrics();
+        assertEquals(1,
+                     metrics.getCoalescedCount());
+        assertEquals(3,
+                     metrics.getNotifyCount());
+        assertEquals(2,
+                     metrics.getBatchCount());
+    }
+
+    @Test(timeout = 10000)
+    public void testFlushWaitsForPeerReplies() throws Exception {
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch replied = new CountDownLatch(1);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(final InvocationOnMock invocation) throws Throwable {
+                sending.countDown();
+                replied.await();
+                return null;
+            }
+        }).when(clusterService).broadcastAndWait(eq("serviceId"),
+                                                 eq(SYNC_FS),
+                                                 anyMapOf(String.class,
+                                                          String.class),
+                                                 eq(TIMEOUT));
+
+        notifier.broadcast("serviceId",
+                           SYNC_FS,
+                           content("repo",
+                                   "a b refs/heads/master"));
+        assertTrue(sending.await(5,
+                                 TimeUnit.SECONDS));
+
+        final AtomicBoolean flushed = new AtomicBoolean();
+        final Thread flusher = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    notifier.flush();
+                    flushed.set(true);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        flusher.start();
+        flusher.join(200);
+        assertFalse(flushed.get());
+
+        replied.countDown();
+        flusher.join();
+        assertTrue(flushed.get());
+    }
+
+    @Test
+    public void testMergedChangesMustChain() {
+        assertNull(FileSystemRefs.merge("a b refs/heads/master",
+                                        null));
+        assertNull(FileSystemRefs.merge(null,
+                                        "a b refs/heads/master"));
+        assertEquals("",
+                     FileSystemRefs.merge("a b refs/heads/master",
+                                          "b a refs/heads/master"));
+        assertEquals("a b refs/heads/master",
+                     FileSystemRefs.merge("",
+                                          "a b refs/heads/master"));
+        assertNull(FileSystemRefs.merge("b c refs/heads/master",
+                                        "a b refs/heads/master"));
+        assertEquals("a b refs/heads/dev\nc d refs/heads/master",
+                     FileSystemRefs.merge("a b refs/heads/dev",
+                                          "c d refs/heads/master"));
+    }
+
+    @Test
+    public void testOtherMessagesAreSentDirectly() {
+        final Map<String, String> content = new HashMap<String, String>();
+        content.put("uri",
+                    "git://repo");
+        notifier.broadcast("serviceId",
+                           NEW_FS,
+                           content);
+        verify(clusterService).broadcast("serviceId",
+                                         NEW_FS,
+                                         content);
+        assertEquals(0,
+                     notifier.getMetrics().getNotifyCount());
+    }
+
+    @Test
+    public void testClosedNotifierSendsDirectly() {
+        notifier.close();
+        notifier.broadcast("serviceId",
+                           SYNC_FS,
+                           content("repo",
+                                   "a b refs/heads/master"));
+        verify(clusterService).broadcastAndWait("serviceId",
+                                                SYNC_FS,
+                                                content("repo",
+                                                        "a b refs/heads/master"),
+                                                TIMEOUT);
+    }
+
+    @Test
+    public void testOutermostLockHoldIsMeasured() {
+        notifier.lock("repo");
+        notifier.lock("repo");
+        notifier.unlock("repo");
+        notifier.unlock("repo");
+        notifier.lock();
+        notifier.unlock();
+
+        verify(clusterService,
+               times(2)).lock("repo");
+        verify(clusterService,
+               times(2)).unlock("repo");
+        verify(clusterService).unlock();
+        assertEquals(2,
+                     notifier.getMetrics().getLockHoldCount());
+    }
+
+    private static Map<String, String> content(final String fsId,
+                                               final String refs) {
+        final Map<String, String> content = new HashMap<String, String>();
+        content.put("fs_scheme",
+                    "git");
+        content.put("fs_id",
+                    fsId);
+        content.put("fs_uri",
+                    "git://localhost:9418/" + fsId);
+        content.put(FileSystemRefs.FS_REFS,
+                    refs);
+        return content;
+    }
+}
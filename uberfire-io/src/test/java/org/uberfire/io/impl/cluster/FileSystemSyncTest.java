@@ -18,14 +18,21 @@ package org.uberfire.io.impl.cluster;
 
 import java.net.URI;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
 
 import org.junit.Test;
+import org.mockito.InOrder;
+import org.uberfire.commons.cluster.ClusterService;
 import org.uberfire.java.nio.base.FileSystemId;
+import org.uberfire.java.nio.base.FileSystemRefsAware;
 import org.uberfire.java.nio.file.FileSystem;
 import org.uberfire.java.nio.file.Path;
 
 import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
 import static org.mockito.Mockito.*;
 
 public class FileSystemSyncTest {
@@ -63,4 +70,79 @@ public class FileSystemSyncTest {
                          content.get("fs_id"));
         }
     }
+
+    @Test
+    public void testChangedRefsAreSent() {
+        final FileSystem fs = mock(FileSystem.class,
+                                   withSettings().extraInterfaces(FileSystemId.class,
+                                                                  FileSystemRefsAware.class));
+        final Path rootPath = mock(Path.class);
+        when(fs.getRootDirectories()).thenReturn(Arrays.asList(rootPath));
+        when(rootPath.getFileSystem()).thenReturn(fs);
+        when(rootPath.toUri()).thenReturn(URI.create("git://myrepo"));
+        when(((FileSystemId) fs).id()).thenReturn("my-fsid");
+
+        final Map<String, String> before = new HashMap<String, String>();
+        before.put("refs/heads/master",
+                   "1111111111111111111111111111111111111111");
+        before.put("refs/heads/gone",
+                   "2222222222222222222222222222222222222222");
+        before.put("refs/heads/same",
+                   "3333333333333333333333333333333333333333");
+        final Map<String, String> after = new HashMap<String, String>();
+        after.put("refs/heads/master",
+                  "4444444444444444444444444444444444444444");
+        after.put("refs/heads/new",
+                  "5555555555555555555555555555555555555555");
+        after.put("refs/heads/same",
+                  "3333333333333333333333333333333333333333");
+        when(((FileSystemRefsAware) fs).getRefs()).thenReturn(after);
+
+        final FileSystemSyncNonLock<String> sync = new FileSystemSyncNonLock<String>("serviceId",
+                                                                                      fs,
+                                                                                      before);
+        assertEquals("2222222222222222222222222222222222222222 0000000000000000000000000000000000000000 refs/heads/gone\n" +
+                             "1111111111111111111111111111111111111111 4444444444444444444444444444444444444444 refs/heads/master\n" +
+                             "0000000000000000000000000000000000000000 5555555555555555555555555555555555555555 refs/heads/new",
+                     sync.buildContent().get("fs_refs"));
+
+        assertEquals("",
+                     new FileSystemSyncNonLock<String>("serviceId",
+                                                       fs,
+                                                       after).buildContent().get("fs_refs"));
+        assertFalse(new FileSystemSyncNonLock<String>("serviceId",
+                                                      fs).buildContent().containsKey("fs_refs"));
+        assertEquals("610a62",
+                     FileSystemRefs.toSyncParameter("a\nb"));
+    }
+
+    @Test
+    public void testNotifiesAfterReleasingTheLock() {
+        final FileSystem fs = mock(FileSystem.class,
+                                   withSettings().extraInterfaces(FileSystemId.class));
+        final Path rootPath = mock(Path.class);
+        when(fs.getRootDirectories()).thenReturn(Arrays.asList(rootPath));
+        when(rootPath.getFileSystem()).thenReturn(fs);
+        when(rootPath.toUri()).thenReturn(URI.create("git://myrepo"));
+        when(((FileSystemId) fs).id()).thenReturn("my-fsid");
+
+        final ClusterService clusterService = mock(ClusterService.class);
+        assertEquals("done",
+                     new FileSystemSyncLock<String>("serviceId",
+                                                    fs).execute(clusterService,
+                                                                new FutureTask<String>(new Callable<String>() {
+                                                                    @Override
+                                                                    public String call() throws Exception {
+                                                                        return "done";
+                                                                    }
+                                                                })));
+
+        final InOrder inOrder = inOrder(clusterService);
+        inOrder.verify(clusterService).lock("my-fsid");
+        inOrder.verify(clusterService).unlock("my-fsid");
+        inOrder.verify(clusterService).broadcast(eq("serviceId"),
+                                                 eq(ClusterMessageType.SYNC_FS),
+                                                 anyMapOf(String.class,
+                                                          String.class));
+    }
 }
@@ -18,9 +18,12 @@ package org.uberfire.io.impl.cluster;
 
 import java.net.URI;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.junit.Test;
 import org.uberfire.commons.cluster.ClusterService;
+import org.uberfire.commons.message.MessageHandler;
 import org.uberfire.io.impl.IOServiceLockable;
 import org.uberfire.io.lock.BatchLockControl;
 import org.uberfire.java.nio.base.FileSystemId;
@@ -30,6 +33,7 @@ import org.uberfire.java.nio.file.Path;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
+import static org.uberfire.io.impl.cluster.ClusterMessageType.SYNC_FS;
 
 public class IOServiceClusterImplTest {
 
@@ -81,7 +85,9 @@ public class IOServiceClusterImplTest {
                          ioServiceCluster.batchFileSystems.size());
 
             verify(clusterService,
-                   times(1)).unlock();
+                   times(1)).lock("my-fsid");
+            verify(clusterService,
+                   times(1)).unlock("my-fsid");
         }
 
         {
@@ -108,7 +114,9 @@ public class IOServiceClusterImplTest {
                          ioServiceCluster.batchFileSystems.size());
 
             verify(clusterService,
-                   times(2)).unlock();
+                   times(2)).lock("my-fsid");
+            verify(clusterService,
+                   times(2)).unlock("my-fsid");
         }
 
         {
@@ -135,10 +143,46 @@ public class IOServiceClusterImplTest {
                          ioServiceCluster.batchFileSystems.size());
 
             verify(clusterService,
-                   times(3)).unlock();
+                   times(3)).lock("my-fsid");
+            verify(clusterService,
+                   times(3)).unlock("my-fsid");
         }
     }
 
+    @Test
+    public void testSyncMessageCarriesChangedRefs() {
+        final IOServiceLockable serviceLockable = mock(IOServiceLockable.class);
+        final IOServiceClusterImpl ioServiceCluster = new TestWrapper(mock(ClusterService.class),
+                                                                      serviceLockable);
+        final MessageHandler handler = ioServiceCluster.new SyncFileSystemMessageHandler();
+        final Map<String, String> content = new HashMap<String, String>();
+        content.put("fs_scheme",
+                    "git");
+        content.put("fs_id",
+                    "myrepo");
+        content.put("fs_uri",
+                    "git://localhost:9418/myrepo");
+
+        content.put("fs_refs",
+                    "");
+        handler.handleMessage(SYNC_FS,
+                              content);
+        verify(serviceLockable,
+               never()).getFileSystem(any(URI.class));
+
+        content.put("fs_refs",
+                    "a b refs/heads/master");
+        handler.handleMessage(SYNC_FS,
+                              content);
+        verify(serviceLockable).getFileSystem(URI.create("git://myrepo?sync=git%3A%2F%2Flocalhost%3A9418%2Fmyrepo&force&refs=" +
+                                                                 FileSystemRefs.toSyncParameter("a b refs/heads/master")));
+
+        content.remove("fs_refs");
+        handler.handleMessage(SYNC_FS,
+                              content);
+        verify(serviceLockable).getFileSystem(URI.create("git://myrepo?sync=git%3A%2F%2Flocalhost%3A9418%2Fmyrepo&force"));
+    }
+
     private class TestWrapper extends IOServiceClusterImpl {
 
         public TestWrapper(final ClusterService clusterService,
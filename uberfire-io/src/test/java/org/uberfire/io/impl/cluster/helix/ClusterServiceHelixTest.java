@@ -16,13 +16,27 @@
 
 package org.uberfire.io.impl.cluster.helix;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import org.apache.helix.HelixAdmin;
 import org.apache.helix.HelixManager;
 import org.apache.helix.model.ExternalView;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.uberfire.commons.lifecycle.PriorityDisposableRegistry;
 import org.uberfire.commons.message.MessageHandlerResolver;
 
@@ -39,12 +53,12 @@ public class ClusterServiceHelixTest {
 
         when(externalView.getStateMap("resourceName_0")).thenReturn(null);
         assertEquals("OFFLINE",
-                     clusterServiceHelix.getNodeStatus());
+                     clusterServiceHelix.getNodeStatus("resourceName_0"));
 
         Map<String, String> emptyMap = new HashMap<String, String>();
         when(externalView.getStateMap("resourceName_0")).thenReturn(emptyMap);
         assertEquals("OFFLINE",
-                     clusterServiceHelix.getNodeStatus());
+                     clusterServiceHelix.getNodeStatus("resourceName_0"));
     }
 
     @Test
@@ -55,14 +69,258 @@ public class ClusterServiceHelixTest {
                      "LEADER");
         when(externalView.getStateMap("resourceName_0")).thenReturn(valueMap);
         assertEquals("LEADER",
-                     clusterServiceHelix.getNodeStatus());
+                     clusterServiceHelix.getNodeStatus("resourceName_0"));
     }
 
     @Test
     public void getNodeStatusNullViewTest() {
         externalView = null;
         assertEquals("OFFLINE",
-                     clusterServiceHelix.getNodeStatus());
+                     clusterServiceHelix.getNodeStatus("resourceName_0"));
+    }
+
+    @Test
+    public void lockIdsArePartitioned() throws Exception {
+        final HelixAdmin admin = mock(HelixAdmin.class);
+        final ClusterServiceHelix partitioned = partitioned(admin);
+
+        String other = null;
+        String same = null;
+        for (int i = 0; other == null || same == null; i++) {
+            final String lockId = "repo" + i;
+            if (partitioned.partitionOf(lockId) != partitioned.partitionOf("repo")) {
+                other = lockId;
+            } else if (i > 0) {
+                same = lockId;
+            }
+        }
+
+        partitioned.lock("repo");
+        partitioned.lock("repo");
+        assertEquals(2,
+                     partitioned.getHoldCount());
+        assertEquals("LEADER",
+                     partitioned.getNodeStatus(partitioned.partitionName(partitioned.partitionOf("repo"))));
+        verify(admin,
+               times(1)).enablePartition(eq(true),
+                                         anyString(),
+                                         anyString(),
+                                         anyString(),
+                                         anyList());
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final String otherLockId = other;
+            executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    partitioned.lock(otherLockId);
+                    partitioned.unlock(otherLockId);
+                    return null;
+                }
+            }).get(10,
+                   TimeUnit.SECONDS);
+
+            final String sameLockId = same;
+            final Future<Void> blocked = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    partitioned.lock(sameLockId);
+                    partitioned.unlock(sameLockId);
+                    return null;
+                }
+            });
+            try {
+                blocked.get(200,
+                            TimeUnit.MILLISECONDS);
+                fail("lock ids of the same partition must exclude each other");
+            } catch (TimeoutException expected) {
+            }
+
+            partitioned.unlock("repo");
+            assertEquals("LEADER",
+                         partitioned.getNodeStatus(partitioned.partitionName(partitioned.partitionOf("repo"))));
+            partitioned.unlock("repo");
+            blocked.get(10,
+                        TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0,
+                     partitioned.getHoldCount());
+    }
+
+    @Test(timeout = 10000)
+    public void crossedLockIdsDoNotDeadlock() throws Exception {
+        final ClusterServiceHelix partitioned = partitioned(mock(HelixAdmin.class));
+        String low = null;
+        String high = null;
+        for (int i = 0; low == null || high == null; i++) {
+            final String lockId = "repo" + i;
+            if (partitioned.partitionOf(lockId) == 0) {
+                low = lockId;
+            } else if (partitioned.partitionOf(lockId) == 3) {
+                high = lockId;
+            }
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final CountDownLatch locked = new CountDownLatch(2);
+            final Future<Void> first = executor.submit(lockBoth(partitioned,
+                                                                low,
+                                                                high,
+                                                                locked));
+            final Future<Void> second = executor.submit(lockBoth(partitioned,
+                                                                 high,
+                                                                 low,
+                                                                 locked));
+            try {
+                second.get(5,
+                           TimeUnit.SECONDS);
+                fail("locking a busy lower partition should fail fast");
+            } catch (final ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+            first.get(5,
+                      TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        partitioned.lock(high);
+        partitioned.lock();
+        assertEquals(5,
+                     partitioned.getHoldCount());
+        partitioned.unlock();
+        partitioned.unlock(high);
+        assertEquals(0,
+                     partitioned.getHoldCount());
+    }
+
+    @Test(timeout = 10000)
+    public void failedOutOfOrderLockKeepsHeldPartitions() throws Exception {
+        final ClusterServiceHelix partitioned = partitioned(mock(HelixAdmin.class));
+        String low = null;
+        String high = null;
+        for (int i = 0; low == null || high == null; i++) {
+            final String lockId = "repo" + i;
+            if (partitioned.partitionOf(lockId) == 0) {
+                low = lockId;
+            } else if (partitioned.partitionOf(lockId) == 3) {
+                high = lockId;
+            }
+        }
+
+        final String busy = low;
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread holder = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                partitioned.lock(busy);
+                try {
+                    locked.countDown();
+                    release.await();
+                } catch (final InterruptedException ignored) {
+                } finally {
+                    partitioned.unlock(busy);
+                }
+            }
+        });
+        holder.start();
+        locked.await();
+
+        partitioned.lock(high);
+        try {
+            partitioned.lock();
+            fail("locking the cluster over a busy lower partition should fail fast");
+        } catch (final IllegalStateException expected) {
+        }
+        assertEquals(1,
+                     partitioned.getHoldCount());
+        release.countDown();
+        holder.join();
+        partitioned.unlock(high);
+        assertEquals(0,
+                     partitioned.getHoldCount());
+    }
+
+    private Callable<Void> lockBoth(final ClusterServiceHelix service,
+                                    final String first,
+                                    final String second,
+                                    final CountDownLatch locked) {
+        return new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                service.lock(first);
+                try {
+                    locked.countDown();
+                    locked.await();
+                    service.lock(second);
+                    service.unlock(second);
+                } finally {
+                    service.unlock(first);
+                }
+                return null;
+            }
+        };
+    }
+
+    private ClusterServiceHelix partitioned(final HelixAdmin admin) {
+        final Map<String, String> states = new ConcurrentHashMap<String, String>();
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(final InvocationOnMock invocation) {
+                final boolean enabled = (Boolean) invocation.getArguments()[0];
+                for (final String partition : (List<String>) invocation.getArguments()[4]) {
+                    states.put(partition,
+                               enabled ? "LEADER" : "STANDBY");
+                }
+                return null;
+            }
+        }).when(admin).enablePartition(anyBoolean(),
+                                       anyString(),
+                                       anyString(),
+                                       anyString(),
+                                       anyList());
+        final HelixManager manager = mock(HelixManager.class);
+        when(manager.getClusterManagmentTool()).thenReturn(admin);
+        when(externalView.getStateMap(anyString())).thenAnswer(new Answer<Map<String, String>>() {
+            @Override
+            public Map<String, String> answer(final InvocationOnMock invocation) {
+                final String state = states.get(invocation.getArguments()[0]);
+                return state == null ? null : Collections.singletonMap("instanceName",
+                                                                       state);
+            }
+        });
+
+        return new ClusterServiceHelix("clusterName",
+                                       "zkAddress",
+                                       "instanceName",
+                                       "resourceName",
+                                       4,
+                                       mock(MessageHandlerResolver.class)) {
+            @Override
+            HelixManager getZkHelixManager(String clusterName,
+                                           String zkAddress,
+                                           String instanceName) {
+                return manager;
+            }
+
+            @Override
+            void start() {
+            }
+
+            @Override
+            public void addMessageHandlerResolver(MessageHandlerResolver resolver) {
+            }
+
+            @Override
+            ExternalView getResourceExternalView() {
+                return externalView;
+            }
+        };
     }
 
     @Before
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.io.impl.cluster.helix;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.I0Itec.zkclient.IDefaultNameSpace;
+import org.I0Itec.zkclient.ZkClient;
+import org.I0Itec.zkclient.ZkServer;
+import org.apache.commons.io.FileUtils;
+import org.apache.helix.HelixManager;
+import org.apache.helix.controller.HelixControllerMain;
+import org.apache.helix.manager.zk.ZKHelixAdmin;
+import org.apache.helix.model.InstanceConfig;
+import org.apache.helix.model.StateModelDefinition;
+import org.apache.helix.tools.StateModelConfigGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.uberfire.commons.message.MessageHandlerResolver;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs two cluster members against an embedded ZooKeeper, with the lock resource set up the way the
+ * <tt>helix-admin</tt> tooling does it.
+ */
+public class ClusterServiceHelixZkTest {
+
+    private static final String CLUSTER = "uf-cluster";
+    private static final String RESOURCE = "vfs-lock";
+    private static final int PARTITIONS = 4;
+
+    private File dir;
+    private ZkServer zkServer;
+    private HelixManager controller;
+    private ClusterServiceHelix node1;
+    private ClusterServiceHelix node2;
+
+    @Before
+    public void setup() throws Exception {
+        dir = File.createTempFile("helix-zk",
+                                  "");
+        dir.delete();
+        dir.mkdir();
+
+        final int port = freePort();
+        final String zkAddress = "localhost:" + port;
+        zkServer = new ZkServer(new File(dir,
+                                         "data").getAbsolutePath(),
+                                new File(dir,
+                                         "log").getAbsolutePath(),
+                                new IDefaultNameSpace() {
+                                    @Override
+                                    public void createDefaultNameSpace(final ZkClient zkClient) {
+                                    }
+                                },
+                                port);
+        zkServer.start();
+
+        final ZKHelixAdmin admin = new ZKHelixAdmin(zkAddress);
+        admin.addCluster(CLUSTER,
+                         true);
+        admin.addStateModelDef(CLUSTER,
+                               "LeaderStandby",
+                               new StateModelDefinition(StateModelConfigGenerator.generateConfigForLeaderStandby()));
+        admin.addInstance(CLUSTER,
+                          new InstanceConfig("node1_12345"));
+        admin.addInstance(CLUSTER,
+                          new InstanceConfig("node2_12346"));
+        admin.addResource(CLUSTER,
+                          RESOURCE,
+                          PARTITIONS,
+                          "LeaderStandby",
+                          "AUTO_REBALANCE");
+        admin.rebalance(CLUSTER,
+                        RESOURCE,
+                        2);
+        admin.close();
+
+        controller = HelixControllerMain.startHelixController(zkAddress,
+                                                              CLUSTER,
+                                                              "controller",
+                                                              HelixControllerMain.STANDALONE);
+
+        node1 = new ClusterServiceHelix(CLUSTER,
+                                        zkAddress,
+                                        "node1_12345",
+                                        RESOURCE,
+                                        PARTITIONS,
+                                        resolver());
+        node2 = new ClusterServiceHelix(CLUSTER,
+                                        zkAddress,
+                                        "node2_12346",
+                                        RESOURCE,
+                                        PARTITIONS,
+                                        resolver());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (node1 != null) {
+            node1.dispose();
+        }
+        if (node2 != null) {
+            node2.dispose();
+        }
+        if (controller != null) {
+            controller.disconnect();
+        }
+        if (zkServer != null) {
+            zkServer.shutdown();
+        }
+        FileUtils.deleteQuietly(dir);
+    }
+
+    @Test(timeout = 120000)
+    public void testLocksOfDifferentPartitionsDoNotBlockEachOther() throws Exception {
+        String other = null;
+        String same = null;
+        for (int i = 0; other == null || same == null; i++) {
+            final String lockId = "repo" + i;
+            if (node1.partitionOf(lockId) != node1.partitionOf("repo")) {
+                other = lockId;
+            } else if (i > 0) {
+                same = lockId;
+            }
+        }
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            node1.lock("repo");
+
+            final String otherLockId = other;
+            executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    node2.lock(otherLockId);
+                    node2.unlock(otherLockId);
+                    return null;
+                }
+            }).get(60,
+                   TimeUnit.SECONDS);
+
+            final String sameLockId = same;
+            final Future<Void> blocked = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    node2.lock(sameLockId);
+                    node2.unlock(sameLockId);
+                    return null;
+                }
+            });
+            try {
+                blocked.get(2,
+                            TimeUnit.SECONDS);
+                fail("lock ids of the same partition must exclude each other across nodes");
+            } catch (TimeoutException expected) {
+            }
+
+            node1.unlock("repo");
+            blocked.get(60,
+                        TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 120000)
+    public void testWholeClusterLockExcludesAllPartitions() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            node1.lock();
+
+            final Future<Void> blocked = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    node2.lock("repo");
+                    node2.unlock("repo");
+                    return null;
+                }
+            });
+            try {
+                blocked.get(2,
+                            TimeUnit.SECONDS);
+                fail("the whole cluster lock must exclude every lock id");
+            } catch (TimeoutException expected) {
+            }
+
+            node1.unlock();
+            blocked.get(60,
+                        TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private MessageHandlerResolver resolver() {
+        final MessageHandlerResolver resolver = mock(MessageHandlerResolver.class);
+        when(resolver.getServiceId()).thenReturn("serviceId");
+        return resolver;
+    }
+
+    private static int freePort() throws IOException {
+        final ServerSocket socket = new ServerSocket(0);
+        try {
+            return socket.getLocalPort();
+        } finally {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.io.lock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.uberfire.java.nio.base.FileSystemId;
+import org.uberfire.java.nio.file.FileSystem;
+import org.uberfire.java.nio.file.Path;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class BatchLockControlTest {
+
+    @Test
+    public void globalLockSerializesUnrelatedFileSystems() throws Exception {
+        final BatchLockControl control = new BatchLockControl(false);
+        final FileSystem fs1 = fileSystem("fs1");
+        final FileSystem fs2 = fileSystem("fs2");
+
+        control.lock(fs1);
+        try {
+            assertFalse(tryLockFromOtherThread(control,
+                                               fs2));
+        } finally {
+            control.unlock();
+        }
+    }
+
+    @Test
+    public void stripedLockAllowsDisjointFileSystems() throws Exception {
+        final BatchLockControl control = new BatchLockControl(true);
+        final FileSystem fs1 = fileSystem("fs1");
+        final FileSystem fs2 = fileSystem("fs2");
+
+        control.lock(fs1);
+        try {
+            assertTrue(control.isLocked());
+            assertTrue(tryLockFromOtherThread(control,
+                                              fs2));
+            assertFalse(tryLockFromOtherThread(control,
+                                               fs1));
+        } finally {
+            control.unlock();
+        }
+    }
+
+    @Test
+    public void stripedLockHoldCountAndLockedFileSystems() {
+        final BatchLockControl control = new BatchLockControl(true);
+        final FileSystem fs1 = fileSystem("fs1");
+        final FileSystem fs2 = fileSystem("fs2");
+
+        control.lock(fs1);
+        control.lock(fs2,
+                     fs1);
+        assertEquals(2,
+                     control.getHoldCount());
+        assertEquals(2,
+                     control.getLockedFileSystems().size());
+
+        control.unlock();
+        assertEquals(1,
+                     control.getHoldCount());
+        assertEquals(Arrays.asList(fs1,
+                                   fs2),
+                     new ArrayList<FileSystem>(control.getLockedFileSystems()));
+
+        control.unlock();
+        assertEquals(0,
+                     control.getHoldCount());
+        assertTrue(control.getLockedFileSystems().isEmpty());
+    }
+
+    @Test
+    public void stripedLockOrderingAvoidsDeadlock() throws Exception {
+        final BatchLockControl control = new BatchLockControl(true);
+        final FileSystem fs1 = fileSystem("fs1");
+        final FileSystem fs2 = fileSystem("fs2");
+        final AtomicBoolean failed = new AtomicBoolean(false);
+
+        final Thread t1 = lockLoop(control,
+                                   failed,
+                                   fs1,
+                                   fs2);
+        final Thread t2 = lockLoop(control,
+                                   failed,
+                                   fs2,
+                                   fs1);
+        t1.start();
+        t2.start();
+        t1.join(TimeUnit.SECONDS.toMillis(30));
+        t2.join(TimeUnit.SECONDS.toMillis(30));
+
+        assertFalse(t1.isAlive());
+        assertFalse(t2.isAlive());
+        assertFalse(failed.get());
+        assertFalse(control.isLocked());
+    }
+
+    @Test(expected = IllegalMonitorStateException.class)
+    public void stripedUnlockWithoutBatch() {
+        new BatchLockControl(true).unlock();
+    }
+
+    @Test(timeout = 10000)
+    public void stripedBatchesOnDisjointFileSystemsRunConcurrently() throws Exception {
+        final BatchLockControl control = new BatchLockControl(true);
+        final int threads = 4;
+        final CountDownLatch held = new CountDownLatch(threads);
+        final AtomicBoolean concurrent = new AtomicBoolean(true);
+        final List<Thread> workers = new ArrayList<Thread>();
+        for (int i = 0; i < threads; i++) {
+            final FileSystem fs = fileSystem("repo" + i);
+            final Thread worker = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    control.lock(fs);
+                    try {
+                        held.countDown();
+                        if (!held.await(5,
+                                        TimeUnit.SECONDS)) {
+                            concurrent.set(false);
+                        }
+                    } catch (InterruptedException e) {
+                        concurrent.set(false);
+                    } finally {
+                        control.unlock();
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (final Thread worker : workers) {
+            worker.join();
+        }
+
+        assertTrue(concurrent.get());
+        assertFalse(control.isLocked());
+    }
+
+    @Test
+    public void stripedLocksAreDroppedWhenUnused() {
+        final BatchLockControl control = new BatchLockControl(true);
+        final FileSystem fs1 = fileSystem("fs1");
+        final FileSystem fs2 = fileSystem("fs2");
+
+        control.lock(fs1);
+        control.lock(fs1,
+                     fs2);
+        assertEquals(2,
+                     control.getStripeCount());
+        control.unlock();
+        assertEquals(2,
+                     control.getStripeCount());
+        control.unlock();
+        assertEquals(0,
+                     control.getStripeCount());
+
+        control.lock(fs2);
+        assertEquals(1,
+                     control.getStripeCount());
+        control.unlock();
+        assertEquals(0,
+                     control.getStripeCount());
+    }
+
+    @Test
+    public void stripedNestedBatchKeepsItsLocksUntilOutermostEnds() throws Exception {
+        final BatchLockControl control = new BatchLockControl(true);
+        final FileSystem fs1 = fileSystem("fs1");
+        final FileSystem fs2 = fileSystem("fs2");
+
+        control.lock(fs1);
+        control.lock(fs2);
+        control.unlock();
+        try {
+            assertFalse(tryLockFromOtherThread(control,
+                                               fs2));
+        } finally {
+            control.unlock();
+        }
+        assertTrue(tryLockFromOtherThread(control,
+                                          fs2));
+    }
+
+    @Test
+    public void stripedNestedBatchBelowHeldLockFailsWhenBusy() throws Exception {
+        final BatchLockControl control = new BatchLockControl(true);
+        final FileSystem fs1 = fileSystem("fs1");
+        final FileSystem fs2 = fileSystem("fs2");
+
+        control.lock(fs2);
+        try {
+            control.lock(fs1);
+            control.unlock();
+            assertEquals(1,
+                         control.getHoldCount());
+        } finally {
+            control.unlock();
+        }
+
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread holder = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                control.lock(fs1);
+                try {
+                    locked.countDown();
+                    release.await();
+                } catch (InterruptedException ignored) {
+                } finally {
+                    control.unlock();
+                }
+            }
+        });
+        holder.start();
+        locked.await();
+
+        control.lock(fs2);
+        try {
+            control.lock(fs1);
+            fail("nested batch below a held lock should fail fast when busy");
+        } catch (IllegalStateException expected) {
+        } finally {
+            assertEquals(1,
+                         control.getHoldCount());
+            control.unlock();
+            release.countDown();
+            holder.join();
+        }
+        assertFalse(control.isLocked());
+        assertEquals(0,
+                     control.getStripeCount());
+    }
+
+    /**
+     * Contention benchmark: N threads, each running batches against its own file system, comparing the global
+     * lock against the striped one. Batches sleep rather than compute, so the striped run finishes in about a
+     * quarter of the global one whatever the machine; the assertion only asks for half.
+     */
+    @Test
+    public void contentionBenchmark() throws Exception {
+        final int threads = 4;
+        final int batches = 10;
+        final long workMillis = 5;
+
+        final long global = runContention(new BatchLockControl(false),
+                                          threads,
+                                          batches,
+                                          workMillis);
+        final long striped = runContention(new BatchLockControl(true),
+                                           threads,
+                                           batches,
+                                           workMillis);
+
+        assertTrue("global: " + global + "ms, striped: " + striped + "ms",
+                   striped * 2 < global);
+    }
+
+    private long runContention(final BatchLockControl control,
+                               final int threads,
+                               final int batches,
+                               final long workMillis) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> workers = new ArrayList<Thread>();
+        for (int i = 0; i < threads; i++) {
+            final FileSystem fs = fileSystem("repo" + i);
+            final Thread worker = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < batches; j++) {
+                            control.lock(fs);
+                            try {
+                                Thread.sleep(workMillis);
+                            } finally {
+                                control.unlock();
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        final long begin = System.nanoTime();
+        start.countDown();
+        for (final Thread worker : workers) {
+            worker.join();
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+    }
+
+    private Thread lockLoop(final BatchLockControl control,
+                            final AtomicBoolean failed,
+                            final FileSystem... fileSystems) {
+        return new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < 1000; i++) {
+                        control.lock(fileSystems);
+                        control.unlock();
+                    }
+                } catch (Exception e) {
+                    failed.set(true);
+                }
+            }
+        });
+    }
+
+    private boolean tryLockFromOtherThread(final BatchLockControl control,
+                                           final FileSystem fs) throws Exception {
+        final CountDownLatch locked = new CountDownLatch(1);
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                control.lock(fs);
+                locked.countDown();
+                control.unlock();
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        final boolean result = locked.await(500,
+                                            TimeUnit.MILLISECONDS);
+        if (!result) {
+            thread.interrupt();
+        }
+        return result;
+    }
+
+    private FileSystem fileSystem(final String id) {
+        final FileSystem fs = mock(FileSystem.class,
+                                   withSettings().extraInterfaces(FileSystemId.class));
+        when(((FileSystemId) fs).id()).thenReturn(id);
+        when(fs.getRootDirectories()).thenReturn(Collections.<Path>emptyList());
+        return fs;
+    }
+}
@@ -27,6 +27,7 @@ import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetEncoder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
@@ -1188,12 +1189,35 @@ public final class Files {
         }
 
         final InputStream in = newInputStream(path);
-        final ByteArrayOutputStream buffer = new ByteArrayOutputStream((int) size);
 
+        // read straight into an array of the expected size, avoiding an intermediate buffer copy
+        final byte[] result = new byte[(int) size];
+        int pos = 0;
         int read;
-        byte[] data = new byte[BUFFER_SIZE];
 
         try {
+            while (pos < result.length && (read = in.read(result,
+                                                          pos,
+                                                          result.length - pos)) != -1) {
+                pos += read;
+            }
+            if (pos < result.length) {
+                return Arrays.copyOf(result,
+                                     pos);
+            }
+
+            read = in.read();
+            if (read == -1) {
+                return result;
+            }
+
+            // content grew since size was read
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream(result.length + BUFFER_SIZE);
+            buffer.write(result,
+                         0,
+                         result.length);
+            buffer.write(read);
+            final byte[] data = new byte[BUFFER_SIZE];
             while ((read = in.read(data,
                                    0,
                                    data.length)) != -1) {
@@ -1201,7 +1225,6 @@ public final class Files {
                              0,
                              read);
             }
-            buffer.flush();
             return buffer.toByteArray();
         } catch (java.io.IOException e) {
             throw new IOException(e);
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.java.nio.fs.jgit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.uberfire.java.nio.fs.jgit.util.DefaultCommitContent;
+
+/**
+ * Group commit queue of a single branch.
+ * <p>
+ * The first caller becomes the leader: it waits up to the group window (or until the group is full), then
+ * processes every pending request at once. Other callers block until their request has been processed.
+ * When requests are still pending after a group, leadership is handed to the oldest one.
+ */
+class JGitCommitQueue {
+
+    interface Processor {
+
+        void process(final List<Request> requests);
+    }
+
+    private final Object monitor = new Object();
+    private final List<Request> pending = new ArrayList<Request>();
+    private boolean leading = false;
+
+    void submit(final Request request,
+                final long windowMillis,
+                final int maxSize,
+                final Processor processor) {
+        boolean leader;
+        synchronized (monitor) {
+            pending.add(request);
+            leader = !leading;
+            if (leader) {
+                leading = true;
+            } else if (pending.size() >= maxSize) {
+                monitor.notifyAll();
+            }
+        }
+
+        // the flag is restored once done, as waiting again with it set would only spin
+        boolean interrupted = false;
+        while (true) {
+            if (!leader) {
+                synchronized (monitor) {
+                    while (!request.done && !request.promoted) {
+                        try {
+                            monitor.wait();
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                        }
+                    }
+                    if (request.done) {
+                        break;
+                    }
+                }
+            }
+            interrupted |= lead(windowMillis,
+                                maxSize,
+                                processor);
+            if (request.done) {
+                break;
+            }
+            leader = false;
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (request.error != null) {
+            if (request.error instanceof RuntimeException) {
+                throw (RuntimeException) request.error;
+            }
+            throw new RuntimeException(request.error);
+        }
+    }
+
+    /**
+     * @return whether the thread was interrupted while waiting for the group to fill up.
+     */
+    private boolean lead(final long windowMillis,
+                         final int maxSize,
+                         final Processor processor) {
+        boolean interrupted = false;
+        final List<Request> group;
+        synchronized (monitor) {
+            final long deadline = System.currentTimeMillis() + windowMillis;
+            long remaining = windowMillis;
+            while (pending.size() < maxSize && remaining > 0) {
+                try {
+                    monitor.wait(remaining);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    break;
+                }
+                remaining = deadline - System.currentTimeMillis();
+            }
+            final List<Request> head = pending.subList(0,
+                                                       Math.min(maxSize,
+                                                                pending.size()));
+            group = new ArrayList<Request>(head);
+            head.clear();
+        }
+
+        try {
+            processor.process(group);
+        } catch (final Throwable t) {
+            for (final Request request : group) {
+                if (request.error == null) {
+                    request.error = t;
+                }
+            }
+        } finally {
+            synchronized (monitor) {
+                for (final Request request : group) {
+                    request.done = true;
+                }
+                if (pending.isEmpty()) {
+                    leading = false;
+                } else {
+                    pending.get(0).promoted = true;
+                }
+                monitor.notifyAll();
+            }
+        }
+        return interrupted;
+    }
+
+    static class Request {
+
+        private final JGitPathImpl path;
+        private final CommitInfo commitInfo;
+        private final DefaultCommitContent content;
+        private boolean done = false;
+        private boolean promoted = false;
+        private Throwable error;
+
+        Request(final JGitPathImpl path,
+                final CommitInfo commitInfo,
+                final DefaultCommitContent content) {
+            this.path = path;
+            this.commitInfo = commitInfo;
+            this.content = content;
+        }
+
+        JGitPathImpl getPath() {
+            return path;
+        }
+
+        CommitInfo getCommitInfo() {
+            return commitInfo;
+        }
+
+        DefaultCommitContent getContent() {
+            return content;
+        }
+
+        void setError(final Throwable error) {
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.java.nio.fs.jgit;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Per file system queue of head moves waiting to be turned into watch events.
+ * <p>
+ * Head moves are enqueued in commit order (usually while the file system lock is held) and published later,
+ * off the lock, by a single drainer at a time, so per repository event ordering is preserved.
+ * Consecutive moves of the same branch by the same session and user that queued up while the drainer was
+ * busy are coalesced into a single old to new head diff.
+ */
+class JGitDiffNotifier {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JGitDiffNotifier.class);
+
+    interface Publisher {
+
+        void publish(final HeadMove move);
+    }
+
+    private final Deque<HeadMove> pending = new ArrayDeque<HeadMove>();
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final Publisher publisher;
+
+    JGitDiffNotifier(final Publisher publisher) {
+        this.publisher = publisher;
+    }
+
+    void enqueue(final String branchName,
+                 final String sessionId,
+                 final String userName,
+                 final String message,
+                 final ObjectId oldHead,
+                 final ObjectId newHead) {
+        synchronized (pending) {
+            pending.add(new HeadMove(branchName,
+                                     sessionId,
+                                     userName,
+                                     message,
+                                     oldHead,
+                                     newHead));
+        }
+    }
+
+    /**
+     * Publishes pending moves on the given executor, or on the calling thread when there is no executor or
+     * the queue is over its bound.
+     */
+    void dispatch(final Executor executor,
+                  final int maxPending) {
+        if (executor == null || size() >= maxPending) {
+            flush();
+            return;
+        }
+        if (scheduled.compareAndSet(false,
+                                    true)) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    scheduled.set(false);
+                    flush();
+                }
+            });
+        }
+    }
+
+    /**
+     * Publishes every pending move; when it returns, all moves enqueued before the call have been published.
+     */
+    void flush() {
+        drainLock.lock();
+        try {
+            HeadMove move;
+            while ((move = poll()) != null) {
+                try {
+                    publisher.publish(move);
+                } catch (final Exception ex) {
+                    LOG.error(String.format("Couldn't produce diff notification for branch `%s`.",
+                                            move.getBranchName()),
+                              ex);
+                }
+            }
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    int size() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    private HeadMove poll() {
+        synchronized (pending) {
+            HeadMove move = pending.poll();
+            while (move != null && !pending.isEmpty() && move.canCoalesce(pending.peek())) {
+                move = move.coalesce(pending.poll());
+            }
+            return move;
+        }
+    }
+
+    static class HeadMove {
+
+        private final String branchName;
+        private final String sessionId;
+        private final String userName;
+        private final String message;
+        private final ObjectId oldHead;
+        private final ObjectId newHead;
+
+        HeadMove(final String branchName,
+                 final String sessionId,
+                 final String userName,
+                 final String message,
+                 final ObjectId oldHead,
+                 final ObjectId newHead) {
+            this.branchName = branchName;
+            this.sessionId = sessionId;
+            this.userName = userName;
+            this.message = message;
+            this.oldHead = oldHead;
+            this.newHead = newHead;
+        }
+
+        String getBranchName() {
+            return branchName;
+        }
+
+        String getSessionId() {
+            return sessionId;
+        }
+
+        String getUserName() {
+            return userName;
+        }
+
+        String getMessage() {
+            return message;
+        }
+
+        ObjectId getOldHead() {
+            return oldHead;
+        }
+
+        ObjectId getNewHead() {
+            return newHead;
+        }
+
+        private boolean canCoalesce(final HeadMove next) {
+            return branchName.equals(next.branchName) &&
+                    Objects.equals(sessionId,
+                                   next.sessionId) &&
+                    Objects.equals(userName,
+                                   next.userName) &&
+                    Objects.equals(newHead,
+                                   next.oldHead);
+        }
+
+        private HeadMove coalesce(final HeadMove next) {
+            return new HeadMove(branchName,
+                                sessionId,
+                                userName,
+                                next.message,
+                                oldHead,
+                                next.newHead);
+        }
+    }
+}
@@ -19,6 +19,7 @@ package org.uberfire.java.nio.fs.jgit;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -35,12 +36,14 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.ListBranchCommand;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.transport.CredentialsProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.uberfire.java.nio.IOException;
 import org.uberfire.java.nio.base.FileSystemId;
+import org.uberfire.java.nio.base.FileSystemRefsAware;
 import org.uberfire.java.nio.base.FileSystemState;
 import org.uberfire.java.nio.base.FileSystemStateAware;
 import org.uberfire.java.nio.base.options.CommentedOption;
@@ -58,6 +61,8 @@ import org.uberfire.java.nio.file.WatchService;
 import org.uberfire.java.nio.file.Watchable;
 import org.uberfire.java.nio.file.attribute.UserPrincipalLookupService;
 import org.uberfire.java.nio.file.spi.FileSystemProvider;
+import org.uberfire.java.nio.fs.jgit.util.JGitAttributeCache;
+import org.uberfire.java.nio.fs.jgit.util.JGitTreeIndex;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.unmodifiableSet;
@@ -68,7 +73,8 @@ import static org.uberfire.java.nio.fs.jgit.util.JGitUtil.branchList;
 
 public class JGitFileSystem implements FileSystem,
                                        FileSystemId,
-                                       FileSystemStateAware {
+                                       FileSystemStateAware,
+                                       FileSystemRefsAware {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JGitFileSystem.class);
 
@@ -86,6 +92,10 @@ public class JGitFileSystem implements FileSystem,
     private final Collection<WatchService> watchServices = new ArrayList<WatchService>();
     private final AtomicInteger numberOfCommitsSinceLastGC = new AtomicInteger(0);
     private final Lock lock = new Lock();
+    private final JGitAttributeCache attributeCache = new JGitAttributeCache();
+    private final JGitTreeIndex treeIndex = new JGitTreeIndex();
+    private final Map<String, JGitCommitQueue> commitQueues = new ConcurrentHashMap<String, JGitCommitQueue>();
+    private final JGitDiffNotifier diffNotifier;
     private boolean isClosed = false;
     private FileSystemState state = FileSystemState.NORMAL;
     private CommitInfo batchCommitInfo = null;
@@ -119,6 +129,8 @@ public class JGitFileSystem implements FileSystem,
         this.credential = checkNotNull("credential",
                                        credential);
         this.listMode = listMode;
+        this.diffNotifier = new JGitDiffNotifier(move -> provider.publishDiffs(this,
+                                                                                move));
         this.fileStore = new JGitFileStore(gitRepo.getRepository());
         if (fullHostNames != null && !fullHostNames.isEmpty()) {
             final StringBuilder sb = new StringBuilder();
@@ -153,6 +165,23 @@ public class JGitFileSystem implements FileSystem,
         return credential;
     }
 
+    public JGitAttributeCache getAttributeCache() {
+        return attributeCache;
+    }
+
+    JGitCommitQueue getCommitQueue(final String branchName) {
+        return commitQueues.computeIfAbsent(branchName,
+                                            name -> new JGitCommitQueue());
+    }
+
+    JGitDiffNotifier getDiffNotifier() {
+        return diffNotifier;
+    }
+
+    public JGitTreeIndex getTreeIndex() {
+        return treeIndex;
+    }
+
     @Override
     public FileSystemProvider provider() {
         return provider;
@@ -381,6 +410,11 @@ public class JGitFileSystem implements FileSystem,
         }
         gitRepo.getRepository().close();
         isClosed = true;
+        LOGGER.debug("Attribute cache of '{}': {}",
+                     name,
+                     attributeCache);
+        attributeCache.clear();
+        treeIndex.clear();
         try {
 
             for (final WatchService ws : new ArrayList<WatchService>(watchServices)) {
@@ -574,6 +608,9 @@ public class JGitFileSystem implements FileSystem,
 
     public void resetCommitCount() {
         numberOfCommitsSinceLastGC.set(0);
+        LOGGER.debug("Attribute cache of '{}': {}",
+                     name,
+                     attributeCache);
     }
 
     int getNumberOfCommitsSinceLastGC() {
@@ -585,6 +622,36 @@ public class JGitFileSystem implements FileSystem,
         return state;
     }
 
+    @Override
+    public Map<String, String> getRefs() {
+        try {
+            final Map<String, String> result = new HashMap<String, String>();
+            for (final Ref ref : gitRepo.getRepository().getRefDatabase().getRefs(Constants.R_HEADS).values()) {
+                if (ref.getObjectId() != null) {
+                    result.put(ref.getName(),
+                               ref.getObjectId().name());
+                }
+            }
+            return result;
+        } catch (final java.io.IOException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public List<Path> pin(final List<Path> paths) {
+        final Map<String, String> refs = getRefs();
+        final List<Path> result = new ArrayList<Path>(paths.size());
+        for (final Path path : paths) {
+            String head = null;
+            if (path instanceof JGitPathImpl) {
+                head = refs.get(Constants.R_HEADS + ((JGitPathImpl) path).getRefTree());
+            }
+            result.add(head == null ? path : ((JGitPathImpl) path).pin(head));
+        }
+        return result;
+    }
+
     public void setState(String state) {
         try {
             this.state = FileSystemState.valueOf(state);
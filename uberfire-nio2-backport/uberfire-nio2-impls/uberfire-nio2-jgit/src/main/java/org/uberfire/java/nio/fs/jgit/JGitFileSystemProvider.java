@@ -17,7 +17,6 @@
 package org.uberfire.java.nio.fs.jgit;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.FilterOutputStream;
 import java.io.InputStream;
@@ -30,6 +29,7 @@ import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -41,6 +41,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TimeZone;
@@ -57,7 +58,7 @@ import org.eclipse.jgit.api.ListBranchCommand.ListMode;
 import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.errors.RepositoryNotFoundException;
 import org.eclipse.jgit.errors.UnsupportedCredentialItem;
-import org.eclipse.jgit.internal.storage.file.WindowCache;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
@@ -148,6 +149,7 @@ import org.uberfire.java.nio.fs.jgit.daemon.ssh.GitSSHService;
 import org.uberfire.java.nio.fs.jgit.util.CommitContent;
 import org.uberfire.java.nio.fs.jgit.util.CopyCommitContent;
 import org.uberfire.java.nio.fs.jgit.util.DefaultCommitContent;
+import org.uberfire.java.nio.fs.jgit.util.JGitBlobChannel;
 import org.uberfire.java.nio.fs.jgit.util.JGitUtil;
 import org.uberfire.java.nio.fs.jgit.util.JGitUtil.JGitPathInfo;
 import org.uberfire.java.nio.fs.jgit.util.JGitUtil.PathType;
@@ -156,6 +158,7 @@ import org.uberfire.java.nio.fs.jgit.util.ProxyAuthenticator;
 import org.uberfire.java.nio.fs.jgit.util.RevertCommitContent;
 import org.uberfire.java.nio.fs.jgit.util.commands.DiffBranches;
 import org.uberfire.java.nio.fs.jgit.util.commands.Fork;
+import org.uberfire.java.nio.fs.jgit.util.commands.ListChanges;
 import org.uberfire.java.nio.fs.jgit.util.commands.Merge;
 import org.uberfire.java.nio.fs.jgit.util.commands.Mirror;
 import org.uberfire.java.nio.fs.jgit.util.commands.Squash;
@@ -186,6 +189,7 @@ import static org.uberfire.java.nio.fs.jgit.util.JGitUtil.newRepository;
 import static org.uberfire.java.nio.fs.jgit.util.JGitUtil.pushRepository;
 import static org.uberfire.java.nio.fs.jgit.util.JGitUtil.resolveInputStream;
 import static org.uberfire.java.nio.fs.jgit.util.JGitUtil.resolvePath;
+import static org.uberfire.java.nio.fs.jgit.util.JGitUtil.syncRefs;
 import static org.uberfire.java.nio.fs.jgit.util.JGitUtil.syncRepository;
 
 public class JGitFileSystemProvider implements SecuredFileSystemProvider,
@@ -219,9 +223,18 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
     public static final String SSH_ALGORITHM = "DSA";
     public static final String SSH_CERT_PASSPHRASE = "";
     public static final String DEFAULT_COMMIT_LIMIT_TO_GC = "20";
+    public static final String DEFAULT_COMMIT_GROUP_ENABLED = "false";
+    public static final String DEFAULT_COMMIT_GROUP_WINDOW = "10";
+    public static final String DEFAULT_COMMIT_GROUP_SIZE = "50";
+    public static final String DEFAULT_NOTIFY_ASYNC = "false";
+    public static final String DEFAULT_NOTIFY_QUEUE_SIZE = "100";
+    public static final String DEFAULT_STREAM_THRESHOLD = "5242880";
     protected static final String DEFAULT_IO_SERVICE_NAME = "default";
     private static final Logger LOG = LoggerFactory.getLogger(JGitFileSystemProvider.class);
     private static final String SCHEME = "git";
+    // JGit's window cache is global to the JVM; guarded by itself
+    private static final WindowCacheConfig WINDOW_CACHE_CONFIG = new WindowCacheConfig();
+    private static boolean windowCacheInstalled;
     private static final int SCHEME_SIZE = (SCHEME + "://").length();
     private static final int DEFAULT_SCHEME_SIZE = ("default://").length();
     private static final String GIT_ENV_KEY_MIGRATE_FROM = "migrate-from";
@@ -235,6 +248,11 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
     private File gitReposParentDir;
     private File hookDir;
     private int commitLimit;
+    private boolean commitGroupEnabled;
+    private long commitGroupWindow;
+    private int commitGroupSize;
+    private Executor notifyExecutor;
+    private int notifyQueueSize;
     private boolean daemonEnabled;
     private int daemonPort;
     private String daemonHostAddr;
@@ -400,6 +418,18 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
                                                             SSH_CERT_PASSPHRASE);
         final ConfigProperty commitLimitProp = config.get("org.uberfire.nio.git.gc.limit",
                                                           DEFAULT_COMMIT_LIMIT_TO_GC);
+        final ConfigProperty commitGroupEnabledProp = config.get("org.uberfire.nio.git.commit.group.enabled",
+                                                                 DEFAULT_COMMIT_GROUP_ENABLED);
+        final ConfigProperty commitGroupWindowProp = config.get("org.uberfire.nio.git.commit.group.window",
+                                                                DEFAULT_COMMIT_GROUP_WINDOW);
+        final ConfigProperty commitGroupSizeProp = config.get("org.uberfire.nio.git.commit.group.size",
+                                                              DEFAULT_COMMIT_GROUP_SIZE);
+        final ConfigProperty notifyAsyncProp = config.get("org.uberfire.nio.git.notify.async",
+                                                          DEFAULT_NOTIFY_ASYNC);
+        final ConfigProperty notifyQueueSizeProp = config.get("org.uberfire.nio.git.notify.queue.size",
+                                                              DEFAULT_NOTIFY_QUEUE_SIZE);
+        final ConfigProperty streamThresholdProp = config.get("org.uberfire.nio.git.stream.threshold",
+                                                              DEFAULT_STREAM_THRESHOLD);
 
         final ConfigProperty httpProxyUserProp = config.get("http.proxyUser",
                                                             null);
@@ -424,6 +454,16 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
         gitReposParentDir = new File(bareReposDirProp.getValue(),
                                      reposDirNameProp.getValue());
         commitLimit = commitLimitProp.getIntValue();
+        commitGroupEnabled = commitGroupEnabledProp.getBooleanValue();
+        commitGroupWindow = commitGroupWindowProp.getIntValue();
+        commitGroupSize = Math.max(1,
+                                   commitGroupSizeProp.getIntValue());
+        if (notifyAsyncProp.getBooleanValue()) {
+            notifyExecutor = new ExecutorWrapper(SimpleAsyncExecutorService.getUnmanagedInstance());
+        }
+        notifyQueueSize = Math.max(1,
+                                   notifyQueueSizeProp.getIntValue());
+        installWindowCache(streamThresholdProp.getIntValue());
 
         daemonEnabled = enabledProp.getBooleanValue();
         if (daemonEnabled) {
@@ -625,7 +665,7 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
                                                  final Collection<ReceiveCommand> commands) {
                             fs.lock();
                             if (clusterService != null) {
-                                clusterService.lock();
+                                clusterService.lock(fs.id());
                             }
 
                             for (final ReceiveCommand command : commands) {
@@ -643,6 +683,7 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
                                                   final Collection<ReceiveCommand> commands) {
                             fs.unlock();
                             final String userName = req.getUser().getName();
+                            final String refs = encodeRefs(commands);
                             for (Map.Entry<String, RevCommit> oldTreeRef : oldTreeRefs.entrySet()) {
                                 final List<RevCommit> commits = JGitUtil.getCommits(fs.gitRepo(),
                                                                                     oldTreeRef.getKey(),
@@ -683,10 +724,14 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
                                                                  fs.id());
                                                              put("fs_uri",
                                                                  fs.toString());
+                                                             if (refs != null) {
+                                                                 put("fs_refs",
+                                                                     refs);
+                                                             }
                                                          }}
                                 );
 
-                                clusterService.unlock();
+                                clusterService.unlock(fs.id());
                             }
                         }
                     });
@@ -711,7 +756,7 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
         if (daemonService == null || !daemonService.isRunning()) {
             daemonService = new Daemon(new InetSocketAddress(daemonHostAddr,
                                                              daemonPort),
-                                       new ExecutorWrapper(SimpleAsyncExecutorService.getUnmanagedInstance()));
+                                       new ExecutorWrapper(SimpleAsyncExecutorService.getLongRunningInstance()));
             daemonService.setRepositoryResolver(new RepositoryResolverImpl<DaemonClient>());
             try {
                 daemonService.start();
@@ -999,10 +1044,16 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
                 final Map<String, String> params = getQueryParams(uri);
                 try {
                     fileSystem.lock();
-                    syncRepository(fileSystem.gitRepo(),
-                                   fileSystem.getCredential(),
-                                   params.get("sync"),
-                                   hasForceFlag(uri));
+                    final String refs = params.get("refs");
+                    if (refs == null || !syncRefs(fileSystem.gitRepo(),
+                                                  fileSystem.getCredential(),
+                                                  params.get("sync"),
+                                                  decodeRefs(refs))) {
+                        syncRepository(fileSystem.gitRepo(),
+                                       fileSystem.getCredential(),
+                                       params.get("sync"),
+                                       hasForceFlag(uri));
+                    }
                 } finally {
                     fileSystem.unlock();
                 }
@@ -1094,7 +1145,7 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
 
         final JGitPathImpl gPath = toPathImpl(path);
 
-        final Pair<PathType, ObjectId> result = checkPath(gPath.getFileSystem().gitRepo(),
+        final Pair<PathType, ObjectId> result = checkPath(gPath.getFileSystem(),
                                                           gPath.getRefTree(),
                                                           gPath.getPath());
 
@@ -1195,17 +1246,24 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
             }
         }
 
-        final Pair<PathType, ObjectId> result = checkPath(gPath.getFileSystem().gitRepo(),
+        final Pair<PathType, ObjectId> result = checkPath(gPath.getFileSystem(),
                                                           gPath.getRefTree(),
                                                           gPath.getPath());
 
+        final boolean read = options != null && options.contains(READ);
+        // like newInputStream, only files can be read
+        if (read && !result.getK1().equals(PathType.FILE)) {
+            throw new NoSuchFileException(path.toString());
+        }
+
         if (result.getK1().equals(PathType.DIRECTORY)) {
             throw new NotDirectoryException(path.toString());
         }
 
         try {
-            if (options != null && options.contains(READ)) {
-                return openAByteChannel(path);
+            if (read) {
+                return new JGitBlobChannel(gPath.getFileSystem().gitRepo().getRepository(),
+                                           result.getK2());
             } else {
                 return createANewByteChannel(path,
                                              options,
@@ -1264,11 +1322,6 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
         };
     }
 
-    private SeekableByteChannelFileBasedImpl openAByteChannel(Path path) throws FileNotFoundException {
-        return new SeekableByteChannelFileBasedImpl(new RandomAccessFile(path.toFile(),
-                                                                         "r").getChannel());
-    }
-
     private boolean shouldCreateOrOpenAByteChannel(Set<? extends OpenOption> options) {
         return (options != null && (options.contains(TRUNCATE_EXISTING) || options.contains(READ)));
     }
@@ -1304,7 +1357,7 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
 
         final JGitPathImpl gPath = toPathImpl(path);
 
-        final Pair<PathType, ObjectId> result = checkPath(gPath.getFileSystem().gitRepo(),
+        final Pair<PathType, ObjectId> result = checkPath(gPath.getFileSystem(),
                                                           gPath.getRefTree(),
                                                           gPath.getPath());
 
@@ -1312,7 +1365,7 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
             throw new NotDirectoryException(path.toString());
         }
 
-        final List<JGitPathInfo> pathContent = listPathContent(gPath.getFileSystem().gitRepo(),
+        final List<JGitPathInfo> pathContent = listPathContent(gPath.getFileSystem(),
                                                                gPath.getRefTree(),
                                                                gPath.getPath());
 
@@ -1406,7 +1459,7 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
 
         final JGitPathImpl gPath = toPathImpl(path);
 
-        final Pair<PathType, ObjectId> result = checkPath(gPath.getFileSystem().gitRepo(),
+        final Pair<PathType, ObjectId> result = checkPath(gPath.getFileSystem(),
                                                           gPath.getRefTree(),
                                                           gPath.getPath());
 
@@ -1461,6 +1514,21 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
                     options);
     }
 
+    /**
+     * Sets the stream file threshold of JGit's window cache. The cache is global to the JVM, so the last
+     * provider to load a different threshold wins; it's only reinstalled when the threshold changes.
+     */
+    private static void installWindowCache(final int streamFileThreshold) {
+        synchronized (WINDOW_CACHE_CONFIG) {
+            if (windowCacheInstalled && WINDOW_CACHE_CONFIG.getStreamFileThreshold() == streamFileThreshold) {
+                return;
+            }
+            WINDOW_CACHE_CONFIG.setStreamFileThreshold(streamFileThreshold);
+            WINDOW_CACHE_CONFIG.install();
+            windowCacheInstalled = true;
+        }
+    }
+
     private boolean deleteRepo(final FileSystem fileSystem) {
         final File gitDir = ((JGitFileSystem) fileSystem).gitRepo().getRepository().getDirectory();
         fileSystem.close();
@@ -1469,7 +1537,9 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
         try {
             if (System.getProperty("os.name").toLowerCase().contains("windows")) {
                 //this operation forces a cache clean freeing any lock -> windows only issue!
-                WindowCache.reconfigure(new WindowCacheConfig());
+                synchronized (WINDOW_CACHE_CONFIG) {
+                    WINDOW_CACHE_CONFIG.install();
+                }
             }
             FileUtils.delete(gitDir,
                              FileUtils.RECURSIVE | FileUtils.RETRY);
@@ -1482,7 +1552,7 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
 
     public void deleteAsset(final JGitPathImpl path,
                             final DeleteOption... options) {
-        final Pair<PathType, ObjectId> result = checkPath(path.getFileSystem().gitRepo(),
+        final Pair<PathType, ObjectId> result = checkPath(path.getFileSystem(),
                                                           path.getRefTree(),
                                                           path.getPath());
 
@@ -1492,7 +1562,7 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
                                options);
                 return;
             }
-            final List<JGitPathInfo> content = listPathContent(path.getFileSystem().gitRepo(),
+            final List<JGitPathInfo> content = listPathContent(path.getFileSystem(),
                                                                path.getRefTree(),
                                                                path.getPath());
             if (content.size() == 1 && content.get(0).getPath().equals(path.getPath().substring(1) + "/.gitkeep")) {
@@ -1589,7 +1659,7 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
 
     public boolean deleteAssetIfExists(final JGitPathImpl path,
                                        final DeleteOption... options) {
-        final Pair<PathType, ObjectId> result = checkPath(path.getFileSystem().gitRepo(),
+        final Pair<PathType, ObjectId> result = checkPath(path.getFileSystem(),
                                                           path.getRefTree(),
                                                           path.getPath());
 
@@ -1599,7 +1669,7 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
                                options);
                 return true;
             }
-            final List<JGitPathInfo> content = listPathContent(path.getFileSystem().gitRepo(),
+            final List<JGitPathInfo> content = listPathContent(path.getFileSystem(),
                                                                path.getRefTree(),
                                                                path.getPath());
             if (content.size() == 1 && content.get(0).getPath().equals(path.getPath().substring(1) + "/.gitkeep")) {
@@ -1714,10 +1784,10 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
     private void copyAsset(final JGitPathImpl source,
                            final JGitPathImpl target,
                            final CopyOption... options) {
-        final Pair<PathType, ObjectId> sourceResult = checkPath(source.getFileSystem().gitRepo(),
+        final Pair<PathType, ObjectId> sourceResult = checkPath(source.getFileSystem(),
                                                                 source.getRefTree(),
                                                                 source.getPath());
-        final Pair<PathType, ObjectId> targetResult = checkPath(target.getFileSystem().gitRepo(),
+        final Pair<PathType, ObjectId> targetResult = checkPath(target.getFileSystem(),
                                                                 target.getRefTree(),
                                                                 target.getPath());
 
@@ -1761,10 +1831,10 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
     private void copyAssetContent(final JGitPathImpl source,
                                   final JGitPathImpl target,
                                   final CopyOption... options) {
-        final Pair<PathType, ObjectId> sourceResult = checkPath(source.getFileSystem().gitRepo(),
+        final Pair<PathType, ObjectId> sourceResult = checkPath(source.getFileSystem(),
                                                                 source.getRefTree(),
                                                                 source.getPath());
-        final Pair<PathType, ObjectId> targetResult = checkPath(target.getFileSystem().gitRepo(),
+        final Pair<PathType, ObjectId> targetResult = checkPath(target.getFileSystem(),
                                                                 target.getRefTree(),
                                                                 target.getPath());
 
@@ -1808,7 +1878,7 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
         for (final Path path : newDirectoryStream(source,
                                                   null)) {
             final JGitPathImpl gPath = toPathImpl(path);
-            final Pair<PathType, ObjectId> pathResult = checkPath(gPath.getFileSystem().gitRepo(),
+            final Pair<PathType, ObjectId> pathResult = checkPath(gPath.getFileSystem(),
                                                                   gPath.getRefTree(),
                                                                   gPath.getPath());
             if (pathResult.getK1() == DIRECTORY) {
@@ -1992,10 +2062,10 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
     private void moveAsset(final JGitPathImpl source,
                            final JGitPathImpl target,
                            final CopyOption... options) {
-        final Pair<PathType, ObjectId> sourceResult = checkPath(source.getFileSystem().gitRepo(),
+        final Pair<PathType, ObjectId> sourceResult = checkPath(source.getFileSystem(),
                                                                 source.getRefTree(),
                                                                 source.getPath());
-        final Pair<PathType, ObjectId> targetResult = checkPath(target.getFileSystem().gitRepo(),
+        final Pair<PathType, ObjectId> targetResult = checkPath(target.getFileSystem(),
                                                                 target.getRefTree(),
                                                                 target.getPath());
 
@@ -2040,7 +2110,7 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
         for (final Path path : newDirectoryStream(source,
                                                   null)) {
             final JGitPathImpl gPath = toPathImpl(path);
-            final Pair<PathType, ObjectId> pathResult = checkPath(gPath.getFileSystem().gitRepo(),
+            final Pair<PathType, ObjectId> pathResult = checkPath(gPath.getFileSystem(),
                                                                   gPath.getRefTree(),
                                                                   gPath.getPath());
             if (pathResult.getK1() == DIRECTORY) {
@@ -2100,10 +2170,10 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
         final JGitPathImpl gPathA = toPathImpl(pathA);
         final JGitPathImpl gPathB = toPathImpl(pathB);
 
-        final Pair<PathType, ObjectId> resultA = checkPath(gPathA.getFileSystem().gitRepo(),
+        final Pair<PathType, ObjectId> resultA = checkPath(gPathA.getFileSystem(),
                                                            gPathA.getRefTree(),
                                                            gPathA.getPath());
-        final Pair<PathType, ObjectId> resultB = checkPath(gPathB.getFileSystem().gitRepo(),
+        final Pair<PathType, ObjectId> resultB = checkPath(gPathB.getFileSystem(),
                                                            gPathB.getRefTree(),
                                                            gPathB.getPath());
 
@@ -2147,7 +2217,7 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
 
         final JGitPathImpl gPath = toPathImpl(path);
 
-        final Pair<PathType, ObjectId> result = checkPath(gPath.getFileSystem().gitRepo(),
+        final Pair<PathType, ObjectId> result = checkPath(gPath.getFileSystem(),
                                                           gPath.getRefTree(),
                                                           gPath.getPath());
 
@@ -2168,7 +2238,7 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
 
         final JGitPathImpl gPath = toPathImpl(path);
 
-        final Pair<PathType, ObjectId> pathResult = checkPath(gPath.getFileSystem().gitRepo(),
+        final Pair<PathType, ObjectId> pathResult = checkPath(gPath.getFileSystem(),
                                                               gPath.getRefTree(),
                                                               gPath.getPath());
         if (pathResult.getK1().equals(NOT_FOUND)) {
@@ -2232,7 +2302,7 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
 
         final JGitPathImpl gPath = toPathImpl(path);
 
-        final Pair<PathType, ObjectId> pathResult = checkPath(gPath.getFileSystem().gitRepo(),
+        final Pair<PathType, ObjectId> pathResult = checkPath(gPath.getFileSystem(),
                                                               gPath.getRefTree(),
                                                               gPath.getPath());
         if (pathResult.getK1().equals(NOT_FOUND)) {
@@ -2286,6 +2356,25 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
             map.put("diff",
                     diffs);
             return map;
+        } else if (s[0].equals("changes")) {
+            // "changes:<commit>" returns the head commit of the path's branch and the files changed since <commit>
+            final JGitPathImpl gPath = toPathImpl(path);
+            final Git git = gPath.getFileSystem().gitRepo();
+            final HashMap<String, Object> map = new HashMap<>();
+            final ObjectId head = JGitUtil.resolveObjectId(git,
+                                                           gPath.getRefTree());
+            if (head == null) {
+                return map;
+            }
+            map.put("head",
+                    head.getName());
+            if (!s[1].isEmpty()) {
+                map.put("changes",
+                        new ListChanges(git.getRepository(),
+                                        s[1],
+                                        head.getName()).execute().get());
+            }
+            return map;
         } else {
             final ExtendedAttributeView view = getFileAttributeView(toPathImpl(path),
                                                                     s[0],
@@ -2317,6 +2406,7 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
 
         if (attribute.equals(FileSystemState.FILE_SYSTEM_STATE_ATTR)) {
             JGitFileSystem fileSystem = (JGitFileSystem) path.getFileSystem();
+            Map<String, Pair<NotificationModel, ObjectId>> pendingDiffs = null;
             try {
                 fileSystem.lock();
 
@@ -2334,12 +2424,16 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
 
                 if (isOriginalStateBatch && !fileSystem.isOnBatch()) {
                     fileSystem.setBatchCommitInfo(null);
-                    notifyAllDiffs();
+                    pendingDiffs = takePendingDiffs(fileSystem);
                 }
                 fileSystem.setHadCommitOnBatchState(false);
             } finally {
                 fileSystem.unlock();
             }
+            if (pendingDiffs != null) {
+                notifyDiffs(fileSystem,
+                            pendingDiffs);
+            }
             return;
         }
 
@@ -2486,6 +2580,49 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
         return host;
     }
 
+    /**
+     * @return the pushed branches as <tt>old-id new-id ref-name</tt> lines, or null if any other ref was pushed
+     * or a command failed.
+     */
+    private static String encodeRefs(final Collection<ReceiveCommand> commands) {
+        final StringBuilder refs = new StringBuilder();
+        for (final ReceiveCommand command : commands) {
+            if (command.getResult() != ReceiveCommand.Result.OK || !command.getRefName().startsWith(Constants.R_HEADS)) {
+                return null;
+            }
+            if (refs.length() > 0) {
+                refs.append("\n");
+            }
+            refs.append(command.getOldId().name()).append(" ").append(command.getNewId().name()).append(" ").append(command.getRefName());
+        }
+        return refs.toString();
+    }
+
+    /**
+     * Decodes the <tt>refs</tt> sync parameter: hex encoded UTF-8 lines of <tt>old-id new-id ref-name</tt>, as sent
+     * along cluster sync messages. Hex keeps ref names from clashing with the other query flags.
+     */
+    static List<ReceiveCommand> decodeRefs(final String hex) {
+        final byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2,
+                                                             i * 2 + 2),
+                                               16);
+        }
+        final List<ReceiveCommand> commands = new ArrayList<ReceiveCommand>();
+        for (final String line : new String(bytes,
+                                            StandardCharsets.UTF_8).split("\n")) {
+            final String[] fields = line.split(" ",
+                                               3);
+            if (fields.length == 3) {
+                commands.add(new ReceiveCommand(ObjectId.fromString(fields[0]),
+                                                ObjectId.fromString(fields[1]),
+                                                fields[2]));
+            }
+        }
+        return commands;
+    }
+
     private boolean hasSyncFlag(final URI uri) {
         checkNotNull("uri",
                      uri);
@@ -2609,87 +2746,212 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
                         final CommitContent commitContent) {
 
         final JGitFileSystem fileSystem = path.getFileSystem();
+        fileSystem.lock();
+        if (commitGroupEnabled && !fileSystem.isOnBatch() && commitContent instanceof DefaultCommitContent) {
+            fileSystem.unlock();
+            fileSystem.getCommitQueue(path.getRefTree()).submit(new JGitCommitQueue.Request(path,
+                                                                                            commitInfo,
+                                                                                            (DefaultCommitContent) commitContent),
+                                                                commitGroupWindow,
+                                                                commitGroupSize,
+                                                                new JGitCommitQueue.Processor() {
+                                                                    @Override
+                                                                    public void process(final List<JGitCommitQueue.Request> requests) {
+                                                                        commitGroup(fileSystem,
+                                                                                    path.getRefTree(),
+                                                                                    requests);
+                                                                    }
+                                                                });
+            return;
+        }
+
         try {
-            fileSystem.lock();
+            commitLocked(path,
+                         commitInfo,
+                         commitContent);
+        } finally {
+            fileSystem.unlock();
+        }
 
-            final Git git = fileSystem.gitRepo();
-            final String branchName = path.getRefTree();
-            final boolean batchState = fileSystem.isOnBatch();
-            final boolean amend = batchState && fileSystem.isHadCommitOnBatchState(path.getRoot());
+        fileSystem.getDiffNotifier().dispatch(notifyExecutor,
+                                              notifyQueueSize);
+    }
 
-            final ObjectId oldHead = JGitUtil.getTreeRefObjectId(path.getFileSystem().gitRepo().getRepository(),
-                                                                 branchName);
+    /**
+     * Commits the content straight to the branch, or into the current batch. Must be called with the file system
+     * locked; the diffs it enqueues are left for the caller to dispatch once unlocked.
+     */
+    private void commitLocked(final JGitPathImpl path,
+                              final CommitInfo commitInfo,
+                              final CommitContent commitContent) {
+        final JGitFileSystem fileSystem = path.getFileSystem();
+        final Git git = fileSystem.gitRepo();
+        final String branchName = path.getRefTree();
+        final boolean batchState = fileSystem.isOnBatch();
+        final boolean amend = batchState && fileSystem.isHadCommitOnBatchState(path.getRoot());
+
+        final ObjectId oldHead = JGitUtil.getTreeRefObjectId(path.getFileSystem().gitRepo().getRepository(),
+                                                             branchName);
+
+        final boolean hasCommit;
+        if (batchState && fileSystem.getBatchCommitInfo() != null) {
+            hasCommit = JGitUtil.commit(git,
+                                        branchName,
+                                        fileSystem.getBatchCommitInfo(),
+                                        amend,
+                                        commitContent);
+        } else {
+            hasCommit = JGitUtil.commit(git,
+                                        branchName,
+                                        commitInfo,
+                                        amend,
+                                        commitContent);
+        }
 
-            final boolean hasCommit;
-            if (batchState && fileSystem.getBatchCommitInfo() != null) {
-                hasCommit = JGitUtil.commit(git,
-                                            branchName,
-                                            fileSystem.getBatchCommitInfo(),
-                                            amend,
-                                            commitContent);
-            } else {
-                hasCommit = JGitUtil.commit(git,
-                                            branchName,
-                                            commitInfo,
-                                            amend,
-                                            commitContent);
+        if (hasCommit) {
+            fileSystem.getAttributeCache().invalidate(branchName);
+        }
+
+        if (!batchState) {
+            if (hasCommit) {
+                int value = fileSystem.incrementAndGetCommitCount();
+                if (value >= commitLimit) {
+                    JGitUtil.gc(git);
+                    fileSystem.resetCommitCount();
+                }
             }
 
-            if (!batchState) {
-                if (hasCommit) {
-                    int value = fileSystem.incrementAndGetCommitCount();
-                    if (value >= commitLimit) {
-                        JGitUtil.gc(git);
-                        fileSystem.resetCommitCount();
+            final ObjectId newHead = JGitUtil.getTreeRefObjectId(path.getFileSystem().gitRepo().getRepository(),
+                                                                 branchName);
+
+            postCommitHook(git.getRepository());
+
+            fileSystem.getDiffNotifier().enqueue(branchName,
+                                                 commitInfo.getSessionId(),
+                                                 commitInfo.getName(),
+                                                 commitInfo.getMessage(),
+                                                 oldHead,
+                                                 newHead);
+        } else {
+            synchronized (oldHeadsOfPendingDiffsLock) {
+                if (!oldHeadsOfPendingDiffs.containsKey(path.getFileSystem()) ||
+                        !oldHeadsOfPendingDiffs.get(path.getFileSystem()).containsKey(branchName)) {
+
+                    if (!oldHeadsOfPendingDiffs.containsKey(path.getFileSystem())) {
+                        oldHeadsOfPendingDiffs.put(path.getFileSystem(),
+                                                   new ConcurrentHashMap<String, NotificationModel>());
                     }
-                }
 
-                final ObjectId newHead = JGitUtil.getTreeRefObjectId(path.getFileSystem().gitRepo().getRepository(),
-                                                                     branchName);
+                    if (fileSystem.getBatchCommitInfo() != null) {
+                        oldHeadsOfPendingDiffs.get(path.getFileSystem()).put(branchName,
+                                                                             new NotificationModel(oldHead,
+                                                                                                   fileSystem.getBatchCommitInfo().getSessionId(),
+                                                                                                   fileSystem.getBatchCommitInfo().getName(),
+                                                                                                   fileSystem.getBatchCommitInfo().getMessage()));
+                    } else {
+                        oldHeadsOfPendingDiffs.get(path.getFileSystem()).put(branchName,
+                                                                             new NotificationModel(oldHead,
+                                                                                                   commitInfo.getSessionId(),
+                                                                                                   commitInfo.getName(),
+                                                                                                   commitInfo.getMessage()));
+                    }
+                }
+            }
+        }
 
-                postCommitHook(git.getRepository());
+        if (path.getFileSystem().isOnBatch() && !fileSystem.isHadCommitOnBatchState(path.getRoot())) {
+            fileSystem.setHadCommitOnBatchState(path.getRoot(),
+                                                hasCommit);
+        }
+    }
 
-                notifyDiffs(path.getFileSystem(),
-                            branchName,
-                            commitInfo.getSessionId(),
-                            commitInfo.getName(),
-                            commitInfo.getMessage(),
-                            oldHead,
-                            newHead);
-            } else {
-                synchronized (oldHeadsOfPendingDiffsLock) {
-                    if (!oldHeadsOfPendingDiffs.containsKey(path.getFileSystem()) ||
-                            !oldHeadsOfPendingDiffs.get(path.getFileSystem()).containsKey(branchName)) {
+    /**
+     * Writes a group of queued commits as a chain on the branch, with a single ref update, hook run and
+     * one notification per consecutive run of commits from the same session and user.
+     */
+    private void commitGroup(final JGitFileSystem fileSystem,
+                             final String branchName,
+                             final List<JGitCommitQueue.Request> requests) {
+        fileSystem.lock();
+        try {
+            if (fileSystem.isOnBatch()) {
+                // a batch started after these were queued: they belong to it, so commit them one by one without
+                // going back through the queue this thread is processing
+                for (final JGitCommitQueue.Request request : requests) {
+                    try {
+                        commitLocked(request.getPath(),
+                                     request.getCommitInfo(),
+                                     request.getContent());
+                    } catch (final RuntimeException ex) {
+                        request.setError(ex);
+                    }
+                }
+                return;
+            }
 
-                        if (!oldHeadsOfPendingDiffs.containsKey(path.getFileSystem())) {
-                            oldHeadsOfPendingDiffs.put(path.getFileSystem(),
-                                                       new ConcurrentHashMap<String, NotificationModel>());
-                        }
+            final Git git = fileSystem.gitRepo();
+            final ObjectId oldHead = JGitUtil.getTreeRefObjectId(git.getRepository(),
+                                                                 branchName);
 
-                        if (fileSystem.getBatchCommitInfo() != null) {
-                            oldHeadsOfPendingDiffs.get(path.getFileSystem()).put(branchName,
-                                                                                 new NotificationModel(oldHead,
-                                                                                                       fileSystem.getBatchCommitInfo().getSessionId(),
-                                                                                                       fileSystem.getBatchCommitInfo().getName(),
-                                                                                                       fileSystem.getBatchCommitInfo().getMessage()));
-                        } else {
-                            oldHeadsOfPendingDiffs.get(path.getFileSystem()).put(branchName,
-                                                                                 new NotificationModel(oldHead,
-                                                                                                       commitInfo.getSessionId(),
-                                                                                                       commitInfo.getName(),
-                                                                                                       commitInfo.getMessage()));
-                        }
+            final List<Pair<CommitInfo, DefaultCommitContent>> contents = new ArrayList<Pair<CommitInfo, DefaultCommitContent>>(requests.size());
+            for (final JGitCommitQueue.Request request : requests) {
+                contents.add(new Pair<CommitInfo, DefaultCommitContent>(request.getCommitInfo(),
+                                                                        request.getContent()));
+            }
+            final List<ObjectId> trees = JGitUtil.commit(git,
+                                                         branchName,
+                                                         contents);
+
+            boolean hasCommit = false;
+            for (final ObjectId tree : trees) {
+                if (tree != null) {
+                    hasCommit = true;
+                    if (fileSystem.incrementAndGetCommitCount() >= commitLimit) {
+                        JGitUtil.gc(git);
+                        fileSystem.resetCommitCount();
                     }
                 }
             }
+            if (hasCommit) {
+                fileSystem.getAttributeCache().invalidate(branchName);
+            }
 
-            if (path.getFileSystem().isOnBatch() && !fileSystem.isHadCommitOnBatchState(path.getRoot())) {
-                fileSystem.setHadCommitOnBatchState(path.getRoot(),
-                                                    hasCommit);
+            postCommitHook(git.getRepository());
+
+            ObjectId runStart = oldHead;
+            ObjectId runEnd = oldHead;
+            for (int i = 0; i < requests.size(); i++) {
+                final CommitInfo commitInfo = requests.get(i).getCommitInfo();
+                if (trees.get(i) != null) {
+                    runEnd = trees.get(i);
+                }
+                final boolean lastOfRun = i + 1 == requests.size() ||
+                        !sameAuthor(commitInfo,
+                                    requests.get(i + 1).getCommitInfo());
+                if (lastOfRun && runEnd != runStart) {
+                    fileSystem.getDiffNotifier().enqueue(branchName,
+                                                         commitInfo.getSessionId(),
+                                                         commitInfo.getName(),
+                                                         commitInfo.getMessage(),
+                                                         runStart,
+                                                         runEnd);
+                    runStart = runEnd;
+                }
             }
         } finally {
             fileSystem.unlock();
         }
+
+        fileSystem.getDiffNotifier().dispatch(notifyExecutor,
+                                              notifyQueueSize);
+    }
+
+    private boolean sameAuthor(final CommitInfo a,
+                               final CommitInfo b) {
+        return Objects.equals(a.getSessionId(),
+                              b.getSessionId()) &&
+                Objects.equals(a.getName(),
+                               b.getName());
     }
 
     private void postCommitHook(final Repository repository) {
@@ -2698,38 +2960,53 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
                                     new String[0]);
     }
 
-    private void notifyAllDiffs() {
+    /**
+     * Takes the branches of the given file system changed during its batch, with their head before and after it.
+     * Must be called with the file system locked, so no commit moves the heads meanwhile; the diffs themselves
+     * are computed and dispatched later by {@link #notifyDiffs(JGitFileSystem, Map)}, once the lock is released.
+     */
+    private Map<String, Pair<NotificationModel, ObjectId>> takePendingDiffs(final JGitFileSystem fileSystem) {
+        final Map<String, NotificationModel> pending;
         synchronized (oldHeadsOfPendingDiffsLock) {
-            for (Map.Entry<JGitFileSystem, Map<String, NotificationModel>> jGitFileSystemMapEntry : oldHeadsOfPendingDiffs.entrySet()) {
-                for (Map.Entry<String, NotificationModel> branchNameNotificationModelEntry : jGitFileSystemMapEntry.getValue().entrySet()) {
-                    final ObjectId newHead = JGitUtil.getTreeRefObjectId(jGitFileSystemMapEntry.getKey().gitRepo().getRepository(),
-                                                                         branchNameNotificationModelEntry.getKey());
-                    try {
-                        notifyDiffs(jGitFileSystemMapEntry.getKey(),
-                                    branchNameNotificationModelEntry.getKey(),
-                                    branchNameNotificationModelEntry.getValue().getSessionId(),
-                                    branchNameNotificationModelEntry.getValue().getUserName(),
-                                    branchNameNotificationModelEntry.getValue().getMessage(),
-                                    branchNameNotificationModelEntry.getValue().getOriginalHead(),
-                                    newHead);
-                    } catch (final Exception ex) {
-                        LOG.error(String.format("Couldn't produce diff notification for repository `%s` branch `%s`.",
-                                                jGitFileSystemMapEntry.getKey().toString(),
-                                                branchNameNotificationModelEntry.getKey()),
-                                  ex);
-                    }
-                }
-            }
+            pending = oldHeadsOfPendingDiffs.remove(fileSystem);
+        }
+        final Map<String, Pair<NotificationModel, ObjectId>> result = new HashMap<String, Pair<NotificationModel, ObjectId>>();
+        if (pending == null) {
+            return result;
+        }
+        for (final Map.Entry<String, NotificationModel> entry : pending.entrySet()) {
+            result.put(entry.getKey(),
+                       new Pair<NotificationModel, ObjectId>(entry.getValue(),
+                                                             JGitUtil.getTreeRefObjectId(fileSystem.gitRepo().getRepository(),
+                                                                                         entry.getKey())));
+        }
 
-            for (JGitFileSystem fileSystem : oldHeadsOfPendingDiffs.keySet()) {
-                int value = fileSystem.incrementAndGetCommitCount();
-                if (value >= commitLimit) {
-                    JGitUtil.gc(fileSystem.gitRepo());
-                    fileSystem.resetCommitCount();
-                }
-            }
+        int value = fileSystem.incrementAndGetCommitCount();
+        if (value >= commitLimit) {
+            JGitUtil.gc(fileSystem.gitRepo());
+            fileSystem.resetCommitCount();
+        }
+        return result;
+    }
 
-            oldHeadsOfPendingDiffs.clear();
+    private void notifyDiffs(final JGitFileSystem fileSystem,
+                             final Map<String, Pair<NotificationModel, ObjectId>> pendingDiffs) {
+        for (final Map.Entry<String, Pair<NotificationModel, ObjectId>> entry : pendingDiffs.entrySet()) {
+            final NotificationModel model = entry.getValue().getK1();
+            try {
+                notifyDiffs(fileSystem,
+                            entry.getKey(),
+                            model.getSessionId(),
+                            model.getUserName(),
+                            model.getMessage(),
+                            model.getOriginalHead(),
+                            entry.getValue().getK2());
+            } catch (final Exception ex) {
+                LOG.error(String.format("Couldn't produce diff notification for repository `%s` branch `%s`.",
+                                        fileSystem.toString(),
+                                        entry.getKey()),
+                          ex);
+            }
         }
     }
 
@@ -2740,6 +3017,22 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
                      final String message,
                      final ObjectId oldHead,
                      final ObjectId newHead) {
+        fs.getDiffNotifier().enqueue(_tree,
+                                     sessionId,
+                                     userName,
+                                     message,
+                                     oldHead,
+                                     newHead);
+        fs.getDiffNotifier().dispatch(notifyExecutor,
+                                      notifyQueueSize);
+    }
+
+    void publishDiffs(final JGitFileSystem fs,
+                      final JGitDiffNotifier.HeadMove move) {
+        final String _tree = move.getBranchName();
+        final String sessionId = move.getSessionId();
+        final String userName = move.getUserName();
+        final String message = move.getMessage();
 
         final String tree;
         if (_tree.startsWith("refs/")) {
@@ -2755,8 +3048,8 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
                                                   false);
 
         final List<DiffEntry> diff = JGitUtil.getDiff(fs.gitRepo().getRepository(),
-                                                      oldHead,
-                                                      newHead);
+                                                      move.getOldHead(),
+                                                      move.getNewHead());
         final List<WatchEvent<?>> events = new ArrayList<WatchEvent<?>>(diff.size());
 
         for (final DiffEntry diffEntry : diff) {
@@ -2773,13 +3066,18 @@ public class JGitFileSystemProvider implements SecuredFileSystemProvider,
 
             final Path newPath;
             if (!diffEntry.getNewPath().equals(DiffEntry.DEV_NULL)) {
-                JGitPathInfo pathInfo = resolvePath(fs.gitRepo(),
-                                                    tree,
-                                                    diffEntry.getNewPath());
+                final ObjectId newId;
+                if (diffEntry.getNewId() != null && diffEntry.getNewId().isComplete()) {
+                    newId = diffEntry.getNewId().toObjectId();
+                } else {
+                    newId = resolvePath(fs,
+                                        tree,
+                                        diffEntry.getNewPath()).getObjectId();
+                }
                 newPath = JGitPathImpl.create(fs,
-                                              "/" + pathInfo.getPath(),
+                                              "/" + diffEntry.getNewPath(),
                                               host,
-                                              pathInfo.getObjectId(),
+                                              newId,
                                               false);
             } else {
                 newPath = null;
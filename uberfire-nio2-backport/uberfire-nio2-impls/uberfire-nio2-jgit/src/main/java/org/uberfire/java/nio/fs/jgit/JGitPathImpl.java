@@ -234,6 +234,19 @@ public class JGitPathImpl extends AbstractPath<JGitFileSystem>
         return new String(path);
     }
 
+    /**
+     * @return this path, read from the given commit rather than from the head of its branch.
+     */
+    public JGitPathImpl pin(final String commitId) {
+        return new JGitPathImpl(getFileSystem(),
+                                getPath(),
+                                commitId + host.substring(host.indexOf("@")),
+                                null,
+                                isRoot,
+                                isRealPath,
+                                isNormalized);
+    }
+
     public boolean isRegularFile()
             throws IllegalAccessError, SecurityException {
         try {
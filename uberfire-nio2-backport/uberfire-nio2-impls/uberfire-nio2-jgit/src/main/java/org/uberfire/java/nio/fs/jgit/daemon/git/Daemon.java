@@ -261,7 +261,7 @@ public class Daemon {
             dc.setRemoteAddress(((InetSocketAddress) peer).getAddress());
         }
 
-        SimpleAsyncExecutorService.getUnmanagedInstance().execute(new DescriptiveRunnable() {
+        SimpleAsyncExecutorService.getLongRunningInstance().execute(new DescriptiveRunnable() {
             @Override
             public String getDescription() {
                 return "Git-Daemon-Client " + peer.toString();
@@ -101,7 +101,7 @@ public abstract class BaseGitCommand implements Command,
 
     @Override
     public void start(final Environment env) throws IOException {
-        SimpleAsyncExecutorService.getDefaultInstance().execute(new DescriptiveRunnable() {
+        SimpleAsyncExecutorService.getLongRunningInstance().execute(new DescriptiveRunnable() {
             @Override
             public String getDescription() {
                 return "Git Command [" + getClass().getName() + "]";
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.java.nio.fs.jgit.util;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.uberfire.commons.config.ConfigProperties;
+
+/**
+ * Per file system cache of commit derived attributes (last commit time and version history).
+ * <p>
+ * Entries are keyed by the branch head they were computed from, so a moved ref never serves stale data;
+ * version histories are kept across head moves so they can be extended incrementally.
+ * <p>
+ * Hit, miss, incremental update and eviction counts are reported by {@link #toString()}, which the owning
+ * file system logs (at debug level) after each periodic GC and when it is closed.
+ */
+public class JGitAttributeCache {
+
+    private static final String DEFAULT_CACHE_SIZE = "5000";
+    private static final int MAX_CACHE_SIZE = initCacheSize();
+
+    private final Map<String, BranchEntry> lastCommitTimes = new ConcurrentHashMap<String, BranchEntry>();
+    private final Map<String, History> histories;
+    private final int maxSize;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong incrementalUpdates = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public JGitAttributeCache() {
+        this(MAX_CACHE_SIZE);
+    }
+
+    public JGitAttributeCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.histories = Collections.synchronizedMap(new LinkedHashMap<String, History>(16,
+                                                                                          0.75f,
+                                                                                          true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, History> eldest) {
+                if (size() > JGitAttributeCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        });
+    }
+
+    private static int initCacheSize() {
+        final ConfigProperties config = new ConfigProperties(System.getProperties());
+        try {
+            return config.get("org.uberfire.nio.git.cache.attributes.size",
+                              DEFAULT_CACHE_SIZE).getIntValue();
+        } catch (NumberFormatException ex) {
+            return Integer.valueOf(DEFAULT_CACHE_SIZE);
+        }
+    }
+
+    public Long getLastCommitTime(final String branchName,
+                                  final ObjectId head,
+                                  final String path) {
+        final BranchEntry entry = lastCommitTimes.get(branchName);
+        if (entry != null && entry.head.equals(head)) {
+            final Long result = entry.values.get(path);
+            if (result != null) {
+                hits.incrementAndGet();
+                return result;
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void putLastCommitTime(final String branchName,
+                                  final ObjectId head,
+                                  final String path,
+                                  final long value) {
+        BranchEntry entry = lastCommitTimes.get(branchName);
+        if (entry == null || !entry.head.equals(head) || entry.values.size() >= maxSize) {
+            if (entry != null && entry.head.equals(head)) {
+                evictions.addAndGet(entry.values.size());
+            }
+            entry = new BranchEntry(head.copy());
+            lastCommitTimes.put(branchName,
+                                entry);
+        }
+        entry.values.put(path,
+                         value);
+    }
+
+    public History getHistory(final String branchName,
+                              final String path) {
+        return histories.get(key(branchName,
+                                 path));
+    }
+
+    public void putHistory(final String branchName,
+                           final String path,
+                           final History history) {
+        histories.put(key(branchName,
+                          path),
+                      history);
+    }
+
+    /**
+     * Drops the cached commit times of a branch; called when a commit moves its ref.
+     */
+    public void invalidate(final String branchName) {
+        lastCommitTimes.remove(branchName);
+    }
+
+    public void clear() {
+        lastCommitTimes.clear();
+        histories.clear();
+    }
+
+    void historyHit() {
+        hits.incrementAndGet();
+    }
+
+    void historyMiss() {
+        misses.incrementAndGet();
+    }
+
+    void historyIncrementalUpdate() {
+        incrementalUpdates.incrementAndGet();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getIncrementalUpdateCount() {
+        return incrementalUpdates.get();
+    }
+
+    /**
+     * @return the number of entries dropped to stay within the cache size; entries of a moved head don't count.
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public double getHitRate() {
+        final long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    @Override
+    public String toString() {
+        return "JGitAttributeCache{" +
+                "hits=" + hits.get() +
+                ", misses=" + misses.get() +
+                ", hitRate=" + String.format("%.2f",
+                                             getHitRate()) +
+                ", incrementalUpdates=" + incrementalUpdates.get() +
+                ", evictions=" + evictions.get() +
+                ", histories=" + histories.size() +
+                '}';
+    }
+
+    private String key(final String branchName,
+                       final String path) {
+        return branchName + ":" + path;
+    }
+
+    private static class BranchEntry {
+
+        private final ObjectId head;
+        private final Map<String, Long> values = new ConcurrentHashMap<String, Long>();
+
+        private BranchEntry(final ObjectId head) {
+            this.head = head;
+        }
+    }
+
+    /**
+     * Version history of a path, oldest commit first, as seen from <code>head</code>.
+     */
+    public static class History {
+
+        private final ObjectId head;
+        private final List<CommitRecord> records;
+
+        public History(final ObjectId head,
+                       final List<CommitRecord> records) {
+            this.head = head.copy();
+            this.records = Collections.unmodifiableList(records);
+        }
+
+        public ObjectId getHead() {
+            return head;
+        }
+
+        public List<CommitRecord> getRecords() {
+            return records;
+        }
+    }
+
+    /**
+     * Detached copy of the commit data needed by version records, so cached entries don't retain RevWalk graphs.
+     */
+    public static class CommitRecord {
+
+        private final String id;
+        private final String author;
+        private final String email;
+        private final String comment;
+        private final Date date;
+
+        public CommitRecord(final RevCommit commit) {
+            this.id = commit.name();
+            this.author = commit.getAuthorIdent().getName();
+            this.email = commit.getAuthorIdent().getEmailAddress();
+            this.comment = commit.getFullMessage();
+            this.date = commit.getAuthorIdent().getWhen();
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getAuthor() {
+            return author;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public String getComment() {
+            return comment;
+        }
+
+        public Date getDate() {
+            return date;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.java.nio.fs.jgit.util;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.uberfire.java.nio.IOException;
+import org.uberfire.java.nio.channels.SeekableByteChannel;
+
+import static org.uberfire.commons.validation.Preconditions.checkNotNull;
+
+/**
+ * Read only channel over a blob.
+ * <p>
+ * Content is streamed from the object database, so blobs above the stream threshold are never fully loaded
+ * in memory. Moving forward skips over the stream; moving backwards reopens it.
+ */
+public class JGitBlobChannel implements SeekableByteChannel {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Repository repository;
+    private final ObjectId blobId;
+    private final long size;
+
+    private InputStream stream;
+    private long streamPosition;
+    private long position;
+    private boolean open = true;
+
+    public JGitBlobChannel(final Repository repository,
+                           final ObjectId blobId) throws java.io.IOException {
+        this.repository = checkNotNull("repository",
+                                       repository);
+        this.blobId = checkNotNull("blobId",
+                                   blobId);
+        this.size = repository.open(blobId,
+                                    Constants.OBJ_BLOB).getSize();
+    }
+
+    @Override
+    public long position() throws IOException {
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(final long newPosition) throws IOException {
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("newPosition");
+        }
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        return size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(final long size) throws IOException {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public int read(final ByteBuffer dst) throws java.io.IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        if (position >= size) {
+            return -1;
+        }
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+
+        seek();
+        final byte[] buffer = new byte[(int) Math.min(Math.min(dst.remaining(),
+                                                               BUFFER_SIZE),
+                                                      size - position)];
+        final int read = stream.read(buffer);
+        if (read < 0) {
+            return -1;
+        }
+        dst.put(buffer,
+                0,
+                read);
+        position += read;
+        streamPosition += read;
+        return read;
+    }
+
+    private void seek() throws java.io.IOException {
+        if (stream == null || streamPosition > position) {
+            closeStream();
+            stream = repository.open(blobId,
+                                     Constants.OBJ_BLOB).openStream();
+            streamPosition = 0;
+        }
+        while (streamPosition < position) {
+            final long skipped = stream.skip(position - streamPosition);
+            if (skipped <= 0) {
+                throw new java.io.EOFException("Can't seek blob '" + blobId.name() + "' to " + position);
+            }
+            streamPosition += skipped;
+        }
+    }
+
+    @Override
+    public int write(final ByteBuffer src) throws java.io.IOException {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws java.io.IOException {
+        open = false;
+        closeStream();
+    }
+
+    private void closeStream() throws java.io.IOException {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+}
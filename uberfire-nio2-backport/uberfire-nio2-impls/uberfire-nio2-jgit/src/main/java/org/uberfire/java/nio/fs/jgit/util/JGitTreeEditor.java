@@ -0,0 +1,278 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.java.nio.fs.jgit.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.TreeFormatter;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+
+/**
+ * Applies a set of file edits to a tree by rewriting only the trees along the edited paths.
+ * <p>
+ * Every other entry, including whole unchanged subtrees, is copied by id from the base tree, so the cost
+ * of an edit depends on the depth and width of the touched directories, not on the size of the repository.
+ * Edits this class can't express the way a full index rebuild would (a file replacing a directory or the
+ * other way around, the same path edited twice, a new entry over an existing one) raise
+ * {@link UnsupportedEditException}, and callers fall back to the in-core index.
+ */
+class JGitTreeEditor {
+
+    private static final Object DELETE = new Object();
+
+    private static final Comparator<Entry> TREE_ORDER = new Comparator<Entry>() {
+        @Override
+        public int compare(final Entry a,
+                           final Entry b) {
+            final int len = Math.min(a.name.length,
+                                     b.name.length);
+            for (int i = 0; i < len; i++) {
+                final int cmp = (a.name[i] & 0xff) - (b.name[i] & 0xff);
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return lastChar(a,
+                            len) - lastChar(b,
+                                            len);
+        }
+
+        private int lastChar(final Entry entry,
+                             final int pos) {
+            if (pos < entry.name.length) {
+                return entry.name[pos] & 0xff;
+            }
+            return entry.isTree() ? '/' : 0;
+        }
+    };
+
+    private final Map<String, Object> root = new HashMap<String, Object>();
+
+    /**
+     * Sets the given path to a blob, creating the missing parent directories.
+     * @param replace whether an existing entry with the same path may be overwritten.
+     */
+    void put(final String path,
+             final ObjectId id,
+             final FileMode mode,
+             final boolean replace) throws UnsupportedEditException {
+        add(path,
+            new Entry(null,
+                      null,
+                      mode,
+                      id,
+                      replace));
+    }
+
+    /**
+     * Removes the given path, file or directory; missing paths are ignored.
+     */
+    void delete(final String path) throws UnsupportedEditException {
+        add(path,
+            DELETE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void add(final String path,
+                     final Object edit) throws UnsupportedEditException {
+        final String[] names = path.split("/");
+        Map<String, Object> current = root;
+        for (int i = 0; i < names.length; i++) {
+            final String name = names[i];
+            if (name.isEmpty()) {
+                throw new UnsupportedEditException(path);
+            }
+            final Object existing = current.get(name);
+            if (i == names.length - 1) {
+                if (existing != null) {
+                    throw new UnsupportedEditException(path);
+                }
+                current.put(name,
+                            edit);
+            } else if (existing == null) {
+                final Map<String, Object> child = new HashMap<String, Object>();
+                current.put(name,
+                            child);
+                current = child;
+            } else if (existing instanceof Map) {
+                current = (Map<String, Object>) existing;
+            } else {
+                throw new UnsupportedEditException(path);
+            }
+        }
+    }
+
+    /**
+     * @param baseTreeId the tree to edit, or null to start from an empty tree.
+     * @return the id of the edited root tree; equal to the base tree id if nothing changed.
+     */
+    ObjectId apply(final ObjectReader reader,
+                   final ObjectInserter inserter,
+                   final ObjectId baseTreeId) throws java.io.IOException, UnsupportedEditException {
+        final ObjectId result = rewrite(reader,
+                                        inserter,
+                                        baseTreeId,
+                                        root);
+        if (result == null) {
+            return inserter.insert(new TreeFormatter());
+        }
+        return result;
+    }
+
+    /**
+     * @return the id of the rewritten tree, or null if it ended up empty.
+     */
+    @SuppressWarnings("unchecked")
+    private ObjectId rewrite(final ObjectReader reader,
+                             final ObjectInserter inserter,
+                             final ObjectId treeId,
+                             final Map<String, Object> edits) throws java.io.IOException, UnsupportedEditException {
+        final Map<String, Entry> entries = new HashMap<String, Entry>();
+        if (treeId != null) {
+            final CanonicalTreeParser parser = new CanonicalTreeParser();
+            parser.reset(reader,
+                         treeId);
+            while (!parser.eof()) {
+                final Entry entry = new Entry(parser.getEntryPathString(),
+                                              Arrays.copyOf(parser.getEntryPathBuffer(),
+                                                            parser.getEntryPathLength()),
+                                              parser.getEntryFileMode(),
+                                              parser.getEntryObjectId(),
+                                              false);
+                entries.put(entry.path,
+                            entry);
+                parser.next();
+            }
+        }
+
+        boolean changed = false;
+        for (final Map.Entry<String, Object> edit : edits.entrySet()) {
+            final String name = edit.getKey();
+            final Entry existing = entries.get(name);
+            if (edit.getValue() == DELETE) {
+                if (existing != null) {
+                    entries.remove(name);
+                    changed = true;
+                }
+            } else if (edit.getValue() instanceof Entry) {
+                final Entry blob = (Entry) edit.getValue();
+                if (existing == null) {
+                    entries.put(name,
+                                new Entry(name,
+                                          Constants.encode(name),
+                                          blob.mode,
+                                          blob.id,
+                                          false));
+                    changed = true;
+                } else if (existing.isTree() || !blob.replace) {
+                    throw new UnsupportedEditException(name);
+                } else if (!existing.id.equals(blob.id)) {
+                    entries.put(name,
+                                new Entry(name,
+                                          Constants.encode(name),
+                                          blob.mode,
+                                          blob.id,
+                                          false));
+                    changed = true;
+                }
+            } else {
+                if (existing != null && !existing.isTree()) {
+                    throw new UnsupportedEditException(name);
+                }
+                final ObjectId subtreeId = rewrite(reader,
+                                                   inserter,
+                                                   existing == null ? null : existing.id,
+                                                   (Map<String, Object>) edit.getValue());
+                if (subtreeId == null) {
+                    if (existing != null) {
+                        entries.remove(name);
+                        changed = true;
+                    }
+                } else if (existing == null || !existing.id.equals(subtreeId)) {
+                    entries.put(name,
+                                new Entry(name,
+                                          Constants.encode(name),
+                                          FileMode.TREE,
+                                          subtreeId,
+                                          false));
+                    changed = true;
+                }
+            }
+        }
+
+        if (entries.isEmpty()) {
+            return null;
+        }
+        if (!changed) {
+            return treeId;
+        }
+
+        final List<Entry> sorted = new ArrayList<Entry>(entries.values());
+        Collections.sort(sorted,
+                         TREE_ORDER);
+        final TreeFormatter formatter = new TreeFormatter();
+        for (final Entry entry : sorted) {
+            formatter.append(entry.name,
+                             entry.mode,
+                             entry.id);
+        }
+        return inserter.insert(formatter);
+    }
+
+    private static class Entry {
+
+        private final String path;
+        private final byte[] name;
+        private final FileMode mode;
+        private final ObjectId id;
+        private final boolean replace;
+
+        private Entry(final String path,
+                      final byte[] name,
+                      final FileMode mode,
+                      final ObjectId id,
+                      final boolean replace) {
+            this.path = path;
+            this.name = name;
+            this.mode = mode;
+            this.id = id.copy();
+            this.replace = replace;
+        }
+
+        private boolean isTree() {
+            return FileMode.TREE.equals(mode.getBits());
+        }
+    }
+
+    static class UnsupportedEditException extends Exception {
+
+        UnsupportedEditException(final String path) {
+            super("Unsupported tree edit: " + path);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.java.nio.fs.jgit.util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevObject;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.uberfire.commons.config.ConfigProperties;
+
+import static org.eclipse.jgit.lib.Constants.OBJ_BLOB;
+
+/**
+ * In memory index of the trees of a repository, used to resolve and list paths without a TreeWalk.
+ * <p>
+ * Each branch is mapped to the tree of its current head commit; the mapping is refreshed when the ref moves.
+ * Commit ids aren't mapped, and at most as many branches as trees are kept.
+ * Directories are loaded lazily, one tree object at a time, and shared by tree id, so unchanged subtrees
+ * are reused across commits and branches.
+ */
+public class JGitTreeIndex {
+
+    private static final String DEFAULT_CACHE_SIZE = "10000";
+    private static final int MAX_CACHE_SIZE = initCacheSize();
+
+    private final Map<String, Head> heads;
+    private final Map<ObjectId, Directory> trees;
+
+    public JGitTreeIndex() {
+        this(MAX_CACHE_SIZE);
+    }
+
+    public JGitTreeIndex(final int maxSize) {
+        this.heads = Collections.synchronizedMap(new LinkedHashMap<String, Head>(16,
+                                                                                 0.75f,
+                                                                                 true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Head> eldest) {
+                return size() > maxSize;
+            }
+        });
+        this.trees = Collections.synchronizedMap(new LinkedHashMap<ObjectId, Directory>(16,
+                                                                                          0.75f,
+                                                                                          true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<ObjectId, Directory> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    private static int initCacheSize() {
+        final ConfigProperties config = new ConfigProperties(System.getProperties());
+        try {
+            return config.get("org.uberfire.nio.git.cache.trees.size",
+                              DEFAULT_CACHE_SIZE).getIntValue();
+        } catch (NumberFormatException ex) {
+            return Integer.valueOf(DEFAULT_CACHE_SIZE);
+        }
+    }
+
+    /**
+     * @return the root tree snapshot of the given branch or commit, or null if it can't be resolved.
+     */
+    public Snapshot snapshot(final Repository repository,
+                             final String branchName) throws java.io.IOException {
+        final ObjectId commitId = repository.resolve(branchName);
+        if (commitId == null) {
+            return null;
+        }
+
+        final Head head = heads.get(branchName);
+        if (head != null && head.commitId.equals(commitId)) {
+            return new Snapshot(repository,
+                                head.treeId);
+        }
+
+        final ObjectId treeId = resolveTree(repository,
+                                            commitId);
+        if (treeId == null) {
+            return null;
+        }
+        if (!ObjectId.isId(branchName)) {
+            heads.put(branchName,
+                      new Head(commitId.copy(),
+                               treeId.copy()));
+        }
+        return new Snapshot(repository,
+                            treeId);
+    }
+
+    public void invalidate(final String branchName) {
+        heads.remove(branchName);
+    }
+
+    public void clear() {
+        heads.clear();
+        trees.clear();
+    }
+
+    private ObjectId resolveTree(final Repository repository,
+                                 final ObjectId id) throws java.io.IOException {
+        final RevWalk revWalk = new RevWalk(repository);
+        try {
+            final RevObject object = revWalk.peel(revWalk.parseAny(id));
+            if (object instanceof RevCommit) {
+                return ((RevCommit) object).getTree().getId();
+            } else if (object instanceof RevTree) {
+                return object.getId();
+            }
+            return null;
+        } finally {
+            revWalk.dispose();
+        }
+    }
+
+    private Directory directory(final Repository repository,
+                                final ObjectId treeId) throws java.io.IOException {
+        Directory directory = trees.get(treeId);
+        if (directory == null) {
+            directory = loadDirectory(repository,
+                                      treeId);
+            trees.put(treeId.copy(),
+                      directory);
+        }
+        return directory;
+    }
+
+    private Directory loadDirectory(final Repository repository,
+                                    final ObjectId treeId) throws java.io.IOException {
+        final Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+        final ObjectReader reader = repository.newObjectReader();
+        try {
+            final CanonicalTreeParser parser = new CanonicalTreeParser();
+            parser.reset(reader,
+                         treeId);
+            while (!parser.eof()) {
+                final String name = parser.getEntryPathString();
+                entries.put(name,
+                            new Entry(name,
+                                      parser.getEntryObjectId(),
+                                      parser.getEntryFileMode()));
+                parser.next();
+            }
+        } finally {
+            reader.close();
+        }
+        return new Directory(entries);
+    }
+
+    /**
+     * Immutable view of one root tree.
+     */
+    public class Snapshot {
+
+        private final Repository repository;
+        private final ObjectId treeId;
+
+        private Snapshot(final Repository repository,
+                         final ObjectId treeId) {
+            this.repository = repository;
+            this.treeId = treeId;
+        }
+
+        public ObjectId getTreeId() {
+            return treeId;
+        }
+
+        /**
+         * @param gitPath path without leading or trailing slashes
+         * @return the entry of the given path, or null if not found.
+         */
+        public Entry find(final String gitPath) throws java.io.IOException {
+            Directory current = directory(repository,
+                                          treeId);
+            Entry entry = null;
+            int start = 0;
+            while (start <= gitPath.length()) {
+                int end = gitPath.indexOf('/',
+                                          start);
+                if (end < 0) {
+                    end = gitPath.length();
+                }
+                entry = current.entries.get(gitPath.substring(start,
+                                                              end));
+                if (entry == null) {
+                    return null;
+                }
+                if (end == gitPath.length()) {
+                    return entry;
+                }
+                if (!entry.isTree()) {
+                    return null;
+                }
+                current = directory(repository,
+                                    entry.getObjectId());
+                start = end + 1;
+            }
+            return entry;
+        }
+
+        /**
+         * @param gitPath path without leading or trailing slashes, empty for root
+         * @return direct children of the given directory, or null if it's not a directory.
+         */
+        public Collection<Entry> list(final String gitPath) throws java.io.IOException {
+            final ObjectId dirId;
+            if (gitPath.isEmpty()) {
+                dirId = treeId;
+            } else {
+                final Entry entry = find(gitPath);
+                if (entry == null || !entry.isTree()) {
+                    return null;
+                }
+                dirId = entry.getObjectId();
+            }
+            return directory(repository,
+                             dirId).entries.values();
+        }
+
+        public long size(final Entry entry) throws java.io.IOException {
+            if (entry.size < 0) {
+                final ObjectReader reader = repository.newObjectReader();
+                try {
+                    entry.size = reader.getObjectSize(entry.getObjectId(),
+                                                      OBJ_BLOB);
+                } finally {
+                    reader.close();
+                }
+            }
+            return entry.size;
+        }
+    }
+
+    public static class Entry {
+
+        private final String name;
+        private final ObjectId objectId;
+        private final FileMode fileMode;
+        private volatile long size = -1;
+
+        private Entry(final String name,
+                      final ObjectId objectId,
+                      final FileMode fileMode) {
+            this.name = name;
+            this.objectId = objectId;
+            this.fileMode = fileMode;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ObjectId getObjectId() {
+            return objectId;
+        }
+
+        public FileMode getFileMode() {
+            return fileMode;
+        }
+
+        public boolean isTree() {
+            return fileMode == FileMode.TREE;
+        }
+    }
+
+    private static class Directory {
+
+        private final Map<String, Entry> entries;
+
+        private Directory(final Map<String, Entry> entries) {
+            this.entries = Collections.unmodifiableMap(entries);
+        }
+    }
+
+    private static class Head {
+
+        private final ObjectId commitId;
+        private final ObjectId treeId;
+
+        private Head(final ObjectId commitId,
+                     final ObjectId treeId) {
+            this.commitId = commitId;
+            this.treeId = treeId;
+        }
+    }
+}
@@ -16,7 +16,6 @@
 
 package org.uberfire.java.nio.fs.jgit.util;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
@@ -47,6 +46,7 @@ import org.eclipse.jgit.api.errors.JGitInternalException;
 import org.eclipse.jgit.api.errors.MultipleParentsNotAllowedException;
 import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
 import org.eclipse.jgit.dircache.DirCacheEditor;
 import org.eclipse.jgit.dircache.DirCacheEntry;
 import org.eclipse.jgit.internal.JGitText;
@@ -63,11 +63,13 @@ import org.eclipse.jgit.lib.RefUpdate;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.lib.RepositoryCache;
 import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.lib.TreeFormatter;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.revwalk.filter.RevFilter;
 import org.eclipse.jgit.transport.CredentialsProvider;
 import org.eclipse.jgit.transport.FetchResult;
+import org.eclipse.jgit.transport.ReceiveCommand;
 import org.eclipse.jgit.transport.RefSpec;
 import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 import org.eclipse.jgit.treewalk.TreeWalk;
@@ -88,6 +90,7 @@ import org.uberfire.java.nio.file.attribute.BasicFileAttributes;
 import org.uberfire.java.nio.file.attribute.FileTime;
 import org.uberfire.java.nio.fs.jgit.CommitInfo;
 import org.uberfire.java.nio.fs.jgit.JGitFileSystem;
+import org.uberfire.java.nio.fs.jgit.util.JGitAttributeCache.CommitRecord;
 import org.uberfire.java.nio.fs.jgit.daemon.filters.HiddenBranchRefFilter;
 import org.uberfire.java.nio.fs.jgit.util.exceptions.GitException;
 
@@ -109,6 +112,9 @@ import static org.uberfire.commons.validation.Preconditions.checkNotNull;
 public final class JGitUtil {
 
     private static final Logger LOG = LoggerFactory.getLogger(JGitUtil.class);
+
+    // editTree result of a content that doesn't change the tree, never the id of a real tree
+    private static final ObjectId NO_CHANGE = ObjectId.zeroId();
     private static String DEFAULT_JGIT_RETRY_SLEEP_TIME = "50";
     private static int JGIT_RETRY_TIMES = initRetryValue();
     private static int JGIT_RETRY_SLEEP_TIME = initSleepTime();
@@ -209,6 +215,10 @@ public final class JGitUtil {
         }
     }
 
+    /**
+     * Opens the content of a file; blobs above the repository stream threshold are streamed from the object
+     * database instead of being loaded in memory.
+     */
     public static InputStream resolveInputStream(final Git git,
                                                  final String treeRef,
                                                  final String path) {
@@ -236,8 +246,8 @@ public final class JGitUtil {
                                              tw.enterSubtree();
                                              continue;
                                          }
-                                         return new ByteArrayInputStream(git.getRepository().open(tw.getObjectId(0),
-                                                                                                  Constants.OBJ_BLOB).getBytes());
+                                         return git.getRepository().open(tw.getObjectId(0),
+                                                                         Constants.OBJ_BLOB).openStream();
                                      }
                                  } catch (final Throwable t) {
                                      throw new NoSuchFileException("Can't find '" + gitPath + "' in tree '" + treeRef + "'");
@@ -420,6 +430,80 @@ public final class JGitUtil {
         }
     }
 
+    /**
+     * Moves each branch of the given commands from its old to its new object id, fetching from origin only
+     * the branches whose new object is missing. Branches already at their new id are left alone, the others are
+     * updated only if they still point to their old id.
+     * @return false if a branch was neither at its old nor at its new id, or could not be updated; a full
+     * {@link #syncRepository(Git, CredentialsProvider, String, boolean)} is needed then.
+     */
+    public static boolean syncRefs(final Git git,
+                                   final CredentialsProvider credentialsProvider,
+                                   final String origin,
+                                   final Collection<ReceiveCommand> commands)
+            throws InvalidRemoteException {
+        final Repository repository = git.getRepository();
+        try {
+            final List<ReceiveCommand> pending = new ArrayList<ReceiveCommand>();
+            final List<RefSpec> specs = new ArrayList<RefSpec>();
+            for (final ReceiveCommand command : commands) {
+                if (!command.getRefName().startsWith(Constants.R_HEADS)) {
+                    return false;
+                }
+                final Ref ref = repository.exactRef(command.getRefName());
+                final ObjectId current = ref == null || ref.getObjectId() == null ? ObjectId.zeroId() : ref.getObjectId();
+                if (current.equals(command.getNewId())) {
+                    continue;
+                }
+                if (!current.equals(command.getOldId())) {
+                    return false;
+                }
+                pending.add(command);
+                if (command.getType() != ReceiveCommand.Type.DELETE && !repository.hasObject(command.getNewId())) {
+                    specs.add(new RefSpec("+" + command.getRefName() + ":refs/remotes/upstream/" + Repository.shortenRefName(command.getRefName())));
+                }
+            }
+
+            if (!specs.isEmpty()) {
+                git.fetch()
+                        .setCredentialsProvider(credentialsProvider)
+                        .setRefSpecs(specs)
+                        .setRemote(origin)
+                        .call();
+            }
+
+            for (final ReceiveCommand command : pending) {
+                if (command.getType() != ReceiveCommand.Type.DELETE && !repository.hasObject(command.getNewId())) {
+                    return false;
+                }
+                final RefUpdate update = repository.updateRef(command.getRefName());
+                update.setExpectedOldObjectId(command.getOldId());
+                update.setNewObjectId(command.getNewId());
+                update.setForceUpdate(true);
+                final RefUpdate.Result result;
+                if (command.getType() == ReceiveCommand.Type.DELETE) {
+                    result = update.delete();
+                } else {
+                    result = update.update();
+                }
+                switch (result) {
+                    case NEW:
+                    case FORCED:
+                    case FAST_FORWARD:
+                    case NO_CHANGE:
+                        break;
+                    default:
+                        return false;
+                }
+            }
+            return true;
+        } catch (final InvalidRemoteException e) {
+            throw e;
+        } catch (final Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
     public static void pushRepository(final Git git,
                                       final CredentialsProvider credentialsProvider,
                                       final String origin,
@@ -550,6 +634,10 @@ public final class JGitUtil {
         }
     }
 
+    /**
+     * @return the files changed from oldRef to newRef (trees), with renamed files detected as <tt>RENAME</tt>
+     * entries.
+     */
     public static List<DiffEntry> getDiff(final Repository repo,
                                           final ObjectId oldRef,
                                           final ObjectId newRef) {
@@ -557,8 +645,8 @@ public final class JGitUtil {
             return emptyList();
         }
 
+        final ObjectReader reader = repo.newObjectReader();
         try {
-            ObjectReader reader = repo.newObjectReader();
             CanonicalTreeParser oldTreeIter = new CanonicalTreeParser();
             if (oldRef != null) {
                 oldTreeIter.reset(reader,
@@ -570,6 +658,8 @@ public final class JGitUtil {
             return new CustomDiffCommand(repo).setNewTree(newTreeIter).setOldTree(oldTreeIter).setShowNameAndStatusOnly(true).call();
         } catch (final Exception ex) {
             throw new RuntimeException(ex);
+        } finally {
+            reader.close();
         }
     }
 
@@ -671,28 +761,12 @@ public final class JGitUtil {
                     originId = _originId;
                 }
 
-                final DirCache index;
-                if (content instanceof DefaultCommitContent) {
-                    index = createTemporaryIndex(git,
-                                                 originId,
-                                                 (DefaultCommitContent) content);
-                } else if (content instanceof MoveCommitContent) {
-                    index = createTemporaryIndex(git,
-                                                 originId,
-                                                 (MoveCommitContent) content);
-                } else if (content instanceof CopyCommitContent) {
-                    index = createTemporaryIndex(git,
-                                                 originId,
-                                                 (CopyCommitContent) content);
-                } else if (content instanceof RevertCommitContent) {
-                    index = createTemporaryIndex(git,
-                                                 originId);
-                } else {
-                    index = null;
-                }
+                final ObjectId indexTreeId = buildTree(git,
+                                                       odi,
+                                                       originId,
+                                                       content);
 
-                if (index != null) {
-                    final ObjectId indexTreeId = index.writeTree(odi);
+                if (indexTreeId != null) {
 
                     final CommitBuilder commit = new CommitBuilder();
                     commit.setAuthor(author);
@@ -718,48 +792,304 @@ public final class JGitUtil {
                     final ObjectId commitId = odi.insert(commit);
                     odi.flush();
 
-                    final RevWalk revWalk = new RevWalk(git.getRepository());
+                    updateBranch(git,
+                                 branchName,
+                                 headId,
+                                 commitId);
+                } else {
+                    hadEffecitiveCommit = false;
+                }
+            } finally {
+                odi.close();
+            }
+        } catch (final Throwable t) {
+            throw new RuntimeException(t);
+        }
+        return hadEffecitiveCommit;
+    }
+
+    /**
+     * @return the tree of the new commit, or null if the content doesn't produce any change.
+     */
+    private static ObjectId buildTree(final Git git,
+                                      final ObjectInserter odi,
+                                      final ObjectId originId,
+                                      final CommitContent content) throws java.io.IOException {
+        final ObjectId treeId = editTree(git,
+                                         odi,
+                                         originId,
+                                         content);
+        if (NO_CHANGE.equals(treeId)) {
+            return null;
+        }
+        if (treeId != null) {
+            return treeId;
+        }
+
+        final DirCache index;
+        if (content instanceof DefaultCommitContent) {
+            index = createTemporaryIndex(git,
+                                         originId,
+                                         (DefaultCommitContent) content);
+        } else if (content instanceof MoveCommitContent) {
+            index = createTemporaryIndex(git,
+                                         originId,
+                                         (MoveCommitContent) content);
+        } else if (content instanceof CopyCommitContent) {
+            index = createTemporaryIndex(git,
+                                         originId,
+                                         (CopyCommitContent) content);
+        } else if (content instanceof RevertCommitContent) {
+            index = createTemporaryIndex(git,
+                                         originId);
+        } else {
+            index = null;
+        }
+
+        if (index == null) {
+            return null;
+        }
+        return index.writeTree(odi);
+    }
+
+    /**
+     * Builds the commit tree by rewriting only the trees along the changed paths of the origin tree.
+     * @return the new tree, the origin tree for reverts and moves or copies that change nothing,
+     * {@link #NO_CHANGE} if a default content doesn't change anything, or null if the content needs the in-core
+     * index fallback.
+     */
+    private static ObjectId editTree(final Git git,
+                                     final ObjectInserter odi,
+                                     final ObjectId originId,
+                                     final CommitContent content) throws java.io.IOException {
+        if (originId == null && !(content instanceof DefaultCommitContent)) {
+            return null;
+        }
+
+        final ObjectReader reader = git.getRepository().newObjectReader();
+        final RevWalk revWalk = new RevWalk(reader);
+        try {
+            final ObjectId baseTreeId = originId == null ? null : revWalk.parseCommit(originId).getTree().getId();
+            if (content instanceof RevertCommitContent) {
+                return baseTreeId;
+            }
+
+            final JGitTreeEditor editor = new JGitTreeEditor();
+            if (content instanceof DefaultCommitContent) {
+                for (final Map.Entry<String, File> pathAndContent : ((DefaultCommitContent) content).getContent().entrySet()) {
+                    final String gPath = fixPath(pathAndContent.getKey());
+                    if (pathAndContent.getValue() == null) {
+                        editor.delete(gPath);
+                    } else {
+                        editor.put(gPath,
+                                   storePathsIntoHashMap(odi,
+                                                         pathAndContent,
+                                                         gPath).get(gPath).getK2(),
+                                   REGULAR_FILE,
+                                   true);
+                    }
+                }
+                final ObjectId treeId = editor.apply(reader,
+                                                     odi,
+                                                     baseTreeId);
+                if (baseTreeId == null ? treeId.equals(emptyTreeId(odi)) : treeId.equals(baseTreeId)) {
+                    return NO_CHANGE;
+                }
+                return treeId;
+            } else if (content instanceof MoveCommitContent || content instanceof CopyCommitContent) {
+                final boolean move = content instanceof MoveCommitContent;
+                final Map<String, String> fromTo = move ? ((MoveCommitContent) content).getContent() : ((CopyCommitContent) content).getContent();
+                for (final Map.Entry<String, String> entry : fromTo.entrySet()) {
+                    final TreeWalk source = TreeWalk.forPath(reader,
+                                                             entry.getKey(),
+                                                             baseTreeId);
+                    if (source == null) {
+                        return null;
+                    }
                     try {
-                        final RevCommit revCommit = revWalk.parseCommit(commitId);
-                        final RefUpdate ru = git.getRepository().updateRef("refs/heads/" + branchName);
-                        if (headId == null) {
-                            ru.setExpectedOldObjectId(ObjectId.zeroId());
-                        } else {
-                            ru.setExpectedOldObjectId(headId);
+                        if ((source.getRawMode(0) & FileMode.TYPE_MASK) == FileMode.TYPE_TREE) {
+                            return null;
                         }
-                        ru.setNewObjectId(commitId);
-                        ru.setRefLogMessage("commit: " + revCommit.getShortMessage(),
-                                            false);
-                        final RefUpdate.Result rc = ru.forceUpdate();
-                        switch (rc) {
-                            case NEW:
-                            case FORCED:
-                            case FAST_FORWARD:
-                                break;
-                            case REJECTED:
-                            case LOCK_FAILURE:
-                                throw new ConcurrentRefUpdateException(JGitText.get().couldNotLockHEAD,
-                                                                       ru.getRef(),
-                                                                       rc);
-                            default:
-                                throw new JGitInternalException(MessageFormat.format(JGitText.get().updatingRefFailed,
-                                                                                     Constants.HEAD,
-                                                                                     commitId.toString(),
-                                                                                     rc));
+                        if (move) {
+                            editor.delete(entry.getKey());
                         }
+                        editor.put(entry.getValue(),
+                                   source.getObjectId(0),
+                                   source.getFileMode(0),
+                                   false);
+                    } finally {
+                        source.close();
+                    }
+                }
+                return editor.apply(reader,
+                                    odi,
+                                    baseTreeId);
+            }
+            return null;
+        } catch (final JGitTreeEditor.UnsupportedEditException ex) {
+            LOG.debug("Falling back to in-core index commit.",
+                      ex);
+            return null;
+        } finally {
+            revWalk.close();
+            reader.close();
+        }
+    }
+
+    private static ObjectId emptyTreeId(final ObjectInserter odi) {
+        return odi.idFor(new TreeFormatter());
+    }
+
+    private static void updateBranch(final Git git,
+                                     final String branchName,
+                                     final ObjectId headId,
+                                     final ObjectId commitId) throws java.io.IOException, ConcurrentRefUpdateException {
+        final RevWalk revWalk = new RevWalk(git.getRepository());
+        try {
+            final RevCommit revCommit = revWalk.parseCommit(commitId);
+            final RefUpdate ru = git.getRepository().updateRef("refs/heads/" + branchName);
+            if (headId == null) {
+                ru.setExpectedOldObjectId(ObjectId.zeroId());
+            } else {
+                ru.setExpectedOldObjectId(headId);
+            }
+            ru.setNewObjectId(commitId);
+            ru.setRefLogMessage("commit: " + revCommit.getShortMessage(),
+                                false);
+            final RefUpdate.Result rc = ru.forceUpdate();
+            switch (rc) {
+                case NEW:
+                case FORCED:
+                case FAST_FORWARD:
+                    break;
+                case REJECTED:
+                case LOCK_FAILURE:
+                    throw new ConcurrentRefUpdateException(JGitText.get().couldNotLockHEAD,
+                                                           ru.getRef(),
+                                                           rc);
+                default:
+                    throw new JGitInternalException(MessageFormat.format(JGitText.get().updatingRefFailed,
+                                                                         Constants.HEAD,
+                                                                         commitId.toString(),
+                                                                         rc));
+            }
+        } finally {
+            revWalk.close();
+        }
+    }
+
+    /**
+     * Writes a chain of commits on top of the branch head, applying every content to a single in-memory index
+     * built once from the head tree, and moves the branch ref only once at the end.
+     * @return for each content, the tree id of its commit, or null if it didn't produce any change.
+     */
+    public static List<ObjectId> commit(final Git git,
+                                        final String branchName,
+                                        final List<Pair<CommitInfo, DefaultCommitContent>> contents) {
+        final List<ObjectId> result = new ArrayList<ObjectId>(contents.size());
+        try {
+            final ObjectInserter odi = git.getRepository().newObjectInserter();
+            final ObjectReader reader = git.getRepository().newObjectReader();
+            try {
+                final ObjectId headId = git.getRepository().resolve(branchName + "^{commit}");
+
+                final DirCache index = DirCache.newInCore();
+                final DirCacheBuilder builder = index.builder();
+                if (headId != null) {
+                    final RevWalk revWalk = new RevWalk(reader);
+                    try {
+                        builder.addTree(new byte[0],
+                                        DirCacheEntry.STAGE_0,
+                                        reader,
+                                        revWalk.parseTree(headId));
                     } finally {
                         revWalk.close();
                     }
-                } else {
-                    hadEffecitiveCommit = false;
+                }
+                builder.finish();
+
+                ObjectId parentId = headId;
+                for (final Pair<CommitInfo, DefaultCommitContent> content : contents) {
+                    if (!applyContent(index,
+                                      odi,
+                                      content.getK2())) {
+                        result.add(null);
+                        continue;
+                    }
+
+                    final ObjectId treeId = index.writeTree(odi);
+                    final PersonIdent author = buildPersonIdent(git,
+                                                                content.getK1().getName(),
+                                                                content.getK1().getEmail(),
+                                                                content.getK1().getTimeZone(),
+                                                                content.getK1().getWhen());
+                    final CommitBuilder commit = new CommitBuilder();
+                    commit.setAuthor(author);
+                    commit.setCommitter(author);
+                    commit.setEncoding(Constants.CHARACTER_ENCODING);
+                    commit.setMessage(content.getK1().getMessage());
+                    if (parentId != null) {
+                        commit.setParentId(parentId);
+                    }
+                    commit.setTreeId(treeId);
+
+                    parentId = odi.insert(commit);
+                    result.add(treeId);
+                }
+                odi.flush();
+
+                if (parentId != null && !parentId.equals(headId)) {
+                    updateBranch(git,
+                                 branchName,
+                                 headId,
+                                 parentId);
                 }
             } finally {
+                reader.close();
                 odi.close();
             }
         } catch (final Throwable t) {
             throw new RuntimeException(t);
         }
-        return hadEffecitiveCommit;
+        return result;
+    }
+
+    private static boolean applyContent(final DirCache index,
+                                        final ObjectInserter inserter,
+                                        final DefaultCommitContent commitContent) {
+        final DirCacheEditor editor = index.editor();
+        boolean changed = false;
+        for (final Map.Entry<String, File> pathAndContent : commitContent.getContent().entrySet()) {
+            final String gPath = fixPath(pathAndContent.getKey());
+            if (pathAndContent.getValue() == null) {
+                if (index.findEntry(gPath) >= 0) {
+                    editor.add(new DirCacheEditor.DeletePath(gPath));
+                    changed = true;
+                } else if (index.getEntriesWithin(gPath).length > 0) {
+                    editor.add(new DirCacheEditor.DeleteTree(gPath));
+                    changed = true;
+                }
+            } else {
+                final Pair<File, ObjectId> blob = storePathsIntoHashMap(inserter,
+                                                                        pathAndContent,
+                                                                        gPath).get(gPath);
+                final DirCacheEntry current = index.getEntry(gPath);
+                if (current == null || !current.getObjectId().equals(blob.getK2())) {
+                    editor.add(new DirCacheEditor.PathEdit(gPath) {
+                        @Override
+                        public void apply(final DirCacheEntry ent) {
+                            ent.setLength(blob.getK1().length());
+                            ent.setLastModified(blob.getK1().lastModified());
+                            ent.setFileMode(REGULAR_FILE);
+                            ent.setObjectId(blob.getK2());
+                        }
+                    });
+                    changed = true;
+                }
+            }
+        }
+        editor.finish();
+        return changed;
     }
 
     private static PersonIdent buildPersonIdent(final Git git,
@@ -1171,7 +1501,7 @@ public final class JGitUtil {
     public static VersionAttributes buildVersionAttributes(final JGitFileSystem fs,
                                                            final String branchName,
                                                            final String path) {
-        final JGitPathInfo pathInfo = resolvePath(fs.gitRepo(),
+        final JGitPathInfo pathInfo = resolvePath(fs,
                                                   branchName,
                                                   path);
 
@@ -1187,54 +1517,45 @@ public final class JGitUtil {
         final List<VersionRecord> records = new ArrayList<VersionRecord>();
 
         if (id != null) {
-            try {
-                final LogCommand logCommand = fs.gitRepo().log().add(id);
-                if (!gPath.isEmpty()) {
-                    logCommand.addPath(gPath);
-                }
-
-                for (final RevCommit commit : logCommand.call()) {
-
-                    records.add(new VersionRecord() {
-                        @Override
-                        public String id() {
-                            return commit.name();
-                        }
+            for (final CommitRecord commit : resolveHistory(fs,
+                                                            branchName,
+                                                            id,
+                                                            gPath)) {
+                records.add(new VersionRecord() {
+                    @Override
+                    public String id() {
+                        return commit.getId();
+                    }
 
-                        @Override
-                        public String author() {
-                            return commit.getAuthorIdent().getName();
-                        }
+                    @Override
+                    public String author() {
+                        return commit.getAuthor();
+                    }
 
-                        @Override
-                        public String email() {
-                            return commit.getAuthorIdent().getEmailAddress();
-                        }
+                    @Override
+                    public String email() {
+                        return commit.getEmail();
+                    }
 
-                        @Override
-                        public String comment() {
-                            return commit.getFullMessage();
-                        }
+                    @Override
+                    public String comment() {
+                        return commit.getComment();
+                    }
 
-                        @Override
-                        public Date date() {
-                            return commit.getAuthorIdent().getWhen();
-                        }
+                    @Override
+                    public Date date() {
+                        return commit.getDate();
+                    }
 
-                        @Override
-                        public String uri() {
-                            return fs.getPath(commit.name(),
-                                              path).toUri().toString();
-                        }
-                    });
-                }
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+                    @Override
+                    public String uri() {
+                        return fs.getPath(commit.getId(),
+                                          path).toUri().toString();
+                    }
+                });
             }
         }
 
-        Collections.reverse(records);
-
         return new VersionAttributes() {
             @Override
             public VersionHistory history() {
@@ -1294,15 +1615,131 @@ public final class JGitUtil {
 
             @Override
             public Object fileKey() {
-                return pathInfo.getObjectId() == null ? null : pathInfo.getObjectId().toString();
+                return pathInfo.getObjectId() == null ? null : pathInfo.getObjectId().name();
             }
         };
     }
 
+    private static List<CommitRecord> resolveHistory(final JGitFileSystem fs,
+                                                     final String branchName,
+                                                     final ObjectId head,
+                                                     final String gPath) {
+        final JGitAttributeCache cache = fs.getAttributeCache();
+        final JGitAttributeCache.History cached = cache.getHistory(branchName,
+                                                                   gPath);
+        if (cached != null && cached.getHead().equals(head)) {
+            cache.historyHit();
+            return cached.getRecords();
+        }
+
+        final List<CommitRecord> records = new ArrayList<CommitRecord>();
+        if (cached != null && isAncestor(fs.gitRepo(),
+                                         cached.getHead(),
+                                         head)) {
+            cache.historyIncrementalUpdate();
+            records.addAll(cached.getRecords());
+            records.addAll(listCommitRecords(fs.gitRepo(),
+                                             head,
+                                             cached.getHead(),
+                                             gPath));
+        } else {
+            cache.historyMiss();
+            records.addAll(listCommitRecords(fs.gitRepo(),
+                                             head,
+                                             null,
+                                             gPath));
+        }
+
+        cache.putHistory(branchName,
+                         gPath,
+                         new JGitAttributeCache.History(head,
+                                                        records));
+        return records;
+    }
+
+    /**
+     * Lists commits reachable from <code>head</code> but not from <code>since</code> that touch <code>gPath</code>, oldest first.
+     */
+    private static List<CommitRecord> listCommitRecords(final Git git,
+                                                        final ObjectId head,
+                                                        final ObjectId since,
+                                                        final String gPath) {
+        final List<CommitRecord> records = new ArrayList<CommitRecord>();
+        try {
+            final LogCommand logCommand = git.log().add(head);
+            if (since != null) {
+                logCommand.not(since);
+            }
+            if (!gPath.isEmpty()) {
+                logCommand.addPath(gPath);
+            }
+
+            for (final RevCommit commit : logCommand.call()) {
+                records.add(new CommitRecord(commit));
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+
+        Collections.reverse(records);
+        return records;
+    }
+
+    private static boolean isAncestor(final Git git,
+                                      final ObjectId ancestor,
+                                      final ObjectId head) {
+        final RevWalk revWalk = new RevWalk(git.getRepository());
+        try {
+            return revWalk.isMergedInto(revWalk.parseCommit(ancestor),
+                                        revWalk.parseCommit(head));
+        } catch (final Exception ex) {
+            return false;
+        } finally {
+            revWalk.dispose();
+        }
+    }
+
+    private static long resolveLastCommitTime(final JGitFileSystem fs,
+                                              final String branchName,
+                                              final ObjectId head,
+                                              final String gPath) {
+        if (head == null) {
+            return 0;
+        }
+        final JGitAttributeCache cache = fs.getAttributeCache();
+        final Long cached = cache.getLastCommitTime(branchName,
+                                                    head,
+                                                    gPath);
+        if (cached != null) {
+            return cached;
+        }
+
+        RevWalk revWalk = null;
+        try {
+            final LogCommand logCommand = fs.gitRepo().log().add(head).setMaxCount(1);
+            if (!gPath.isEmpty()) {
+                logCommand.addPath(gPath);
+            }
+            revWalk = (RevWalk) logCommand.call();
+            final long result = revWalk.iterator().next().getCommitterIdent().getWhen().getTime();
+            cache.putLastCommitTime(branchName,
+                                    head,
+                                    gPath,
+                                    result);
+            return result;
+        } catch (Exception ex) {
+            return 0;
+        } finally {
+            if (revWalk != null) {
+                revWalk.dispose();
+            }
+        }
+    }
+
     public static BasicFileAttributes buildBasicAttributes(final JGitFileSystem fs,
                                                            final String branchName,
                                                            final String path) {
-        final JGitPathInfo pathInfo = resolvePath(fs.gitRepo(),
+        final JGitPathInfo pathInfo = resolvePath(fs,
                                                   branchName,
                                                   path);
 
@@ -1322,21 +1759,10 @@ public final class JGitUtil {
             @Override
             public FileTime lastModifiedTime() {
                 if (lastModifiedDate == -1L) {
-                    RevWalk revWalk = null;
-                    try {
-                        final LogCommand logCommand = fs.gitRepo().log().add(id).setMaxCount(1);
-                        if (!gPath.isEmpty()) {
-                            logCommand.addPath(gPath);
-                        }
-                        revWalk = (RevWalk) logCommand.call();
-                        lastModifiedDate = revWalk.iterator().next().getCommitterIdent().getWhen().getTime();
-                    } catch (Exception ex) {
-                        lastModifiedDate = 0;
-                    } finally {
-                        if (revWalk != null) {
-                            revWalk.dispose();
-                        }
-                    }
+                    lastModifiedDate = resolveLastCommitTime(fs,
+                                                             branchName,
+                                                             id,
+                                                             gPath);
                 }
                 return new FileTimeImpl(lastModifiedDate);
             }
@@ -1349,21 +1775,10 @@ public final class JGitUtil {
             @Override
             public FileTime creationTime() {
                 if (creationDate == -1L) {
-                    RevWalk revWalk = null;
-                    try {
-                        final LogCommand logCommand = fs.gitRepo().log().add(id).setMaxCount(1);
-                        if (!gPath.isEmpty()) {
-                            logCommand.addPath(gPath);
-                        }
-                        revWalk = (RevWalk) logCommand.call();
-                        creationDate = revWalk.iterator().next().getCommitterIdent().getWhen().getTime();
-                    } catch (Exception ex) {
-                        creationDate = 0;
-                    } finally {
-                        if (revWalk != null) {
-                            revWalk.dispose();
-                        }
-                    }
+                    creationDate = resolveLastCommitTime(fs,
+                                                         branchName,
+                                                         id,
+                                                         gPath);
                 }
                 return new FileTimeImpl(creationDate);
             }
@@ -1395,7 +1810,7 @@ public final class JGitUtil {
 
             @Override
             public Object fileKey() {
-                return pathInfo.getObjectId() == null ? null : pathInfo.getObjectId().toString();
+                return pathInfo.getObjectId() == null ? null : pathInfo.getObjectId().name();
             }
         };
     }
@@ -1489,6 +1904,54 @@ public final class JGitUtil {
                                         HiddenBranchRefFilter.isHidden(branchName));
     }
 
+    public static Pair<PathType, ObjectId> checkPath(final JGitFileSystem fs,
+                                                     final String branchName,
+                                                     final String path) {
+        checkNotNull("fs",
+                     fs);
+        checkNotNull("path",
+                     path);
+        checkNotEmpty("branchName",
+                      branchName);
+
+        final String gitPath = fixPath(path);
+
+        if (gitPath.isEmpty()) {
+            return newPair(PathType.DIRECTORY,
+                           null);
+        }
+
+        final JGitTreeIndex.Snapshot snapshot = treeSnapshot(fs,
+                                                             branchName);
+        if (snapshot == null) {
+            return checkPath(fs.gitRepo(),
+                             branchName,
+                             path);
+        }
+
+        try {
+            final JGitTreeIndex.Entry entry = snapshot.find(gitPath);
+            if (entry != null) {
+                if (entry.getFileMode().equals(FileMode.TYPE_TREE)) {
+                    return newPair(PathType.DIRECTORY,
+                                   entry.getObjectId());
+                } else if (entry.getFileMode().equals(FileMode.TYPE_FILE) ||
+                        entry.getFileMode().equals(FileMode.EXECUTABLE_FILE) ||
+                        entry.getFileMode().equals(FileMode.REGULAR_FILE)) {
+                    return newPair(PathType.FILE,
+                                   entry.getObjectId());
+                }
+            }
+        } catch (final java.io.IOException ex) {
+            return checkPath(fs.gitRepo(),
+                             branchName,
+                             path);
+        }
+
+        return newPair(PathType.NOT_FOUND,
+                       null);
+    }
+
     public static Pair<PathType, ObjectId> checkPath(final Git git,
                                                      final String branchName,
                                                      final String path) {
@@ -1546,6 +2009,55 @@ public final class JGitUtil {
                              });
     }
 
+    public static JGitPathInfo resolvePath(final JGitFileSystem fs,
+                                           final String branchName,
+                                           final String path) {
+        checkNotNull("fs",
+                     fs);
+        checkNotNull("path",
+                     path);
+        checkNotEmpty("branchName",
+                      branchName);
+
+        final String gitPath = fixPath(path);
+
+        if (gitPath.isEmpty()) {
+            return new JGitPathInfo(null,
+                                    "/",
+                                    TREE);
+        }
+
+        final JGitTreeIndex.Snapshot snapshot = treeSnapshot(fs,
+                                                             branchName);
+        if (snapshot == null) {
+            return resolvePath(fs.gitRepo(),
+                               branchName,
+                               path);
+        }
+
+        try {
+            final JGitTreeIndex.Entry entry = snapshot.find(gitPath);
+            if (entry != null) {
+                if (entry.getFileMode().equals(TREE)) {
+                    return new JGitPathInfo(entry.getObjectId(),
+                                            gitPath,
+                                            TREE);
+                } else if (entry.getFileMode().equals(REGULAR_FILE) || entry.getFileMode().equals(EXECUTABLE_FILE)) {
+                    return new JGitPathInfo(entry.getObjectId(),
+                                            gitPath,
+                                            REGULAR_FILE,
+                                            snapshot.size(entry));
+                }
+            }
+        } catch (final java.io.IOException ex) {
+            return resolvePath(fs.gitRepo(),
+                               branchName,
+                               path);
+        }
+
+        return null;
+    }
+
     public static JGitPathInfo resolvePath(final Git git,
                                            final String branchName,
                                            final String path) {
@@ -1603,6 +2115,62 @@ public final class JGitUtil {
                              });
     }
 
+    public static List<JGitPathInfo> listPathContent(final JGitFileSystem fs,
+                                                     final String branchName,
+                                                     final String path) {
+        checkNotNull("fs",
+                     fs);
+        checkNotNull("path",
+                     path);
+        checkNotEmpty("branchName",
+                      branchName);
+
+        final String gitPath = fixPath(path);
+
+        final JGitTreeIndex.Snapshot snapshot = treeSnapshot(fs,
+                                                             branchName);
+        if (snapshot == null) {
+            return listPathContent(fs.gitRepo(),
+                                   branchName,
+                                   path);
+        }
+
+        final List<JGitPathInfo> result = new ArrayList<JGitPathInfo>();
+        try {
+            final Collection<JGitTreeIndex.Entry> entries = snapshot.list(gitPath);
+            if (entries != null) {
+                final String prefix = gitPath.isEmpty() ? "" : gitPath + "/";
+                for (final JGitTreeIndex.Entry entry : entries) {
+                    result.add(new JGitPathInfo(entry.getObjectId(),
+                                                prefix + entry.getName(),
+                                                entry.getFileMode()));
+                }
+            }
+        } catch (final java.io.IOException ex) {
+            return listPathContent(fs.gitRepo(),
+                                   branchName,
+                                   path);
+        }
+
+        return result;
+    }
+
+    private static JGitTreeIndex.Snapshot treeSnapshot(final JGitFileSystem fs,
+                                                       final String branchName) {
+        final JGitTreeIndex index = fs.getTreeIndex();
+        if (index == null) {
+            return null;
+        }
+        try {
+            return index.snapshot(fs.gitRepo().getRepository(),
+                                  branchName);
+        } catch (final Exception ex) {
+            LOG.debug("Can't resolve tree index for '" + branchName + "', falling back to tree walk.",
+                      ex);
+            return null;
+        }
+    }
+
     public static List<JGitPathInfo> listPathContent(final Git git,
                                                      final String branchName,
                                                      final String path) {
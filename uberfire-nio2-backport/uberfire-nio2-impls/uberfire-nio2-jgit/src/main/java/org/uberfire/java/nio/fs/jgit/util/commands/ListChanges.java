@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.java.nio.fs.jgit.util.commands;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.uberfire.java.nio.base.FileDiff;
+import org.uberfire.java.nio.fs.jgit.util.JGitUtil;
+import org.uberfire.java.nio.fs.jgit.util.exceptions.GitException;
+
+import static org.uberfire.commons.validation.PortablePreconditions.checkNotEmpty;
+import static org.uberfire.commons.validation.PortablePreconditions.checkNotNull;
+
+/**
+ * Lists the files changed between two commits (or branches) of a repository, with rename detection.
+ * Unlike {@link DiffBranches} it returns one {@link FileDiff} per changed file, with no lines.
+ * <p>
+ * Renames come from {@link JGitUtil#getDiff(Repository, ObjectId, ObjectId)}, whose diff formatter runs JGit's
+ * rename detection: a moved file is a single <tt>RENAME</tt> entry, even if its content was also edited. Only the
+ * content of added and deleted files is read, to pair them up.
+ */
+public class ListChanges extends GitCommand {
+
+    private final Repository repository;
+    private final String from;
+    private final String to;
+
+    public ListChanges(final Repository repository,
+                       final String from,
+                       final String to) {
+        this.repository = checkNotNull("repository",
+                                       repository);
+        this.from = checkNotEmpty("from",
+                                  from);
+        this.to = checkNotEmpty("to",
+                                to);
+    }
+
+    @Override
+    public Optional<List<FileDiff>> execute() {
+        final ObjectId fromTree = JGitUtil.getTreeRefObjectId(repository,
+                                                              from);
+        final ObjectId toTree = JGitUtil.getTreeRefObjectId(repository,
+                                                            to);
+        if (fromTree == null || toTree == null) {
+            throw new GitException(String.format("Can't resolve `%s` or `%s`.",
+                                                 from,
+                                                 to));
+        }
+
+        final List<FileDiff> changes = new ArrayList<>();
+        for (final DiffEntry entry : JGitUtil.getDiff(repository,
+                                                      fromTree,
+                                                      toTree)) {
+            changes.add(new FileDiff(entry.getOldPath(),
+                                     entry.getNewPath(),
+                                     0,
+                                     0,
+                                     0,
+                                     0,
+                                     entry.getChangeType().toString(),
+                                     Collections.emptyList(),
+                                     Collections.emptyList()));
+        }
+
+        return Optional.of(changes);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.java.nio.fs.jgit;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.fest.assertions.api.Assertions.*;
+
+public class JGitCommitQueueTest {
+
+    @Test(timeout = 10000)
+    public void testInterruptedCommitterWaitsForItsGroup() throws Exception {
+        final JGitCommitQueue queue = new JGitCommitQueue();
+        final CountDownLatch processing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger processed = new AtomicInteger();
+        final JGitCommitQueue.Processor processor = new JGitCommitQueue.Processor() {
+            @Override
+            public void process(final List<JGitCommitQueue.Request> requests) {
+                // only the first group blocks; the interrupted committer may lead the next one
+                if (processed.getAndAdd(requests.size()) == 0) {
+                    processing.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        };
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<?> leader = executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    queue.submit(new JGitCommitQueue.Request(null,
+                                                             null,
+                                                             null),
+                                 0,
+                                 1,
+                                 processor);
+                }
+            });
+            assertThat(processing.await(5,
+                                        TimeUnit.SECONDS)).isTrue();
+
+            final CountDownLatch submitted = new CountDownLatch(1);
+            final Future<Boolean> follower = executor.submit(() -> {
+                Thread.currentThread().interrupt();
+                submitted.countDown();
+                queue.submit(new JGitCommitQueue.Request(null,
+                                                         null,
+                                                         null),
+                             0,
+                             1,
+                             processor);
+                return Thread.interrupted();
+            });
+            assertThat(submitted.await(5,
+                                       TimeUnit.SECONDS)).isTrue();
+
+            release.countDown();
+            leader.get(5,
+                       TimeUnit.SECONDS);
+            assertThat(follower.get(5,
+                                    TimeUnit.SECONDS)).isTrue();
+            assertThat(processed.get()).isEqualTo(2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.java.nio.fs.jgit;
+
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.Test;
+import org.uberfire.java.nio.base.WatchContext;
+import org.uberfire.java.nio.file.Path;
+import org.uberfire.java.nio.file.StandardWatchEventKind;
+import org.uberfire.java.nio.file.WatchEvent;
+import org.uberfire.java.nio.file.WatchKey;
+import org.uberfire.java.nio.file.WatchService;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class JGitDiffNotifierTest extends AbstractTestInfra {
+
+    private final ObjectId id1 = ObjectId.fromString("1111111111111111111111111111111111111111");
+    private final ObjectId id2 = ObjectId.fromString("2222222222222222222222222222222222222222");
+    private final ObjectId id3 = ObjectId.fromString("3333333333333333333333333333333333333333");
+    private final ObjectId id4 = ObjectId.fromString("4444444444444444444444444444444444444444");
+
+    @Override
+    public Map<String, String> getGitPreferences() {
+        final Map<String, String> gitPrefs = super.getGitPreferences();
+        gitPrefs.put("org.uberfire.nio.git.notify.async",
+                     "true");
+        return gitPrefs;
+    }
+
+    @Test
+    public void testCoalesceConsecutiveMoves() {
+        final List<JGitDiffNotifier.HeadMove> published = new ArrayList<JGitDiffNotifier.HeadMove>();
+        final JGitDiffNotifier notifier = new JGitDiffNotifier(published::add);
+
+        notifier.enqueue("master",
+                         "session",
+                         "user",
+                         "first",
+                         id1,
+                         id2);
+        notifier.enqueue("master",
+                         "session",
+                         "user",
+                         "second",
+                         id2,
+                         id3);
+        notifier.enqueue("master",
+                         "session",
+                         "other",
+                         "third",
+                         id3,
+                         id4);
+        notifier.flush();
+
+        assertThat(published).hasSize(2);
+        assertThat(published.get(0).getOldHead()).isEqualTo(id1);
+        assertThat(published.get(0).getNewHead()).isEqualTo(id3);
+        assertThat(published.get(0).getMessage()).isEqualTo("second");
+        assertThat(published.get(1).getUserName()).isEqualTo("other");
+        assertThat(published.get(1).getOldHead()).isEqualTo(id3);
+        assertThat(notifier.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testNoCoalesceAcrossBranches() {
+        final List<JGitDiffNotifier.HeadMove> published = new ArrayList<JGitDiffNotifier.HeadMove>();
+        final JGitDiffNotifier notifier = new JGitDiffNotifier(published::add);
+
+        notifier.enqueue("master",
+                         "session",
+                         "user",
+                         "first",
+                         id1,
+                         id2);
+        notifier.enqueue("dev",
+                         "session",
+                         "user",
+                         "second",
+                         id2,
+                         id3);
+        notifier.flush();
+
+        assertThat(published).hasSize(2);
+        assertThat(published.get(0).getBranchName()).isEqualTo("master");
+        assertThat(published.get(1).getBranchName()).isEqualTo("dev");
+    }
+
+    @Test
+    public void testFailureDoesNotBlockQueue() {
+        final List<JGitDiffNotifier.HeadMove> published = new ArrayList<JGitDiffNotifier.HeadMove>();
+        final JGitDiffNotifier notifier = new JGitDiffNotifier(move -> {
+            if (move.getBranchName().equals("broken")) {
+                throw new RuntimeException("fail");
+            }
+            published.add(move);
+        });
+
+        notifier.enqueue("broken",
+                         "session",
+                         "user",
+                         "first",
+                         id1,
+                         id2);
+        notifier.enqueue("master",
+                         "session",
+                         "user",
+                         "second",
+                         id1,
+                         id2);
+        notifier.flush();
+
+        assertThat(published).hasSize(1);
+        assertThat(published.get(0).getBranchName()).isEqualTo("master");
+    }
+
+    @Test(timeout = 30000)
+    public void testAsyncNotification() throws Exception {
+        final URI newRepo = URI.create("git://async-notify-repo");
+        final JGitFileSystem fs = (JGitFileSystem) provider.newFileSystem(newRepo,
+                                                                          EMPTY_ENV);
+        final WatchService ws = fs.newWatchService();
+
+        final Path path = provider.getPath(URI.create("git://async-notify-repo/dir/file.txt"));
+        final OutputStream out = provider.newOutputStream(path);
+        out.write("content".getBytes());
+        out.close();
+
+        final WatchKey key = ws.take();
+        final List<WatchEvent<?>> events = key.pollEvents();
+        assertThat(events).hasSize(1);
+        assertThat((Object) events.get(0).kind()).isEqualTo(StandardWatchEventKind.ENTRY_CREATE);
+        final WatchContext context = (WatchContext) events.get(0).context();
+        assertThat(context.getPath().toString()).isEqualTo("/dir/file.txt");
+    }
+}
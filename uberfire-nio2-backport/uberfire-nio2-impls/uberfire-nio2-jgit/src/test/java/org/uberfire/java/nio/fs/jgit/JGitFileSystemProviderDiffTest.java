@@ -18,6 +18,7 @@ package org.uberfire.java.nio.fs.jgit;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
 import java.util.HashMap;
 import java.util.List;
@@ -198,4 +199,52 @@ public class JGitFileSystemProviderDiffTest extends AbstractTestInfra {
 
         assertThat(diffs.size()).isEqualTo(0);
     }
+
+    @Test
+    public void testChangesSinceCommit() throws IOException {
+        final URI newRepo = URI.create("git://changes-repo");
+        provider.newFileSystem(newRepo,
+                               EMPTY_ENV);
+
+        final Path file1 = provider.getPath(URI.create("git://changes-repo/file1.txt"));
+        final Path file2 = provider.getPath(URI.create("git://changes-repo/dir/file2.txt"));
+        write(file1,
+              "content1");
+        write(file2,
+              "content2");
+
+        final Path root = provider.getPath(newRepo);
+        final Map<String, Object> initial = provider.readAttributes(root,
+                                                                    "changes:");
+        final String start = (String) initial.get("head");
+        assertThat(start).isNotNull();
+        assertThat(initial.get("changes")).isNull();
+
+        write(file1,
+              "content1 updated");
+        provider.move(file2,
+                      provider.getPath(URI.create("git://changes-repo/dir/file3.txt")));
+        write(provider.getPath(URI.create("git://changes-repo/file4.txt")),
+              "content4");
+
+        final Map<String, Object> attrs = provider.readAttributes(root,
+                                                                  "changes:" + start);
+        assertThat(attrs.get("head")).isNotEqualTo(start);
+        final Map<String, String> changes = new HashMap<String, String>();
+        for (final FileDiff diff : (List<FileDiff>) attrs.get("changes")) {
+            changes.put(diff.getNameB(),
+                        diff.getChangeType() + ":" + diff.getNameA());
+        }
+        assertThat(changes).hasSize(3);
+        assertThat(changes.get("file1.txt")).isEqualTo("MODIFY:file1.txt");
+        assertThat(changes.get("dir/file3.txt")).isEqualTo("RENAME:dir/file2.txt");
+        assertThat(changes.get("file4.txt")).isEqualTo("ADD:/dev/null");
+    }
+
+    private void write(final Path path,
+                       final String content) throws IOException {
+        final OutputStream out = provider.newOutputStream(path);
+        out.write(content.getBytes());
+        out.close();
+    }
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.java.nio.fs.jgit;
+
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.jgit.api.errors.JGitInternalException;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.util.FS_POSIX;
+import org.eclipse.jgit.util.ProcessResult;
+import org.junit.Test;
+import org.uberfire.java.nio.file.NoSuchFileException;
+import org.uberfire.java.nio.file.Path;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.fest.assertions.api.Assertions.failBecauseExceptionWasNotThrown;
+
+public class JGitFileSystemProviderGroupCommitTest extends AbstractTestInfra {
+
+    @Override
+    public Map<String, String> getGitPreferences() {
+        final Map<String, String> gitPrefs = super.getGitPreferences();
+        gitPrefs.put("org.uberfire.nio.git.commit.group.enabled",
+                     "true");
+        gitPrefs.put("org.uberfire.nio.git.commit.group.window",
+                     "50");
+        gitPrefs.put("org.uberfire.nio.git.commit.group.size",
+                     "5");
+        return gitPrefs;
+    }
+
+    @Test
+    public void testConcurrentWrites() throws Exception {
+        final URI newRepo = URI.create("git://group-repo");
+        final JGitFileSystem fs = (JGitFileSystem) provider.newFileSystem(newRepo,
+                                                                          EMPTY_ENV);
+
+        final int writers = 12;
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < writers; i++) {
+            final int id = i;
+            final Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        write(provider.getPath(URI.create("git://group-repo/path/to/file" + id + ".txt")),
+                              "content " + id);
+                    } catch (Exception e) {
+                        failed.set(true);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(failed.get()).isFalse();
+        for (int i = 0; i < writers; i++) {
+            final Path path = provider.getPath(URI.create("git://group-repo/path/to/file" + i + ".txt"));
+            assertThat(IOUtils.toString(provider.newInputStream(path))).isEqualTo("content " + i);
+        }
+        assertThat(countCommits(fs)).isEqualTo(writers);
+    }
+
+    @Test
+    public void testSequentialWritesAndDelete() throws Exception {
+        final URI newRepo = URI.create("git://group-seq-repo");
+        final JGitFileSystem fs = (JGitFileSystem) provider.newFileSystem(newRepo,
+                                                                          EMPTY_ENV);
+
+        final Path path = provider.getPath(URI.create("git://group-seq-repo/dir/file.txt"));
+        write(path,
+              "first");
+        write(path,
+              "first");
+        write(path,
+              "second");
+        assertThat(IOUtils.toString(provider.newInputStream(path))).isEqualTo("second");
+        assertThat(countCommits(fs)).isEqualTo(2);
+
+        provider.delete(path);
+        try {
+            provider.newInputStream(path);
+            failBecauseExceptionWasNotThrown(NoSuchFileException.class);
+        } catch (NoSuchFileException ignored) {
+        }
+        assertThat(countCommits(fs)).isEqualTo(3);
+    }
+
+    @Test
+    public void testGroupSharesRefUpdateAndHookRun() throws Exception {
+        final URI newRepo = URI.create("git://group-once-repo");
+        final JGitFileSystem fs = (JGitFileSystem) provider.newFileSystem(newRepo,
+                                                                          EMPTY_ENV);
+        final StoredConfig config = fs.gitRepo().getRepository().getConfig();
+        config.setBoolean("core",
+                          null,
+                          "logallrefupdates",
+                          true);
+        config.save();
+
+        final AtomicInteger hookRuns = new AtomicInteger();
+        provider.setDetectedFS(new FS_POSIX() {
+            @Override
+            public ProcessResult runHookIfPresent(final Repository repository,
+                                                  final String hookName,
+                                                  final String[] args) throws JGitInternalException {
+                if (hookName.equals("post-commit")) {
+                    hookRuns.incrementAndGet();
+                }
+                return null;
+            }
+        });
+
+        // writers pile up on the file system lock, so they all reach the queue within the group window
+        final int writers = 5;
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final List<Thread> threads = new ArrayList<Thread>();
+        fs.lock();
+        try {
+            for (int i = 0; i < writers; i++) {
+                final int id = i;
+                final Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            write(provider.getPath(URI.create("git://group-once-repo/file" + id + ".txt")),
+                                  "content " + id);
+                        } catch (Exception e) {
+                            failed.set(true);
+                        }
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (final Thread thread : threads) {
+                while (thread.getState() != Thread.State.WAITING) {
+                    Thread.sleep(10);
+                }
+            }
+        } finally {
+            fs.unlock();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(failed.get()).isFalse();
+        assertThat(countCommits(fs)).isEqualTo(writers);
+        assertThat(hookRuns.get()).isEqualTo(1);
+        assertThat(fs.gitRepo().getRepository().getReflogReader("refs/heads/master").getReverseEntries()).hasSize(1);
+    }
+
+    private void write(final Path path,
+                       final String content) throws Exception {
+        final OutputStream out = provider.newOutputStream(path);
+        out.write(content.getBytes());
+        out.close();
+    }
+
+    private int countCommits(final JGitFileSystem fs) throws Exception {
+        int result = 0;
+        for (final RevCommit ignored : fs.gitRepo().log().all().call()) {
+            result++;
+        }
+        return result;
+    }
+}
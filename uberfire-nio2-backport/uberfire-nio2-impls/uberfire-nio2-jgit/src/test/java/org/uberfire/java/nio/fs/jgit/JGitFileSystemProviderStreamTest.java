@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.java.nio.fs.jgit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+import org.uberfire.java.nio.channels.SeekableByteChannel;
+import org.uberfire.java.nio.file.NoSuchFileException;
+import org.uberfire.java.nio.file.Path;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.uberfire.java.nio.file.StandardOpenOption.READ;
+
+public class JGitFileSystemProviderStreamTest extends AbstractTestInfra {
+
+    @Override
+    public Map<String, String> getGitPreferences() {
+        final Map<String, String> gitPrefs = super.getGitPreferences();
+        gitPrefs.put("org.uberfire.nio.git.stream.threshold",
+                     "1024");
+        return gitPrefs;
+    }
+
+    @Test
+    public void testReadLargeBlob() throws Exception {
+        provider.newFileSystem(URI.create("git://stream-repo"),
+                               EMPTY_ENV);
+
+        final byte[] content = new byte[100000];
+        new Random(42).nextBytes(content);
+
+        final Path path = provider.getPath(URI.create("git://stream-repo/dir/large.bin"));
+        final OutputStream out = provider.newOutputStream(path);
+        out.write(content);
+        out.close();
+
+        final InputStream in = provider.newInputStream(path);
+        final ByteArrayOutputStream read = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            read.write(buffer,
+                       0,
+                       n);
+        }
+        in.close();
+        assertThat(read.toByteArray()).isEqualTo(content);
+
+        final SeekableByteChannel channel = provider.newByteChannel(path,
+                                                                    Collections.singleton(READ));
+        assertThat(channel.size()).isEqualTo(content.length);
+
+        channel.position(90000);
+        final ByteBuffer tail = ByteBuffer.allocate(20000);
+        while (channel.read(tail) > 0) {
+        }
+        assertThat(tail.position()).isEqualTo(10000);
+        assertThat(Arrays.copyOf(tail.array(),
+                                 10000)).isEqualTo(Arrays.copyOfRange(content,
+                                                                      90000,
+                                                                      100000));
+        assertThat(channel.read(tail)).isEqualTo(-1);
+
+        channel.position(10);
+        final ByteBuffer head = ByteBuffer.allocate(100);
+        channel.read(head);
+        assertThat(head.array()).isEqualTo(Arrays.copyOfRange(content,
+                                                              10,
+                                                              110));
+        assertThat(channel.position()).isEqualTo(110);
+        channel.close();
+
+        try {
+            provider.newByteChannel(provider.getPath(URI.create("git://stream-repo/dir/missing.bin")),
+                                    Collections.singleton(READ));
+            fail("file doesn't exist");
+        } catch (final NoSuchFileException ignored) {
+        }
+
+        try {
+            provider.newByteChannel(provider.getPath(URI.create("git://stream-repo/dir")),
+                                    Collections.singleton(READ));
+            fail("directories can't be read");
+        } catch (final NoSuchFileException ignored) {
+        }
+    }
+}
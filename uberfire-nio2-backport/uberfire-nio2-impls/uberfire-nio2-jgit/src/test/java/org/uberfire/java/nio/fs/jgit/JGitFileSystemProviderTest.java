@@ -35,7 +35,9 @@ import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.errors.IncorrectObjectTypeException;
 import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -292,6 +294,89 @@ public class JGitFileSystemProviderTest extends AbstractTestInfra {
         }
     }
 
+    @Test
+    public void testSyncRefs() throws Exception {
+        final URI originRepo = URI.create("git://my-sync-refs-origin");
+        final JGitFileSystem origin = (JGitFileSystem) provider.newFileSystem(originRepo,
+                                                                              EMPTY_ENV);
+        commit(origin.gitRepo(),
+               "master",
+               "user1",
+               "user1@example.com",
+               "commit1",
+               null,
+               null,
+               false,
+               new HashMap<String, File>() {{
+                   put("file1.txt",
+                       tempFile("temp1"));
+               }});
+
+        final String syncUri = "git://my-sync-refs?sync=git://localhost:" + gitDaemonPort + "/my-sync-refs-origin&force";
+        final JGitFileSystem fs = (JGitFileSystem) provider.newFileSystem(URI.create("git://my-sync-refs"),
+                                                                          new HashMap<String, Object>() {{
+                                                                              put(JGitFileSystemProvider.GIT_ENV_KEY_DEFAULT_REMOTE_NAME,
+                                                                                  "git://localhost:" + gitDaemonPort + "/my-sync-refs-origin");
+                                                                          }});
+
+        final String id1 = origin.getRefs().get("refs/heads/master");
+        assertThat(fs.getRefs().get("refs/heads/master")).isEqualTo(id1);
+
+        commit(origin.gitRepo(),
+               "master",
+               "user1",
+               "user1@example.com",
+               "commit2",
+               null,
+               null,
+               false,
+               new HashMap<String, File>() {{
+                   put("file2.txt",
+                       tempFile("temp2"));
+               }});
+        final String id2 = origin.getRefs().get("refs/heads/master");
+
+        provider.getFileSystem(URI.create(syncUri + "&refs=" + hex(id1 + " " + id2 + " refs/heads/master")));
+        assertThat(fs.getRefs().get("refs/heads/master")).isEqualTo(id2);
+        assertThat(fs.getPath("file2.txt").toFile()).exists();
+
+        // already at the new id
+        provider.getFileSystem(URI.create(syncUri + "&refs=" + hex(id1 + " " + id2 + " refs/heads/master")));
+        assertThat(fs.getRefs().get("refs/heads/master")).isEqualTo(id2);
+
+        commit(origin.gitRepo(),
+               "master",
+               "user1",
+               "user1@example.com",
+               "commit3",
+               null,
+               null,
+               false,
+               new HashMap<String, File>() {{
+                   put("file3.txt",
+                       tempFile("temp3"));
+               }});
+        final String id3 = origin.getRefs().get("refs/heads/master");
+
+        // stale old id falls back to a full sync
+        assertThat(JGitUtil.syncRefs(fs.gitRepo(),
+                                     fs.getCredential(),
+                                     "git://localhost:" + gitDaemonPort + "/my-sync-refs-origin",
+                                     JGitFileSystemProvider.decodeRefs(hex(id1 + " " + id3 + " refs/heads/master")))).isFalse();
+        assertThat(fs.getRefs().get("refs/heads/master")).isEqualTo(id2);
+        provider.getFileSystem(URI.create(syncUri + "&refs=" + hex(id1 + " " + id3 + " refs/heads/master")));
+        assertThat(fs.getRefs().get("refs/heads/master")).isEqualTo(id3);
+    }
+
+    private static String hex(final String value) {
+        final StringBuilder sb = new StringBuilder();
+        for (final byte b : value.getBytes()) {
+            sb.append(String.format("%02x",
+                                    b));
+        }
+        return sb.toString();
+    }
+
     @Test
     public void testNewFileSystemCloneAndPush() throws IOException {
 
@@ -1422,6 +1507,8 @@ public class JGitFileSystemProviderTest extends AbstractTestInfra {
         assertThat(attrs.creationTime()).isNotNull();
         assertThat(attrs.lastModifiedTime()).isNotNull();
         assertThat(attrs.size()).isEqualTo(15L);
+        assertThat(attrs.fileKey()).isEqualTo(new ObjectInserter.Formatter().idFor(Constants.OBJ_BLOB,
+                                                                                   "my cool content".getBytes()).name());
 
         try {
             provider.readAttributes(provider.getPath(URI.create("git://user_branch@readattrs-test-repo/not_exists.txt")),
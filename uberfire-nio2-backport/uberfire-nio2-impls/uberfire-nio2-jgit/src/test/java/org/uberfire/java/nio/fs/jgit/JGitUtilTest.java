@@ -18,6 +18,7 @@ package org.uberfire.java.nio.fs.jgit;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
@@ -25,11 +26,18 @@ import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.diff.DiffEntry.ChangeType;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.transport.CredentialsProvider;
+import org.eclipse.jgit.treewalk.TreeWalk;
 import org.junit.Test;
 import org.uberfire.java.nio.base.version.VersionAttributes;
 import org.uberfire.java.nio.base.version.VersionRecord;
+import org.uberfire.java.nio.fs.jgit.util.CopyCommitContent;
+import org.uberfire.java.nio.fs.jgit.util.DefaultCommitContent;
+import org.uberfire.java.nio.fs.jgit.util.JGitAttributeCache;
+import org.uberfire.java.nio.fs.jgit.util.JGitTreeIndex;
 import org.uberfire.java.nio.fs.jgit.util.JGitUtil;
+import org.uberfire.java.nio.fs.jgit.util.MoveCommitContent;
 
 import static org.eclipse.jgit.api.ListBranchCommand.ListMode.ALL;
 import static org.fest.assertions.api.Assertions.assertThat;
@@ -196,6 +204,109 @@ public class JGitUtilTest extends AbstractTestInfra {
                                       "path/to").getK1()).isEqualTo(DIRECTORY);
     }
 
+    @Test
+    public void testIndexedPathResolve() throws IOException {
+        final File parentFolder = createTempDirectory();
+        final File gitFolder = new File(parentFolder,
+                                        "mytest.git");
+
+        final Git git = JGitUtil.newRepository(gitFolder,
+                                               true);
+
+        commit(git,
+               "master",
+               "name",
+               "name@example.com",
+               "commit!",
+               null,
+               null,
+               false,
+               new HashMap<String, File>() {{
+                   put("path/to/file1.txt",
+                       tempFile("temp1"));
+                   put("path/to/file2.txt",
+                       tempFile("temp22"));
+                   put("path/other/file3.txt",
+                       tempFile("temp333"));
+                   put("root.txt",
+                       tempFile("root"));
+               }});
+
+        final JGitFileSystem fs = mock(JGitFileSystem.class);
+        when(fs.gitRepo()).thenReturn(git);
+        when(fs.getTreeIndex()).thenReturn(new JGitTreeIndex());
+
+        for (final String path : new String[]{"pathx/", "path", "path/to", "/path/to/", "path/to/file2.txt", "path/to/file2.txt/x", "root.txt", "root.txt/x"}) {
+            assertEquals(JGitUtil.checkPath(git,
+                                            "master",
+                                            path),
+                         JGitUtil.checkPath(fs,
+                                            "master",
+                                            path));
+
+            final JGitUtil.JGitPathInfo walked = JGitUtil.resolvePath(git,
+                                                                      "master",
+                                                                      path);
+            final JGitUtil.JGitPathInfo indexed = JGitUtil.resolvePath(fs,
+                                                                       "master",
+                                                                       path);
+            if (walked == null) {
+                assertNull(indexed);
+            } else {
+                assertEquals(walked.getObjectId(),
+                             indexed.getObjectId());
+                assertEquals(walked.getPath(),
+                             indexed.getPath());
+                assertEquals(walked.getPathType(),
+                             indexed.getPathType());
+                assertEquals(walked.getSize(),
+                             indexed.getSize());
+            }
+        }
+
+        for (final String path : new String[]{"/", "path", "path/to/", "path/to/file1.txt", "missing"}) {
+            final List<JGitUtil.JGitPathInfo> walked = JGitUtil.listPathContent(git,
+                                                                                "master",
+                                                                                path);
+            final List<JGitUtil.JGitPathInfo> indexed = JGitUtil.listPathContent(fs,
+                                                                                 "master",
+                                                                                 path);
+            assertEquals(walked.size(),
+                         indexed.size());
+            for (int i = 0; i < walked.size(); i++) {
+                assertEquals(walked.get(i).getPath(),
+                             indexed.get(i).getPath());
+                assertEquals(walked.get(i).getObjectId(),
+                             indexed.get(i).getObjectId());
+                assertEquals(walked.get(i).getPathType(),
+                             indexed.get(i).getPathType());
+            }
+        }
+
+        commit(git,
+               "master",
+               "name",
+               "name@example.com",
+               "commit!",
+               null,
+               null,
+               false,
+               new HashMap<String, File>() {{
+                   put("path/to/file4.txt",
+                       tempFile("temp4"));
+               }});
+
+        assertThat(JGitUtil.checkPath(fs,
+                                      "master",
+                                      "path/to/file4.txt").getK1()).isEqualTo(FILE);
+        assertThat(JGitUtil.listPathContent(fs,
+                                            "master",
+                                            "path/to")).hasSize(3);
+        assertThat(JGitUtil.checkPath(fs,
+                                      "missing_branch",
+                                      "path/to").getK1()).isEqualTo(NOT_FOUND);
+    }
+
     @Test
     public void testAmend() throws IOException {
         final File parentFolder = createTempDirectory();
@@ -311,6 +422,7 @@ public class JGitUtilTest extends AbstractTestInfra {
 
         JGitFileSystem jGitFileSystem = mock(JGitFileSystem.class);
         when(jGitFileSystem.gitRepo()).thenReturn(git);
+        when(jGitFileSystem.getAttributeCache()).thenReturn(new JGitAttributeCache());
 
         VersionAttributes versionAttributes = JGitUtil.buildVersionAttributes(jGitFileSystem,
                                                                               "master",
@@ -327,6 +439,147 @@ public class JGitUtilTest extends AbstractTestInfra {
                      records.get(3).comment());
     }
 
+    @Test
+    public void testCachedAttributes() throws Exception {
+
+        final File parentFolder = createTempDirectory();
+        final File gitFolder = new File(parentFolder,
+                                        "mytest.git");
+
+        final Git git = JGitUtil.newRepository(gitFolder,
+                                               true);
+
+        commit(git,
+               "master",
+               "name",
+               "name@example.com",
+               "commit 1",
+               null,
+               null,
+               false,
+               new HashMap<String, File>() {{
+                   put("path/to/file.txt",
+                       tempFile("one"));
+               }});
+        commit(git,
+               "master",
+               "name",
+               "name@example.com",
+               "commit 2",
+               null,
+               null,
+               false,
+               new HashMap<String, File>() {{
+                   put("path/to/file.txt",
+                       tempFile("two"));
+               }});
+
+        final JGitAttributeCache cache = new JGitAttributeCache();
+        final JGitFileSystem jGitFileSystem = mock(JGitFileSystem.class);
+        when(jGitFileSystem.gitRepo()).thenReturn(git);
+        when(jGitFileSystem.getAttributeCache()).thenReturn(cache);
+
+        assertEquals(2,
+                     JGitUtil.buildVersionAttributes(jGitFileSystem,
+                                                     "master",
+                                                     "path/to/file.txt").history().records().size());
+        assertEquals(0,
+                     cache.getHitCount());
+        assertEquals(1,
+                     cache.getMissCount());
+
+        assertEquals(2,
+                     JGitUtil.buildVersionAttributes(jGitFileSystem,
+                                                     "master",
+                                                     "path/to/file.txt").history().records().size());
+        assertEquals(1,
+                     cache.getHitCount());
+
+        commit(git,
+               "master",
+               "name",
+               "name@example.com",
+               "commit 3",
+               null,
+               null,
+               false,
+               new HashMap<String, File>() {{
+                   put("path/to/file.txt",
+                       tempFile("three"));
+               }});
+
+        final List<VersionRecord> records = JGitUtil.buildVersionAttributes(jGitFileSystem,
+                                                                            "master",
+                                                                            "path/to/file.txt").history().records();
+        assertEquals(3,
+                     records.size());
+        assertEquals("commit 1",
+                     records.get(0).comment());
+        assertEquals("commit 3",
+                     records.get(2).comment());
+        assertEquals(1,
+                     cache.getIncrementalUpdateCount());
+
+        final long lastModified = JGitUtil.buildBasicAttributes(jGitFileSystem,
+                                                                "master",
+                                                                "path/to/file.txt").lastModifiedTime().toMillis();
+        final long missCount = cache.getMissCount();
+        assertEquals(lastModified,
+                     JGitUtil.buildBasicAttributes(jGitFileSystem,
+                                                   "master",
+                                                   "path/to/file.txt").lastModifiedTime().toMillis());
+        assertEquals(missCount,
+                     cache.getMissCount());
+    }
+
+    @Test
+    public void testAttributeCacheEvictions() {
+        final JGitAttributeCache cache = new JGitAttributeCache(2);
+        final ObjectId head = ObjectId.fromString("0123456789012345678901234567890123456789");
+        final ObjectId newHead = ObjectId.fromString("1234567890123456789012345678901234567890");
+
+        cache.putHistory("master",
+                         "a.txt",
+                         new JGitAttributeCache.History(head,
+                                                        new ArrayList<JGitAttributeCache.CommitRecord>()));
+        cache.putHistory("master",
+                         "b.txt",
+                         new JGitAttributeCache.History(head,
+                                                        new ArrayList<JGitAttributeCache.CommitRecord>()));
+        cache.putHistory("master",
+                         "c.txt",
+                         new JGitAttributeCache.History(head,
+                                                        new ArrayList<JGitAttributeCache.CommitRecord>()));
+        assertNull(cache.getHistory("master",
+                                    "a.txt"));
+        assertEquals(1,
+                     cache.getEvictionCount());
+
+        cache.putLastCommitTime("master",
+                                head,
+                                "a.txt",
+                                1L);
+        cache.putLastCommitTime("master",
+                                head,
+                                "b.txt",
+                                2L);
+        cache.putLastCommitTime("master",
+                                head,
+                                "c.txt",
+                                3L);
+        assertEquals(3,
+                     cache.getEvictionCount());
+
+        // a moved head isn't an eviction
+        cache.putLastCommitTime("master",
+                                newHead,
+                                "a.txt",
+                                4L);
+        assertEquals(3,
+                     cache.getEvictionCount());
+        assertTrue(cache.toString().contains("evictions=3"));
+    }
+
     @Test
     public void testDiffForFileCreatedInEmptyRepositoryOrBranch() throws Exception {
 
@@ -366,4 +619,140 @@ public class JGitUtilTest extends AbstractTestInfra {
         assertEquals("path/to/file.txt",
                      diff.get(0).getNewPath());
     }
+
+    @Test
+    public void testCommitRewritesOnlyChangedTrees() throws Exception {
+        final Git git = JGitUtil.newRepository(new File(createTempDirectory(),
+                                                        "edit.git"),
+                                               true);
+
+        commit(git,
+               "master",
+               "name",
+               "name@example.com",
+               "commit 1",
+               null,
+               null,
+               false,
+               new HashMap<String, File>() {{
+                   put("a/x.txt",
+                       tempFile("x"));
+                   put("b.txt",
+                       tempFile("b"));
+                   put("b/y.txt",
+                       tempFile("y"));
+                   put("b/c/z.txt",
+                       tempFile("z"));
+               }});
+        final ObjectId aTree = treeOf(git,
+                                      "a");
+
+        commit(git,
+               "master",
+               "name",
+               "name@example.com",
+               "commit 2",
+               null,
+               null,
+               false,
+               new HashMap<String, File>() {{
+                   put("b/c/z.txt",
+                       tempFile("z2"));
+                   put("b/c/d/w.txt",
+                       tempFile("w"));
+                   put("b/y.txt",
+                       null);
+               }});
+        assertEquals(aTree,
+                     treeOf(git,
+                            "a"));
+
+        commit(git,
+               "master",
+               new CommitInfo(null,
+                              "name",
+                              "name@example.com",
+                              "commit 3",
+                              null,
+                              null),
+               false,
+               new MoveCommitContent(new HashMap<String, String>() {{
+                   put("b/c/d/w.txt",
+                       "e/w.txt");
+               }}));
+        commit(git,
+               "master",
+               new CommitInfo(null,
+                              "name",
+                              "name@example.com",
+                              "commit 4",
+                              null,
+                              null),
+               false,
+               new CopyCommitContent(new HashMap<String, String>() {{
+                   put("a/x.txt",
+                       "a/x2.txt");
+               }}));
+
+        final Git expected = JGitUtil.newRepository(new File(createTempDirectory(),
+                                                             "expected.git"),
+                                                    true);
+        commit(expected,
+               "master",
+               "name",
+               "name@example.com",
+               "commit",
+               null,
+               null,
+               false,
+               new HashMap<String, File>() {{
+                   put("a/x.txt",
+                       tempFile("x"));
+                   put("a/x2.txt",
+                       tempFile("x"));
+                   put("b.txt",
+                       tempFile("b"));
+                   put("b/c/z.txt",
+                       tempFile("z2"));
+                   put("e/w.txt",
+                       tempFile("w"));
+               }});
+
+        assertEquals(JGitUtil.getTreeRefObjectId(expected.getRepository(),
+                                                 "master"),
+                     JGitUtil.getTreeRefObjectId(git.getRepository(),
+                                                 "master"));
+        assertEquals(NOT_FOUND,
+                     JGitUtil.checkPath(git,
+                                        "master",
+                                        "b/c/d").getK1());
+
+        assertFalse(commit(git,
+                           "master",
+                           new CommitInfo(null,
+                                          "name",
+                                          "name@example.com",
+                                          "no changes",
+                                          null,
+                                          null),
+                           false,
+                           new DefaultCommitContent(new HashMap<String, File>() {{
+                               put("b.txt",
+                                   tempFile("b"));
+                               put("missing.txt",
+                                   null);
+                           }})));
+    }
+
+    private ObjectId treeOf(final Git git,
+                            final String path) throws IOException {
+        final TreeWalk walk = TreeWalk.forPath(git.getRepository(),
+                                               path,
+                                               new RevWalk(git.getRepository()).parseCommit(git.getRepository().resolve("master")).getTree());
+        try {
+            return walk.getObjectId(0);
+        } finally {
+            walk.close();
+        }
+    }
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.java.nio.base;
+
+import java.util.List;
+import java.util.Map;
+
+import org.uberfire.java.nio.file.Path;
+
+/**
+ * A file system whose content is versioned by named references, such as the branches of a git repository.
+ */
+public interface FileSystemRefsAware {
+
+    /**
+     * @return the object id of each branch, by full reference name (e.g. <tt>refs/heads/master</tt>).
+     */
+    Map<String, String> getRefs();
+
+    /**
+     * Pins paths of this file system to the commits their branches point to, read once for all of them, so the
+     * pinned paths are read from a single snapshot whatever is committed meanwhile.
+     * @return the pinned paths, in the same order; paths that aren't on a branch are returned as they are.
+     */
+    List<Path> pin(final List<Path> paths);
+}
@@ -22,11 +22,8 @@ import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
 
-import com.thoughtworks.xstream.XStream;
-import com.thoughtworks.xstream.XStreamException;
-
 /**
- *
+ * Attributes stored in dot files, see {@link PropertiesCodec} for the format.
  */
 public class Properties extends HashMap<String, Object> {
 
@@ -58,9 +55,8 @@ public class Properties extends HashMap<String, Object> {
 
     public void store(final OutputStream out,
                       boolean closeOnFinish) {
-        final XStream xstream = new XStream();
-        xstream.toXML(this,
-                      out);
+        PropertiesCodec.write(this,
+                              out);
         if (closeOnFinish) {
             try {
                 out.close();
@@ -76,18 +72,9 @@ public class Properties extends HashMap<String, Object> {
 
     public void load(final InputStream in,
                      boolean closeOnFinish) {
-        final XStream xstream = new XStream();
         final Properties temp = new Properties();
-        try {
-            xstream.fromXML(in,
-                            temp);
-        } catch (final XStreamException ex) {
-            if (ex.getCause() != null) {
-                if (!ex.getCause().getMessage().equals("input contained no data")) {
-                    throw ex;
-                }
-            }
-        }
+        PropertiesCodec.read(in,
+                             temp);
 
         for (final Map.Entry<String, Object> entry : temp.entrySet()) {
             if (entry.getValue() != null) {
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.uberfire.java.nio.base;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.XStreamException;
+import org.uberfire.java.nio.IOException;
+
+/**
+ * Reads and writes {@link Properties} (the content of dot files).
+ * <p>
+ * Properties are written in a compact binary format: a magic header, a format version, the number of entries
+ * and then each key followed by a typed value. Properties holding values other than strings, boxed primitives
+ * and dates are still written as XStream XML, as are all properties when <tt>org.uberfire.nio.dotfiles.xml</tt> is set
+ * (e.g. while older nodes of a cluster still need to read them). Both formats are read, so existing XML dot
+ * files are migrated the next time they are written.
+ */
+final class PropertiesCodec {
+
+    private static final byte[] MAGIC = {0, 'U', 'F', 'P'};
+    private static final int VERSION = 1;
+
+    private static final boolean WRITE_XML = Boolean.getBoolean("org.uberfire.nio.dotfiles.xml");
+
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte FLOAT = 6;
+    private static final byte SHORT = 7;
+    private static final byte BYTE = 8;
+    private static final byte CHARACTER = 9;
+    private static final byte DATE = 10;
+
+    // XStream is thread safe once configured
+    private static final XStream XSTREAM = new XStream();
+
+    private PropertiesCodec() {
+    }
+
+    static void write(final Properties properties,
+                      final OutputStream out) {
+        if (WRITE_XML || !isSupported(properties)) {
+            XSTREAM.toXML(properties,
+                          out);
+            return;
+        }
+        try {
+            final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+            data.write(MAGIC);
+            data.writeByte(VERSION);
+            data.writeInt(properties.size());
+            for (final Map.Entry<String, Object> entry : properties.entrySet()) {
+                writeString(data,
+                            entry.getKey());
+                writeValue(data,
+                           entry.getValue());
+            }
+            data.flush();
+        } catch (final java.io.IOException e) {
+            throw new IOException(e);
+        }
+    }
+
+    static void read(final InputStream in,
+                     final Properties target) {
+        try {
+            final PushbackInputStream pin = new PushbackInputStream(in,
+                                                                    MAGIC.length);
+            final byte[] header = new byte[MAGIC.length];
+            int length = 0;
+            for (int n; length < header.length && (n = pin.read(header,
+                                                                length,
+                                                                header.length - length)) > 0; ) {
+                length += n;
+            }
+            if (length == 0) {
+                return;
+            }
+            if (length == MAGIC.length && isMagic(header)) {
+                readBinary(new DataInputStream(pin),
+                           target);
+            } else {
+                pin.unread(header,
+                           0,
+                           length);
+                readXML(pin,
+                        target);
+            }
+        } catch (final java.io.IOException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static void readXML(final InputStream in,
+                                final Properties target) {
+        try {
+            XSTREAM.fromXML(in,
+                            target);
+        } catch (final XStreamException ex) {
+            if (ex.getCause() != null) {
+                if (!ex.getCause().getMessage().equals("input contained no data")) {
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    private static void readBinary(final DataInputStream data,
+                                   final Properties target) throws java.io.IOException {
+        final int version = data.readUnsignedByte();
+        if (version > VERSION) {
+            throw new java.io.IOException("Unsupported dot file format version " + version);
+        }
+        final int size = data.readInt();
+        for (int i = 0; i < size; i++) {
+            final String key = readString(data);
+            target.put(key,
+                       readValue(data));
+        }
+    }
+
+    private static boolean isMagic(final byte[] header) {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSupported(final Properties properties) {
+        for (final Object value : properties.values()) {
+            final Class<?> type = value.getClass();
+            if (type != String.class && type != Integer.class && type != Long.class && type != Boolean.class &&
+                    type != Double.class && type != Float.class && type != Short.class && type != Byte.class &&
+                    type != Character.class && type != Date.class) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeValue(final DataOutputStream data,
+                                   final Object value) throws java.io.IOException {
+        if (value instanceof String) {
+            data.writeByte(STRING);
+            writeString(data,
+                        (String) value);
+        } else if (value instanceof Integer) {
+            data.writeByte(INTEGER);
+            data.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            data.writeByte(LONG);
+            data.writeLong((Long) value);
+        } else if (value instanceof Boolean) {
+            data.writeByte(BOOLEAN);
+            data.writeBoolean((Boolean) value);
+        } else if (value instanceof Double) {
+            data.writeByte(DOUBLE);
+            data.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            data.writeByte(FLOAT);
+            data.writeFloat((Float) value);
+        } else if (value instanceof Short) {
+            data.writeByte(SHORT);
+            data.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            data.writeByte(BYTE);
+            data.writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            data.writeByte(CHARACTER);
+            data.writeChar((Character) value);
+        } else {
+            data.writeByte(DATE);
+            data.writeLong(((Date) value).getTime());
+        }
+    }
+
+    private static Object readValue(final DataInputStream data) throws java.io.IOException {
+        final byte type = data.readByte();
+        switch (type) {
+            case STRING:
+                return readString(data);
+            case INTEGER:
+                return data.readInt();
+            case LONG:
+                return data.readLong();
+            case BOOLEAN:
+                return data.readBoolean();
+            case DOUBLE:
+                return data.readDouble();
+            case FLOAT:
+                return data.readFloat();
+            case SHORT:
+                return data.readShort();
+            case BYTE:
+                return data.readByte();
+            case CHARACTER:
+                return data.readChar();
+            case DATE:
+                return new Date(data.readLong());
+            default:
+                throw new java.io.IOException("Unknown dot file value type " + type);
+        }
+    }
+
+    private static void writeString(final DataOutputStream data,
+                                    final String value) throws java.io.IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readString(final DataInputStream data) throws java.io.IOException {
+        final int length = data.readInt();
+        if (length < 0) {
+            throw new java.io.IOException("Invalid dot file string length " + length);
+        }
+        final byte[] bytes = new byte[length];
+        data.readFully(bytes);
+        return new String(bytes,
+                          StandardCharsets.UTF_8);
+    }
+}
@@ -16,16 +16,21 @@
 
 package org.uberfire.java.nio.base;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.thoughtworks.xstream.XStream;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
@@ -99,4 +104,81 @@ public class PropertiesTest {
                      properties.get("key1"));
         assertFalse(properties.containsKey("key2"));
     }
+
+    @Test
+    public void testAllTypes() {
+        final Properties properties = new Properties();
+        properties.put("string",
+                       "caf\u00e9");
+        properties.put("int",
+                       -1);
+        properties.put("long",
+                       Long.MAX_VALUE);
+        properties.put("boolean",
+                       true);
+        properties.put("double",
+                       1.5d);
+        properties.put("float",
+                       2.5f);
+        properties.put("short",
+                       (short) 3);
+        properties.put("byte",
+                       (byte) 4);
+        properties.put("char",
+                       'c');
+        properties.put("date",
+                       new Date());
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        properties.store(out);
+        assertEquals(0,
+                     out.toByteArray()[0]);
+
+        final Properties loadProperties = new Properties();
+        loadProperties.load(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(properties,
+                     loadProperties);
+    }
+
+    @Test
+    public void testLoadXML() {
+        final Properties properties = new Properties();
+        properties.put("int",
+                       10453);
+        properties.put("date",
+                       new Date());
+        final String xml = new XStream().toXML(properties);
+
+        final Properties loadProperties = new Properties();
+        loadProperties.load(new ByteArrayInputStream(xml.getBytes()));
+
+        assertEquals(properties,
+                     loadProperties);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        loadProperties.store(out);
+        assertTrue(out.size() < xml.length());
+    }
+
+    @Test
+    public void testUnsupportedTypeIsStoredAsXML() {
+        final Properties properties = new Properties();
+        properties.put("list",
+                       new ArrayList<String>(Arrays.asList("a",
+                                                           "b")));
+        properties.put("int",
+                       10453);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        properties.store(out);
+        assertEquals('<',
+                     out.toByteArray()[0]);
+
+        final Properties loadProperties = new Properties();
+        loadProperties.load(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(properties,
+                     loadProperties);
+    }
 }
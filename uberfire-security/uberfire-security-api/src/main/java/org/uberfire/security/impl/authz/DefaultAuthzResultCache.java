@@ -15,53 +15,223 @@
  */
 package org.uberfire.security.impl.authz;
 
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.jboss.errai.security.shared.api.Group;
+import org.jboss.errai.security.shared.api.Role;
 import org.jboss.errai.security.shared.api.identity.User;
 import org.uberfire.security.authz.AuthorizationResult;
 import org.uberfire.security.authz.Permission;
 
+/**
+ * Thread safe cache of authorization decisions, organized per user.
+ * <p>
+ * Each user keeps at most <code>maxEntriesPerUser</code> decisions (least recently used evicted first), and at
+ * most <code>maxUsers</code> users are cached. Decisions expire after <code>timeToLive</code> milliseconds
+ * (never if not positive). The decisions of a user are dropped as soon as its roles or groups change.
+ */
 public class DefaultAuthzResultCache {
 
-    final Map<Permission, Map<String, AuthorizationResult>> internal = new HashMap<>();
+    public static final int DEFAULT_MAX_USERS = 1000;
+    public static final int DEFAULT_MAX_ENTRIES_PER_USER = 1000;
+    public static final long DEFAULT_TIME_TO_LIVE = 10 * 60 * 1000;
+
+    private final ConcurrentMap<String, UserCache> users = new ConcurrentHashMap<>();
+    private final int maxUsers;
+    private final int maxEntriesPerUser;
+    private final long timeToLive;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong accessClock = new AtomicLong();
+
+    public DefaultAuthzResultCache() {
+        this(DEFAULT_MAX_USERS,
+             DEFAULT_MAX_ENTRIES_PER_USER,
+             DEFAULT_TIME_TO_LIVE);
+    }
+
+    public DefaultAuthzResultCache(final int maxUsers,
+                                   final int maxEntriesPerUser,
+                                   final long timeToLive) {
+        this.maxUsers = maxUsers;
+        this.maxEntriesPerUser = maxEntriesPerUser;
+        this.timeToLive = timeToLive;
+    }
 
     public AuthorizationResult get(final User user,
                                    final Permission permission) {
-        Map<String, AuthorizationResult> result = internal.get(permission);
+        final UserCache userCache = user.getIdentifier() == null ? null : users.get(user.getIdentifier());
+        final AuthorizationResult result = userCache == null ? null : userCache.get(user,
+                                                                                    permission);
         if (result == null) {
-            return null;
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
         }
-        AuthorizationResult decision = result.get(user.getIdentifier());
-        return decision == null ? null : decision;
+        return result;
     }
 
     public void put(final User user,
                     final Permission permission,
                     final AuthorizationResult authzResult) {
-        if (!internal.containsKey(permission)) {
-            internal.put(permission,
-                         new HashMap<>());
+        if (user.getIdentifier() == null || authzResult == null) {
+            return;
         }
-        final Map<String, AuthorizationResult> result = internal.get(permission);
-        AuthorizationResult knowValue = result.get(user.getIdentifier());
-        if (!(result.containsKey(user.getIdentifier()) && authzResult.equals(knowValue))) {
-            result.put(user.getIdentifier(),
-                       authzResult);
+        UserCache userCache = users.get(user.getIdentifier());
+        if (userCache == null) {
+            userCache = new UserCache();
+            final UserCache current = users.putIfAbsent(user.getIdentifier(),
+                                                        userCache);
+            if (current != null) {
+                userCache = current;
+            } else if (users.size() > maxUsers) {
+                evictLeastRecentlyUsedUser(user.getIdentifier());
+            }
         }
+        userCache.put(user,
+                      permission,
+                      authzResult);
     }
 
-    public int size(User user) {
-        int count = 0;
-        for (Map<String, AuthorizationResult> userCache : internal.values()) {
-            if (userCache.containsKey(user.getIdentifier())) {
-                count++;
+    private void evictLeastRecentlyUsedUser(final String keep) {
+        String eldest = null;
+        long eldestAccess = Long.MAX_VALUE;
+        for (final Map.Entry<String, UserCache> entry : users.entrySet()) {
+            if (!entry.getKey().equals(keep) && entry.getValue().lastAccess < eldestAccess) {
+                eldest = entry.getKey();
+                eldestAccess = entry.getValue().lastAccess;
+            }
+        }
+        if (eldest != null) {
+            final UserCache removed = users.remove(eldest);
+            if (removed != null) {
+                evictions.addAndGet(removed.size());
             }
         }
-        return count;
+    }
+
+    /**
+     * Drops the cached decisions of the given user, f.i: after its roles or groups have been changed.
+     */
+    public void invalidate(final User user) {
+        if (user.getIdentifier() != null) {
+            users.remove(user.getIdentifier());
+        }
+    }
+
+    public int size(User user) {
+        final UserCache userCache = user.getIdentifier() == null ? null : users.get(user.getIdentifier());
+        return userCache == null ? 0 : userCache.size();
     }
 
     public void clear() {
-        internal.clear();
+        users.clear();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    private class UserCache {
+
+        private final Map<Permission, Decision> decisions = new LinkedHashMap<Permission, Decision>(16,
+                                                                                                    0.75f,
+                                                                                                    true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Permission, Decision> eldest) {
+                if (size() > maxEntriesPerUser) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        private boolean initialized;
+        private Set<Role> roles;
+        private Set<Group> groups;
+        private volatile long lastAccess = accessClock.incrementAndGet();
+
+        synchronized AuthorizationResult get(final User user,
+                                             final Permission permission) {
+            lastAccess = accessClock.incrementAndGet();
+            if (!sameIdentity(user)) {
+                return null;
+            }
+            final Decision decision = decisions.get(permission);
+            if (decision == null) {
+                return null;
+            }
+            if (decision.expiresAt < System.currentTimeMillis()) {
+                decisions.remove(permission);
+                evictions.incrementAndGet();
+                return null;
+            }
+            return decision.result;
+        }
+
+        synchronized void put(final User user,
+                              final Permission permission,
+                              final AuthorizationResult result) {
+            lastAccess = accessClock.incrementAndGet();
+            if (!sameIdentity(user)) {
+                evictions.addAndGet(decisions.size());
+                decisions.clear();
+                roles = user.getRoles() == null ? null : new HashSet<>(user.getRoles());
+                groups = user.getGroups() == null ? null : new HashSet<>(user.getGroups());
+                initialized = true;
+            }
+            decisions.put(permission,
+                          new Decision(result,
+                                       timeToLive > 0 ? System.currentTimeMillis() + timeToLive : Long.MAX_VALUE));
+        }
+
+        synchronized int size() {
+            final Iterator<Decision> it = decisions.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().expiresAt < System.currentTimeMillis()) {
+                    it.remove();
+                    evictions.incrementAndGet();
+                }
+            }
+            return decisions.size();
+        }
+
+        private boolean sameIdentity(final User user) {
+            return initialized &&
+                    Objects.equals(roles,
+                                   user.getRoles()) &&
+                    Objects.equals(groups,
+                                   user.getGroups());
+        }
+    }
+
+    private static class Decision {
+
+        private final AuthorizationResult result;
+        private final long expiresAt;
+
+        private Decision(final AuthorizationResult result,
+                         final long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
     }
 }
@@ -16,9 +16,12 @@
 package org.uberfire.security.impl.authz;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
@@ -45,11 +48,14 @@ import static org.uberfire.security.authz.AuthorizationResult.ACCESS_GRANTED;
 @ApplicationScoped
 public class DefaultPermissionManager implements PermissionManager {
 
+    private static final int MAX_PERMISSION_INDEXES = 1000;
+
     private PermissionTypeRegistry permissionTypeRegistry;
     private AuthorizationPolicy authorizationPolicy = new DefaultAuthorizationPolicy();
     private DefaultAuthzResultCache cache;
     private VotingStrategy defaultVotingStrategy = VotingStrategy.PRIORITY;
     private Map<VotingStrategy, VotingAlgorithm> votingAlgorithmMap = new HashMap<>();
+    private Map<String, PermissionIndex> permissionIndexMap = new ConcurrentHashMap<>();
 
     @Inject
     public DefaultPermissionManager(PermissionTypeRegistry permissionTypeRegistry) {
@@ -81,6 +87,7 @@ public class DefaultPermissionManager implements PermissionManager {
     public void setAuthorizationPolicy(AuthorizationPolicy authorizationPolicy) {
         this.authorizationPolicy = authorizationPolicy != null ? authorizationPolicy : new DefaultAuthorizationPolicy();
         this.cache.clear();
+        this.permissionIndexMap.clear();
     }
 
     @Override
@@ -179,8 +186,9 @@ public class DefaultPermissionManager implements PermissionManager {
                                                    VotingStrategy votingStrategy) {
 
         if (VotingStrategy.PRIORITY.equals(votingStrategy)) {
-            PermissionCollection userPermissions = resolvePermissions(user,
-                                                                      VotingStrategy.PRIORITY);
+            PermissionIndex userPermissions = getPermissionIndex("user:" + getSignature(user),
+                                                                 () -> resolvePermissions(user,
+                                                                                          VotingStrategy.PRIORITY));
             return _checkPermission(permission,
                                     userPermissions);
         } else {
@@ -196,17 +204,19 @@ public class DefaultPermissionManager implements PermissionManager {
         List<AuthorizationResult> result = new ArrayList<>();
         if (user.getRoles() != null) {
             for (Role role : user.getRoles()) {
-                PermissionCollection collection = authorizationPolicy.getPermissions(role);
+                PermissionIndex index = getPermissionIndex("role:" + role.getName(),
+                                                           () -> authorizationPolicy.getPermissions(role));
                 AuthorizationResult _partialResult = _checkPermission(permission,
-                                                                      collection);
+                                                                      index);
                 result.add(_partialResult);
             }
         }
         if (user.getGroups() != null) {
             for (Group group : user.getGroups()) {
-                PermissionCollection collection = authorizationPolicy.getPermissions(group);
+                PermissionIndex index = getPermissionIndex("group:" + group.getName(),
+                                                           () -> authorizationPolicy.getPermissions(group));
                 AuthorizationResult _partialResult = _checkPermission(permission,
-                                                                      collection);
+                                                                      index);
                 result.add(_partialResult);
             }
         }
@@ -233,6 +243,65 @@ public class DefaultPermissionManager implements PermissionManager {
         return ACCESS_ABSTAIN;
     }
 
+    protected AuthorizationResult _checkPermission(Permission permission,
+                                                   PermissionIndex index) {
+        Permission existing = index.get(permission.getName());
+        if (existing != null) {
+            return existing.getResult().equals(permission.getResult()) ? ACCESS_GRANTED : ACCESS_DENIED;
+        }
+        if (index.implies(permission)) {
+            return ACCESS_GRANTED;
+        }
+        Permission inverted = permission.clone();
+        inverted.setResult(inverted.getResult().invert());
+        if (index.implies(inverted)) {
+            return ACCESS_DENIED;
+        }
+        return ACCESS_ABSTAIN;
+    }
+
+    /**
+     * Get the compiled index for the given key, building it from the supplied collection the first time.
+     * Indexes are shared by all the users with the same roles & groups and dropped when the policy changes.
+     */
+    protected PermissionIndex getPermissionIndex(String key,
+                                                 Supplier<PermissionCollection> collection) {
+        PermissionIndex index = permissionIndexMap.get(key);
+        if (index == null) {
+            index = new PermissionIndex(collection.get());
+            if (permissionIndexMap.size() >= MAX_PERMISSION_INDEXES) {
+                permissionIndexMap.clear();
+            }
+            permissionIndexMap.put(key,
+                                   index);
+        }
+        return index;
+    }
+
+    /**
+     * A key identifying the user's set of roles & groups, regardless of their order.
+     */
+    private String getSignature(User user) {
+        if (user == null) {
+            return "";
+        }
+        List<String> roles = new ArrayList<>();
+        if (user.getRoles() != null) {
+            for (Role role : user.getRoles()) {
+                roles.add(role.getName());
+            }
+        }
+        List<String> groups = new ArrayList<>();
+        if (user.getGroups() != null) {
+            for (Group group : user.getGroups()) {
+                groups.add(group.getName());
+            }
+        }
+        Collections.sort(roles);
+        Collections.sort(groups);
+        return roles + "|" + groups;
+    }
+
     @Override
     public String resolveResourceId(Permission permission) {
         PermissionType permissionType = permissionTypeRegistry.resolve(permission.getName());
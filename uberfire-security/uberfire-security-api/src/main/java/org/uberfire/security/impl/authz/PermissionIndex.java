@@ -0,0 +1,159 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.uberfire.security.impl.authz;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.uberfire.security.authz.Permission;
+import org.uberfire.security.authz.PermissionCollection;
+
+/**
+ * An immutable snapshot of a {@link PermissionCollection} compiled into a trie keyed on the dot separated
+ * segments of the permission names.
+ * <p>
+ * A {@link DotNamedPermission} can only be implied by a permission with the same name or by the one named
+ * after its parent ({@code resource.read} implies {@code resource.read.r1}), so both lookups are a single
+ * walk down the trie instead of a scan over the whole collection. Permissions of any other kind are kept
+ * apart and checked one by one.
+ */
+public class PermissionIndex {
+
+    private final Node root = new Node();
+    private final List<Permission> others = new ArrayList<>();
+
+    public PermissionIndex(PermissionCollection collection) {
+        if (collection != null) {
+            for (Permission p : collection.collection()) {
+                if (p.getName() != null && p.getClass() == DotNamedPermission.class) {
+                    root.add(p);
+                } else {
+                    others.add(p);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the permission matching the specified name.
+     * @param name The fully qualified name of the permission.
+     * @return A Permission instance or null if not found.
+     */
+    public Permission get(String name) {
+        if (name != null) {
+            Node node = root.find(name,
+                                  false);
+            if (node != null && node.permission != null) {
+                return node.permission;
+            }
+        }
+        for (Permission p : others) {
+            if (name == null ? p.getName() == null : name.equals(p.getName())) {
+                return p;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Same as {@link PermissionCollection#implies(Permission)}.
+     */
+    public boolean implies(Permission permission) {
+        String name = permission.getName();
+        if (name != null) {
+            if (implies(root.find(name,
+                                  false),
+                        permission)) {
+                return true;
+            }
+            if (implies(root.find(name,
+                                  true),
+                        permission)) {
+                return true;
+            }
+        }
+        for (Permission p : others) {
+            if (p.implies(permission)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean implies(Node node,
+                            Permission permission) {
+        return node != null && node.permission != null && node.permission.implies(permission);
+    }
+
+    private static class Node {
+
+        private Map<String, Node> children;
+        private Permission permission;
+
+        private void add(Permission p) {
+            String name = p.getName();
+            Node node = this;
+            int start = 0;
+            while (true) {
+                int dot = name.indexOf('.',
+                                       start);
+                String segment = dot < 0 ? name.substring(start) : name.substring(start,
+                                                                                  dot);
+                if (node.children == null) {
+                    node.children = new HashMap<>();
+                }
+                Node child = node.children.get(segment);
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(segment,
+                                      child);
+                }
+                node = child;
+                if (dot < 0) {
+                    node.permission = p;
+                    return;
+                }
+                start = dot + 1;
+            }
+        }
+
+        /**
+         * @param parent if true, look up the node of the name's parent (the name up to its last dot).
+         */
+        private Node find(String name,
+                          boolean parent) {
+            Node node = this;
+            int start = 0;
+            while (node != null) {
+                int dot = name.indexOf('.',
+                                       start);
+                if (dot < 0 && parent) {
+                    return node == this ? null : node;
+                }
+                String segment = dot < 0 ? name.substring(start) : name.substring(start,
+                                                                                  dot);
+                node = node.children == null ? null : node.children.get(segment);
+                if (dot < 0) {
+                    return node;
+                }
+                start = dot + 1;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.uberfire.security.impl.authz;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.errai.security.shared.api.Role;
+import org.jboss.errai.security.shared.api.RoleImpl;
+import org.jboss.errai.security.shared.api.identity.User;
+import org.junit.Test;
+import org.uberfire.security.authz.Permission;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+import static org.uberfire.security.authz.AuthorizationResult.ACCESS_DENIED;
+import static org.uberfire.security.authz.AuthorizationResult.ACCESS_GRANTED;
+
+public class DefaultAuthzResultCacheTest {
+
+    private final Permission view1 = new DotNamedPermission("resource.read.1",
+                                                            true);
+    private final Permission view2 = new DotNamedPermission("resource.read.2",
+                                                            true);
+    private final Permission view3 = new DotNamedPermission("resource.read.3",
+                                                            true);
+
+    @Test
+    public void testHitsAndMisses() {
+        final DefaultAuthzResultCache cache = new DefaultAuthzResultCache();
+        final User user = createUserMock("user1",
+                                         "role1");
+
+        assertNull(cache.get(user,
+                             view1));
+        cache.put(user,
+                  view1,
+                  ACCESS_GRANTED);
+        assertEquals(ACCESS_GRANTED,
+                     cache.get(user,
+                               view1));
+        assertNull(cache.get(createUserMock("user2",
+                                            "role1"),
+                             view1));
+
+        assertEquals(1,
+                     cache.getHitCount());
+        assertEquals(2,
+                     cache.getMissCount());
+    }
+
+    @Test
+    public void testEntriesPerUserBound() {
+        final DefaultAuthzResultCache cache = new DefaultAuthzResultCache(10,
+                                                                          2,
+                                                                          0);
+        final User user = createUserMock("user1",
+                                         "role1");
+        cache.put(user,
+                  view1,
+                  ACCESS_GRANTED);
+        cache.put(user,
+                  view2,
+                  ACCESS_GRANTED);
+        cache.get(user,
+                  view1);
+        cache.put(user,
+                  view3,
+                  ACCESS_DENIED);
+
+        assertEquals(2,
+                     cache.size(user));
+        assertEquals(ACCESS_GRANTED,
+                     cache.get(user,
+                               view1));
+        assertNull(cache.get(user,
+                             view2));
+        assertEquals(1,
+                     cache.getEvictionCount());
+    }
+
+    @Test
+    public void testUsersBound() {
+        final DefaultAuthzResultCache cache = new DefaultAuthzResultCache(2,
+                                                                          10,
+                                                                          0);
+        final User user1 = createUserMock("user1",
+                                          "role1");
+        final User user2 = createUserMock("user2",
+                                          "role1");
+        final User user3 = createUserMock("user3",
+                                          "role1");
+        cache.put(user1,
+                  view1,
+                  ACCESS_GRANTED);
+        cache.put(user2,
+                  view1,
+                  ACCESS_GRANTED);
+        cache.put(user3,
+                  view1,
+                  ACCESS_GRANTED);
+
+        assertEquals(0,
+                     cache.size(user1));
+        assertEquals(1,
+                     cache.size(user2));
+        assertEquals(1,
+                     cache.size(user3));
+        assertEquals(1,
+                     cache.getEvictionCount());
+    }
+
+    @Test
+    public void testExpiration() throws Exception {
+        final DefaultAuthzResultCache cache = new DefaultAuthzResultCache(10,
+                                                                          10,
+                                                                          1);
+        final User user = createUserMock("user1",
+                                         "role1");
+        cache.put(user,
+                  view1,
+                  ACCESS_GRANTED);
+        Thread.sleep(10);
+
+        assertNull(cache.get(user,
+                             view1));
+        assertEquals(0,
+                     cache.size(user));
+        assertEquals(1,
+                     cache.getEvictionCount());
+    }
+
+    @Test
+    public void testRolesChange() {
+        final DefaultAuthzResultCache cache = new DefaultAuthzResultCache();
+        final User user = createUserMock("user1",
+                                         "role1");
+        cache.put(user,
+                  view1,
+                  ACCESS_GRANTED);
+
+        final Set<Role> roles = new HashSet<>();
+        roles.add(new RoleImpl("role2"));
+        when(user.getRoles()).thenReturn(roles);
+        assertNull(cache.get(user,
+                             view1));
+
+        cache.put(user,
+                  view2,
+                  ACCESS_DENIED);
+        assertEquals(1,
+                     cache.size(user));
+        assertEquals(ACCESS_DENIED,
+                     cache.get(user,
+                               view2));
+
+        cache.invalidate(user);
+        assertEquals(0,
+                     cache.size(user));
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        final DefaultAuthzResultCache cache = new DefaultAuthzResultCache(5,
+                                                                          2,
+                                                                          0);
+        final Permission[] permissions = {view1, view2, view3};
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            final User user = createUserMock("user" + t,
+                                             "role1");
+            executor.execute(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    final Permission permission = permissions[i % permissions.length];
+                    if (cache.get(user,
+                                  permission) == null) {
+                        cache.put(user,
+                                  permission,
+                                  ACCESS_GRANTED);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30,
+                                             TimeUnit.SECONDS));
+
+        int total = 0;
+        for (int t = 0; t < 8; t++) {
+            final int size = cache.size(createUserMock("user" + t,
+                                                       "role1"));
+            assertTrue(size <= 2);
+            total += size;
+        }
+        assertTrue(total <= 5 * 2 + 8);
+        assertEquals(80000,
+                     cache.getHitCount() + cache.getMissCount());
+    }
+
+    private User createUserMock(final String identifier,
+                                final String role) {
+        final User user = mock(User.class);
+        final Set<Role> roles = new HashSet<>();
+        roles.add(new RoleImpl(role));
+        when(user.getIdentifier()).thenReturn(identifier);
+        when(user.getRoles()).thenReturn(roles);
+        when(user.getGroups()).thenReturn(null);
+        return user;
+    }
+}
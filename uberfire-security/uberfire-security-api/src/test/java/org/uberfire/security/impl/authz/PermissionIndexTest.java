@@ -0,0 +1,63 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.uberfire.security.impl.authz;
+
+import org.junit.Test;
+import org.uberfire.security.authz.Permission;
+import org.uberfire.security.authz.PermissionCollection;
+
+import static org.junit.Assert.*;
+
+public class PermissionIndexTest {
+
+    @Test
+    public void testSameAsCollection() {
+        PermissionCollection collection = new DefaultPermissionCollection()
+                .add(new DotNamedPermission("perspective.read",
+                                            true))
+                .add(new DotNamedPermission("perspective.read.p1",
+                                            false))
+                .add(new DotNamedPermission("project.update.p1.m1",
+                                            true))
+                .add(new DotNamedPermission("editor",
+                                            false));
+        PermissionIndex index = new PermissionIndex(collection);
+
+        String[] names = {"perspective", "perspective.read", "perspective.read.p1", "perspective.read.p2",
+                "perspective.read.p1.x", "project.update.p1", "project.update.p1.m1", "project.update.p1.m1.x",
+                "editor", "editor.read", "editor.read.e1", "other", ""};
+        for (String name : names) {
+            assertEquals(name,
+                         collection.get(name),
+                         index.get(name));
+            for (Boolean granted : new Boolean[]{true, false, null}) {
+                Permission permission = new DotNamedPermission(name,
+                                                               granted);
+                assertEquals(permission.toString(),
+                             collection.implies(permission),
+                             index.implies(permission));
+            }
+        }
+    }
+
+    @Test
+    public void testNullCollection() {
+        PermissionIndex index = new PermissionIndex(null);
+        assertNull(index.get("perspective.read"));
+        assertFalse(index.implies(new DotNamedPermission("perspective.read",
+                                                         true)));
+    }
+}
@@ -374,6 +374,28 @@ public class PermissionManagerTest {
                      0);
     }
 
+    @Test
+    public void testPermissionIndexShared() {
+        User user1 = createUserMock("viewAll",
+                                    "noView1");
+        User user2 = createUserMock("noView1",
+                                    "viewAll");
+        assertEquals(permissionManager.checkPermission(view1,
+                                                       user1),
+                     permissionManager.checkPermission(view1,
+                                                       user2));
+        verify(permissionManager,
+               times(1)).resolvePermissions(any(User.class),
+                                            eq(VotingStrategy.PRIORITY));
+
+        permissionManager.setAuthorizationPolicy(authorizationPolicy);
+        permissionManager.checkPermission(view1,
+                                          user2);
+        verify(permissionManager,
+               times(2)).resolvePermissions(any(User.class),
+                                            eq(VotingStrategy.PRIORITY));
+    }
+
     @Test
     public void testDefaultVotingStrategy() {
         User user = createUserMock("role1");
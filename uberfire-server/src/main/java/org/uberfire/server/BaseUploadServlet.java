@@ -16,26 +16,54 @@
 
 package org.uberfire.server;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.fileupload.FileItem;
 import org.apache.commons.fileupload.FileItemFactory;
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
 import org.apache.commons.fileupload.FileUploadException;
 import org.apache.commons.fileupload.disk.DiskFileItemFactory;
 import org.apache.commons.fileupload.servlet.ServletFileUpload;
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.uberfire.io.IOService;
 import org.uberfire.java.nio.file.Path;
 
+/**
+ * Base class of the servlets that store an uploaded file.
+ * <p>
+ * Upload size is limited by <code>org.uberfire.server.upload.max.file.size</code> and
+ * <code>org.uberfire.server.upload.max.request.size</code> (bytes, unlimited by default), and the number of
+ * uploads processed at the same time by <code>org.uberfire.server.upload.max.concurrent</code>. An upload that
+ * can't get a slot is rejected right away with 503 rather than holding a request thread; set
+ * <code>org.uberfire.server.upload.wait</code> (milliseconds) to let it wait for one instead.
+ */
 public abstract class BaseUploadServlet extends BaseFilteredServlet {
 
     private static final Logger logger = LoggerFactory.getLogger(BaseUploadServlet.class);
 
+    private static final int BUFFER_SIZE = 8192;
+    private static final long MAX_FILE_SIZE = Long.getLong("org.uberfire.server.upload.max.file.size",
+                                                           -1L);
+    private static final long MAX_REQUEST_SIZE = Long.getLong("org.uberfire.server.upload.max.request.size",
+                                                              -1L);
+    private static final long UPLOAD_WAIT = Long.getLong("org.uberfire.server.upload.wait",
+                                                         0L);
+    private static final Semaphore UPLOADS = new Semaphore(Integer.getInteger("org.uberfire.server.upload.max.concurrent",
+                                                                              10),
+                                                           true);
+
     protected FileItem getFileItem(HttpServletRequest request) throws FileUploadException {
         final Iterator iterator = getServletFileUpload().parseRequest(request).iterator();
         while (iterator.hasNext()) {
@@ -47,6 +75,21 @@ public abstract class BaseUploadServlet extends BaseFilteredServlet {
         return null;
     }
 
+    /**
+     * Returns the first file of a multipart request without parsing the request up front; the content must be
+     * consumed before reading anything else from the request.
+     */
+    protected FileItemStream getFileItemStream(HttpServletRequest request) throws FileUploadException, IOException {
+        final FileItemIterator iterator = getServletFileUpload().getItemIterator(request);
+        while (iterator.hasNext()) {
+            final FileItemStream item = iterator.next();
+            if (!item.isFormField()) {
+                return item;
+            }
+        }
+        return null;
+    }
+
     protected void writeResponse(HttpServletResponse response,
                                  String ok) throws IOException {
         response.setContentType("text/html");
@@ -58,6 +101,8 @@ public abstract class BaseUploadServlet extends BaseFilteredServlet {
         FileItemFactory factory = new DiskFileItemFactory();
         ServletFileUpload upload = new ServletFileUpload(factory);
         upload.setHeaderEncoding("UTF-8");
+        upload.setFileSizeMax(MAX_FILE_SIZE);
+        upload.setSizeMax(MAX_REQUEST_SIZE);
         return upload;
     }
 
@@ -68,10 +113,100 @@ public abstract class BaseUploadServlet extends BaseFilteredServlet {
             ioService.createFile(path);
         }
 
-        ioService.write(path,
-                        IOUtils.toByteArray(uploadedItem.getInputStream()));
+        final InputStream in = uploadedItem.getInputStream();
+        try {
+            write(ioService,
+                  path,
+                  in);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Stores an uploaded file with bounded buffers.
+     * <p>
+     * The content is spooled to a temporary file before it reaches the file system: closing a file system
+     * output stream commits it, so an aborted or oversized upload must fail before anything is written.
+     */
+    protected void writeFile(final IOService ioService,
+                             final Path path,
+                             final FileItemStream uploadedItem) throws IOException {
+        final File spool = File.createTempFile("upload",
+                                               ".tmp");
+        try {
+            final InputStream in = uploadedItem.openStream();
+            try {
+                final OutputStream out = new FileOutputStream(spool);
+                try {
+                    copy(in,
+                         out);
+                } finally {
+                    out.close();
+                }
+            } finally {
+                in.close();
+            }
+
+            if (!ioService.exists(path)) {
+                ioService.createFile(path);
+            }
+
+            final InputStream content = new FileInputStream(spool);
+            try {
+                write(ioService,
+                      path,
+                      content);
+            } finally {
+                content.close();
+            }
+        } finally {
+            if (!spool.delete()) {
+                spool.deleteOnExit();
+            }
+        }
+    }
+
+    private void write(final IOService ioService,
+                       final Path path,
+                       final InputStream in) throws IOException {
+        final OutputStream out = ioService.newOutputStream(path);
+        try {
+            copy(in,
+                 out);
+        } finally {
+            out.close();
+        }
+    }
+
+    private void copy(final InputStream in,
+                      final OutputStream out) throws IOException {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer,
+                      0,
+                      read);
+        }
+    }
+
+    /**
+     * Takes an upload slot, waiting for one at most the configured time; every successful call must be followed
+     * by {@link #releaseUpload()}. Call it once the request is known to be allowed.
+     * @return false if no slot is free.
+     */
+    protected boolean acquireUpload() {
+        try {
+            return UPLOADS.tryAcquire(UPLOAD_WAIT,
+                                      TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
 
-        uploadedItem.getInputStream().close();
+    protected void releaseUpload() {
+        UPLOADS.release();
     }
 
     protected void logError(Throwable e) {
@@ -17,6 +17,8 @@
 package org.uberfire.server;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -28,15 +30,26 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.uberfire.io.IOService;
 import org.uberfire.java.nio.file.Path;
+import org.uberfire.java.nio.file.attribute.BasicFileAttributeView;
+import org.uberfire.java.nio.file.attribute.BasicFileAttributes;
 import org.uberfire.server.util.FileServletUtil;
 
 import static java.lang.String.format;
 
+/**
+ * Streams a file to the client.
+ * <p>
+ * The ETag is derived from the file key (the blob id on git backed file systems), so conditional requests
+ * (<code>If-None-Match</code>, <code>If-Modified-Since</code>) can be answered with 304 without reading any
+ * content. A single byte range (<code>Range: bytes=start-end</code>) is served as a partial response.
+ */
 public class FileDownloadServlet
         extends BaseFilteredServlet {
 
     private static final Logger logger = LoggerFactory.getLogger(FileDownloadServlet.class);
 
+    private static final int BUFFER_SIZE = 8192;
+
     @Inject
     @Named("ioStrategy")
     private IOService ioService;
@@ -59,21 +72,198 @@ public class FileDownloadServlet
 
             final Path path = ioService.get(uri);
 
-            byte[] bytes = ioService.readAllBytes(path);
+            final BasicFileAttributes attrs = ioService.getFileAttributeView(path,
+                                                                             BasicFileAttributeView.class).readAttributes();
+            final long size = attrs.size();
+            final long lastModified = attrs.lastModifiedTime() == null ? -1 : attrs.lastModifiedTime().toMillis();
+            final String eTag = eTag(path,
+                                     attrs,
+                                     lastModified);
+
+            if (eTag != null) {
+                response.setHeader("ETag",
+                                   eTag);
+            }
+            if (lastModified >= 0) {
+                response.setDateHeader("Last-Modified",
+                                       lastModified);
+            }
+
+            if (isNotModified(request,
+                              eTag,
+                              lastModified)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
 
             response.setHeader("Content-Disposition",
                                format("attachment; filename=\"%s\";",
                                       path.getFileName().toString()));
 
             response.setContentType("application/octet-stream");
+            response.setHeader("Accept-Ranges",
+                               "bytes");
+
+            long start = 0;
+            long length = size;
+            final String range = isRangeApplicable(request,
+                                                   eTag) ? request.getHeader("Range") : null;
+            if (range != null) {
+                final long[] bounds = parseRange(range,
+                                                 size);
+                if (bounds == null) {
+                    response.setHeader("Content-Range",
+                                       "bytes */" + size);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                if (bounds.length == 2) {
+                    start = bounds[0];
+                    length = bounds[1] - bounds[0] + 1;
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader("Content-Range",
+                                       "bytes " + bounds[0] + "-" + bounds[1] + "/" + size);
+                }
+            }
+
+            response.setContentLengthLong(length);
 
-            response.getOutputStream().write(
-                    bytes,
-                    0,
-                    bytes.length);
+            final InputStream in = ioService.newInputStream(path);
+            try {
+                copy(in,
+                     response.getOutputStream(),
+                     start,
+                     length);
+            } finally {
+                in.close();
+            }
         } catch (final Exception e) {
             logger.error("Failed to download a file.",
                          e);
         }
     }
+
+    /**
+     * Only git file keys (blob ids) change with the content; elsewhere the tag is built from the size and the
+     * modification time.
+     * @return the entity tag of the file, or null if it has none.
+     */
+    static String eTag(final Path path,
+                       final BasicFileAttributes attrs,
+                       final long lastModified) {
+        if (attrs.fileKey() != null && isGit(path)) {
+            return "\"" + attrs.fileKey() + "\"";
+        }
+        if (lastModified >= 0) {
+            return "\"" + Long.toHexString(attrs.size()) + "-" + Long.toHexString(lastModified) + "\"";
+        }
+        return null;
+    }
+
+    private static boolean isGit(final Path path) {
+        return path.getFileSystem() != null && path.getFileSystem().provider() != null &&
+                "git".equals(path.getFileSystem().provider().getScheme());
+    }
+
+    private boolean isNotModified(final HttpServletRequest request,
+                                  final String eTag,
+                                  final long lastModified) {
+        final String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            return eTag != null && matches(ifNoneMatch,
+                                           eTag);
+        }
+        final long ifModifiedSince = request.getDateHeader("If-Modified-Since");
+        return ifModifiedSince >= 0 && lastModified >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * A range is ignored if <code>If-Range</code> doesn't match the current version of the file.
+     */
+    private boolean isRangeApplicable(final HttpServletRequest request,
+                                      final String eTag) {
+        final String ifRange = request.getHeader("If-Range");
+        return ifRange == null || (eTag != null && eTag.equals(ifRange.trim()));
+    }
+
+    private boolean matches(final String header,
+                            final String eTag) {
+        for (final String candidate : header.split(",")) {
+            final String value = candidate.trim();
+            if (value.equals("*") || value.equals(eTag) || value.equals("W/" + eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the first and last byte of the range, an empty array if the whole file should be sent
+     * (malformed or multiple ranges), or null if the range can't be satisfied.
+     */
+    static long[] parseRange(final String range,
+                             final long size) {
+        if (!range.startsWith("bytes=") || range.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        final String spec = range.substring("bytes=".length()).trim();
+        final int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            final long first;
+            final long last;
+            if (dash == 0) {
+                final long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0) {
+                    return null;
+                }
+                first = Math.max(0,
+                                 size - suffix);
+                last = size - 1;
+            } else {
+                first = Long.parseLong(spec.substring(0,
+                                                      dash));
+                last = dash == spec.length() - 1 ? size - 1 : Math.min(size - 1,
+                                                                       Long.parseLong(spec.substring(dash + 1)));
+            }
+            if (first < 0 || first >= size || last < first) {
+                return null;
+            }
+            return new long[]{first, last};
+        } catch (final NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private void copy(final InputStream in,
+                      final OutputStream out,
+                      final long start,
+                      final long length) throws IOException {
+        long skip = start;
+        while (skip > 0) {
+            final long skipped = in.skip(skip);
+            if (skipped <= 0) {
+                return;
+            }
+            skip -= skipped;
+        }
+
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        long remaining = length;
+        while (remaining > 0) {
+            final int read = in.read(buffer,
+                                     0,
+                                     (int) Math.min(buffer.length,
+                                                    remaining));
+            if (read == -1) {
+                break;
+            }
+            out.write(buffer,
+                      0,
+                      read);
+            remaining -= read;
+        }
+    }
 }
@@ -25,8 +25,10 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.apache.commons.fileupload.FileItem;
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUploadBase.FileUploadIOException;
 import org.apache.commons.fileupload.FileUploadException;
+import org.apache.commons.fileupload.MultipartStream.MalformedStreamException;
 import org.uberfire.io.IOService;
 import org.uberfire.java.nio.file.Path;
 import org.uberfire.server.util.FileServletUtil;
@@ -56,10 +58,8 @@ public class FileUploadServlet
                 final String encodedPath = FileServletUtil.encodeFileNamePart(request.getParameter(PARAM_PATH));
                 final URI uri = new URI(encodedPath);
 
-                final FileItem fileItem = getFileItem(request);
-
-                finalizeResponse(response,
-                                 fileItem,
+                finalizeResponse(request,
+                                 response,
                                  uri);
             } else if (request.getParameter(PARAM_FOLDER) != null) {
 
@@ -67,16 +67,22 @@ public class FileUploadServlet
                 final String encodedFileName = FileServletUtil.encodeFileName(request.getParameter(PARAM_FILENAME));
                 final URI uri = new URI(request.getParameter(PARAM_FOLDER) + "/" + encodedFileName);
 
-                final FileItem fileItem = getFileItem(request);
-
-                finalizeResponse(response,
-                                 fileItem,
+                finalizeResponse(request,
+                                 response,
                                  uri);
             }
         } catch (FileUploadException e) {
             logError(e);
             writeResponse(response,
                           RESPONSE_FAIL);
+        } catch (FileUploadIOException e) {
+            logError(e.getCause());
+            writeResponse(response,
+                          RESPONSE_FAIL);
+        } catch (MalformedStreamException e) {
+            logError(e);
+            writeResponse(response,
+                          RESPONSE_FAIL);
         } catch (URISyntaxException e) {
             logError(e);
             writeResponse(response,
@@ -84,22 +90,38 @@ public class FileUploadServlet
         }
     }
 
-    private void finalizeResponse(HttpServletResponse response,
-                                  FileItem fileItem,
-                                  URI uri) throws IOException {
+    private void finalizeResponse(HttpServletRequest request,
+                                  HttpServletResponse response,
+                                  URI uri) throws IOException, FileUploadException {
         if (!validateAccess(uri,
                             response)) {
             return;
         }
 
-        final Path path = ioService.get(uri);
+        if (!acquireUpload()) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+
+        try {
+            final Path path = ioService.get(uri);
 
-        writeFile(ioService,
-                  path,
-                  fileItem);
+            final FileItemStream fileItem = getFileItemStream(request);
+            if (fileItem == null) {
+                writeResponse(response,
+                              RESPONSE_FAIL);
+                return;
+            }
 
-        writeResponse(response,
-                      RESPONSE_OK);
+            writeFile(ioService,
+                      path,
+                      fileItem);
+
+            writeResponse(response,
+                          RESPONSE_OK);
+        } finally {
+            releaseUpload();
+        }
     }
 
     private String getExtension(final String originalFileName) {
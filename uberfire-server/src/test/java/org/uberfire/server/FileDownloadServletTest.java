@@ -16,8 +16,11 @@
 
 package org.uberfire.server;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.net.URI;
 import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -27,10 +30,18 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.uberfire.io.IOService;
+import org.uberfire.java.nio.file.FileSystem;
 import org.uberfire.java.nio.file.Path;
+import org.uberfire.java.nio.file.attribute.BasicFileAttributeView;
+import org.uberfire.java.nio.file.attribute.BasicFileAttributes;
+import org.uberfire.java.nio.file.spi.FileSystemProvider;
 import org.uberfire.server.util.FileServletUtil;
 
 import static java.lang.String.format;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -39,14 +50,13 @@ public class FileDownloadServletTest {
 
     private static final String PARAM_PATH = "path";
 
+    private static final String BLOB_ID = "0123456789abcdef0123456789abcdef01234567";
+
     private static final String TEST_ROOT_PATH = "default://master@test-repository/test-project/src/main/resources/test";
 
     @Mock
     private IOService ioService;
 
-    @Mock
-    private ServletOutputStream servletOutputStream;
-
     @InjectMocks
     private FileDownloadServlet downloadServlet;
 
@@ -84,36 +94,131 @@ public class FileDownloadServletTest {
                          fileContent);
     }
 
+    @Test
+    public void downloadNotModified() throws Exception {
+        final HttpServletRequest request = mockRequest(TEST_ROOT_PATH + "/file.txt");
+        final HttpServletResponse response = mock(HttpServletResponse.class);
+        mockPath(TEST_ROOT_PATH + "/file.txt",
+                 "file.txt",
+                 "content");
+        when(request.getHeader("If-None-Match")).thenReturn("\"other\", \"" + BLOB_ID + "\"");
+
+        downloadServlet.doGet(request,
+                              response);
+
+        verify(response).setHeader("ETag",
+                                   "\"" + BLOB_ID + "\"");
+        verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(response,
+               never()).getOutputStream();
+        verify(ioService,
+               never()).newInputStream(any(Path.class));
+    }
+
+    @Test
+    public void downloadRange() throws Exception {
+        final HttpServletRequest request = mockRequest(TEST_ROOT_PATH + "/file.txt");
+        final HttpServletResponse response = mock(HttpServletResponse.class);
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        when(response.getOutputStream()).thenReturn(new CapturingOutputStream(content));
+        mockPath(TEST_ROOT_PATH + "/file.txt",
+                 "file.txt",
+                 "0123456789");
+        when(request.getHeader("Range")).thenReturn("bytes=2-5");
+
+        downloadServlet.doGet(request,
+                              response);
+
+        verify(response).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        verify(response).setHeader("Content-Range",
+                                   "bytes 2-5/10");
+        verify(response).setContentLengthLong(4);
+        assertEquals("2345",
+                     content.toString());
+    }
+
+    @Test
+    public void downloadUnsatisfiableRange() throws Exception {
+        final HttpServletRequest request = mockRequest(TEST_ROOT_PATH + "/file.txt");
+        final HttpServletResponse response = mock(HttpServletResponse.class);
+        mockPath(TEST_ROOT_PATH + "/file.txt",
+                 "file.txt",
+                 "0123456789");
+        when(request.getHeader("Range")).thenReturn("bytes=20-");
+
+        downloadServlet.doGet(request,
+                              response);
+
+        verify(response).setHeader("Content-Range",
+                                   "bytes */10");
+        verify(response).sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        verify(ioService,
+               never()).newInputStream(any(Path.class));
+    }
+
+    @Test
+    public void testETagOfNonGitFiles() {
+        final BasicFileAttributes attrs = mock(BasicFileAttributes.class);
+        when(attrs.size()).thenReturn(10L);
+        when(attrs.fileKey()).thenReturn("/tmp/file.txt");
+
+        assertEquals("\"" + BLOB_ID + "\"",
+                     FileDownloadServlet.eTag(mockPath("git"),
+                                              blob(),
+                                              1000));
+        assertEquals("\"a-3e8\"",
+                     FileDownloadServlet.eTag(mockPath("file"),
+                                              attrs,
+                                              1000));
+        assertEquals("\"a-7d0\"",
+                     FileDownloadServlet.eTag(mockPath("file"),
+                                              attrs,
+                                              2000));
+        assertNull(FileDownloadServlet.eTag(mockPath("file"),
+                                            attrs,
+                                            -1));
+    }
+
+    @Test
+    public void testParseRange() {
+        assertArrayEquals(new long[]{0, 9},
+                          FileDownloadServlet.parseRange("bytes=0-",
+                                                         10));
+        assertArrayEquals(new long[]{7, 9},
+                          FileDownloadServlet.parseRange("bytes=-3",
+                                                         10));
+        assertArrayEquals(new long[]{5, 9},
+                          FileDownloadServlet.parseRange("bytes=5-100",
+                                                         10));
+        assertArrayEquals(new long[0],
+                          FileDownloadServlet.parseRange("bytes=0-1,3-4",
+                                                         10));
+        assertNull(FileDownloadServlet.parseRange("bytes=10-",
+                                                  10));
+    }
+
     private void doDownloadByPath(String sourceFolder,
                                   String sourceFileName,
                                   String fileContent) throws Exception {
 
-        HttpServletRequest request = mock(HttpServletRequest.class);
-        HttpServletResponse response = mock(HttpServletResponse.class);
-
         String sourcePath = sourceFolder + "/" + sourceFileName;
 
         //mock the servlet parameters
-        when(request.getParameter(PARAM_PATH)).thenReturn(sourcePath);
+        HttpServletRequest request = mockRequest(sourcePath);
+        HttpServletResponse response = mock(HttpServletResponse.class);
 
         //mock the servlet output stream
-        when(response.getOutputStream()).thenReturn(servletOutputStream);
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        when(response.getOutputStream()).thenReturn(new CapturingOutputStream(content));
 
-        //mock the path to be generated by the ioService
-        Path path = mock(Path.class);
-        Path pathFileName = mock(Path.class);
-        when(path.getFileName()).thenReturn(pathFileName);
-        when(pathFileName.toString()).thenReturn(sourceFileName);
+        //mock the path to be generated by the ioService and its content
+        Path path = mockPath(sourcePath,
+                             sourceFileName,
+                             fileContent);
 
         //Expected URI
         URI expectedURI = new URI(FileServletUtil.encodeFileNamePart(sourcePath));
 
-        //mock the path generation
-        when(ioService.get(expectedURI)).thenReturn(path);
-
-        //mock the returned content
-        when(ioService.readAllBytes(path)).thenReturn(fileContent.getBytes());
-
         downloadServlet.doGet(request,
                               response);
 
@@ -123,17 +228,92 @@ public class FileDownloadServletTest {
                                           sourceFileName));
         verify(response,
                times(1)).setContentType(eq("application/octet-stream"));
+        verify(response,
+               times(1)).setHeader("ETag",
+                                   "\"" + BLOB_ID + "\"");
+        verify(response,
+               times(1)).setContentLengthLong(fileContent.getBytes().length);
+        verify(response,
+               never()).setStatus(anyInt());
         verify(response,
                times(1)).getOutputStream();
 
-        verify(servletOutputStream,
-               times(1)).write(fileContent.getBytes(),
-                               0,
-                               fileContent.getBytes().length);
+        assertEquals(fileContent,
+                     content.toString());
 
         verify(ioService,
                times(1)).get(eq(expectedURI));
         verify(ioService,
-               times(1)).readAllBytes(eq(path));
+               times(1)).newInputStream(eq(path));
+        verify(ioService,
+               never()).readAllBytes(any(Path.class));
+    }
+
+    private HttpServletRequest mockRequest(final String sourcePath) {
+        final HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getParameter(PARAM_PATH)).thenReturn(sourcePath);
+        when(request.getDateHeader(anyString())).thenReturn(-1L);
+        return request;
+    }
+
+    private Path mockPath(final String scheme) {
+        final Path path = mock(Path.class);
+        final FileSystem fileSystem = mock(FileSystem.class);
+        final FileSystemProvider provider = mock(FileSystemProvider.class);
+        when(path.getFileSystem()).thenReturn(fileSystem);
+        when(fileSystem.provider()).thenReturn(provider);
+        when(provider.getScheme()).thenReturn(scheme);
+        return path;
+    }
+
+    private BasicFileAttributes blob() {
+        final BasicFileAttributes attrs = mock(BasicFileAttributes.class);
+        when(attrs.fileKey()).thenReturn(BLOB_ID);
+        return attrs;
+    }
+
+    private Path mockPath(final String sourcePath,
+                          final String sourceFileName,
+                          final String fileContent) throws Exception {
+        Path path = mockPath("git");
+        Path pathFileName = mock(Path.class);
+        when(path.getFileName()).thenReturn(pathFileName);
+        when(pathFileName.toString()).thenReturn(sourceFileName);
+
+        when(ioService.get(new URI(FileServletUtil.encodeFileNamePart(sourcePath)))).thenReturn(path);
+
+        final BasicFileAttributeView view = mock(BasicFileAttributeView.class);
+        final BasicFileAttributes attrs = mock(BasicFileAttributes.class);
+        when(ioService.getFileAttributeView(path,
+                                            BasicFileAttributeView.class)).thenReturn(view);
+        when(view.readAttributes()).thenReturn(attrs);
+        when(attrs.size()).thenReturn((long) fileContent.getBytes().length);
+        when(attrs.fileKey()).thenReturn(BLOB_ID);
+
+        when(ioService.newInputStream(path)).thenReturn(new ByteArrayInputStream(fileContent.getBytes()));
+        return path;
+    }
+
+    private static class CapturingOutputStream extends ServletOutputStream {
+
+        private final ByteArrayOutputStream content;
+
+        private CapturingOutputStream(final ByteArrayOutputStream content) {
+            this.content = content;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(final WriteListener writeListener) {
+        }
+
+        @Override
+        public void write(final int b) {
+            content.write(b);
+        }
     }
 }
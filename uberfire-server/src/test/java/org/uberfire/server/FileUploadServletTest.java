@@ -171,6 +171,10 @@ public class FileUploadServletTest {
         PrintWriter printWriter = new PrintWriter(outputStream);
         when(response.getWriter()).thenReturn(printWriter);
 
+        //mock the file system output stream
+        ByteArrayOutputStream uploadedContent = new ByteArrayOutputStream();
+        when(ioService.newOutputStream(any(Path.class))).thenReturn(uploadedContent);
+
         //FileUploadServlet uploadServlet = new FileUploadServlet();
         uploadServlet.doPost(request,
                              response);
@@ -190,8 +194,9 @@ public class FileUploadServletTest {
         verify(ioService,
                times(1)).exists(any(Path.class));
         verify(ioService,
-               times(1)).write(any(Path.class),
-                               eq(fileContent.getBytes()));
+               times(1)).newOutputStream(any(Path.class));
+        assertEquals(fileContent,
+                     new String(uploadedContent.toByteArray()));
 
         printWriter.flush();
         assertEquals("OK",
@@ -225,6 +230,10 @@ public class FileUploadServletTest {
         PrintWriter printWriter = new PrintWriter(outputStream);
         when(response.getWriter()).thenReturn(printWriter);
 
+        //mock the file system output stream
+        ByteArrayOutputStream uploadedContent = new ByteArrayOutputStream();
+        when(ioService.newOutputStream(any(Path.class))).thenReturn(uploadedContent);
+
         uploadServlet.doPost(request,
                              response);
 
@@ -239,14 +248,82 @@ public class FileUploadServletTest {
         verify(ioService,
                times(1)).exists(any(Path.class));
         verify(ioService,
-               times(1)).write(any(Path.class),
-                               eq(fileContent.getBytes()));
+               times(1)).newOutputStream(any(Path.class));
+        assertEquals(fileContent,
+                     new String(uploadedContent.toByteArray()));
 
         printWriter.flush();
         assertEquals("OK",
                      new String(outputStream.toByteArray()));
     }
 
+    /**
+     * Tests that an upload interrupted before the end of the multipart content doesn't write anything.
+     * @throws Exception
+     */
+    @Test
+    public void uploadTruncated() throws Exception {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+
+        when(request.getParameter(PARAM_PATH)).thenReturn(TEST_ROOT_PATH + "/file.txt");
+
+        String requestContent = mockMultipartRequestContent("local_file_name.txt",
+                                                            "the local file content");
+        byte[] truncated = requestContent.substring(0,
+                                                    requestContent.indexOf("file content")).getBytes();
+        when(request.getContentType()).thenReturn(CONTENT_TYPE);
+        when(request.getInputStream()).thenReturn(new MockServletInputStream(new ByteArrayInputStream(truncated)));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PrintWriter printWriter = new PrintWriter(outputStream);
+        when(response.getWriter()).thenReturn(printWriter);
+
+        uploadServlet.doPost(request,
+                             response);
+
+        verify(ioService,
+               never()).newOutputStream(any(Path.class));
+        verify(ioService,
+               never()).createFile(any(Path.class));
+
+        printWriter.flush();
+        assertEquals("FAIL",
+                     new String(outputStream.toByteArray()));
+    }
+
+    /**
+     * Tests that an upload is rejected right away when every upload slot is taken.
+     * @throws Exception
+     */
+    @Test
+    public void uploadRejectedWhenSaturated() throws Exception {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+
+        when(request.getParameter(PARAM_PATH)).thenReturn(TEST_ROOT_PATH + "/file.txt");
+
+        int taken = 0;
+        try {
+            while (uploadServlet.acquireUpload()) {
+                taken++;
+            }
+
+            uploadServlet.doPost(request,
+                                 response);
+        } finally {
+            for (int i = 0; i < taken; i++) {
+                uploadServlet.releaseUpload();
+            }
+        }
+
+        verify(response).sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        verify(request,
+               never()).getInputStream();
+        verify(ioService,
+               never()).newOutputStream(any(Path.class));
+    }
+
     private String mockMultipartRequestContent(String localFileName,
                                                String fileContent) {
         String content = BOUNDARY_DELIMITER + BOUNDARY + BREAK +
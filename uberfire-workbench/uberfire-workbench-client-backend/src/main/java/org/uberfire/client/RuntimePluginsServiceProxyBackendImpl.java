@@ -17,16 +17,28 @@
 package org.uberfire.client;
 
 import java.util.Collection;
+import java.util.Collections;
 import javax.enterprise.context.Dependent;
 import javax.enterprise.inject.Alternative;
 import javax.inject.Inject;
 
+import com.google.gwt.http.client.Request;
+import com.google.gwt.http.client.RequestBuilder;
+import com.google.gwt.http.client.RequestCallback;
+import com.google.gwt.http.client.RequestException;
+import com.google.gwt.http.client.Response;
 import org.jboss.errai.common.client.api.Caller;
 import org.jboss.errai.common.client.api.RemoteCallback;
+import org.slf4j.Logger;
 import org.uberfire.backend.plugin.RuntimePluginService;
 import org.uberfire.client.plugin.RuntimePluginsServiceProxy;
 import org.uberfire.mvp.ParameterizedCommand;
 
+/**
+ * Gets the runtime plugins and frameworks from the backend. Each set of scripts is fetched as a single versioned
+ * bundle from <tt>runtime-plugins/{frameworks,plugins}.js</tt>, which the browser can cache, falling back to RPC
+ * when the application doesn't map the bundle servlet.
+ */
 @Dependent
 @Alternative
 public class RuntimePluginsServiceProxyBackendImpl implements RuntimePluginsServiceProxy {
@@ -34,6 +46,9 @@ public class RuntimePluginsServiceProxyBackendImpl implements RuntimePluginsServ
     @Inject
     private Caller<RuntimePluginService> runtimePluginsService;
 
+    @Inject
+    private Logger logger;
+
     @Override
     public void getTemplateContent(final String contentUrl,
                                    final ParameterizedCommand<String> command) {
@@ -47,21 +62,75 @@ public class RuntimePluginsServiceProxyBackendImpl implements RuntimePluginsServ
 
     @Override
     public void listFrameworksContent(final ParameterizedCommand<Collection<String>> command) {
-        runtimePluginsService.call(new RemoteCallback<Collection<String>>() {
-            @Override
-            public void callback(Collection<String> o) {
-                command.execute(o);
-            }
-        }).listFrameworksContent();
+        fetchBundle("frameworks",
+                    command);
     }
 
     @Override
     public void listPluginsContent(final ParameterizedCommand<Collection<String>> command) {
-        runtimePluginsService.call(new RemoteCallback<Collection<String>>() {
+        fetchBundle("plugins",
+                    command);
+    }
+
+    private void fetchBundle(final String bundle,
+                             final ParameterizedCommand<Collection<String>> command) {
+        runtimePluginsService.call(new RemoteCallback<String>() {
+            @Override
+            public void callback(final String version) {
+                if (version == null) {
+                    command.execute(Collections.<String>emptyList());
+                    return;
+                }
+                final String url = "runtime-plugins/" + bundle + ".js?v=" + version;
+                final RequestBuilder rb = new RequestBuilder(RequestBuilder.GET,
+                                                             url);
+                try {
+                    rb.sendRequest(null,
+                                   new RequestCallback() {
+
+                                       @Override
+                                       public void onResponseReceived(final Request request,
+                                                                      final Response response) {
+                                           if (response.getStatusCode() == Response.SC_OK) {
+                                               command.execute(Collections.singletonList(response.getText()));
+                                           } else {
+                                               logger.warn("Got status " + response.getStatusCode() + " for " + url + ". Falling back to RPC.");
+                                               listContent(bundle,
+                                                           command);
+                                           }
+                                       }
+
+                                       @Override
+                                       public void onError(final Request request,
+                                                           final Throwable ex) {
+                                           logger.warn("Error in " + bundle + " bundle request. Falling back to RPC.",
+                                                       ex);
+                                           listContent(bundle,
+                                                       command);
+                                       }
+                                   });
+                } catch (RequestException ex) {
+                    logger.warn("Couldn't request " + url + ". Falling back to RPC.",
+                                ex);
+                    listContent(bundle,
+                                command);
+                }
+            }
+        }).getBundleVersion(bundle);
+    }
+
+    private void listContent(final String bundle,
+                             final ParameterizedCommand<Collection<String>> command) {
+        final RemoteCallback<Collection<String>> callback = new RemoteCallback<Collection<String>>() {
             @Override
             public void callback(Collection<String> o) {
                 command.execute(o);
             }
-        }).listPluginsContent();
+        };
+        if ("frameworks".equals(bundle)) {
+            runtimePluginsService.call(callback).listFrameworksContent();
+        } else {
+            runtimePluginsService.call(callback).listPluginsContent();
+        }
     }
 }